@@ -1,8 +1,12 @@
 package org.crud.bookmarks;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Table;
 
 import jakarta.validation.constraints.NotBlank;
@@ -35,6 +39,27 @@ public class Bookmark {
 
     private Long folderId;
 
+    @JsonIgnore
+    private Long urlHash;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String host;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String domain;
+
+    // Written only by VisitCounter, so saving a bookmark never overwrites newer counts
+    @ReadOnlyProperty
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long visitCount;
+
+    @ReadOnlyProperty
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private LocalDateTime lastVisitedAt;
+
+    @Version
+    private Long version;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -92,11 +117,67 @@ public class Bookmark {
         this.folderId = folderId;
     }
 
+    public Long getUrlHash() {
+        return urlHash;
+    }
+
+    public void setUrlHash(Long urlHash) {
+        this.urlHash = urlHash;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+
+    public void setDomain(String domain) {
+        this.domain = domain;
+    }
+
+    public long getVisitCount() {
+        return visitCount;
+    }
+
+    public void setVisitCount(long visitCount) {
+        this.visitCount = visitCount;
+    }
+
+    public LocalDateTime getLastVisitedAt() {
+        return lastVisitedAt;
+    }
+
+    public void setLastVisitedAt(LocalDateTime lastVisitedAt) {
+        this.lastVisitedAt = lastVisitedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
 
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package org.crud.bookmarks;
+
+import java.util.Locale;
+
+/**
+ * Restriction of a bookmark listing; at most one criterion is set, none lists all bookmarks.
+ *
+ * @param folderId only bookmarks directly in this folder
+ * @param host only bookmarks on this host, lower-cased
+ * @param domain only bookmarks on this registrable domain, lower-cased
+ * @param searchTerm only bookmarks whose title or description contains this text, ignoring case
+ */
+public record BookmarkFilter(Long folderId, String host, String domain, String searchTerm) {
+
+    private static final BookmarkFilter ALL = new BookmarkFilter(null, null, null, null);
+
+    public static BookmarkFilter all() {
+        return ALL;
+    }
+
+    public static BookmarkFilter folder(Long folderId) {
+        return new BookmarkFilter(folderId, null, null, null);
+    }
+
+    public static BookmarkFilter host(String host) {
+        return new BookmarkFilter(null, host.trim().toLowerCase(Locale.ROOT), null, null);
+    }
+
+    public static BookmarkFilter domain(String domain) {
+        return new BookmarkFilter(null, null, domain.trim().toLowerCase(Locale.ROOT), null);
+    }
+
+    public static BookmarkFilter search(String searchTerm) {
+        return new BookmarkFilter(null, null, null, searchTerm);
+    }
+}
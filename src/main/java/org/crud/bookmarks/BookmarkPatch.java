@@ -0,0 +1,106 @@
+package org.crud.bookmarks;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Partial update of a bookmark.
+ * Only the properties present in the request are applied; the setters record which
+ * properties were sent so that an explicit {@code null} can be told apart from an absent one.
+ * The version the client last saw is required for optimistic locking.
+ */
+public class BookmarkPatch {
+
+    @Size(max = 255, message = "Title must not exceed 255 characters")
+    private String title;
+
+    @Size(max = 500, message = "Description must not exceed 500 characters")
+    private String description;
+
+    @Size(max = 2048, message = "URL must not exceed 2048 characters")
+    @Pattern(regexp = "^(https?|ftp)://[^\\s/$.?#].[^\\s]*$", message = "Invalid URL format")
+    private String url;
+
+    private Long folderId;
+
+    @NotNull(message = "Version is required")
+    private Long version;
+
+    private boolean titleSet;
+    private boolean descriptionSet;
+    private boolean urlSet;
+    private boolean folderIdSet;
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        this.titleSet = true;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+        this.descriptionSet = true;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+        this.urlSet = true;
+    }
+
+    public Long getFolderId() {
+        return folderId;
+    }
+
+    public void setFolderId(Long folderId) {
+        this.folderId = folderId;
+        this.folderIdSet = true;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean hasTitle() {
+        return titleSet;
+    }
+
+    public boolean hasDescription() {
+        return descriptionSet;
+    }
+
+    public boolean hasUrl() {
+        return urlSet;
+    }
+
+    public boolean hasFolderId() {
+        return folderIdSet;
+    }
+
+    public boolean isEmpty() {
+        return !titleSet && !descriptionSet && !urlSet && !folderIdSet;
+    }
+
+    /**
+     * Drops the URL from this patch, e.g. when it matches the stored value.
+     */
+    public void clearUrl() {
+        this.url = null;
+        this.urlSet = false;
+    }
+}
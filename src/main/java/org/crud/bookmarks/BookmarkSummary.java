@@ -0,0 +1,13 @@
+package org.crud.bookmarks;
+
+/**
+ * Lightweight read-only view of a bookmark for list and search results that only need to
+ * show and link it.
+ *
+ * @param id the bookmark ID
+ * @param title the title
+ * @param url the URL
+ * @param folderId the folder containing the bookmark, or null
+ */
+public record BookmarkSummary(Long id, String title, String url, Long folderId) {
+}
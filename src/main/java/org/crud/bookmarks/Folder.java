@@ -1,8 +1,10 @@
 package org.crud.bookmarks;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -29,6 +31,11 @@ public class Folder {
     @Size(max = 500, message = "Description must not exceed 500 characters")
     private String description;
 
+    private Long parentId;
+
+    @Version
+    private Long version;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
@@ -38,6 +45,10 @@ public class Folder {
     @Transient
     private List<Bookmark> bookmarks = new ArrayList<>();
 
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long bookmarkCount;
+
     // Default constructor
     public Folder() {
     }
@@ -72,6 +83,14 @@ public class Folder {
         this.description = description;
     }
 
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
     public List<Bookmark> getBookmarks() {
         return bookmarks;
     }
@@ -93,11 +112,35 @@ public class Folder {
         }
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
 
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public LocalDateTime getUpdatedAt() {
         return updatedAt;
     }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getBookmarkCount() {
+        return bookmarkCount;
+    }
+
+    public void setBookmarkCount(Long bookmarkCount) {
+        this.bookmarkCount = bookmarkCount;
+    }
 }
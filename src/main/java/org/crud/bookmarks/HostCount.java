@@ -0,0 +1,14 @@
+package org.crud.bookmarks;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Number of bookmarks pointing to a registrable domain, as kept in the {@code host_stats} table.
+ *
+ * @param domain the registrable domain, such as {@code example.com}
+ * @param bookmarkCount the number of bookmarks whose URL is on the domain or one of its subdomains
+ */
+@Table("HOST_STATS")
+public record HostCount(@Id String domain, long bookmarkCount) {
+}
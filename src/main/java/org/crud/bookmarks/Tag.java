@@ -0,0 +1,75 @@
+package org.crud.bookmarks;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Table;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a tag. Unlike folders, any number of tags can be
+ * attached to a bookmark; the assignments live in the {@code bookmark_tags} table.
+ */
+@Table("TAGS")
+public class Tag {
+
+    @Id
+    private Long id;
+
+    @NotBlank(message = "Tag name is required")
+    @Size(max = 100, message = "Tag name must not exceed 100 characters")
+    private String name;
+
+    @CreatedDate
+    private LocalDateTime createdAt;
+
+    @Transient
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long bookmarkCount;
+
+    // Default constructor
+    public Tag() {
+    }
+
+    // Constructor with required fields
+    public Tag(String name) {
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getBookmarkCount() {
+        return bookmarkCount;
+    }
+
+    public void setBookmarkCount(Long bookmarkCount) {
+        this.bookmarkCount = bookmarkCount;
+    }
+}
@@ -0,0 +1,13 @@
+package org.crud.bookmarks.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jdbc.repository.config.EnableJdbcAuditing;
+
+/**
+ * Fills the {@code @CreatedDate} and {@code @LastModifiedDate} fields of saved entities.
+ * Without it the explicit null values would override the column defaults on insert.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableJdbcAuditing
+public class AuditingConfig {
+}
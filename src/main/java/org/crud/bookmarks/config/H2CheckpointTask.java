@@ -0,0 +1,37 @@
+package org.crud.bookmarks.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically issues an H2 {@code CHECKPOINT} in the persistent storage mode so the
+ * file store is flushed and the amount of work needed on the next open stays bounded.
+ */
+@Component
+@Profile("persistent")
+public class H2CheckpointTask {
+
+    private static final Logger logger = LoggerFactory.getLogger(H2CheckpointTask.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public H2CheckpointTask(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${bookmark.storage.checkpoint-interval:PT1M}",
+               initialDelayString = "${bookmark.storage.checkpoint-interval:PT1M}")
+    public void checkpoint() {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.execute("CHECKPOINT");
+            logger.debug("Checkpoint completed in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Checkpoint failed: {}", e.getMessage());
+        }
+    }
+}
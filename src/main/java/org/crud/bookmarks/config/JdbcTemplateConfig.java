@@ -0,0 +1,55 @@
+package org.crud.bookmarks.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * JDBC templates.
+ * <p>
+ * The shared template is configured from {@code spring.jdbc.template.*} like Spring Boot's own;
+ * its row cap and query timeout keep request handling bounded. It is declared here because Boot
+ * backs off as soon as another template exists. The {@link #BULK} template has neither limit and
+ * a larger fetch size, for the repositories that load, backfill and copy whole tables.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(JdbcProperties.class)
+public class JdbcTemplateConfig {
+
+    /**
+     * Qualifier of the unbounded bulk-load template.
+     */
+    public static final String BULK = "bulkJdbcTemplate";
+
+    private static final int BULK_FETCH_SIZE = 1000;
+
+    @Bean
+    @Primary
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, JdbcProperties properties) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        JdbcProperties.Template template = properties.getTemplate();
+        jdbcTemplate.setFetchSize(template.getFetchSize());
+        jdbcTemplate.setMaxRows(template.getMaxRows());
+        if (template.getQueryTimeout() != null) {
+            jdbcTemplate.setQueryTimeout((int) template.getQueryTimeout().getSeconds());
+        }
+        return jdbcTemplate;
+    }
+
+    @Bean
+    @Qualifier(BULK)
+    public JdbcTemplate bulkJdbcTemplate(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(BULK_FETCH_SIZE);
+        // Explicitly unlimited: H2 keeps a statement's timeout for the session, so a pooled
+        // connection would otherwise carry over the shared template's timeout
+        jdbcTemplate.setQueryTimeout(0);
+        return jdbcTemplate;
+    }
+}
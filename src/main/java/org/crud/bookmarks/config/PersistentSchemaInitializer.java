@@ -0,0 +1,62 @@
+package org.crud.bookmarks.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Schema initializer for file-backed stores.
+ * Records a checksum of {@code schema.sql} in the database and only re-applies the
+ * schema scripts when the checksum changes, so restarting against an existing store
+ * skips the DDL pass entirely.
+ */
+public class PersistentSchemaInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentSchemaInitializer.class);
+    private static final String SCHEMA_RESOURCE = "schema.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PersistentSchemaInitializer(DataSource dataSource, SqlInitializationProperties properties) {
+        super(dataSource, properties);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        long start = System.nanoTime();
+        String checksum = schemaChecksum();
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS schema_checksum (checksum VARCHAR(64) NOT NULL)");
+        List<String> stored = jdbcTemplate.queryForList("SELECT checksum FROM schema_checksum", String.class);
+        if (stored.size() == 1 && checksum.equals(stored.get(0))) {
+            logger.info("Opened existing store, schema unchanged (checked in {} ms)", (System.nanoTime() - start) / 1_000_000);
+            return false;
+        }
+
+        logger.info("Applying schema scripts to persistent store");
+        boolean initialized = super.initializeDatabase();
+        jdbcTemplate.update("DELETE FROM schema_checksum");
+        jdbcTemplate.update("INSERT INTO schema_checksum (checksum) VALUES (?)", checksum);
+        logger.info("Schema applied in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return initialized;
+    }
+
+    private String schemaChecksum() {
+        try (InputStream in = new ClassPathResource(SCHEMA_RESOURCE).getInputStream()) {
+            return DigestUtils.md5DigestAsHex(StreamUtils.copyToByteArray(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + SCHEMA_RESOURCE, e);
+        }
+    }
+}
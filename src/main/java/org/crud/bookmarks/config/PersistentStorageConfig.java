@@ -0,0 +1,29 @@
+package org.crud.bookmarks.config;
+
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration for the file-backed storage mode ({@code persistent} profile).
+ * Replaces the default script initializer so an existing store is opened without
+ * re-running the schema scripts, and enables the periodic checkpoint task.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("persistent")
+@EnableScheduling
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+public class PersistentStorageConfig {
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource, SqlInitializationProperties properties) {
+        return new PersistentSchemaInitializer(dataSource, properties);
+    }
+}
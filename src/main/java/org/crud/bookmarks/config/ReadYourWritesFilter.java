@@ -0,0 +1,67 @@
+package org.crud.bookmarks.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Binds a {@link ReplicationRoutingDataSource.Session} to each request, so a client's reads go to
+ * the primary for a while after its own writes and to the replica otherwise.
+ * <p>
+ * The time of the client's last write travels in the {@value #COOKIE} cookie, which lives as long
+ * as the staleness window, so any application instance can route the client's next requests. A
+ * write committed after the response was committed, e.g. while streaming it, can't set the cookie.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "bookmarks-last-write";
+
+    private final Duration maxStaleness;
+
+    public ReadYourWritesFilter(Duration maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReplicationRoutingDataSource.Session session = new ReplicationRoutingDataSource.Session(
+                lastWriteMillis(request), writtenAt -> {
+                    if (!response.isCommitted()) {
+                        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(writtenAt))
+                                .path("/").maxAge(maxStaleness).httpOnly(true).sameSite("Lax").build().toString());
+                    }
+                });
+        ReplicationRoutingDataSource.bindSession(session);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicationRoutingDataSource.clearSession();
+        }
+    }
+
+    private static long lastWriteMillis(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
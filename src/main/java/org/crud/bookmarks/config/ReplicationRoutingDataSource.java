@@ -0,0 +1,227 @@
+package org.crud.bookmarks.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Routing data source that sends read-only transactions to the replica pool
+ * and everything else to the primary.
+ * <p>
+ * To give clients read-your-writes behaviour, the reads of a client are pinned to the primary for
+ * a configurable window after its own last committed write. The client is the {@link Session}
+ * bound to the current thread, e.g. by {@link ReadYourWritesFilter} for a request. Only committed
+ * read-write transactions of a session whose statements changed rows count as writes; background
+ * work without a session neither records writes nor gets pinned.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Lookup keys of the target data sources.
+     */
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Session> CURRENT_SESSION = new ThreadLocal<>();
+
+    private final long maxStalenessMillis;
+
+    /**
+     * Creates a new routing data source.
+     *
+     * @param maxStaleness how long after a write of a session its reads keep going to the primary
+     */
+    public ReplicationRoutingDataSource(Duration maxStaleness) {
+        this.maxStalenessMillis = maxStaleness.toMillis();
+    }
+
+    /**
+     * The client the current thread works for, with the time of its last committed write.
+     */
+    public static class Session {
+
+        private final LongConsumer onWrite;
+        private volatile long lastWriteMillis;
+
+        /**
+         * @param lastWriteMillis epoch millis of the client's last write, or 0 if unknown
+         * @param onWrite called with the epoch millis of each write recorded for the client
+         */
+        public Session(long lastWriteMillis, LongConsumer onWrite) {
+            this.lastWriteMillis = lastWriteMillis;
+            this.onWrite = onWrite;
+        }
+
+        public long getLastWriteMillis() {
+            return lastWriteMillis;
+        }
+
+        /**
+         * Records that a write of this client has just been applied to the primary.
+         */
+        public void recordWrite() {
+            long now = System.currentTimeMillis();
+            lastWriteMillis = now;
+            onWrite.accept(now);
+        }
+    }
+
+    /**
+     * Binds the session to the current thread; callers must {@link #clearSession() clear} it when done.
+     */
+    public static void bindSession(Session session) {
+        CURRENT_SESSION.set(session);
+    }
+
+    public static void clearSession() {
+        CURRENT_SESSION.remove();
+    }
+
+    /**
+     * Wraps a task handed to another thread so it runs in the session of the calling thread.
+     */
+    public static <T> Supplier<T> inCurrentSession(Supplier<T> task) {
+        Session session = CURRENT_SESSION.get();
+        if (session == null) {
+            return task;
+        }
+        return () -> {
+            Session previous = CURRENT_SESSION.get();
+            CURRENT_SESSION.set(session);
+            try {
+                return task.get();
+            } finally {
+                CURRENT_SESSION.set(previous);
+            }
+        };
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return isWithinStalenessWindow(CURRENT_SESSION.get()) ? Route.PRIMARY : Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return trackWrites(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return trackWrites(super.getConnection(username, password));
+    }
+
+    private boolean isWithinStalenessWindow(Session session) {
+        if (session == null) {
+            return false;
+        }
+        long lastWrite = session.getLastWriteMillis();
+        return lastWrite != 0 && System.currentTimeMillis() - lastWrite < maxStalenessMillis;
+    }
+
+    // Only connections of a session writing to the primary are watched for changed rows
+    private Connection trackWrites(Connection connection) {
+        Session session = CURRENT_SESSION.get();
+        if (session == null || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return connection;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Outside a transaction every statement commits on its own
+            return trackingConnection(connection, session::recordWrite);
+        }
+        return trackingConnection(connection, writeTracking(session)::markModified);
+    }
+
+    private WriteTracking writeTracking(Session session) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof WriteTracking tracking && tracking.session == session) {
+                return tracking;
+            }
+        }
+        WriteTracking tracking = new WriteTracking(session);
+        TransactionSynchronizationManager.registerSynchronization(tracking);
+        return tracking;
+    }
+
+    /**
+     * Records a write for the session when the transaction commits after changing rows.
+     */
+    private static class WriteTracking implements TransactionSynchronization {
+
+        private final Session session;
+        private volatile boolean modified;
+
+        WriteTracking(Session session) {
+            this.session = session;
+        }
+
+        void markModified() {
+            modified = true;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED && modified) {
+                session.recordWrite();
+            }
+        }
+    }
+
+    private static Connection trackingConnection(Connection connection, Runnable onModified) {
+        return (Connection) Proxy.newProxyInstance(ReplicationRoutingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return trackingStatement(statement, method.getReturnType(), onModified);
+                    }
+                    return result;
+                });
+    }
+
+    // Proxies the statement as the interface it was created as: Statement, PreparedStatement or CallableStatement
+    private static Object trackingStatement(Statement statement, Class<?> type, Runnable onModified) {
+        return Proxy.newProxyInstance(ReplicationRoutingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, (proxy, method, args) -> {
+                    Object result = invoke(statement, method, args);
+                    if (changedRows(method.getName(), result)) {
+                        onModified.run();
+                    }
+                    return result;
+                });
+    }
+
+    private static boolean changedRows(String method, Object result) {
+        return switch (method) {
+            case "executeUpdate", "executeLargeUpdate" -> ((Number) result).longValue() > 0;
+            case "executeBatch" -> Arrays.stream((int[]) result).anyMatch(count -> count != 0);
+            case "executeLargeBatch" -> Arrays.stream((long[]) result).anyMatch(count -> count != 0);
+            // Reading the update count would consume it, so anything but a query counts as a write
+            case "execute" -> !((Boolean) result);
+            default -> false;
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
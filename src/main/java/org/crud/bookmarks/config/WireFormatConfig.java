@@ -0,0 +1,33 @@
+package org.crud.bookmarks.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary wire formats for bulk clients, chosen through content negotiation: CBOR
+ * ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}), for request bodies
+ * by {@code Content-Type} and for responses by {@code Accept}. JSON stays the default.
+ * <p>
+ * Spring MVC registers both converters on its own when the formats are on the classpath, but
+ * with a plain ObjectMapper. These use Spring Boot's Jackson settings instead, so dates,
+ * read-only and ignored properties come out as they do in JSON. Spring Boot puts them in place
+ * of the defaults, after the JSON converter.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
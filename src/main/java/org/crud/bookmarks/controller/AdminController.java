@@ -0,0 +1,60 @@
+package org.crud.bookmarks.controller;
+
+import org.crud.bookmarks.service.BookmarkCatalogIndex;
+import org.crud.bookmarks.service.BookmarkHostBackfill;
+import org.crud.bookmarks.service.BookmarkUrlIndex;
+import org.crud.bookmarks.service.NearDuplicateIndex;
+import org.crud.bookmarks.service.RedirectIndex;
+import org.crud.bookmarks.service.SnapshotService;
+import org.crud.bookmarks.service.TagIndex;
+import org.crud.bookmarks.service.SnapshotService.SnapshotResult;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    private final SnapshotService snapshotService;
+    private final BookmarkHostBackfill hostBackfill;
+    private final BookmarkUrlIndex urlIndex;
+    private final TagIndex tagIndex;
+    private final RedirectIndex redirectIndex;
+    private final BookmarkCatalogIndex catalogIndex;
+    private final NearDuplicateIndex nearDuplicateIndex;
+
+    public AdminController(SnapshotService snapshotService, BookmarkHostBackfill hostBackfill,
+                           BookmarkUrlIndex urlIndex, TagIndex tagIndex, RedirectIndex redirectIndex,
+                           BookmarkCatalogIndex catalogIndex, NearDuplicateIndex nearDuplicateIndex) {
+        this.snapshotService = snapshotService;
+        this.hostBackfill = hostBackfill;
+        this.urlIndex = urlIndex;
+        this.tagIndex = tagIndex;
+        this.redirectIndex = redirectIndex;
+        this.catalogIndex = catalogIndex;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+    }
+
+    @PostMapping("/snapshot")
+    public ResponseEntity<SnapshotResult> createSnapshot() {
+        return ResponseEntity.ok(snapshotService.createSnapshot());
+    }
+
+    @PostMapping("/restore")
+    public ResponseEntity<SnapshotResult> restoreSnapshot(@RequestParam String name) {
+        try {
+            SnapshotResult result = snapshotService.restoreSnapshot(name);
+            // Older snapshots have no host or URL hash columns, and the aggregate isn't part of any snapshot
+            hostBackfill.refresh(true);
+            urlIndex.rebuild();
+            tagIndex.rebuild();
+            redirectIndex.rebuild();
+            catalogIndex.rebuild();
+            nearDuplicateIndex.rebuild();
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,39 +1,149 @@
 package org.crud.bookmarks.controller;
 
 import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkFilter;
+import org.crud.bookmarks.BookmarkPatch;
+import org.crud.bookmarks.Tag;
+import org.crud.bookmarks.service.BookmarkBatch;
 import org.crud.bookmarks.service.BookmarkService;
+import org.crud.bookmarks.service.DuplicateBookmarkException;
+import org.crud.bookmarks.service.IdempotencyKeyReusedException;
+import org.crud.bookmarks.service.IdempotencyStore;
+import org.crud.bookmarks.service.MetadataEnricher;
+import org.crud.bookmarks.service.NearDuplicateIndex;
+import org.crud.bookmarks.service.TagService;
+import org.crud.bookmarks.service.TrendingTracker;
+import org.crud.bookmarks.service.VisitCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/bookmarks")
 @CrossOrigin(origins = "*")
 public class BookmarkController {
 
+    private static final Logger logger = LoggerFactory.getLogger(BookmarkController.class);
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final BookmarkService bookmarkService;
+    private final IdempotencyStore idempotencyStore;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final TagService tagService;
+    private final MetadataEnricher metadataEnricher;
+    private final VisitCounter visitCounter;
+    private final TrendingTracker trendingTracker;
 
-    public BookmarkController(BookmarkService bookmarkService) {
+    public BookmarkController(BookmarkService bookmarkService, IdempotencyStore idempotencyStore,
+                              NearDuplicateIndex nearDuplicateIndex, TagService tagService,
+                              MetadataEnricher metadataEnricher, VisitCounter visitCounter,
+                              TrendingTracker trendingTracker) {
         this.bookmarkService = bookmarkService;
+        this.idempotencyStore = idempotencyStore;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.tagService = tagService;
+        this.metadataEnricher = metadataEnricher;
+        this.visitCounter = visitCounter;
+        this.trendingTracker = trendingTracker;
     }
 
     @GetMapping
-    public Page<Bookmark> getAllBookmarks(
+    public ResponseEntity<Page<?>> getAllBookmarks(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "title") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        System.out.println("[DEBUG_LOG] Getting all bookmarks with pagination");
-        Sort.Direction direction = Sort.Direction.fromString(sortDir);
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        Page<Bookmark> bookmarks = bookmarkService.getAllBookmarks(pageRequest);
-        System.out.println("[DEBUG_LOG] Retrieved " + bookmarks.getTotalElements() + " bookmarks");
-        return bookmarks;
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String host,
+            @RequestParam(required = false) String domain,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) List<String> fields) {
+        logger.debug("Getting all bookmarks with pagination");
+        try {
+            Sort.Direction direction = Sort.Direction.fromString(sortDir);
+            PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            BookmarkFilter filter = host != null ? BookmarkFilter.host(host)
+                    : domain != null ? BookmarkFilter.domain(domain) : BookmarkFilter.all();
+            Page<?> bookmarks = findProjection(filter, pageRequest, view, fields);
+            if (bookmarks == null) {
+                if (host != null) {
+                    bookmarks = bookmarkService.getBookmarksByHost(host, pageRequest);
+                } else if (domain != null) {
+                    bookmarks = bookmarkService.getBookmarksByDomain(domain, pageRequest);
+                } else {
+                    bookmarks = bookmarkService.getAllBookmarks(pageRequest);
+                }
+            }
+            logger.debug("Retrieved {} bookmarks", bookmarks.getTotalElements());
+            return ResponseEntity.ok(bookmarks);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/lookup")
+    public List<Bookmark> lookupBookmarksByUrl(@RequestParam String url) {
+        return bookmarkService.findBookmarksByUrl(url);
+    }
+
+    @GetMapping("/duplicates")
+    public List<NearDuplicateIndex.DuplicateCluster> getDuplicateClusters(
+            @RequestParam(defaultValue = "50") int limit) {
+        return nearDuplicateIndex.findClusters(limit);
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingBookmark>> getTrendingBookmarks(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "20") int k) {
+        List<TrendingTracker.Trend> trends;
+        try {
+            trends = trendingTracker.top(TrendingTracker.Window.parse(window), k);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<Long, Bookmark> bookmarks = bookmarkService.getBookmarksByIds(
+                        trends.stream().map(TrendingTracker.Trend::bookmarkId).toList()).stream()
+                .collect(Collectors.toMap(Bookmark::getId, Function.identity()));
+        // Deleted bookmarks may still be counted in the window
+        return ResponseEntity.ok(trends.stream()
+                .filter(trend -> bookmarks.containsKey(trend.bookmarkId()))
+                .map(trend -> new TrendingBookmark(bookmarks.get(trend.bookmarkId()), trend.visits(), trend.minVisits()))
+                .toList());
+    }
+
+    @GetMapping("/batch")
+    public ResponseEntity<BookmarkBatch> getBookmarkBatch(@RequestParam List<Long> ids) {
+        return lookUpBatch(ids);
+    }
+
+    /**
+     * Same as {@code GET /batch}, for id lists too long for a URL.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BookmarkBatch> postBookmarkBatch(@RequestBody List<Long> ids) {
+        return lookUpBatch(ids);
+    }
+
+    private ResponseEntity<BookmarkBatch> lookUpBatch(List<Long> ids) {
+        try {
+            return ResponseEntity.ok(bookmarkService.getBookmarkBatch(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -43,31 +153,112 @@ public class BookmarkController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{id}/metadata")
+    public ResponseEntity<MetadataEnricher.BookmarkMetadata> getBookmarkMetadata(@PathVariable Long id) {
+        return metadataEnricher.getMetadata(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/tags")
+    public ResponseEntity<List<Tag>> getBookmarkTags(@PathVariable Long id) {
+        return tagService.getTagsForBookmark(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}/tags")
+    public ResponseEntity<List<Tag>> setBookmarkTags(@PathVariable Long id, @RequestBody List<Long> tagIds) {
+        try {
+            return tagService.setBookmarkTags(id, tagIds)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/folder/{folderId}")
-    public Page<Bookmark> getBookmarksByFolderId(
+    public ResponseEntity<Page<?>> getBookmarksByFolderId(
             @PathVariable Long folderId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "title") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        Sort.Direction direction = Sort.Direction.fromString(sortDir);
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return bookmarkService.getBookmarksByFolderId(folderId, pageRequest);
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) List<String> fields) {
+        try {
+            Sort.Direction direction = Sort.Direction.fromString(sortDir);
+            PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            Page<?> projection = findProjection(BookmarkFilter.folder(folderId), pageRequest, view, fields);
+            if (projection != null) {
+                return ResponseEntity.ok(projection);
+            }
+            return ResponseEntity.ok(bookmarkService.getBookmarksByFolderId(folderId, pageRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
-    public ResponseEntity<Bookmark> createBookmark(@Valid @RequestBody Bookmark bookmark) {
-        System.out.println("[DEBUG_LOG] Creating bookmark: " + bookmark);
-        Bookmark createdBookmark = bookmarkService.createBookmark(bookmark);
-        System.out.println("[DEBUG_LOG] Created bookmark: " + createdBookmark);
-        return ResponseEntity.ok(createdBookmark);
+    public ResponseEntity<Bookmark> createBookmark(
+            @Valid @RequestBody Bookmark bookmark,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return doCreateBookmark(bookmark);
+        }
+        byte[] fingerprint = IdempotencyStore.fingerprint(bookmark.getTitle(), bookmark.getUrl(), bookmark.getDescription(),
+                bookmark.getFolderId());
+        try {
+            return idempotencyStore.execute("POST /api/bookmarks:" + idempotencyKey, fingerprint,
+                    () -> doCreateBookmark(bookmark));
+        } catch (IdempotencyKeyReusedException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+    }
+
+    private ResponseEntity<Bookmark> doCreateBookmark(Bookmark bookmark) {
+        logger.debug("Creating bookmark with url: {}", bookmark.getUrl());
+        try {
+            Bookmark createdBookmark = bookmarkService.createBookmark(bookmark);
+            logger.debug("Created bookmark with id: {}", createdBookmark.getId());
+            return ResponseEntity.ok(createdBookmark);
+        } catch (DuplicateBookmarkException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/{id}/visit")
+    public ResponseEntity<Void> recordVisit(@PathVariable Long id) {
+        if (!bookmarkService.bookmarkExists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        visitCounter.record(id);
+        return ResponseEntity.noContent().build();
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Bookmark> updateBookmark(@PathVariable Long id, @Valid @RequestBody Bookmark bookmarkDetails) {
-        return bookmarkService.updateBookmark(id, bookmarkDetails)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        try {
+            return bookmarkService.updateBookmark(id, bookmarkDetails)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Bookmark> patchBookmark(@PathVariable Long id, @Valid @RequestBody BookmarkPatch patch) {
+        try {
+            return bookmarkService.patchBookmark(id, patch)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -77,21 +268,48 @@ public class BookmarkController {
     }
 
     @DeleteMapping("/bulk")
-    public ResponseEntity<Void> deleteBookmarks(@RequestBody List<Long> ids) {
-        bookmarkService.deleteBookmarks(ids);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<BulkResult> deleteBookmarks(@RequestBody List<Long> ids) {
+        int deleted = bookmarkService.deleteBookmarks(ids);
+        return ResponseEntity.ok(new BulkResult(ids.size(), deleted));
+    }
+
+    @PutMapping("/bulk/move")
+    public ResponseEntity<BulkResult> moveBookmarks(@RequestBody BulkMoveRequest request) {
+        if (request.ids() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            int moved = bookmarkService.moveBookmarks(request.ids(), request.folderId());
+            return ResponseEntity.ok(new BulkResult(request.ids().size(), moved));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/search")
-    public Page<Bookmark> searchBookmarks(
+    public ResponseEntity<Page<?>> searchBookmarks(
             @RequestParam String query,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "title") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
-        Sort.Direction direction = Sort.Direction.fromString(sortDir);
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        return bookmarkService.searchBookmarks(query, pageRequest);
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) List<String> fields) {
+        try {
+            Sort.Direction direction = Sort.Direction.fromString(sortDir);
+            PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            Page<?> projection = findProjection(BookmarkFilter.search(query), pageRequest, view, fields);
+            if (projection != null) {
+                return ResponseEntity.ok(facets ? bookmarkService.addSearchFacets(projection, query) : projection);
+            }
+            if (facets) {
+                return ResponseEntity.ok(bookmarkService.searchBookmarksWithFacets(query, pageRequest));
+            }
+            return ResponseEntity.ok(bookmarkService.searchBookmarks(query, pageRequest));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/folder/{folderId}/count")
@@ -99,4 +317,46 @@ public class BookmarkController {
         int count = bookmarkService.getBookmarkCountInFolder(folderId);
         return ResponseEntity.ok(count);
     }
+
+    /**
+     * Reads the page narrowed to the requested {@code fields}, or to summaries for
+     * {@code view=summary}, or returns null when full bookmarks are wanted.
+     */
+    private Page<?> findProjection(BookmarkFilter filter, PageRequest pageRequest, String view, List<String> fields) {
+        boolean summary = isSummaryView(view);
+        if (fields != null) {
+            return bookmarkService.getBookmarkFields(filter, fields, pageRequest);
+        }
+        return summary ? bookmarkService.getBookmarkSummaries(filter, pageRequest) : null;
+    }
+
+    /**
+     * Parses the {@code view} parameter: {@code full} for whole bookmarks, {@code summary} for
+     * {@link org.crud.bookmarks.BookmarkSummary} projections.
+     */
+    private static boolean isSummaryView(String view) {
+        return switch (view.toLowerCase(Locale.ROOT)) {
+            case "full" -> false;
+            case "summary" -> true;
+            default -> throw new IllegalArgumentException("View must be full or summary");
+        };
+    }
+
+    /**
+     * Request body for moving several bookmarks into a folder (null folderId removes them from any folder).
+     */
+    public record BulkMoveRequest(List<Long> ids, Long folderId) {
+    }
+
+    /**
+     * Result of a bulk operation: how many ids were requested and how many rows were affected.
+     */
+    public record BulkResult(int requested, int affected) {
+    }
+
+    /**
+     * A bookmark trending in the requested window; its true visit count lies between minVisits and visits.
+     */
+    public record TrendingBookmark(Bookmark bookmark, long visits, long minVisits) {
+    }
 }
@@ -1,8 +1,15 @@
 package org.crud.bookmarks.controller;
 
+import org.crud.bookmarks.Bookmark;
 import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.service.DuplicateFolderNameException;
 import org.crud.bookmarks.service.FolderService;
+import org.crud.bookmarks.service.IdempotencyKeyReusedException;
+import org.crud.bookmarks.service.IdempotencyStore;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
@@ -14,9 +21,11 @@ import java.util.List;
 public class FolderController {
 
     private final FolderService folderService;
+    private final IdempotencyStore idempotencyStore;
 
-    public FolderController(FolderService folderService) {
+    public FolderController(FolderService folderService, IdempotencyStore idempotencyStore) {
         this.folderService = folderService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     @GetMapping
@@ -32,10 +41,27 @@ public class FolderController {
     }
 
     @PostMapping
-    public ResponseEntity<Folder> createFolder(@Valid @RequestBody Folder folder) {
+    public ResponseEntity<Folder> createFolder(
+            @Valid @RequestBody Folder folder,
+            @RequestHeader(value = BookmarkController.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return doCreateFolder(folder);
+        }
+        byte[] fingerprint = IdempotencyStore.fingerprint(folder.getName(), folder.getDescription(), folder.getParentId());
+        try {
+            return idempotencyStore.execute("POST /api/folders:" + idempotencyKey, fingerprint,
+                    () -> doCreateFolder(folder));
+        } catch (IdempotencyKeyReusedException e) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+    }
+
+    private ResponseEntity<Folder> doCreateFolder(Folder folder) {
         try {
             Folder createdFolder = folderService.createFolder(folder);
             return ResponseEntity.ok(createdFolder);
+        } catch (DuplicateFolderNameException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -47,11 +73,55 @@ public class FolderController {
             return folderService.updateFolder(id, folderDetails)
                     .map(ResponseEntity::ok)
                     .orElse(ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException | DuplicateFolderNameException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    @PutMapping("/by-name/{name}")
+    public ResponseEntity<Folder> upsertFolderByName(@PathVariable String name,
+                                                     @RequestBody(required = false) Folder folderDetails) {
+        if (!StringUtils.hasText(name) || name.length() > 255) {
+            return ResponseEntity.badRequest().build();
+        }
+        String description = folderDetails != null ? folderDetails.getDescription() : null;
+        if (description != null && description.length() > 500) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(folderService.upsertFolderByName(name, description));
+    }
+
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<Folder> moveFolder(@PathVariable Long id, @RequestBody MoveFolderRequest request) {
+        try {
+            return folderService.moveFolder(id, request.parentId())
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{id}/subtree")
+    public ResponseEntity<List<Folder>> getSubtree(@PathVariable Long id) {
+        return folderService.getSubtree(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/subtree/bookmarks")
+    public List<Bookmark> getBookmarksInSubtree(@PathVariable Long id,
+                                                @RequestParam(required = false) String query) {
+        return folderService.getBookmarksInSubtree(id, query);
+    }
+
+    @GetMapping("/{id}/subtree/count")
+    public ResponseEntity<Integer> countBookmarksInSubtree(@PathVariable Long id) {
+        return ResponseEntity.ok(folderService.countBookmarksInSubtree(id));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteFolder(@PathVariable Long id) {
         try {
@@ -71,4 +141,10 @@ public class FolderController {
     public List<Folder> getAllFoldersWithBookmarkCount() {
         return folderService.getAllFoldersWithBookmarkCount();
     }
+
+    /**
+     * Request body for moving a folder (null parentId moves it to the top level).
+     */
+    public record MoveFolderRequest(Long parentId) {
+    }
 }
\ No newline at end of file
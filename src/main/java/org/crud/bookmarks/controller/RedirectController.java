@@ -0,0 +1,40 @@
+package org.crud.bookmarks.controller;
+
+import org.crud.bookmarks.service.RedirectIndex;
+import org.crud.bookmarks.service.VisitCounter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Short links: {@code /go/{id}} redirects to the bookmark's URL and counts a visit. Served from
+ * {@link RedirectIndex} without a transaction or query, and without a response body.
+ */
+@RestController
+public class RedirectController {
+
+    private final RedirectIndex redirectIndex;
+    private final VisitCounter visitCounter;
+
+    public RedirectController(RedirectIndex redirectIndex, VisitCounter visitCounter) {
+        this.redirectIndex = redirectIndex;
+        this.visitCounter = visitCounter;
+    }
+
+    @GetMapping("/go/{id}")
+    public ResponseEntity<Void> redirect(@PathVariable long id) {
+        String url = redirectIndex.findUrl(id);
+        if (url == null) {
+            return ResponseEntity.notFound().build();
+        }
+        visitCounter.record(id);
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .header(HttpHeaders.LOCATION, url)
+                // Every click should reach the server to be counted
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+}
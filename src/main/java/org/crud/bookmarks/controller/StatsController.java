@@ -0,0 +1,55 @@
+package org.crud.bookmarks.controller;
+
+import org.crud.bookmarks.HostCount;
+import org.crud.bookmarks.service.BookmarkService;
+import org.crud.bookmarks.service.LinkRotScanner;
+import org.crud.bookmarks.service.MetadataEnricher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    private final BookmarkService bookmarkService;
+    private final LinkRotScanner linkRotScanner;
+    private final MetadataEnricher metadataEnricher;
+
+    public StatsController(BookmarkService bookmarkService, LinkRotScanner linkRotScanner,
+                           MetadataEnricher metadataEnricher) {
+        this.bookmarkService = bookmarkService;
+        this.linkRotScanner = linkRotScanner;
+        this.metadataEnricher = metadataEnricher;
+    }
+
+    @GetMapping("/hosts")
+    public ResponseEntity<List<HostCount>> getTopHosts(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(bookmarkService.getTopDomains(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/link-check")
+    public LinkRotScanner.ScanStatus getLinkCheckStatus() {
+        return linkRotScanner.getStatus();
+    }
+
+    @GetMapping("/broken-links")
+    public ResponseEntity<List<LinkRotScanner.BrokenLink>> getBrokenLinks(@RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(linkRotScanner.findBrokenLinks(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/enrichment")
+    public MetadataEnricher.EnrichmentStats getEnrichmentStats() {
+        return metadataEnricher.getStats();
+    }
+}
@@ -0,0 +1,94 @@
+package org.crud.bookmarks.controller;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Tag;
+import org.crud.bookmarks.controller.BookmarkController.BulkResult;
+import org.crud.bookmarks.service.DuplicateTagNameException;
+import org.crud.bookmarks.service.TagService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.validation.Valid;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/tags")
+@CrossOrigin(origins = "*")
+public class TagController {
+
+    private final TagService tagService;
+
+    public TagController(TagService tagService) {
+        this.tagService = tagService;
+    }
+
+    @GetMapping
+    public List<Tag> getAllTags() {
+        return tagService.getAllTags();
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Tag> getTagById(@PathVariable Long id) {
+        return tagService.getTagById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<Tag> createTag(@Valid @RequestBody Tag tag) {
+        try {
+            return ResponseEntity.ok(tagService.createTag(tag));
+        } catch (DuplicateTagNameException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<Tag> updateTag(@PathVariable Long id, @Valid @RequestBody Tag tagDetails) {
+        try {
+            return tagService.updateTag(id, tagDetails)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (DuplicateTagNameException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteTag(@PathVariable Long id) {
+        tagService.deleteTag(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PutMapping("/{id}/bookmarks")
+    public ResponseEntity<BulkResult> tagBookmarks(@PathVariable Long id, @RequestBody List<Long> bookmarkIds) {
+        return tagService.tagBookmarks(id, bookmarkIds)
+                .map(tagged -> ResponseEntity.ok(new BulkResult(bookmarkIds.size(), tagged)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}/bookmarks")
+    public ResponseEntity<BulkResult> untagBookmarks(@PathVariable Long id, @RequestBody List<Long> bookmarkIds) {
+        return tagService.untagBookmarks(id, bookmarkIds)
+                .map(untagged -> ResponseEntity.ok(new BulkResult(bookmarkIds.size(), untagged)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/query")
+    public ResponseEntity<Page<Bookmark>> queryBookmarks(
+            @RequestParam(required = false) List<Long> all,
+            @RequestParam(required = false) List<Long> any,
+            @RequestParam(required = false) List<Long> none,
+            @RequestParam(required = false) Long folderId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(tagService.queryBookmarks(all, any, none, folderId, PageRequest.of(page, size)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
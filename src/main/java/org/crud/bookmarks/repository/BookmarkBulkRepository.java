@@ -0,0 +1,239 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.config.JdbcTemplateConfig;
+import org.crud.bookmarks.service.UrlNormalizer;
+import org.crud.bookmarks.service.VisitsFlushedEvent;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Reads and writes over the whole bookmarks table: loading the in-memory indexes, backfills,
+ * background scans and batched counter updates. Runs on the {@link JdbcTemplateConfig#BULK}
+ * template, so results aren't cut off at {@code spring.jdbc.template.max-rows}; the few queries
+ * serving a request still get the shared query timeout.
+ */
+@Repository
+public class BookmarkBulkRepository {
+
+    private static final RowMapper<Bookmark> BOOKMARK_MAPPER = new BookmarkRowMapper();
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private static final String SEARCH_MATCHES_SQL = "SELECT folder_id, host, created_at FROM bookmarks"
+            + " WHERE UPPER(title) LIKE UPPER(?) ESCAPE '\\' OR UPPER(description) LIKE UPPER(?) ESCAPE '\\'";
+
+    private static final String ADD_VISITS_SQL = "UPDATE bookmarks SET visit_count = visit_count + ?, "
+            + "last_visited_at = GREATEST(COALESCE(last_visited_at, ?), ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final int requestQueryTimeout;
+
+    public BookmarkBulkRepository(@Qualifier(JdbcTemplateConfig.BULK) JdbcTemplate jdbcTemplate,
+                                  JdbcProperties jdbcProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        Duration queryTimeout = jdbcProperties.getTemplate().getQueryTimeout();
+        this.requestQueryTimeout = queryTimeout != null ? (int) queryTimeout.getSeconds() : 0;
+    }
+
+    /**
+     * A bookmark matching a search term, with the columns the search facets are counted from.
+     */
+    public record SearchMatch(Long folderId, String host, LocalDateTime createdAt) {
+    }
+
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Streams every bookmark, in no particular order, mapped by {@link BookmarkRowMapper}.
+     */
+    public void forEach(Consumer<Bookmark> action) {
+        jdbcTemplate.query("SELECT " + BookmarkRowMapper.COLUMNS + " FROM bookmarks",
+                (RowCallbackHandler) resultSet -> action.accept(BOOKMARK_MAPPER.mapRow(resultSet, 0)));
+    }
+
+    /**
+     * Streams the bookmarks with the given IDs that exist, in chunks of {@value #IN_CHUNK_SIZE} IDs.
+     */
+    public void forEachById(Collection<Long> ids, Consumer<Bookmark> action) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(all.size(), from + IN_CHUNK_SIZE));
+            namedJdbcTemplate.query("SELECT " + BookmarkRowMapper.COLUMNS + " FROM bookmarks WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk),
+                    (RowCallbackHandler) resultSet -> action.accept(BOOKMARK_MAPPER.mapRow(resultSet, 0)));
+        }
+    }
+
+    /**
+     * Streams the URL and ID of every bookmark, in ID order.
+     */
+    public void forEachUrl(ObjLongConsumer<String> action) {
+        jdbcTemplate.query("SELECT id, url FROM bookmarks ORDER BY id",
+                (RowCallbackHandler) resultSet -> action.accept(resultSet.getString(2), resultSet.getLong(1)));
+    }
+
+    /**
+     * Streams the URL and ID of the bookmarks with the given IDs that exist, in chunks of
+     * {@value #IN_CHUNK_SIZE} IDs.
+     */
+    public void forEachUrlById(Collection<Long> ids, ObjLongConsumer<String> action) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = all.subList(from, Math.min(all.size(), from + IN_CHUNK_SIZE));
+            namedJdbcTemplate.query("SELECT id, url FROM bookmarks WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk),
+                    (RowCallbackHandler) resultSet -> action.accept(resultSet.getString(2), resultSet.getLong(1)));
+        }
+    }
+
+    /**
+     * Streams the ID of every bookmark, in ID order.
+     */
+    public void forEachId(LongConsumer action) {
+        jdbcTemplate.query("SELECT id FROM bookmarks ORDER BY id",
+                (RowCallbackHandler) resultSet -> action.accept(resultSet.getLong(1)));
+    }
+
+    /**
+     * Streams the IDs of the bookmarks in a folder, in ID order, through the folder index.
+     * Serves requests, so the shared query timeout applies.
+     */
+    public void forEachIdInFolder(Long folderId, LongConsumer action) {
+        jdbcTemplate.query(withRequestTimeout("SELECT id FROM bookmarks WHERE folder_id = ? ORDER BY id", folderId),
+                (RowCallbackHandler) resultSet -> action.accept(resultSet.getLong(1)));
+    }
+
+    /**
+     * Streams every stored normalized URL hash.
+     */
+    public void forEachUrlHash(LongConsumer action) {
+        jdbcTemplate.query("SELECT url_hash FROM bookmarks WHERE url_hash IS NOT NULL",
+                (RowCallbackHandler) resultSet -> action.accept(resultSet.getLong(1)));
+    }
+
+    /**
+     * Streams the folder, host and creation time of the bookmarks whose title or description
+     * contains the search term, ignoring case. Matches like the paged search of
+     * {@link BookmarkRepositoryCustom#findPage}; serves requests, so the shared query timeout applies.
+     */
+    public void forEachSearchMatch(String searchTerm, Consumer<SearchMatch> action) {
+        String pattern = "%" + searchTerm.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        jdbcTemplate.query(withRequestTimeout(SEARCH_MATCHES_SQL, pattern, pattern), (RowCallbackHandler) resultSet -> {
+            Long folderId = BookmarkRowMapper.getLong(resultSet, 1);
+            Timestamp createdAt = resultSet.getTimestamp(3);
+            action.accept(new SearchMatch(folderId, resultSet.getString(2),
+                    createdAt != null ? createdAt.toLocalDateTime() : null));
+        });
+    }
+
+    /**
+     * Returns up to {@code limit} bookmarks with an ID above {@code afterId}, in ID order, with
+     * only the ID, title, URL and host set.
+     */
+    public List<Bookmark> findAfter(long afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, title, url, host FROM bookmarks WHERE id > ? ORDER BY id LIMIT ?",
+                (resultSet, rowNum) -> {
+                    Bookmark bookmark = new Bookmark(resultSet.getString(2), resultSet.getString(3));
+                    bookmark.setId(resultSet.getLong(1));
+                    bookmark.setHost(resultSet.getString(4));
+                    return bookmark;
+                }, afterId, limit);
+    }
+
+    public long countAfter(long afterId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks WHERE id > ?", Long.class, afterId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Returns the URLs of up to {@code limit} bookmarks without a {@code url_hash} and with an ID
+     * above {@code afterId}, in ID order.
+     */
+    public Map<Long, String> findUrlsWithoutUrlHash(long afterId, int limit) {
+        Map<Long, String> urls = new LinkedHashMap<>();
+        // Ordered like idx_bookmark_url_hash_id, so a page reads only its own rows rather than
+        // sorting every row still without a hash
+        jdbcTemplate.query("SELECT id, url FROM bookmarks WHERE url_hash IS NULL AND id > ? ORDER BY url_hash, id LIMIT ?",
+                (RowCallbackHandler) resultSet -> urls.put(resultSet.getLong(1), resultSet.getString(2)), afterId, limit);
+        return urls;
+    }
+
+    /**
+     * Sets the {@code url_hash} of each bookmark in one batch.
+     */
+    public void updateUrlHashes(Map<Long, Long> hashesById) {
+        List<Object[]> updates = new ArrayList<>(hashesById.size());
+        hashesById.forEach((id, hash) -> updates.add(new Object[]{hash, id}));
+        jdbcTemplate.batchUpdate("UPDATE bookmarks SET url_hash = ? WHERE id = ?", updates);
+    }
+
+    /**
+     * Returns the URLs of up to {@code limit} bookmarks without a host and with an ID above
+     * {@code afterId}, in ID order.
+     */
+    public Map<Long, String> findUrlsWithoutHost(long afterId, int limit) {
+        Map<Long, String> urls = new LinkedHashMap<>();
+        // Ordered like idx_bookmark_host_id, see findUrlsWithoutUrlHash
+        jdbcTemplate.query("SELECT id, url FROM bookmarks WHERE host IS NULL AND id > ? ORDER BY host, id LIMIT ?",
+                (RowCallbackHandler) resultSet -> urls.put(resultSet.getLong(1), resultSet.getString(2)), afterId, limit);
+        return urls;
+    }
+
+    /**
+     * Sets the host of each bookmark in one batch, together with its registrable domain.
+     */
+    public void updateHosts(Map<Long, String> hostsById) {
+        List<Object[]> updates = new ArrayList<>(hostsById.size());
+        hostsById.forEach((id, host) -> updates.add(new Object[]{host, UrlNormalizer.registrableDomain(host), id}));
+        jdbcTemplate.batchUpdate("UPDATE bookmarks SET host = ?, domain = ? WHERE id = ?", updates);
+    }
+
+    /**
+     * Adds the visits to the counts of their bookmarks in one batch, keeping the latest visit time.
+     * Neither bumps the version nor conflicts with edits.
+     */
+    public void addVisits(List<VisitsFlushedEvent.BookmarkVisits> visits) {
+        List<Object[]> updates = new ArrayList<>(visits.size());
+        for (VisitsFlushedEvent.BookmarkVisits visit : visits) {
+            Timestamp lastVisitedAt = Timestamp.valueOf(visit.lastVisitedAt());
+            updates.add(new Object[]{visit.count(), lastVisitedAt, lastVisitedAt, visit.bookmarkId()});
+        }
+        jdbcTemplate.batchUpdate(ADD_VISITS_SQL, updates);
+    }
+
+    // Reads past the row cap, but as a request shouldn't wait longer than the shared template allows
+    private PreparedStatementCreator withRequestTimeout(String sql, Object... args) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setQueryTimeout(requestQueryTimeout);
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            return statement;
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package org.crud.bookmarks.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps rows selected with {@link #getColumns()} to maps holding only the requested bookmark
+ * properties, keyed by their JSON names in the requested order. A sparse page serializes to the
+ * same property names and value formats as the full bookmarks.
+ */
+public class BookmarkFieldsRowMapper implements RowMapper<Map<String, Object>> {
+
+    // Bookmark properties as serialized and their columns; urlHash isn't serialized and can't be selected
+    private static final Map<String, String> FIELD_COLUMNS = Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("title", "title"),
+            Map.entry("description", "description"),
+            Map.entry("url", "url"),
+            Map.entry("folderId", "folder_id"),
+            Map.entry("host", "host"),
+            Map.entry("domain", "domain"),
+            Map.entry("visitCount", "visit_count"),
+            Map.entry("lastVisitedAt", "last_visited_at"),
+            Map.entry("version", "version"),
+            Map.entry("createdAt", "created_at"),
+            Map.entry("updatedAt", "updated_at"));
+    private static final Set<String> TIMESTAMP_FIELDS = Set.of("lastVisitedAt", "createdAt", "updatedAt");
+
+    private final String[] fields;
+    private final boolean[] timestamps;
+    private final String columns;
+
+    /**
+     * @throws IllegalArgumentException if no field or an unknown field is requested
+     */
+    public BookmarkFieldsRowMapper(Collection<String> fields) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (!FIELD_COLUMNS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown bookmark field " + name);
+            }
+            distinct.add(name);
+        }
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one bookmark field is required");
+        }
+        this.fields = distinct.toArray(String[]::new);
+        this.timestamps = new boolean[this.fields.length];
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < this.fields.length; i++) {
+            timestamps[i] = TIMESTAMP_FIELDS.contains(this.fields[i]);
+            columns.append(i == 0 ? "" : ", ").append(FIELD_COLUMNS.get(this.fields[i]));
+        }
+        this.columns = columns.toString();
+    }
+
+    /**
+     * Returns the column of a bookmark property, or null if there's no such property.
+     */
+    static String column(String field) {
+        return FIELD_COLUMNS.get(field);
+    }
+
+    /**
+     * Returns the columns to select, in the order of the requested fields.
+     */
+    public String getColumns() {
+        return columns;
+    }
+
+    @Override
+    public Map<String, Object> mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>((int) (fields.length / 0.75f) + 1);
+        for (int i = 0; i < fields.length; i++) {
+            // Plain getObject returns java.sql.Timestamp, which would serialize unlike the entity's LocalDateTime
+            row.put(fields[i], timestamps[i] ? resultSet.getObject(i + 1, LocalDateTime.class) : resultSet.getObject(i + 1));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,92 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.config.JdbcTemplateConfig;
+import org.crud.bookmarks.service.MetadataEnricher.BookmarkMetadata;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Access to the page metadata in {@code bookmark_metadata}, for the background enrichment.
+ * Runs on the {@link JdbcTemplateConfig#BULK} template: the catch-up query asks for as many
+ * bookmarks as the queue holds, beyond {@code spring.jdbc.template.max-rows}.
+ */
+@Repository
+public class BookmarkMetadataRepository {
+
+    private static final String UPSERT_SQL = "MERGE INTO bookmark_metadata t "
+            + "USING (SELECT v.* FROM (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(2048)), CAST(? AS VARCHAR(20)), "
+            + "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(500)), CAST(? AS VARCHAR(2048)), CAST(? AS VARCHAR(2048)), "
+            + "CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP))) "
+            + "AS v(bookmark_id, source_url, status, title, description, canonical_url, favicon_url, error, fetched_at) "
+            + "WHERE EXISTS (SELECT 1 FROM bookmarks b WHERE b.id = v.bookmark_id)) AS s "
+            + "ON t.bookmark_id = s.bookmark_id "
+            // A failed re-fetch of the same URL keeps the metadata fetched before
+            + "WHEN MATCHED AND s.status <> 'OK' AND t.source_url = s.source_url THEN UPDATE SET "
+            + "status = s.status, error = s.error, fetched_at = s.fetched_at "
+            + "WHEN MATCHED THEN UPDATE SET source_url = s.source_url, status = s.status, title = s.title, "
+            + "description = s.description, canonical_url = s.canonical_url, favicon_url = s.favicon_url, "
+            + "error = s.error, fetched_at = s.fetched_at "
+            + "WHEN NOT MATCHED THEN INSERT (bookmark_id, source_url, status, title, description, canonical_url, "
+            + "favicon_url, error, fetched_at) VALUES (s.bookmark_id, s.source_url, s.status, s.title, s.description, "
+            + "s.canonical_url, s.favicon_url, s.error, s.fetched_at)";
+
+    private static final String MISSING_SQL = "SELECT b.id FROM bookmarks b "
+            + "LEFT JOIN bookmark_metadata m ON m.bookmark_id = b.id "
+            + "WHERE b.created_at >= ? AND (m.bookmark_id IS NULL OR m.source_url <> b.url) ORDER BY b.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BookmarkMetadataRepository(@Qualifier(JdbcTemplateConfig.BULK) JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<BookmarkMetadata> findById(Long bookmarkId) {
+        return jdbcTemplate.query("SELECT bookmark_id, source_url, status, title, description, canonical_url, "
+                        + "favicon_url, error, fetched_at FROM bookmark_metadata WHERE bookmark_id = ?",
+                (resultSet, rowNum) -> new BookmarkMetadata(resultSet.getLong(1), resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getString(4), resultSet.getString(5), resultSet.getString(6),
+                        resultSet.getString(7), resultSet.getString(8), resultSet.getTimestamp(9).toLocalDateTime()),
+                bookmarkId).stream().findFirst();
+    }
+
+    /**
+     * Returns the URL of the bookmark, unless its metadata was already fetched from that URL.
+     *
+     * @return the URL to fetch, or empty if the bookmark doesn't exist or needs no fetch
+     */
+    public Optional<String> findUrlToFetch(Long bookmarkId) {
+        return jdbcTemplate.queryForList("SELECT b.url FROM bookmarks b "
+                        + "LEFT JOIN bookmark_metadata m ON m.bookmark_id = b.id "
+                        + "WHERE b.id = ? AND (m.bookmark_id IS NULL OR m.status <> 'OK' OR m.source_url <> b.url)",
+                String.class, bookmarkId).stream().findFirst();
+    }
+
+    /**
+     * Returns up to {@code limit} IDs of bookmarks created since the given time that have no
+     * metadata for their current URL, in ID order.
+     */
+    public List<Long> findIdsWithoutMetadata(LocalDateTime createdSince, int limit) {
+        return jdbcTemplate.queryForList(MISSING_SQL, Long.class, Timestamp.valueOf(createdSince), limit);
+    }
+
+    /**
+     * Stores the fetched metadata in one batch. A failed fetch of the URL the stored metadata
+     * came from only records the failure; metadata of deleted bookmarks is skipped.
+     */
+    public void saveAll(List<BookmarkMetadata> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (BookmarkMetadata metadata : batch) {
+            rows.add(new Object[]{metadata.bookmarkId(), metadata.sourceUrl(), metadata.status(), metadata.title(),
+                    metadata.description(), metadata.canonicalUrl(), metadata.faviconUrl(), metadata.error(),
+                    Timestamp.valueOf(metadata.fetchedAt())});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+}
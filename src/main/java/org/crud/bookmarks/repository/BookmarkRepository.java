@@ -1,31 +1,74 @@
 package org.crud.bookmarks.repository;
 
 import org.crud.bookmarks.Bookmark;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface BookmarkRepository extends CrudRepository<Bookmark, Long>, PagingAndSortingRepository<Bookmark, Long> {
+public interface BookmarkRepository extends CrudRepository<Bookmark, Long>, PagingAndSortingRepository<Bookmark, Long>,
+        BookmarkRepositoryCustom {
 
     List<Bookmark> findByFolderId(Long folderId);
 
-    Page<Bookmark> findByFolderId(Long folderId, Pageable pageable);
-
     List<Bookmark> findByFolderIdOrderByCreatedAtDesc(Long folderId);
 
     List<Bookmark> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String title, String description);
 
-    Page<Bookmark> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(String title, String description, Pageable pageable);
-
     int countByFolderId(Long folderId);
 
+    @Query(value = "SELECT " + BookmarkRowMapper.COLUMNS + " FROM bookmarks b " +
+           "JOIN folder_paths p ON p.descendant_id = b.folder_id WHERE p.ancestor_id = :folderId ORDER BY b.title",
+           rowMapperClass = BookmarkRowMapper.class)
+    List<Bookmark> findInFolderTree(@Param("folderId") Long folderId);
+
+    @Query(value = "SELECT " + BookmarkRowMapper.COLUMNS + " FROM bookmarks b " +
+           "JOIN folder_paths p ON p.descendant_id = b.folder_id WHERE p.ancestor_id = :folderId " +
+           "AND (UPPER(b.title) LIKE UPPER(CONCAT('%', :searchTerm, '%')) " +
+           "OR UPPER(b.description) LIKE UPPER(CONCAT('%', :searchTerm, '%'))) ORDER BY b.title",
+           rowMapperClass = BookmarkRowMapper.class)
+    List<Bookmark> searchInFolderTree(@Param("folderId") Long folderId, @Param("searchTerm") String searchTerm);
+
+    @Query("SELECT COUNT(*) FROM bookmarks b JOIN folder_paths p ON p.descendant_id = b.folder_id " +
+           "WHERE p.ancestor_id = :folderId")
+    int countInFolderTree(@Param("folderId") Long folderId);
+
+    @Query(value = "SELECT " + BookmarkRowMapper.COLUMNS + " FROM bookmarks WHERE id IN (:ids)",
+           rowMapperClass = BookmarkRowMapper.class)
+    List<Bookmark> findByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT " + BookmarkRowMapper.COLUMNS + " FROM bookmarks " +
+                   "ORDER BY created_at DESC NULLS LAST, id DESC LIMIT :limit",
+           rowMapperClass = BookmarkRowMapper.class)
+    List<Bookmark> findMostRecent(@Param("limit") int limit);
+
+    @Query("SELECT COUNT(*) FROM bookmarks WHERE folder_id IS NULL")
+    long countUnfiled();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM bookmarks WHERE id IN (:ids)")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE bookmarks SET folder_id = :folderId, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE id IN (:ids)")
+    int updateFolderIdByIdIn(@Param("ids") Collection<Long> ids, @Param("folderId") Long folderId);
+
+    List<Bookmark> findByUrlHash(Long urlHash);
+
+    @Query("SELECT url FROM bookmarks WHERE id = :id")
+    Optional<String> findUrlById(@Param("id") Long id);
+
     default List<Bookmark> searchBookmarks(String searchTerm) {
         return findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(searchTerm, searchTerm);
     }
@@ -0,0 +1,55 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkFilter;
+import org.crud.bookmarks.BookmarkPatch;
+import org.crud.bookmarks.BookmarkSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Hand-written bookmark queries that can't be expressed as derived or annotated queries.
+ */
+public interface BookmarkRepositoryCustom {
+
+    /**
+     * Applies the properties present in the patch with a single conditional
+     * {@code UPDATE ... WHERE id = ? AND version = ?}, incrementing the version.
+     *
+     * @return the number of rows updated: 0 if the bookmark doesn't exist or the version didn't match
+     */
+    int patch(Long id, BookmarkPatch patch);
+
+    /**
+     * Locks the given bookmarks for update and counts them by registrable domain, so the
+     * per-domain statistics can be decremented before the rows are deleted.
+     *
+     * @return the number of existing bookmarks per domain; bookmarks without a domain are left out
+     */
+    Map<String, Integer> lockAndCountByDomain(Collection<Long> ids);
+
+    /**
+     * Returns a page of the bookmarks matching the filter, mapped by {@link BookmarkRowMapper}.
+     *
+     * @throws IllegalArgumentException if the page is sorted by an unknown property
+     */
+    Page<Bookmark> findPage(BookmarkFilter filter, Pageable pageable);
+
+    /**
+     * Like {@link #findPage(BookmarkFilter, Pageable)}, selecting only the columns of a {@link BookmarkSummary}.
+     *
+     * @throws IllegalArgumentException if the page is sorted by an unknown property
+     */
+    Page<BookmarkSummary> findSummaryPage(BookmarkFilter filter, Pageable pageable);
+
+    /**
+     * Like {@link #findPage(BookmarkFilter, Pageable)}, selecting only the columns of the given
+     * fields and returning each bookmark as a map of those fields, see {@link BookmarkFieldsRowMapper}.
+     *
+     * @throws IllegalArgumentException if a field is unknown or the page is sorted by an unknown property
+     */
+    Page<Map<String, Object>> findFieldsPage(BookmarkFilter filter, Collection<String> fields, Pageable pageable);
+}
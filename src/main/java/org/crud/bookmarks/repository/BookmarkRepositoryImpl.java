@@ -0,0 +1,154 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkFilter;
+import org.crud.bookmarks.BookmarkPatch;
+import org.crud.bookmarks.BookmarkSummary;
+import org.crud.bookmarks.service.UrlNormalizer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link BookmarkRepositoryCustom}, picked up by Spring Data through the {@code Impl} suffix.
+ */
+public class BookmarkRepositoryImpl implements BookmarkRepositoryCustom {
+
+    private static final RowMapper<Bookmark> BOOKMARK_MAPPER = new BookmarkRowMapper();
+    private static final RowMapper<BookmarkSummary> SUMMARY_MAPPER = new BookmarkSummaryRowMapper();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public BookmarkRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int patch(Long id, BookmarkPatch patch) {
+        StringBuilder sql = new StringBuilder("UPDATE bookmarks SET ");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("version", patch.getVersion());
+
+        if (patch.hasTitle()) {
+            sql.append("title = :title, ");
+            params.addValue("title", patch.getTitle());
+        }
+        if (patch.hasDescription()) {
+            sql.append("description = :description, ");
+            params.addValue("description", patch.getDescription());
+        }
+        if (patch.hasUrl()) {
+            String host = UrlNormalizer.host(patch.getUrl());
+            sql.append("url = :url, url_hash = :urlHash, host = :host, domain = :domain, ");
+            params.addValue("url", patch.getUrl());
+            params.addValue("urlHash", UrlNormalizer.normalizedHash(patch.getUrl()));
+            params.addValue("host", host);
+            params.addValue("domain", UrlNormalizer.registrableDomain(host));
+        }
+        if (patch.hasFolderId()) {
+            sql.append("folder_id = :folderId, ");
+            params.addValue("folderId", patch.getFolderId());
+        }
+        sql.append("version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = :id AND version = :version");
+
+        return jdbcTemplate.update(sql.toString(), params);
+    }
+
+    @Override
+    public Map<String, Integer> lockAndCountByDomain(Collection<Long> ids) {
+        Map<String, Integer> counts = new HashMap<>();
+        if (ids.isEmpty()) {
+            return counts;
+        }
+        jdbcTemplate.query("SELECT domain FROM bookmarks WHERE id IN (:ids) FOR UPDATE",
+                new MapSqlParameterSource("ids", ids),
+                (RowCallbackHandler) resultSet -> {
+                    String domain = resultSet.getString(1);
+                    if (domain != null) {
+                        counts.merge(domain, 1, Integer::sum);
+                    }
+                });
+        return counts;
+    }
+
+    @Override
+    public Page<Bookmark> findPage(BookmarkFilter filter, Pageable pageable) {
+        return findPage(BookmarkRowMapper.COLUMNS, BOOKMARK_MAPPER, filter, pageable);
+    }
+
+    @Override
+    public Page<BookmarkSummary> findSummaryPage(BookmarkFilter filter, Pageable pageable) {
+        return findPage(BookmarkSummaryRowMapper.COLUMNS, SUMMARY_MAPPER, filter, pageable);
+    }
+
+    @Override
+    public Page<Map<String, Object>> findFieldsPage(BookmarkFilter filter, Collection<String> fields, Pageable pageable) {
+        BookmarkFieldsRowMapper mapper = new BookmarkFieldsRowMapper(fields);
+        return findPage(mapper.getColumns(), mapper, filter, pageable);
+    }
+
+    private <T> Page<T> findPage(String columns, RowMapper<T> mapper, BookmarkFilter filter, Pageable pageable) {
+        String orderBy = orderBy(pageable.getSort());
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String where = where(filter, params);
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM bookmarks")
+                .append(where).append(orderBy);
+        if (pageable.isPaged()) {
+            sql.append(" LIMIT :limit OFFSET :offset");
+            params.addValue("limit", pageable.getPageSize()).addValue("offset", pageable.getOffset());
+        }
+        List<T> content = jdbcTemplate.query(sql.toString(), params, mapper);
+        // Like Spring Data, the count query is skipped when the page itself tells the total
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks" + where, params, Long.class));
+    }
+
+    private static String where(BookmarkFilter filter, MapSqlParameterSource params) {
+        if (filter.folderId() != null) {
+            params.addValue("folderId", filter.folderId());
+            return " WHERE folder_id = :folderId";
+        }
+        if (filter.host() != null) {
+            params.addValue("host", filter.host());
+            return " WHERE host = :host";
+        }
+        if (filter.domain() != null) {
+            params.addValue("domain", filter.domain());
+            return " WHERE domain = :domain";
+        }
+        if (filter.searchTerm() != null) {
+            // Same matching as a derived ContainingIgnoreCase query: wildcards in the term are literal
+            String escaped = filter.searchTerm().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            params.addValue("pattern", "%" + escaped + "%");
+            return " WHERE UPPER(title) LIKE UPPER(:pattern) ESCAPE '\\' OR UPPER(description) LIKE UPPER(:pattern) ESCAPE '\\'";
+        }
+        return "";
+    }
+
+    private static String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        boolean byId = false;
+        for (Sort.Order order : sort) {
+            // Only known properties reach the SQL
+            String column = BookmarkFieldsRowMapper.column(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Cannot sort bookmarks by " + order.getProperty());
+            }
+            orderBy.append(column).append(order.isAscending() ? " ASC, " : " DESC, ");
+            byId |= column.equals("id");
+        }
+        // Ties are broken by ID so that pages don't overlap or skip rows
+        return byId ? orderBy.substring(0, orderBy.length() - 2) : orderBy.append("id").toString();
+    }
+}
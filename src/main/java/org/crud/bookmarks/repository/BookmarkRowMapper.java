@@ -0,0 +1,47 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Bookmark;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Maps rows selected with {@link #COLUMNS}, in that order, to bookmarks.
+ * <p>
+ * Spring Data's entity mapping resolves every property through reflection and the conversion
+ * service on each row. This mapper reads the columns by position into the setters, so a row
+ * costs the entity and its field values and nothing else. Queries using it must select exactly
+ * {@link #COLUMNS}.
+ */
+public class BookmarkRowMapper implements RowMapper<Bookmark> {
+
+    public static final String COLUMNS = "id, title, description, url, folder_id, url_hash, host, domain, "
+            + "visit_count, last_visited_at, version, created_at, updated_at";
+
+    @Override
+    public Bookmark mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        Bookmark bookmark = new Bookmark(resultSet.getString(2), resultSet.getString(4));
+        bookmark.setId(resultSet.getLong(1));
+        bookmark.setDescription(resultSet.getString(3));
+        bookmark.setFolderId(getLong(resultSet, 5));
+        bookmark.setUrlHash(getLong(resultSet, 6));
+        bookmark.setHost(resultSet.getString(7));
+        bookmark.setDomain(resultSet.getString(8));
+        bookmark.setVisitCount(resultSet.getLong(9));
+        bookmark.setLastVisitedAt(resultSet.getObject(10, LocalDateTime.class));
+        bookmark.setVersion(getLong(resultSet, 11));
+        bookmark.setCreatedAt(resultSet.getObject(12, LocalDateTime.class));
+        bookmark.setUpdatedAt(resultSet.getObject(13, LocalDateTime.class));
+        return bookmark;
+    }
+
+    /**
+     * Reads a nullable BIGINT without going through {@code getObject} and its type lookup.
+     */
+    static Long getLong(ResultSet resultSet, int column) throws SQLException {
+        long value = resultSet.getLong(column);
+        return resultSet.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,21 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.BookmarkSummary;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rows selected with {@link #COLUMNS}, in that order, to {@link BookmarkSummary} projections.
+ */
+public class BookmarkSummaryRowMapper implements RowMapper<BookmarkSummary> {
+
+    public static final String COLUMNS = "id, title, url, folder_id";
+
+    @Override
+    public BookmarkSummary mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        return new BookmarkSummary(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                BookmarkRowMapper.getLong(resultSet, 4));
+    }
+}
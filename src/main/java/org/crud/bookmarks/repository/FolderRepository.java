@@ -1,28 +1,127 @@
 package org.crud.bookmarks.repository;
 
 import org.crud.bookmarks.Folder;
+import org.springframework.data.jdbc.repository.query.Modifying;
 import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FolderRepository extends CrudRepository<Folder, Long> {
     
-    @Query("SELECT * FROM folders ORDER BY name ASC")
+    @Query(value = "SELECT " + FolderRowMapper.COLUMNS + " FROM folders ORDER BY name ASC",
+           rowMapperClass = FolderRowMapper.class)
     List<Folder> findAllOrderByName();
     
-    @Query("SELECT * FROM folders WHERE LOWER(name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    @Query(value = "SELECT " + FolderRowMapper.COLUMNS + " FROM folders " +
+           "WHERE LOWER(name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
+           "OR LOWER(description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))",
+           rowMapperClass = FolderRowMapper.class)
     List<Folder> searchFolders(@Param("searchTerm") String searchTerm);
     
     boolean existsByName(String name);
+
+    @Query(value = "SELECT " + FolderRowMapper.COLUMNS + " FROM folders WHERE name_key = LOWER(:name)",
+           rowMapperClass = FolderRowMapper.class)
+    Optional<Folder> findByNameIgnoreCase(@Param("name") String name);
+
+    /**
+     * Creates the folder if no folder with this name (case-insensitive) exists, otherwise updates
+     * its description. Repeating the call with the same arguments changes nothing.
+     */
+    @Modifying
+    @Transactional
+    @Query("MERGE INTO folders f " +
+           "USING (VALUES (CAST(:name AS VARCHAR(255)), CAST(:description AS VARCHAR(500)))) AS s(name, description) " +
+           "ON f.name_key = LOWER(s.name) " +
+           "WHEN MATCHED AND f.description IS DISTINCT FROM s.description THEN " +
+           "UPDATE SET description = s.description, updated_at = CURRENT_TIMESTAMP, version = f.version + 1 " +
+           "WHEN NOT MATCHED THEN INSERT (name, description) VALUES (s.name, s.description)")
+    int upsertByName(@Param("name") String name, @Param("description") String description);
     
-    @Query("SELECT f.*, COUNT(b.id) as bookmark_count " +
-           "FROM folders f " +
-           "LEFT JOIN bookmarks b ON f.id = b.folder_id " +
-           "GROUP BY f.id")
+    /**
+     * Returns the folder and all folders nested below it, level by level.
+     */
+    @Query(value = "SELECT " + FolderRowMapper.COLUMNS + " FROM folders f JOIN folder_paths p ON p.descendant_id = f.id " +
+           "WHERE p.ancestor_id = :id ORDER BY p.depth, f.name",
+           rowMapperClass = FolderRowMapper.class)
+    List<Folder> findSubtree(@Param("id") Long id);
+
+    @Query("SELECT COUNT(*) > 0 FROM folder_paths WHERE ancestor_id = :ancestorId AND descendant_id = :descendantId")
+    boolean isInSubtree(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+
+    /**
+     * Adds the closure rows of a new folder: one per ancestor of its parent plus its own row.
+     * A null parent makes it a root.
+     */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO folder_paths (ancestor_id, descendant_id, depth) " +
+           "SELECT ancestor_id, CAST(:id AS BIGINT), depth + 1 FROM folder_paths WHERE descendant_id = :parentId " +
+           "UNION ALL SELECT CAST(:id AS BIGINT), CAST(:id AS BIGINT), 0")
+    int insertPaths(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /**
+     * Adds the folder's own closure row if it doesn't have one yet.
+     */
+    @Modifying
+    @Transactional
+    @Query("MERGE INTO folder_paths (ancestor_id, descendant_id, depth) KEY (ancestor_id, descendant_id) " +
+           "VALUES (:id, :id, 0)")
+    int insertSelfPath(@Param("id") Long id);
+
+    @Query("SELECT id FROM folders WHERE id = :id FOR UPDATE")
+    Optional<Long> lockById(@Param("id") Long id);
+
+    /**
+     * Locks the subtree of a folder and the ancestors of its future parent, so concurrent moves
+     * of overlapping subtrees are serialized and can't create a cycle, and folders being created
+     * inside the subtree are either moved along or see the new ancestors.
+     */
+    @Query("SELECT id FROM folders " +
+           "WHERE id IN (SELECT descendant_id FROM folder_paths WHERE ancestor_id = :id) " +
+           "OR id IN (SELECT ancestor_id FROM folder_paths WHERE descendant_id = :parentId) FOR UPDATE")
+    List<Long> lockForMove(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /**
+     * Removes the closure rows linking a folder's subtree to the folder's current ancestors.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM folder_paths " +
+           "WHERE descendant_id IN (SELECT descendant_id FROM folder_paths WHERE ancestor_id = :id) " +
+           "AND ancestor_id IN (SELECT ancestor_id FROM folder_paths WHERE descendant_id = :id AND depth > 0)")
+    int detachSubtree(@Param("id") Long id);
+
+    /**
+     * Links every folder of a detached subtree to the new parent and its ancestors.
+     */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO folder_paths (ancestor_id, descendant_id, depth) " +
+           "SELECT up.ancestor_id, down.descendant_id, up.depth + down.depth + 1 " +
+           "FROM folder_paths up JOIN folder_paths down ON down.ancestor_id = :id " +
+           "WHERE up.descendant_id = :parentId")
+    int attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE folders SET parent_id = :parentId, version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+           "WHERE id = :id")
+    int updateParentId(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    /**
+     * Returns all folders by name with the number of bookmarks directly in each, counted
+     * through the folder index.
+     */
+    @Query(value = "SELECT " + FolderRowMapper.COLUMNS + ", " +
+           "(SELECT COUNT(*) FROM bookmarks b WHERE b.folder_id = f.id) AS bookmark_count " +
+           "FROM folders f ORDER BY name ASC",
+           rowMapperClass = FolderRowMapper.WithBookmarkCount.class)
     List<Folder> findAllWithBookmarkCount();
 }
\ No newline at end of file
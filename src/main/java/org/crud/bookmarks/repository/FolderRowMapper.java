@@ -0,0 +1,41 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Folder;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * Maps rows selected with {@link #COLUMNS}, in that order, to folders; see {@link BookmarkRowMapper}.
+ */
+public class FolderRowMapper implements RowMapper<Folder> {
+
+    public static final String COLUMNS = "id, name, description, parent_id, version, created_at, updated_at";
+
+    @Override
+    public Folder mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        Folder folder = new Folder(resultSet.getString(2));
+        folder.setId(resultSet.getLong(1));
+        folder.setDescription(resultSet.getString(3));
+        folder.setParentId(BookmarkRowMapper.getLong(resultSet, 4));
+        folder.setVersion(BookmarkRowMapper.getLong(resultSet, 5));
+        folder.setCreatedAt(resultSet.getObject(6, LocalDateTime.class));
+        folder.setUpdatedAt(resultSet.getObject(7, LocalDateTime.class));
+        return folder;
+    }
+
+    /**
+     * Maps rows selected with {@link #COLUMNS} followed by the number of bookmarks in the folder.
+     */
+    public static class WithBookmarkCount extends FolderRowMapper {
+
+        @Override
+        public Folder mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+            Folder folder = super.mapRow(resultSet, rowNum);
+            folder.setBookmarkCount(resultSet.getLong(8));
+            return folder;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.HostCount;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Access to the per-domain bookmark counts. The counts are adjusted in the same transaction
+ * as the bookmark writes, so reading the top domains never has to scan the bookmarks table.
+ */
+@org.springframework.stereotype.Repository
+public interface HostStatsRepository extends Repository<HostCount, String> {
+
+    @Query("SELECT * FROM host_stats ORDER BY bookmark_count DESC, domain ASC LIMIT :limit")
+    List<HostCount> findTop(@Param("limit") int limit);
+
+    /**
+     * Adds the delta to the domain's count, creating the row on first use and removing it
+     * once no bookmarks are left.
+     */
+    @Modifying
+    @Transactional
+    @Query("MERGE INTO host_stats h " +
+           "USING (VALUES (CAST(:domain AS VARCHAR(255)), CAST(:delta AS BIGINT))) AS s(domain, delta) " +
+           "ON h.domain = s.domain " +
+           "WHEN MATCHED AND h.bookmark_count + s.delta <= 0 THEN DELETE " +
+           "WHEN MATCHED THEN UPDATE SET bookmark_count = h.bookmark_count + s.delta " +
+           "WHEN NOT MATCHED AND s.delta > 0 THEN INSERT (domain, bookmark_count) VALUES (s.domain, s.delta)")
+    int adjust(@Param("domain") String domain, @Param("delta") long delta);
+
+    /**
+     * Recomputes all counts from the bookmarks table. Together with {@link #deleteStale()} this
+     * repairs the aggregate after a backfill or restore.
+     */
+    @Modifying
+    @Transactional
+    @Query("MERGE INTO host_stats h " +
+           "USING (SELECT domain, COUNT(*) AS bookmark_count FROM bookmarks WHERE domain IS NOT NULL GROUP BY domain) AS s " +
+           "ON h.domain = s.domain " +
+           "WHEN MATCHED AND h.bookmark_count <> s.bookmark_count THEN UPDATE SET bookmark_count = s.bookmark_count " +
+           "WHEN NOT MATCHED THEN INSERT (domain, bookmark_count) VALUES (s.domain, s.bookmark_count)")
+    int recount();
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM host_stats h WHERE NOT EXISTS (SELECT 1 FROM bookmarks b WHERE b.domain = h.domain)")
+    int deleteStale();
+}
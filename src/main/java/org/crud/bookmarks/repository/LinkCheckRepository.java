@@ -0,0 +1,104 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.service.LinkRotScanner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access to the link check results in {@code link_checks} and the sweep position in
+ * {@code link_scan_state}, for {@link LinkRotScanner}.
+ */
+@Repository
+public class LinkCheckRepository {
+
+    private static final String UPSERT_CHECK_SQL = "MERGE INTO link_checks t "
+            + "USING (SELECT v.* FROM (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(20)), CAST(? AS INT), "
+            + "CAST(? AS VARCHAR(255)), CAST(? AS TIMESTAMP))) AS v(bookmark_id, status, http_status, error, checked_at) "
+            + "WHERE EXISTS (SELECT 1 FROM bookmarks b WHERE b.id = v.bookmark_id)) AS s "
+            + "ON t.bookmark_id = s.bookmark_id "
+            + "WHEN MATCHED THEN UPDATE SET status = s.status, http_status = s.http_status, error = s.error, "
+            + "last_checked_at = s.checked_at, "
+            + "consecutive_failures = CASE WHEN s.status = 'OK' THEN 0 ELSE t.consecutive_failures + 1 END "
+            + "WHEN NOT MATCHED THEN INSERT (bookmark_id, status, http_status, error, last_checked_at, consecutive_failures) "
+            + "VALUES (s.bookmark_id, s.status, s.http_status, s.error, s.checked_at, "
+            + "CASE WHEN s.status = 'OK' THEN 0 ELSE 1 END)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LinkCheckRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The persisted position of the sweep.
+     *
+     * @param cursor ID of the last bookmark checked in the current sweep
+     * @param sweepStartedAt start of the current sweep, or null between sweeps
+     */
+    public record ScanState(long cursor, LocalDateTime sweepStartedAt, LocalDateTime lastSweepFinishedAt) {
+    }
+
+    /**
+     * The result of checking one bookmark URL.
+     *
+     * @param status {@code OK}, {@code BROKEN} or {@code UNREACHABLE}
+     */
+    public record LinkCheck(long bookmarkId, String status, Integer httpStatus, String error, LocalDateTime checkedAt) {
+    }
+
+    public ScanState loadState() {
+        return jdbcTemplate.queryForObject(
+                "SELECT cursor_id, sweep_started_at, last_sweep_finished_at FROM link_scan_state WHERE id = 1",
+                (resultSet, rowNum) -> new ScanState(resultSet.getLong(1), toLocalDateTime(resultSet.getTimestamp(2)),
+                        toLocalDateTime(resultSet.getTimestamp(3))));
+    }
+
+    public void startSweep(LocalDateTime startedAt) {
+        jdbcTemplate.update("UPDATE link_scan_state SET sweep_started_at = ?, cursor_id = 0 WHERE id = 1",
+                Timestamp.valueOf(startedAt));
+    }
+
+    public void finishSweep() {
+        jdbcTemplate.update("UPDATE link_scan_state SET sweep_started_at = NULL, cursor_id = 0, "
+                + "last_sweep_finished_at = CURRENT_TIMESTAMP WHERE id = 1");
+    }
+
+    public void moveCursor(long cursor) {
+        jdbcTemplate.update("UPDATE link_scan_state SET cursor_id = ? WHERE id = 1", cursor);
+    }
+
+    /**
+     * Records the checks in one batch, counting consecutive failures per bookmark. Checks of
+     * bookmarks deleted in the meantime are skipped.
+     */
+    public void saveAll(List<LinkCheck> checks) {
+        List<Object[]> batch = new ArrayList<>(checks.size());
+        for (LinkCheck check : checks) {
+            batch.add(new Object[]{check.bookmarkId(), check.status(), check.httpStatus(), check.error(),
+                    Timestamp.valueOf(check.checkedAt())});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_CHECK_SQL, batch);
+    }
+
+    /**
+     * Returns the bookmarks whose last check failed, most consecutive failures first.
+     */
+    public List<LinkRotScanner.BrokenLink> findBroken(int limit) {
+        return jdbcTemplate.query("SELECT b.id, b.title, b.url, c.status, c.http_status, c.error, c.last_checked_at, "
+                        + "c.consecutive_failures FROM link_checks c JOIN bookmarks b ON b.id = c.bookmark_id "
+                        + "WHERE c.status <> 'OK' ORDER BY c.consecutive_failures DESC, c.last_checked_at DESC LIMIT ?",
+                (resultSet, rowNum) -> new LinkRotScanner.BrokenLink(resultSet.getLong(1), resultSet.getString(2),
+                        resultSet.getString(3), resultSet.getString(4), (Integer) resultSet.getObject(5),
+                        resultSet.getString(6), toLocalDateTime(resultSet.getTimestamp(7)), resultSet.getInt(8)),
+                limit);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,82 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.config.JdbcTemplateConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Table-level reads and writes for snapshots, on the {@link JdbcTemplateConfig#BULK} template:
+ * a snapshot copies whole tables, beyond {@code spring.jdbc.template.max-rows} and query-timeout.
+ * Table and column names are interpolated into the SQL, so callers must only pass known tables
+ * and validated column names.
+ */
+@Repository
+public class SnapshotRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SnapshotRepository(@Qualifier(JdbcTemplateConfig.BULK) JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reads all rows and columns of a table in the given order.
+     */
+    public <T> T queryTable(String table, String orderBy, ResultSetExtractor<T> extractor) {
+        return jdbcTemplate.query("SELECT * FROM " + table + " ORDER BY " + orderBy, extractor);
+    }
+
+    public void deleteAll(String table) {
+        jdbcTemplate.update("DELETE FROM " + table);
+    }
+
+    /**
+     * Returns the lower-case names of the columns of a table that can be written to, leaving out
+     * generated columns.
+     */
+    public Set<String> findWritableColumns(String table) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT LOWER(column_name) FROM information_schema.columns "
+                + "WHERE LOWER(table_name) = ? AND is_generated = 'NEVER'", String.class, table));
+    }
+
+    /**
+     * Inserts rows in one batch, each with the values of the given columns in order.
+     */
+    public void insertAll(String table, List<String> columns, List<Object[]> rows) {
+        String sql = "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")";
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    /**
+     * Recreates the folder closure table from the parent references, one tree level per statement.
+     */
+    public void rebuildFolderPaths() {
+        int folders = jdbcTemplate.update(
+                "INSERT INTO folder_paths (ancestor_id, descendant_id, depth) SELECT id, id, 0 FROM folders");
+        for (int depth = 0; depth < folders; depth++) {
+            int added = jdbcTemplate.update("INSERT INTO folder_paths (ancestor_id, descendant_id, depth) "
+                    + "SELECT p.ancestor_id, f.id, p.depth + 1 FROM folders f "
+                    + "JOIN folder_paths p ON p.descendant_id = f.parent_id WHERE p.depth = ?", depth);
+            if (added == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Lets the identity column of a table continue after its highest ID.
+     */
+    public void restartIdentity(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+}
@@ -0,0 +1,60 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.config.JdbcTemplateConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads of the {@code bookmark_tags} assignments for the in-memory tag index, on the
+ * {@link JdbcTemplateConfig#BULK} template so results aren't cut off at {@code spring.jdbc.template.max-rows}.
+ */
+@Repository
+public class TagBulkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public TagBulkRepository(@Qualifier(JdbcTemplateConfig.BULK) JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    @FunctionalInterface
+    public interface AssignmentHandler {
+        void accept(long tagId, long bookmarkId);
+    }
+
+    /**
+     * Streams every assignment, ordered by tag and bookmark ID.
+     */
+    public void forEachAssignment(AssignmentHandler handler) {
+        jdbcTemplate.query("SELECT tag_id, bookmark_id FROM bookmark_tags ORDER BY tag_id, bookmark_id",
+                (RowCallbackHandler) resultSet -> handler.accept(resultSet.getLong(1), resultSet.getLong(2)));
+    }
+
+    /**
+     * Returns which of the bookmarks carry which of the tags.
+     *
+     * @return the assigned bookmark IDs by tag ID, for tags with any of the bookmarks
+     */
+    public Map<Long, Set<Long>> findAssignments(Collection<Long> tagIds, Collection<Long> bookmarkIds) {
+        Map<Long, Set<Long>> assigned = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT tag_id, bookmark_id FROM bookmark_tags WHERE tag_id IN (:tagIds) AND bookmark_id IN (:bookmarkIds)",
+                new MapSqlParameterSource("tagIds", tagIds).addValue("bookmarkIds", bookmarkIds),
+                (RowCallbackHandler) resultSet -> assigned
+                        .computeIfAbsent(resultSet.getLong(1), key -> new HashSet<>())
+                        .add(resultSet.getLong(2)));
+        return assigned;
+    }
+}
@@ -0,0 +1,53 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Tag;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TagRepository extends CrudRepository<Tag, Long> {
+
+    @Query("SELECT * FROM tags ORDER BY name ASC")
+    List<Tag> findAllOrderByName();
+
+    @Query("SELECT t.* FROM tags t JOIN bookmark_tags bt ON bt.tag_id = t.id " +
+           "WHERE bt.bookmark_id = :bookmarkId ORDER BY t.name ASC")
+    List<Tag> findByBookmarkId(@Param("bookmarkId") Long bookmarkId);
+
+    @Query("SELECT tag_id FROM bookmark_tags WHERE bookmark_id = :bookmarkId")
+    List<Long> findTagIdsByBookmarkId(@Param("bookmarkId") Long bookmarkId);
+
+    /**
+     * Attaches the tag to those of the given bookmarks that exist and don't have it yet.
+     *
+     * @return the number of bookmarks newly tagged
+     */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO bookmark_tags (bookmark_id, tag_id) " +
+           "SELECT b.id, :tagId FROM bookmarks b WHERE b.id IN (:bookmarkIds) " +
+           "AND NOT EXISTS (SELECT 1 FROM bookmark_tags bt WHERE bt.bookmark_id = b.id AND bt.tag_id = :tagId)")
+    int addBookmarks(@Param("tagId") Long tagId, @Param("bookmarkIds") Collection<Long> bookmarkIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM bookmark_tags WHERE tag_id = :tagId AND bookmark_id IN (:bookmarkIds)")
+    int removeBookmarks(@Param("tagId") Long tagId, @Param("bookmarkIds") Collection<Long> bookmarkIds);
+
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO bookmark_tags (bookmark_id, tag_id) SELECT :bookmarkId, id FROM tags WHERE id IN (:tagIds)")
+    int addTags(@Param("bookmarkId") Long bookmarkId, @Param("tagIds") Collection<Long> tagIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM bookmark_tags WHERE bookmark_id = :bookmarkId")
+    int removeAllTags(@Param("bookmarkId") Long bookmarkId);
+}
@@ -0,0 +1,14 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+
+import java.util.List;
+
+/**
+ * Bookmarks looked up by a list of ids.
+ *
+ * @param bookmarks the existing bookmarks, in the order their ids were requested, each once
+ * @param missing the requested ids with no bookmark, in the order requested
+ */
+public record BookmarkBatch(List<Bookmark> bookmarks, List<Long> missing) {
+}
@@ -0,0 +1,572 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact columnar in-memory copy of bookmarks.
+ * <p>
+ * A {@link Bookmark} costs several hundred bytes on the heap: the object, a boxed {@code Long}
+ * per ID, two {@code LocalDateTime}s and a {@code String} per text field, each with its own
+ * header. Here every field is a column of primitives instead:
+ * <ul>
+ *     <li>IDs, folder IDs, versions, visit counts and timestamps (epoch millis, UTC) in
+ *     {@code long[]}s</li>
+ *     <li>title, description and URL path of a row as one block of UTF-8 in an arena of 1 MB
+ *     pages, addressed by a {@code long} and three {@code short} lengths</li>
+ *     <li>URLs split into their {@code scheme://authority} prefix and the rest; prefixes, hosts
+ *     and domains are references into one deduplicated string dictionary</li>
+ * </ul>
+ * Rows are kept dense: a removed row is filled with the last one. IDs map to rows through an
+ * open-addressing {@code long} hash table, so lookups don't box. Replaced and removed text
+ * leaves garbage in the arena, which is compacted once it exceeds the live bytes. The arena
+ * grows a page at a time, so growing never copies text. Timestamps are kept at millisecond
+ * precision. Dictionary entries are never removed; there are far fewer hosts than bookmarks.
+ * The number of bookmarks per folder is kept up to date with every change, so counting doesn't
+ * scan the rows.
+ * <p>
+ * Visit counts are taken from a bookmark only when it's added and then change only through
+ * {@link #addVisits}: saved bookmarks carry the counts they were read with, which visits flushed
+ * since may have passed. Not thread-safe.
+ */
+final class BookmarkCatalog {
+
+    static final long NONE = Long.MIN_VALUE;
+
+    private static final short NULL_LENGTH = -1;
+    private static final int PAGE_BITS = 20;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final long MIN_COMPACT_GARBAGE = PAGE_SIZE;
+
+    // Row columns
+    private long[] ids;
+    private long[] folderIds;
+    private long[] versions;
+    private long[] createdAt;
+    private long[] updatedAt;
+    private long[] visitCounts;
+    private long[] lastVisitedAt;
+    private int[] origins;
+    private int[] hosts;
+    private int[] domains;
+    private long[] textAddresses;
+    private short[] titleLengths;
+    private short[] descriptionLengths;
+    private short[] pathLengths;
+    private int size;
+
+    // Text arena: page index << PAGE_BITS | offset; a row's block never spans pages
+    private byte[][] pages = new byte[0][];
+    private int pageCount;
+    private int pageUsed;
+    private long liveBytes;
+    private long usedBytes;
+
+    // String dictionary
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> stringIds = new HashMap<>();
+
+    // Bookmarks per folder ID, NONE for unfiled; folders without bookmarks have no entry
+    private final Map<Long, Integer> folderCounts = new HashMap<>();
+
+    // ID -> row, linear probing; slots hold row + 1 so that 0 means empty
+    private long[] slotIds;
+    private int[] slotRows;
+
+    BookmarkCatalog(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        resize(capacity);
+        rehash(Integer.highestOneBit(capacity * 2 - 1) << 1);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(long id) {
+        return rowOf(id) >= 0;
+    }
+
+    /**
+     * Adds the bookmark, or replaces the stored copy of it.
+     *
+     * @throws IllegalArgumentException if a text field exceeds 32767 bytes of UTF-8, far beyond
+     * the column sizes
+     */
+    void put(Bookmark bookmark) {
+        String url = bookmark.getUrl();
+        int pathStart = pathStart(url);
+        byte[] title = utf8(bookmark.getTitle());
+        byte[] description = utf8(bookmark.getDescription());
+        byte[] path = utf8(url.substring(pathStart));
+
+        long id = bookmark.getId();
+        int row = rowOf(id);
+        if (row < 0) {
+            ensureCapacity(size + 1);
+            row = size++;
+            ids[row] = id;
+            visitCounts[row] = bookmark.getVisitCount();
+            lastVisitedAt[row] = toMillis(bookmark.getLastVisitedAt());
+            insertSlot(id, row);
+            folderIds[row] = NONE;
+            countFolder(NONE, 1);
+        } else {
+            liveBytes -= blockLength(row);
+        }
+        moveToFolder(row, bookmark.getFolderId());
+        versions[row] = bookmark.getVersion() != null ? bookmark.getVersion() : NONE;
+        createdAt[row] = toMillis(bookmark.getCreatedAt());
+        updatedAt[row] = toMillis(bookmark.getUpdatedAt());
+        origins[row] = stringId(url.substring(0, pathStart));
+        hosts[row] = stringId(bookmark.getHost());
+        domains[row] = stringId(bookmark.getDomain());
+
+        titleLengths[row] = length(title);
+        descriptionLengths[row] = length(description);
+        pathLengths[row] = length(path);
+        long address = allocate(blockLength(row));
+        byte[] page = pages[(int) (address >>> PAGE_BITS)];
+        int offset = (int) address & (PAGE_SIZE - 1);
+        for (byte[] text : new byte[][]{title, description, path}) {
+            if (text != null) {
+                System.arraycopy(text, 0, page, offset, text.length);
+                offset += text.length;
+            }
+        }
+        textAddresses[row] = address;
+        liveBytes += blockLength(row);
+        compactIfNeeded();
+    }
+
+    /**
+     * Changes the folder of a stored bookmark, leaving the other fields as they are.
+     */
+    void setFolder(long id, Long folderId) {
+        int row = rowOf(id);
+        if (row >= 0) {
+            moveToFolder(row, folderId);
+        }
+    }
+
+    /**
+     * Adds visits to a stored bookmark, moving its last visit forward to {@code visitedAt} if
+     * that is later.
+     */
+    void addVisits(long id, long count, LocalDateTime visitedAt) {
+        int row = rowOf(id);
+        if (row >= 0) {
+            visitCounts[row] += count;
+            lastVisitedAt[row] = Math.max(lastVisitedAt[row], toMillis(visitedAt));
+        }
+    }
+
+    boolean remove(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return false;
+        }
+        liveBytes -= blockLength(row);
+        countFolder(folderIds[row], -1);
+        deleteSlot(id);
+        int last = --size;
+        if (row != last) {
+            copyRow(last, row);
+            slotRows[findSlot(ids[row])] = row + 1;
+        }
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Materializes the stored bookmark, or returns null if it isn't stored.
+     */
+    Bookmark get(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        byte[] page = pages[(int) (textAddresses[row] >>> PAGE_BITS)];
+        int offset = (int) textAddresses[row] & (PAGE_SIZE - 1);
+        String title = text(page, offset, titleLengths[row]);
+        offset += Math.max(titleLengths[row], 0);
+        String description = text(page, offset, descriptionLengths[row]);
+        offset += Math.max(descriptionLengths[row], 0);
+        String path = text(page, offset, pathLengths[row]);
+
+        Bookmark bookmark = new Bookmark(title, strings.get(origins[row]) + path);
+        bookmark.setId(id);
+        bookmark.setDescription(description);
+        bookmark.setFolderId(folderIds[row] != NONE ? folderIds[row] : null);
+        bookmark.setVersion(versions[row] != NONE ? versions[row] : null);
+        bookmark.setHost(string(hosts[row]));
+        bookmark.setDomain(string(domains[row]));
+        bookmark.setCreatedAt(toDateTime(createdAt[row]));
+        bookmark.setUpdatedAt(toDateTime(updatedAt[row]));
+        bookmark.setVisitCount(visitCounts[row]);
+        bookmark.setLastVisitedAt(toDateTime(lastVisitedAt[row]));
+        return bookmark;
+    }
+
+    /**
+     * Returns the URL of the stored bookmark, or null if it isn't stored.
+     */
+    String url(long id) {
+        int row = rowOf(id);
+        if (row < 0) {
+            return null;
+        }
+        int offset = ((int) textAddresses[row] & (PAGE_SIZE - 1))
+                + Math.max(titleLengths[row], 0) + Math.max(descriptionLengths[row], 0);
+        return strings.get(origins[row])
+                + text(pages[(int) (textAddresses[row] >>> PAGE_BITS)], offset, pathLengths[row]);
+    }
+
+    /**
+     * Returns a copy of the number of bookmarks per folder, for folders that have any; bookmarks
+     * without a folder are counted under {@link #NONE}. Takes time in the number of folders, not
+     * bookmarks.
+     */
+    Map<Long, Integer> countByFolder() {
+        return new HashMap<>(folderCounts);
+    }
+
+    /**
+     * Returns the most recently created bookmarks, newest first, at most {@code limit} of them.
+     * Ties go to the higher ID; bookmarks without a creation time come last.
+     */
+    List<Bookmark> mostRecent(int limit) {
+        // Min-heap of the newest rows so far: most rows cost one comparison with the oldest of them
+        int[] newest = new int[Math.max(0, Math.min(limit, size))];
+        int count = 0;
+        for (int row = 0; row < size && newest.length > 0; row++) {
+            if (count < newest.length) {
+                newest[count] = row;
+                siftUpNewest(newest, count++);
+            } else if (compareCreated(row, newest[0]) > 0) {
+                newest[0] = row;
+                siftDownNewest(newest, count);
+            }
+        }
+        Bookmark[] bookmarks = new Bookmark[count];
+        while (count > 0) {
+            bookmarks[count - 1] = get(ids[newest[0]]);
+            newest[0] = newest[--count];
+            siftDownNewest(newest, count);
+        }
+        return Arrays.asList(bookmarks);
+    }
+
+    /**
+     * Releases spare capacity, e.g. after a bulk load.
+     */
+    void trim() {
+        if (usedBytes - liveBytes > MIN_COMPACT_GARBAGE) {
+            compact();
+        }
+        if (pageCount > 0) {
+            pages[pageCount - 1] = Arrays.copyOf(pages[pageCount - 1], pageUsed);
+        }
+        pages = Arrays.copyOf(pages, pageCount);
+        int capacity = Math.max(16, size);
+        resize(capacity);
+        rehash(Integer.highestOneBit(capacity * 2 - 1) << 1);
+    }
+
+    /**
+     * Returns the approximate bytes held by the columns, the arena, the ID table and the string
+     * dictionary.
+     */
+    long footprintBytes() {
+        long columns = (long) ids.length * (8 * Long.BYTES + 3 * Integer.BYTES + 3 * Short.BYTES);
+        long table = (long) slotIds.length * (Long.BYTES + Integer.BYTES);
+        long arena = 0;
+        for (int page = 0; page < pageCount; page++) {
+            arena += pages[page].length;
+        }
+        long dictionary = 0;
+        for (String string : strings) {
+            // String, its byte array and the map entry pointing at it
+            dictionary += string.length() + 96;
+        }
+        return columns + table + arena + dictionary;
+    }
+
+    private String string(int id) {
+        return id >= 0 ? strings.get(id) : null;
+    }
+
+    private static String text(byte[] page, int offset, short length) {
+        return length == NULL_LENGTH ? null : new String(page, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Text of " + bytes.length + " bytes is too long for the catalog");
+        }
+        return bytes;
+    }
+
+    private static short length(byte[] text) {
+        return text == null ? NULL_LENGTH : (short) text.length;
+    }
+
+    private int blockLength(int row) {
+        return Math.max(titleLengths[row], 0) + Math.max(descriptionLengths[row], 0) + Math.max(pathLengths[row], 0);
+    }
+
+    /**
+     * Reserves a block of the given length and returns its address. The rest of a page too
+     * small for the block is left unused.
+     */
+    private long allocate(int length) {
+        if (pageCount == 0 || pageUsed + length > pages[pageCount - 1].length) {
+            if (pageCount > 0) {
+                // The unused tail counts as garbage
+                usedBytes += pages[pageCount - 1].length - pageUsed;
+            }
+            if (pageCount == pages.length) {
+                pages = Arrays.copyOf(pages, Math.max(16, pageCount * 2));
+            }
+            pages[pageCount++] = new byte[PAGE_SIZE];
+            pageUsed = 0;
+        }
+        long address = ((long) (pageCount - 1) << PAGE_BITS) | pageUsed;
+        pageUsed += length;
+        usedBytes += length;
+        return address;
+    }
+
+    private void compactIfNeeded() {
+        long garbage = usedBytes - liveBytes;
+        if (garbage > MIN_COMPACT_GARBAGE && garbage > liveBytes) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        byte[][] oldPages = pages;
+        pages = new byte[0][];
+        pageCount = 0;
+        pageUsed = 0;
+        usedBytes = 0;
+        for (int row = 0; row < size; row++) {
+            int length = blockLength(row);
+            long oldAddress = textAddresses[row];
+            long address = allocate(length);
+            System.arraycopy(oldPages[(int) (oldAddress >>> PAGE_BITS)], (int) oldAddress & (PAGE_SIZE - 1),
+                    pages[(int) (address >>> PAGE_BITS)], (int) address & (PAGE_SIZE - 1), length);
+            textAddresses[row] = address;
+        }
+    }
+
+    private int stringId(String string) {
+        if (string == null) {
+            return -1;
+        }
+        Integer id = stringIds.get(string);
+        if (id == null) {
+            id = strings.size();
+            strings.add(string);
+            stringIds.put(string, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns where the path starts: after {@code scheme://authority}, or 0 if there's no authority.
+     */
+    static int pathStart(String url) {
+        int scheme = url.indexOf("://");
+        if (scheme < 0) {
+            return 0;
+        }
+        for (int i = scheme + 3; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '/' || c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return url.length();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : NONE;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return millis != NONE ? LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC) : null;
+    }
+
+    private void copyRow(int from, int to) {
+        ids[to] = ids[from];
+        folderIds[to] = folderIds[from];
+        versions[to] = versions[from];
+        createdAt[to] = createdAt[from];
+        updatedAt[to] = updatedAt[from];
+        visitCounts[to] = visitCounts[from];
+        lastVisitedAt[to] = lastVisitedAt[from];
+        origins[to] = origins[from];
+        hosts[to] = hosts[from];
+        domains[to] = domains[from];
+        textAddresses[to] = textAddresses[from];
+        titleLengths[to] = titleLengths[from];
+        descriptionLengths[to] = descriptionLengths[from];
+        pathLengths[to] = pathLengths[from];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        resize(grown);
+        // Keep the table at most half full
+        if (grown * 2 > slotIds.length) {
+            rehash(Integer.highestOneBit(grown * 2 - 1) << 1);
+        }
+    }
+
+    private void resize(int capacity) {
+        ids = ids == null ? new long[capacity] : Arrays.copyOf(ids, capacity);
+        folderIds = folderIds == null ? new long[capacity] : Arrays.copyOf(folderIds, capacity);
+        versions = versions == null ? new long[capacity] : Arrays.copyOf(versions, capacity);
+        createdAt = createdAt == null ? new long[capacity] : Arrays.copyOf(createdAt, capacity);
+        updatedAt = updatedAt == null ? new long[capacity] : Arrays.copyOf(updatedAt, capacity);
+        visitCounts = visitCounts == null ? new long[capacity] : Arrays.copyOf(visitCounts, capacity);
+        lastVisitedAt = lastVisitedAt == null ? new long[capacity] : Arrays.copyOf(lastVisitedAt, capacity);
+        origins = origins == null ? new int[capacity] : Arrays.copyOf(origins, capacity);
+        hosts = hosts == null ? new int[capacity] : Arrays.copyOf(hosts, capacity);
+        domains = domains == null ? new int[capacity] : Arrays.copyOf(domains, capacity);
+        textAddresses = textAddresses == null ? new long[capacity] : Arrays.copyOf(textAddresses, capacity);
+        titleLengths = titleLengths == null ? new short[capacity] : Arrays.copyOf(titleLengths, capacity);
+        descriptionLengths = descriptionLengths == null ? new short[capacity] : Arrays.copyOf(descriptionLengths, capacity);
+        pathLengths = pathLengths == null ? new short[capacity] : Arrays.copyOf(pathLengths, capacity);
+    }
+
+    private void moveToFolder(int row, Long folderId) {
+        long folder = folderId != null ? folderId : NONE;
+        if (folderIds[row] != folder) {
+            countFolder(folderIds[row], -1);
+            countFolder(folder, 1);
+            folderIds[row] = folder;
+        }
+    }
+
+    private void countFolder(long folderId, int change) {
+        folderCounts.merge(folderId, change, (count, delta) -> count + delta != 0 ? count + delta : null);
+    }
+
+    private void siftUpNewest(int[] heap, int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (compareCreated(heap[parent], heap[position]) <= 0) {
+                return;
+            }
+            int row = heap[parent];
+            heap[parent] = heap[position];
+            heap[position] = row;
+            position = parent;
+        }
+    }
+
+    private void siftDownNewest(int[] heap, int length) {
+        int position = 0;
+        while (true) {
+            int oldest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < length && compareCreated(heap[left], heap[oldest]) < 0) {
+                oldest = left;
+            }
+            if (right < length && compareCreated(heap[right], heap[oldest]) < 0) {
+                oldest = right;
+            }
+            if (oldest == position) {
+                return;
+            }
+            int row = heap[oldest];
+            heap[oldest] = heap[position];
+            heap[position] = row;
+            position = oldest;
+        }
+    }
+
+    // Missing creation times are NONE, older than any other
+    private int compareCreated(int row, int other) {
+        int byTime = Long.compare(createdAt[row], createdAt[other]);
+        return byTime != 0 ? byTime : Long.compare(ids[row], ids[other]);
+    }
+
+    private int rowOf(long id) {
+        int slot = findSlot(id);
+        return slot >= 0 ? slotRows[slot] - 1 : -1;
+    }
+
+    private int findSlot(long id) {
+        int mask = slotIds.length - 1;
+        for (int slot = hash(id) & mask; slotRows[slot] != 0; slot = (slot + 1) & mask) {
+            if (slotIds[slot] == id) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insertSlot(long id, int row) {
+        int mask = slotIds.length - 1;
+        int slot = hash(id) & mask;
+        while (slotRows[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slotIds[slot] = id;
+        slotRows[slot] = row + 1;
+    }
+
+    /**
+     * Removes the ID from the table, shifting later entries of its probe run back so that
+     * lookups never need tombstones.
+     */
+    private void deleteSlot(long id) {
+        int mask = slotIds.length - 1;
+        int hole = findSlot(id);
+        slotRows[hole] = 0;
+        for (int slot = (hole + 1) & mask; slotRows[slot] != 0; slot = (slot + 1) & mask) {
+            int home = hash(slotIds[slot]) & mask;
+            // Move the entry into the hole unless its home lies cyclically in (hole, slot]
+            boolean reachable = hole <= slot ? (home > hole && home <= slot) : (home > hole || home <= slot);
+            if (!reachable) {
+                slotIds[hole] = slotIds[slot];
+                slotRows[hole] = slotRows[slot];
+                slotRows[slot] = 0;
+                hole = slot;
+            }
+        }
+    }
+
+    private void rehash(int slots) {
+        slotIds = new long[slots];
+        slotRows = new int[slots];
+        for (int row = 0; row < size; row++) {
+            insertSlot(ids[row], row);
+        }
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
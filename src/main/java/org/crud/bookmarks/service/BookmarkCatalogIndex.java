@@ -0,0 +1,210 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps every bookmark in memory as a {@link BookmarkCatalog}, so reads by ID don't need the
+ * database.
+ * <p>
+ * The catalog is loaded on startup and then follows committed {@link BookmarkChangeEvent}s.
+ * Saved and moved rows are read back from the database rather than taken from the event: events
+ * of concurrent transactions may arrive out of commit order, and bulk moves don't carry the new
+ * state at all. Rows gone from the database by then are dropped. Visit counts follow
+ * {@link VisitsFlushedEvent}s, so they lag the database no more than it lags the visits. Until
+ * the catalog is loaded, or when it is disabled with {@code bookmark.catalog.enabled=false},
+ * {@link #isReady()} is false and callers should fall back to the database.
+ */
+@Component
+public class BookmarkCatalogIndex implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookmarkCatalogIndex.class);
+
+    private final BookmarkBulkRepository bulkRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private BookmarkCatalog catalog = new BookmarkCatalog(0);
+    private volatile boolean ready;
+
+    public BookmarkCatalogIndex(BookmarkBulkRepository bulkRepository,
+                                @Value("${bookmark.catalog.enabled:true}") boolean enabled) {
+        this.bulkRepository = bulkRepository;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads all bookmarks from the database, e.g. after the tables were replaced by a restore.
+     */
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            BookmarkCatalog loaded = new BookmarkCatalog((int) Math.min(bulkRepository.count(), Integer.MAX_VALUE - 8));
+            bulkRepository.forEach(loaded::put);
+            loaded.trim();
+            catalog = loaded;
+            ready = true;
+            logger.info("Bookmark catalog ready: {} bookmarks in {} KB loaded in {} ms",
+                    loaded.size(), loaded.footprintBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the catalog has been loaded. Until then lookups would miss bookmarks.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns a copy of the bookmark, or null if there's no such bookmark.
+     */
+    public Bookmark find(long id) {
+        lock.readLock().lock();
+        try {
+            return catalog.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns copies of the bookmarks that exist, keyed by ID in the order of {@code ids}.
+     */
+    public Map<Long, Bookmark> findAll(Collection<Long> ids) {
+        Map<Long, Bookmark> found = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : ids) {
+                Bookmark bookmark = catalog.get(id);
+                if (bookmark != null) {
+                    found.put(id, bookmark);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Copies the bookmark counts per folder and picks the most recently created bookmarks under
+     * one read lock, so that all of them describe the same state of the catalog.
+     */
+    public Summary summarize(int recentLimit) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> countsByFolder = catalog.countByFolder();
+            Integer unfiled = countsByFolder.remove(BookmarkCatalog.NONE);
+            return new Summary(catalog.size(), unfiled != null ? unfiled : 0, countsByFolder,
+                    catalog.mostRecent(recentLimit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bookmarks in the catalog.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return catalog.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the approximate heap used by the catalog, in bytes.
+     */
+    public long footprintBytes() {
+        lock.readLock().lock();
+        try {
+            return catalog.footprintBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookmarkChange(BookmarkChangeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            switch (event.kind()) {
+                case SAVED, MOVED -> reload(event.ids());
+                case DELETED -> event.ids().forEach(catalog::remove);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A flush committed while a rebuild was reading may be counted twice, until the next rebuild
+    @EventListener
+    public void onVisitsFlushed(VisitsFlushedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (VisitsFlushedEvent.BookmarkVisits visits : event.visits()) {
+                catalog.addVisits(visits.bookmarkId(), visits.count(), visits.lastVisitedAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock; reading under it keeps the latest state whichever event applies last
+    private void reload(Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        bulkRepository.forEachById(ids, bookmark -> {
+            catalog.put(bookmark);
+            missing.remove(bookmark.getId());
+        });
+        missing.forEach(catalog::remove);
+    }
+
+    /**
+     * @param total the number of bookmarks
+     * @param unfiled the number of bookmarks without a folder
+     * @param countsByFolder the number of bookmarks by folder ID, for folders that have any
+     * @param recent the most recently created bookmarks, newest first
+     */
+    public record Summary(int total, int unfiled, Map<Long, Integer> countsByFolder, List<Bookmark> recent) {
+    }
+}
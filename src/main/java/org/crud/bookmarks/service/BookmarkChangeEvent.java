@@ -0,0 +1,40 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Application event published by {@link BookmarkService} whenever bookmarks are written.
+ * Listeners should use {@code @TransactionalEventListener} so they only see committed changes;
+ * in-memory indexes keep themselves in sync with the database this way.
+ *
+ * @param kind what happened to the bookmarks
+ * @param ids the IDs of all affected bookmarks
+ * @param bookmarks the saved bookmarks, only populated for {@link Kind#SAVED}
+ * @param folderId the target folder, only meaningful for {@link Kind#MOVED}
+ */
+public record BookmarkChangeEvent(Kind kind, Collection<Long> ids, List<Bookmark> bookmarks, Long folderId) {
+
+    public enum Kind {
+        /** Bookmarks were created or updated; the event carries their current state. */
+        SAVED,
+        /** Bookmarks were deleted. */
+        DELETED,
+        /** Bookmarks were moved to another folder (or out of any folder) with a bulk update. */
+        MOVED
+    }
+
+    public static BookmarkChangeEvent saved(Bookmark bookmark) {
+        return new BookmarkChangeEvent(Kind.SAVED, List.of(bookmark.getId()), List.of(bookmark), bookmark.getFolderId());
+    }
+
+    public static BookmarkChangeEvent deleted(Collection<Long> ids) {
+        return new BookmarkChangeEvent(Kind.DELETED, ids, List.of(), null);
+    }
+
+    public static BookmarkChangeEvent moved(Collection<Long> ids, Long folderId) {
+        return new BookmarkChangeEvent(Kind.MOVED, ids, List.of(), folderId);
+    }
+}
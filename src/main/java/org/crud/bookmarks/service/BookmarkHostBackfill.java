@@ -0,0 +1,76 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.HostStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fills in the {@code host} and {@code domain} columns of bookmarks written before the columns
+ * existed, in batches, and then brings the {@code host_stats} aggregate in line with them.
+ * New and updated bookmarks get both columns from {@link BookmarkService} directly.
+ */
+@Component
+@Order(2)
+public class BookmarkHostBackfill implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookmarkHostBackfill.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final BookmarkBulkRepository bulkRepository;
+    private final HostStatsRepository hostStatsRepository;
+
+    public BookmarkHostBackfill(BookmarkBulkRepository bulkRepository, HostStatsRepository hostStatsRepository) {
+        this.bulkRepository = bulkRepository;
+        this.hostStatsRepository = hostStatsRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh(false);
+    }
+
+    /**
+     * Backfills missing hosts and recounts the per-domain statistics if anything was backfilled,
+     * or always when {@code force} is set (e.g. after the bookmarks table was replaced).
+     */
+    public void refresh(boolean force) {
+        long start = System.nanoTime();
+        int backfilled = backfillHosts();
+        if (backfilled > 0 || force) {
+            int counted = hostStatsRepository.recount();
+            int removed = hostStatsRepository.deleteStale();
+            logger.info("Host statistics recounted: {} hosts backfilled, {} domains updated, {} removed in {} ms",
+                    backfilled, counted, removed, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private int backfillHosts() {
+        int total = 0;
+        long lastId = 0;
+        while (true) {
+            // Keyset over id: rows whose URL has no host stay NULL and must not be selected again
+            Map<Long, String> urls = bulkRepository.findUrlsWithoutHost(lastId, BATCH_SIZE);
+            if (urls.isEmpty()) {
+                return total;
+            }
+            Map<Long, String> updates = new HashMap<>();
+            for (Map.Entry<Long, String> entry : urls.entrySet()) {
+                String host = UrlNormalizer.host(entry.getValue());
+                if (host != null) {
+                    updates.put(entry.getKey(), host);
+                }
+                lastId = entry.getKey();
+            }
+            bulkRepository.updateHosts(updates);
+            total += updates.size();
+        }
+    }
+}
@@ -1,17 +1,30 @@
 package org.crud.bookmarks.service;
 
 import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkFilter;
+import org.crud.bookmarks.BookmarkPatch;
+import org.crud.bookmarks.BookmarkSummary;
+import org.crud.bookmarks.HostCount;
 import org.crud.bookmarks.repository.BookmarkRepository;
 import org.crud.bookmarks.repository.FolderRepository;
+import org.crud.bookmarks.repository.HostStatsRepository;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,17 +32,33 @@ import java.util.Optional;
 public class BookmarkService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookmarkService.class);
+    static final int BULK_CHUNK_SIZE = 500;
+    static final int MAX_BATCH_IDS = 10_000;
 
     private final BookmarkRepository bookmarkRepository;
     private final FolderRepository folderRepository;
+    private final HostStatsRepository hostStatsRepository;
     private final UrlValidator urlValidator;
+    private final BookmarkUrlIndex urlIndex;
+    private final SearchFacetCounter facetCounter;
+    private final BookmarkCatalogIndex catalogIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BookmarkService(BookmarkRepository bookmarkRepository, FolderRepository folderRepository, UrlValidator urlValidator) {
+    public BookmarkService(BookmarkRepository bookmarkRepository, FolderRepository folderRepository,
+                           HostStatsRepository hostStatsRepository, UrlValidator urlValidator,
+                           BookmarkUrlIndex urlIndex, SearchFacetCounter facetCounter,
+                           BookmarkCatalogIndex catalogIndex, ApplicationEventPublisher eventPublisher) {
         this.bookmarkRepository = bookmarkRepository;
         this.folderRepository = folderRepository;
+        this.hostStatsRepository = hostStatsRepository;
         this.urlValidator = urlValidator;
+        this.urlIndex = urlIndex;
+        this.facetCounter = facetCounter;
+        this.catalogIndex = catalogIndex;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<Bookmark> getAllBookmarks() {
         logger.debug("Fetching all bookmarks");
         List<Bookmark> bookmarks = (List<Bookmark>) bookmarkRepository.findAll();
@@ -37,13 +66,88 @@ public class BookmarkService {
         return bookmarks;
     }
 
+    @Transactional(readOnly = true)
     public Page<Bookmark> getAllBookmarks(Pageable pageable) {
         logger.debug("Fetching all bookmarks with pagination: {}", pageable);
-        Page<Bookmark> bookmarks = bookmarkRepository.findAll(pageable);
+        Page<Bookmark> bookmarks = bookmarkRepository.findPage(BookmarkFilter.all(), pageable);
         logger.debug("Fetched {} bookmarks", bookmarks.getTotalElements());
         return bookmarks;
     }
 
+    /**
+     * Returns a page of {@link BookmarkSummary} projections of the bookmarks matching the filter,
+     * reading only the columns they need.
+     *
+     * @throws IllegalArgumentException if the page is sorted by an unknown property
+     */
+    @Transactional(readOnly = true)
+    public Page<BookmarkSummary> getBookmarkSummaries(BookmarkFilter filter, Pageable pageable) {
+        logger.debug("Fetching bookmark summaries for {} with pagination: {}", filter, pageable);
+        return bookmarkRepository.findSummaryPage(filter, pageable);
+    }
+
+    /**
+     * Returns a page of the bookmarks matching the filter with only the given fields, each
+     * bookmark as a map from field name to value, reading only the columns of those fields.
+     *
+     * @throws IllegalArgumentException if a field is unknown or the page is sorted by an unknown property
+     */
+    @Transactional(readOnly = true)
+    public Page<Map<String, Object>> getBookmarkFields(BookmarkFilter filter, Collection<String> fields, Pageable pageable) {
+        logger.debug("Fetching bookmark fields {} for {} with pagination: {}", fields, filter, pageable);
+        return bookmarkRepository.findFieldsPage(filter, fields, pageable);
+    }
+
+    /**
+     * Returns the existing bookmarks among the given ids, in no particular order.
+     */
+    @Transactional(readOnly = true)
+    public List<Bookmark> getBookmarksByIds(Collection<Long> ids) {
+        return (List<Bookmark>) bookmarkRepository.findAllById(ids);
+    }
+
+    /**
+     * Looks up bookmarks by id, keeping the requested order and reporting the ids that don't
+     * exist. Served from the {@link BookmarkCatalogIndex} once it's loaded, otherwise read with
+     * one query per {@value #BULK_CHUNK_SIZE} ids.
+     *
+     * @throws IllegalArgumentException if more than {@value #MAX_BATCH_IDS} distinct ids are requested
+     */
+    @Transactional(readOnly = true)
+    public BookmarkBatch getBookmarkBatch(List<Long> ids) {
+        List<Long> distinctIds = distinct(ids);
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_IDS + " ids can be looked up at once");
+        }
+        Map<Long, Bookmark> found;
+        if (catalogIndex.isReady()) {
+            found = catalogIndex.findAll(distinctIds);
+        } else {
+            found = new HashMap<>();
+            for (List<Long> chunk : chunks(distinctIds)) {
+                bookmarkRepository.findByIdIn(chunk).forEach(bookmark -> found.put(bookmark.getId(), bookmark));
+            }
+        }
+        List<Bookmark> bookmarks = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Bookmark bookmark = found.get(id);
+            if (bookmark != null) {
+                bookmarks.add(bookmark);
+            } else {
+                missing.add(id);
+            }
+        }
+        logger.debug("Looked up {} bookmarks, {} missing", bookmarks.size(), missing.size());
+        return new BookmarkBatch(bookmarks, missing);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean bookmarkExists(Long id) {
+        return bookmarkRepository.existsById(id);
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Bookmark> getBookmarkById(Long id) {
         logger.debug("Fetching bookmark with id: {}", id);
         Optional<Bookmark> bookmark = bookmarkRepository.findById(id);
@@ -51,18 +155,105 @@ public class BookmarkService {
         return bookmark;
     }
 
+    @Transactional(readOnly = true)
+    public Page<Bookmark> getBookmarksByHost(String host, Pageable pageable) {
+        logger.debug("Fetching bookmarks for host: {}", host);
+        return bookmarkRepository.findPage(BookmarkFilter.host(host), pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<Bookmark> getBookmarksByDomain(String domain, Pageable pageable) {
+        logger.debug("Fetching bookmarks for domain: {}", domain);
+        return bookmarkRepository.findPage(BookmarkFilter.domain(domain), pageable);
+    }
+
+    /**
+     * Returns the registrable domains with the most bookmarks, read from the incrementally
+     * maintained {@code host_stats} aggregate.
+     *
+     * @param limit the maximum number of domains to return
+     * @return the domains and their bookmark counts, most bookmarked first
+     */
+    @Transactional(readOnly = true)
+    public List<HostCount> getTopDomains(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return hostStatsRepository.findTop(limit);
+    }
+
+    @Transactional(readOnly = true)
     public Page<Bookmark> getBookmarksByFolderId(Long folderId, Pageable pageable) {
         logger.debug("Fetching bookmarks for folderId: {}", folderId);
-        Page<Bookmark> bookmarks = bookmarkRepository.findByFolderId(folderId, pageable);
+        Page<Bookmark> bookmarks = bookmarkRepository.findPage(BookmarkFilter.folder(folderId), pageable);
         logger.debug("Fetched {} bookmarks for folderId: {}", bookmarks.getTotalElements(), folderId);
         return bookmarks;
     }
 
+    /**
+     * Deletes the given bookmarks with set-based statements, in chunks of {@value #BULK_CHUNK_SIZE} ids.
+     *
+     * @param ids the IDs of the bookmarks to delete
+     * @return the number of bookmarks actually deleted
+     */
     @Transactional
-    public void deleteBookmarks(List<Long> ids) {
+    public int deleteBookmarks(List<Long> ids) {
         logger.debug("Deleting bookmarks with ids: {}", ids);
-        bookmarkRepository.deleteAllById(ids);
-        logger.debug("Deleted {} bookmarks", ids.size());
+        List<Long> distinctIds = distinct(ids);
+        int deleted = 0;
+        for (List<Long> chunk : chunks(distinctIds)) {
+            Map<String, Integer> domains = bookmarkRepository.lockAndCountByDomain(chunk);
+            deleted += bookmarkRepository.deleteByIdIn(chunk);
+            domains.forEach((domain, count) -> hostStatsRepository.adjust(domain, -count));
+        }
+        if (deleted > 0) {
+            eventPublisher.publishEvent(BookmarkChangeEvent.deleted(distinctIds));
+        }
+        logger.debug("Deleted {} bookmarks", deleted);
+        return deleted;
+    }
+
+    /**
+     * Moves the given bookmarks into a folder with set-based statements, in chunks of {@value #BULK_CHUNK_SIZE} ids.
+     * The target folder is validated once; the bookmark URLs are not revalidated.
+     *
+     * @param ids the IDs of the bookmarks to move
+     * @param folderId the target folder, or null to move the bookmarks out of any folder
+     * @return the number of bookmarks actually moved
+     * @throws IllegalArgumentException if the target folder doesn't exist
+     */
+    @Transactional
+    public int moveBookmarks(List<Long> ids, Long folderId) {
+        logger.debug("Moving bookmarks with ids: {} to folder: {}", ids, folderId);
+        if (folderId != null && !folderRepository.existsById(folderId)) {
+            logger.error("Folder not found with id: {}", folderId);
+            throw new IllegalArgumentException("Cannot move bookmarks: Folder not found with id " + folderId);
+        }
+        List<Long> distinctIds = distinct(ids);
+        int moved = 0;
+        for (List<Long> chunk : chunks(distinctIds)) {
+            moved += bookmarkRepository.updateFolderIdByIdIn(chunk, folderId);
+        }
+        if (moved > 0) {
+            eventPublisher.publishEvent(BookmarkChangeEvent.moved(distinctIds, folderId));
+        }
+        logger.debug("Moved {} bookmarks to folder: {}", moved, folderId);
+        return moved;
+    }
+
+    private static List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return ids.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static List<List<Long>> chunks(List<Long> distinctIds) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(distinctIds.subList(i, Math.min(i + BULK_CHUNK_SIZE, distinctIds.size())));
+        }
+        return chunks;
     }
 
     /**
@@ -87,14 +278,22 @@ public class BookmarkService {
      * @param bookmark the bookmark to create
      * @return the created bookmark
      * @throws IllegalArgumentException if the URL is invalid or the specified folder doesn't exist
+     * @throws DuplicateBookmarkException if duplicates are rejected and the URL is already bookmarked
      */
     @Transactional
     public Bookmark createBookmark(Bookmark bookmark) {
-        logger.debug("Creating new bookmark: {}", bookmark);
-
         if (bookmark == null) {
             throw new IllegalArgumentException("Bookmark cannot be null");
         }
+        logger.debug("Creating new bookmark with url: {}", bookmark.getUrl());
+
+        if (urlIndex.rejectsDuplicates()) {
+            List<Bookmark> existing = urlIndex.findByUrl(bookmark.getUrl());
+            if (!existing.isEmpty()) {
+                logger.debug("Rejecting duplicate bookmark for url: {}", bookmark.getUrl());
+                throw new DuplicateBookmarkException(bookmark.getUrl(), existing.get(0).getId());
+            }
+        }
 
         validateUrl(bookmark.getUrl());
 
@@ -106,8 +305,13 @@ public class BookmarkService {
             }
         }
 
+        bookmark.setUrlHash(UrlNormalizer.normalizedHash(bookmark.getUrl()));
+        setHost(bookmark);
         Bookmark savedBookmark = bookmarkRepository.save(bookmark);
-        logger.debug("Created bookmark: {}", savedBookmark);
+        adjustDomainCounts(null, savedBookmark.getDomain());
+        urlIndex.add(bookmark.getUrlHash());
+        eventPublisher.publishEvent(BookmarkChangeEvent.saved(savedBookmark));
+        logger.debug("Created bookmark with id: {}", savedBookmark.getId());
         return savedBookmark;
     }
 
@@ -119,10 +323,11 @@ public class BookmarkService {
      * @param bookmarkDetails the new bookmark details
      * @return Optional containing the updated bookmark, or empty if the bookmark wasn't found
      * @throws IllegalArgumentException if the URL is invalid or the specified folder doesn't exist
+     * @throws OptimisticLockingFailureException if a version is given and the bookmark was modified since
      */
     @Transactional
     public Optional<Bookmark> updateBookmark(Long id, Bookmark bookmarkDetails) {
-        logger.debug("Updating bookmark with id: {} with details: {}", id, bookmarkDetails);
+        logger.debug("Updating bookmark with id: {}", id);
 
         if (bookmarkDetails == null) {
             throw new IllegalArgumentException("Bookmark details cannot be null");
@@ -130,9 +335,13 @@ public class BookmarkService {
 
         return bookmarkRepository.findById(id)
                 .map(bookmark -> {
+                    checkVersion(bookmark.getVersion(), bookmarkDetails.getVersion(), id);
+                    String previousDomain = bookmark.getDomain();
                     bookmark.setTitle(bookmarkDetails.getTitle());
                     validateUrl(bookmarkDetails.getUrl());
                     bookmark.setUrl(bookmarkDetails.getUrl());
+                    bookmark.setUrlHash(UrlNormalizer.normalizedHash(bookmarkDetails.getUrl()));
+                    setHost(bookmark);
                     bookmark.setDescription(bookmarkDetails.getDescription());
 
                     if (bookmarkDetails.getFolderId() != null) {
@@ -145,17 +354,108 @@ public class BookmarkService {
 
                     bookmark.setFolderId(bookmarkDetails.getFolderId());
                     Bookmark updatedBookmark = bookmarkRepository.save(bookmark);
-                    logger.debug("Updated bookmark: {}", updatedBookmark);
+                    adjustDomainCounts(previousDomain, updatedBookmark.getDomain());
+                    urlIndex.add(bookmark.getUrlHash());
+                    eventPublisher.publishEvent(BookmarkChangeEvent.saved(updatedBookmark));
+                    logger.debug("Updated bookmark with id: {}", updatedBookmark.getId());
                     return updatedBookmark;
                 });
     }
 
+    private static void setHost(Bookmark bookmark) {
+        String host = UrlNormalizer.host(bookmark.getUrl());
+        bookmark.setHost(host);
+        bookmark.setDomain(UrlNormalizer.registrableDomain(host));
+    }
+
+    private void adjustDomainCounts(String previousDomain, String newDomain) {
+        if (Objects.equals(previousDomain, newDomain)) {
+            return;
+        }
+        if (previousDomain != null) {
+            hostStatsRepository.adjust(previousDomain, -1);
+        }
+        if (newDomain != null) {
+            hostStatsRepository.adjust(newDomain, 1);
+        }
+    }
+
+    private static void checkVersion(Long currentVersion, Long expectedVersion, Long id) {
+        if (expectedVersion != null && !expectedVersion.equals(currentVersion)) {
+            throw new OptimisticLockingFailureException(
+                    "Bookmark " + id + " was modified concurrently; expected version " + expectedVersion);
+        }
+    }
+
+    /**
+     * Applies a partial update to a bookmark with a single conditional UPDATE.
+     * The URL is only revalidated when it differs from the stored one, and a missing
+     * folder is reported by the foreign key rather than by a separate lookup.
+     *
+     * @param id the ID of the bookmark to update
+     * @param patch the properties to change and the version the client last saw
+     * @return Optional containing the updated bookmark, or empty if the bookmark wasn't found
+     * @throws IllegalArgumentException if a property is invalid or the specified folder doesn't exist
+     * @throws OptimisticLockingFailureException if the bookmark was modified since the given version
+     */
+    @Transactional
+    public Optional<Bookmark> patchBookmark(Long id, BookmarkPatch patch) {
+        logger.debug("Patching bookmark with id: {} at version: {}", id, patch != null ? patch.getVersion() : null);
+
+        if (patch == null || patch.getVersion() == null) {
+            throw new IllegalArgumentException("Bookmark patch and version are required");
+        }
+        if (patch.hasTitle() && !StringUtils.hasText(patch.getTitle())) {
+            throw new IllegalArgumentException("Title is required");
+        }
+        if (patch.hasFolderId() && patch.getFolderId() != null && !folderRepository.existsById(patch.getFolderId())) {
+            logger.error("Folder not found with id: {}", patch.getFolderId());
+            throw new IllegalArgumentException("Cannot update bookmark: Folder not found with id " + patch.getFolderId());
+        }
+        String previousDomain = null;
+        if (patch.hasUrl()) {
+            Optional<String> currentUrl = bookmarkRepository.findUrlById(id);
+            if (currentUrl.isEmpty()) {
+                return Optional.empty();
+            }
+            if (currentUrl.get().equals(patch.getUrl())) {
+                patch.clearUrl();
+            } else {
+                validateUrl(patch.getUrl());
+                previousDomain = UrlNormalizer.registrableDomain(UrlNormalizer.host(currentUrl.get()));
+            }
+        }
+
+        int updated = bookmarkRepository.patch(id, patch);
+
+        if (updated == 0) {
+            if (!bookmarkRepository.existsById(id)) {
+                return Optional.empty();
+            }
+            logger.debug("Version conflict patching bookmark with id: {}", id);
+            throw new OptimisticLockingFailureException(
+                    "Bookmark " + id + " was modified concurrently; expected version " + patch.getVersion());
+        }
+        if (patch.hasUrl()) {
+            urlIndex.add(UrlNormalizer.normalizedHash(patch.getUrl()));
+            adjustDomainCounts(previousDomain, UrlNormalizer.registrableDomain(UrlNormalizer.host(patch.getUrl())));
+        }
+        Optional<Bookmark> patched = bookmarkRepository.findById(id);
+        patched.ifPresent(bookmark -> eventPublisher.publishEvent(BookmarkChangeEvent.saved(bookmark)));
+        logger.debug("Patched bookmark with id: {}", id);
+        return patched;
+    }
+
     public void deleteBookmark(Long id) {
         logger.debug("Deleting bookmark with id: {}", id);
+        Map<String, Integer> domains = bookmarkRepository.lockAndCountByDomain(List.of(id));
         bookmarkRepository.deleteById(id);
+        domains.forEach((domain, count) -> hostStatsRepository.adjust(domain, -count));
+        eventPublisher.publishEvent(BookmarkChangeEvent.deleted(List.of(id)));
         logger.debug("Deleted bookmark with id: {}", id);
     }
 
+    @Transactional(readOnly = true)
     public List<Bookmark> searchBookmarks(String searchTerm) {
         logger.debug("Searching for bookmarks with term: {}", searchTerm);
         List<Bookmark> bookmarks = bookmarkRepository.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(searchTerm, searchTerm);
@@ -163,13 +463,49 @@ public class BookmarkService {
         return bookmarks;
     }
 
+    @Transactional(readOnly = true)
     public Page<Bookmark> searchBookmarks(String searchTerm, Pageable pageable) {
         logger.debug("Searching for bookmarks with term: {} and pageable: {}", searchTerm, pageable);
-        Page<Bookmark> bookmarks = bookmarkRepository.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(searchTerm, searchTerm, pageable);
+        Page<Bookmark> bookmarks = bookmarkRepository.findPage(BookmarkFilter.search(searchTerm), pageable);
         logger.debug("Found {} bookmarks for searchTerm: {}", bookmarks.getTotalElements(), searchTerm);
         return bookmarks;
     }
 
+    /**
+     * Searches like {@link #searchBookmarks(String, Pageable)} and adds facet counts by folder,
+     * host and creation month over all matches, computed in one pass over the match set.
+     */
+    @Transactional(readOnly = true)
+    public FacetedPage<Bookmark> searchBookmarksWithFacets(String searchTerm, Pageable pageable) {
+        return addSearchFacets(searchBookmarks(searchTerm, pageable), searchTerm);
+    }
+
+    /**
+     * Adds the facet counts of all matches of the search term to a page of its results.
+     */
+    @Transactional(readOnly = true)
+    public <T> FacetedPage<T> addSearchFacets(Page<T> results, String searchTerm) {
+        SearchFacets facets = facetCounter.count(searchTerm);
+        logger.debug("Computed search facets for searchTerm: {} in {} us", searchTerm, facets.computeMicros());
+        return new FacetedPage<>(results.getContent(), results.getPageable(), results.getTotalElements(), facets);
+    }
+
+    /**
+     * Finds the bookmarks pointing at the given URL, comparing normalized forms
+     * (scheme and host case, default ports, trailing slash and tracking parameters are ignored).
+     *
+     * @param url the URL to look up
+     * @return the matching bookmarks, empty if the URL isn't bookmarked
+     */
+    @Transactional(readOnly = true)
+    public List<Bookmark> findBookmarksByUrl(String url) {
+        logger.debug("Looking up bookmarks for url: {}", url);
+        List<Bookmark> bookmarks = urlIndex.findByUrl(url);
+        logger.debug("Found {} bookmarks for url: {}", bookmarks.size(), url);
+        return bookmarks;
+    }
+
+    @Transactional(readOnly = true)
     public int getBookmarkCountInFolder(Long folderId) {
         logger.debug("Counting bookmarks in folder with id: {}", folderId);
         int count = bookmarkRepository.countByFolderId(folderId);
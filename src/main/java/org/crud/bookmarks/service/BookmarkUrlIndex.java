@@ -0,0 +1,153 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of bookmarks by normalized URL.
+ * <p>
+ * Every bookmark stores the hash of its normalized URL in the indexed {@code url_hash} column.
+ * An in-memory {@link UrlBloomFilter} in front of the column answers most "not bookmarked yet"
+ * lookups without a query. On startup, rows written before the column existed are backfilled in
+ * batches and the filter is loaded; until then every lookup goes to the database. After the
+ * bookmarks were replaced, e.g. by a restore, {@link #rebuild()} does both again.
+ */
+@Component
+@Order(0)
+public class BookmarkUrlIndex implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookmarkUrlIndex.class);
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final BookmarkRepository bookmarkRepository;
+    private final BookmarkBulkRepository bulkRepository;
+    private final boolean rejectDuplicates;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private volatile UrlBloomFilter bloomFilter;
+    // The filter being loaded by a rebuild, which also receives the hashes added meanwhile
+    private volatile UrlBloomFilter loadingFilter;
+    private volatile boolean bloomFilterReady;
+
+    public BookmarkUrlIndex(BookmarkRepository bookmarkRepository,
+                            BookmarkBulkRepository bulkRepository,
+                            @Value("${bookmark.url.reject-duplicates:false}") boolean rejectDuplicates,
+                            @Value("${bookmark.url.bloom.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${bookmark.url.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.bookmarkRepository = bookmarkRepository;
+        this.bulkRepository = bulkRepository;
+        this.rejectDuplicates = rejectDuplicates;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new UrlBloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Whether creating a bookmark for an already bookmarked URL should be rejected.
+     */
+    public boolean rejectsDuplicates() {
+        return rejectDuplicates;
+    }
+
+    /**
+     * Finds the bookmarks whose URL normalizes to the same form as the given URL.
+     *
+     * @param url the URL to look up, in any spelling
+     * @return the matching bookmarks, empty if the URL isn't bookmarked
+     */
+    public List<Bookmark> findByUrl(String url) {
+        String normalized = UrlNormalizer.normalize(url);
+        if (normalized == null) {
+            return List.of();
+        }
+        long hash = UrlNormalizer.hash(normalized);
+        if (bloomFilterReady && !bloomFilter.mightContain(hash)) {
+            logger.debug("URL not bookmarked (bloom filter): {}", normalized);
+            return List.of();
+        }
+        return bookmarkRepository.findByUrlHash(hash).stream()
+                .filter(bookmark -> normalized.equals(UrlNormalizer.normalize(bookmark.getUrl())))
+                .toList();
+    }
+
+    /**
+     * Records a URL hash that was just written, so later lookups consult the database for it.
+     */
+    public void add(Long urlHash) {
+        if (urlHash != null) {
+            UrlBloomFilter loading = loadingFilter;
+            bloomFilter.add(urlHash);
+            if (loading != null) {
+                loading.add(urlHash);
+            }
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Backfills missing URL hashes and replaces the bloom filter with one loaded from the
+     * database, e.g. after the bookmarks were replaced by a restore. Lookups go to the database
+     * until the new filter is in place.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        bloomFilterReady = false;
+        int backfilled = backfillUrlHashes();
+        UrlBloomFilter loading = new UrlBloomFilter(expectedInsertions, falsePositiveRate);
+        loadingFilter = loading;
+        long loaded = loadBloomFilter(loading);
+        bloomFilter = loading;
+        loadingFilter = null;
+        bloomFilterReady = true;
+        logger.info("URL index ready: {} hashes backfilled, {} loaded into bloom filter ({} bits, {} hash functions) in {} ms",
+                backfilled, loaded, loading.getBitCount(), loading.getHashFunctions(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private int backfillUrlHashes() {
+        int total = 0;
+        long lastId = 0;
+        while (true) {
+            // Keyset over id: a row whose hash stays NULL is never selected twice
+            Map<Long, String> urls = bulkRepository.findUrlsWithoutUrlHash(lastId, BACKFILL_BATCH_SIZE);
+            if (urls.isEmpty()) {
+                return total;
+            }
+            Map<Long, Long> hashes = new HashMap<>();
+            for (Map.Entry<Long, String> entry : urls.entrySet()) {
+                Long hash = UrlNormalizer.normalizedHash(entry.getValue());
+                if (hash != null) {
+                    hashes.put(entry.getKey(), hash);
+                }
+                lastId = entry.getKey();
+            }
+            bulkRepository.updateUrlHashes(hashes);
+            total += hashes.size();
+        }
+    }
+
+    private long loadBloomFilter(UrlBloomFilter filter) {
+        long[] count = {0};
+        bulkRepository.forEachUrlHash(hash -> {
+            filter.add(hash);
+            count[0]++;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,513 @@
+package org.crud.bookmarks.service;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Compressed set of non-negative {@code long} values, laid out like a Roaring bitmap.
+ * <p>
+ * Values are grouped by their upper 48 bits into containers of up to 65536 values. Sparse
+ * containers store their low 16 bits as a sorted {@code char[]}; containers with more than
+ * {@value #ARRAY_MAX} values switch to a fixed 8 KB bitset. Intersections, unions and
+ * differences work container by container, so their cost depends on the number of containers
+ * and the density of each, not on the number of values.
+ * <p>
+ * Instances are not thread-safe; {@link TagIndex} guards them with a lock and hands out results
+ * of the set operations, which are always new bitmaps.
+ */
+public final class CompressedBitmap {
+
+    static final int ARRAY_MAX = 4096;
+    private static final int BITSET_WORDS = 1024;
+
+    private long[] keys = new long[0];
+    private Container[] containers = new Container[0];
+    private int size;
+
+    public static CompressedBitmap of(long... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    public void add(long value) {
+        checkValue(value);
+        long key = value >>> 16;
+        char low = (char) value;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            containers[index] = containers[index].add(low);
+        } else {
+            insertContainer(-index - 1, key, new ArrayContainer().add(low));
+        }
+    }
+
+    public void remove(long value) {
+        if (value < 0) {
+            return;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        if (index >= 0) {
+            Container container = containers[index].remove((char) value);
+            if (container.cardinality() == 0) {
+                removeContainer(index);
+            } else {
+                containers[index] = container;
+            }
+        }
+    }
+
+    public boolean contains(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public CompressedBitmap copy() {
+        CompressedBitmap copy = new CompressedBitmap();
+        copy.keys = Arrays.copyOf(keys, size);
+        copy.containers = new Container[size];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Returns the intersection of both bitmaps as a new bitmap.
+     */
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                result.appendIfNotEmpty(a.keys[i], a.containers[i].and(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the union of both bitmaps as a new bitmap.
+     */
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of {@code a} that are not in {@code b} as a new bitmap.
+     */
+    public static CompressedBitmap andNot(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            if (j < b.size && b.keys[j] == a.keys[i]) {
+                result.appendIfNotEmpty(a.keys[i], a.containers[i].andNot(b.containers[j]));
+            } else {
+                result.append(a.keys[i], a.containers[i].copy());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Calls the consumer with every value in ascending order.
+     */
+    public void forEach(LongConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, consumer);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} values in ascending order, skipping the first {@code offset}.
+     * Whole containers are skipped by their cardinality, so deep pages stay cheap.
+     */
+    public long[] toArray(long offset, int limit) {
+        long[] values = new long[(int) Math.max(0, Math.min(limit, cardinality() - offset))];
+        int filled = 0;
+        long skip = offset;
+        for (int i = 0; i < size && filled < values.length; i++) {
+            int cardinality = containers[i].cardinality();
+            if (skip >= cardinality) {
+                skip -= cardinality;
+                continue;
+            }
+            filled = containers[i].copyTo(keys[i] << 16, (int) skip, values, filled);
+            skip = 0;
+        }
+        return values;
+    }
+
+    public long[] toArray() {
+        return toArray(0, (int) Math.min(Integer.MAX_VALUE, cardinality()));
+    }
+
+    private static void checkValue(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Only non-negative values are supported: " + value);
+        }
+    }
+
+    private void insertContainer(int index, long key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private void append(long key, Container container) {
+        insertContainer(size, key, container);
+    }
+
+    private void appendIfNotEmpty(long key, Container container) {
+        if (container.cardinality() > 0) {
+            append(key, container);
+        }
+    }
+
+    /**
+     * The low 16 bits of the values sharing one key. Mutating operations return the container
+     * to keep using, which may be of the other representation.
+     */
+    private abstract static class Container {
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container copy();
+
+        abstract void forEach(long high, LongConsumer consumer);
+
+        /**
+         * Copies values into {@code target} starting at position {@code from}, after skipping
+         * {@code skip} values, and returns the next free position.
+         */
+        abstract int copyTo(long high, int skip, long[] target, int from);
+
+        abstract BitsetContainer toBitset();
+
+        Container and(Container other) {
+            if (this instanceof ArrayContainer array) {
+                return array.filter(other, true);
+            }
+            if (other instanceof ArrayContainer array) {
+                return array.filter(this, true);
+            }
+            long[] words = ((BitsetContainer) this).words.clone();
+            long[] otherWords = ((BitsetContainer) other).words;
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                words[i] &= otherWords[i];
+            }
+            return BitsetContainer.of(words).shrink();
+        }
+
+        Container or(Container other) {
+            if (this instanceof ArrayContainer a && other instanceof ArrayContainer b
+                    && a.cardinality + b.cardinality <= ARRAY_MAX) {
+                return a.merge(b);
+            }
+            long[] words = toBitset().words.clone();
+            long[] otherWords = other.toBitset().words;
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                words[i] |= otherWords[i];
+            }
+            return BitsetContainer.of(words).shrink();
+        }
+
+        Container andNot(Container other) {
+            if (this instanceof ArrayContainer array) {
+                return array.filter(other, false);
+            }
+            long[] words = ((BitsetContainer) this).words.clone();
+            long[] otherWords = other.toBitset().words;
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                words[i] &= ~otherWords[i];
+            }
+            return BitsetContainer.of(words).shrink();
+        }
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitset().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        void forEach(long high, LongConsumer consumer) {
+            for (int i = 0; i < cardinality; i++) {
+                consumer.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        int copyTo(long high, int skip, long[] target, int from) {
+            for (int i = skip; i < cardinality && from < target.length; i++) {
+                target[from++] = high | values[i];
+            }
+            return from;
+        }
+
+        @Override
+        BitsetContainer toBitset() {
+            long[] words = new long[BITSET_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitsetContainer(words, cardinality);
+        }
+
+        /** Keeps the values that are ({@code keep == true}) or aren't in the other container. */
+        ArrayContainer filter(Container other, boolean keep) {
+            char[] result = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i]) == keep) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        ArrayContainer merge(ArrayContainer other) {
+            char[] result = new char[Math.max(cardinality + other.cardinality, 1)];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < cardinality || j < other.cardinality) {
+                if (j == other.cardinality || (i < cardinality && values[i] < other.values[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > other.values[j]) {
+                    result[count++] = other.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+    }
+
+    private static final class BitsetContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitsetContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitsetContainer of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            return new BitsetContainer(words, cardinality);
+        }
+
+        @Override
+        Container add(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) == 0) {
+                words[value >>> 6] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long mask = 1L << value;
+            if ((words[value >>> 6] & mask) != 0) {
+                words[value >>> 6] &= ~mask;
+                cardinality--;
+            }
+            return shrink();
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container copy() {
+            return new BitsetContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(long high, LongConsumer consumer) {
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    consumer.accept(high | ((long) i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        int copyTo(long high, int skip, long[] target, int from) {
+            int remaining = skip;
+            for (int i = 0; i < BITSET_WORDS && from < target.length; i++) {
+                long word = words[i];
+                int bits = Long.bitCount(word);
+                if (remaining >= bits) {
+                    remaining -= bits;
+                    continue;
+                }
+                while (word != 0 && from < target.length) {
+                    if (remaining > 0) {
+                        remaining--;
+                    } else {
+                        target[from++] = high | ((long) i << 6) | Long.numberOfTrailingZeros(word);
+                    }
+                    word &= word - 1;
+                }
+            }
+            return from;
+        }
+
+        @Override
+        BitsetContainer toBitset() {
+            return this;
+        }
+
+        /** Converts back to an array container once the bitset is sparse enough. */
+        Container shrink() {
+            if (cardinality > ARRAY_MAX) {
+                return this;
+            }
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Folder;
+
+import java.util.List;
+
+/**
+ * Everything the first screen of the frontend shows, read in one request.
+ *
+ * @param folders all folders by name, each with the number of bookmarks directly in it
+ * @param recentBookmarks the most recently created bookmarks, newest first
+ * @param totalBookmarks the number of bookmarks
+ * @param unfiledBookmarks the number of bookmarks without a folder
+ * @param totalFolders the number of folders
+ */
+public record Dashboard(List<Folder> folders, List<Bookmark> recentBookmarks, long totalBookmarks,
+                        long unfiledBookmarks, long totalFolders) {
+}
@@ -0,0 +1,134 @@
+package org.crud.bookmarks.service;
+
+import jakarta.annotation.PreDestroy;
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.config.ReplicationRoutingDataSource;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.crud.bookmarks.repository.FolderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the {@link Dashboard}, so the frontend can render its first screen from one request
+ * instead of a chain of them.
+ * <p>
+ * The parts are read concurrently on a small bounded pool, database queries each in its own
+ * read-only transaction. Once the {@link BookmarkCatalogIndex} is loaded, the counts and the
+ * recent bookmarks come from one summary of the catalog under its read lock, so the folder counts
+ * add up to the totals and the recent bookmarks are among those counted; the catalog keeps its
+ * folder counts up to date, so only picking the recent bookmarks scans it. Just the folder list is
+ * read from the database, in a transaction of its own: if the summary counts bookmarks in a folder
+ * missing from the list, the folder was created in between and the list is read once more. Until
+ * the catalog is loaded, folders with their counts, the recent bookmarks and the totals are three
+ * queries, each consistent on its own, which may straddle a concurrent write. When the pool and
+ * its queue are full, further dashboards are refused rather than queued without bound.
+ */
+@Service
+public class DashboardService {
+
+    static final int MAX_RECENT = 100;
+
+    private final FolderRepository folderRepository;
+    private final BookmarkRepository bookmarkRepository;
+    private final BookmarkCatalogIndex catalogIndex;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+
+    public DashboardService(FolderRepository folderRepository, BookmarkRepository bookmarkRepository,
+                            BookmarkCatalogIndex catalogIndex, PlatformTransactionManager transactionManager,
+                            @Value("${bookmark.dashboard.threads:4}") int threads,
+                            @Value("${bookmark.dashboard.queue-capacity:100}") int queueCapacity) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("bookmark.dashboard threads and queue-capacity must be positive");
+        }
+        this.folderRepository = folderRepository;
+        this.bookmarkRepository = bookmarkRepository;
+        this.catalogIndex = catalogIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @param recentLimit the number of recent bookmarks to include
+     * @throws IllegalArgumentException if {@code recentLimit} is not between 1 and {@value #MAX_RECENT}
+     * @throws RejectedExecutionException if too many dashboards are being assembled at once
+     */
+    public Dashboard getDashboard(int recentLimit) {
+        if (recentLimit < 1 || recentLimit > MAX_RECENT) {
+            throw new IllegalArgumentException("Recent limit must be between 1 and " + MAX_RECENT);
+        }
+        if (catalogIndex.isReady()) {
+            CompletableFuture<List<Folder>> folders = query(folderRepository::findAllOrderByName);
+            CompletableFuture<BookmarkCatalogIndex.Summary> summaries =
+                    CompletableFuture.supplyAsync(() -> catalogIndex.summarize(recentLimit), executor);
+            BookmarkCatalogIndex.Summary summary = join(summaries);
+            List<Folder> allFolders = join(folders);
+            if (!listsAll(allFolders, summary.countsByFolder().keySet())) {
+                allFolders = readOnlyTransaction.execute(status -> folderRepository.findAllOrderByName());
+            }
+            for (Folder folder : allFolders) {
+                folder.setBookmarkCount((long) summary.countsByFolder().getOrDefault(folder.getId(), 0));
+            }
+            return new Dashboard(allFolders, summary.recent(), summary.total(), summary.unfiled(), allFolders.size());
+        }
+        CompletableFuture<List<Folder>> folders = query(folderRepository::findAllWithBookmarkCount);
+        CompletableFuture<List<Bookmark>> recent = query(() -> bookmarkRepository.findMostRecent(recentLimit));
+        long[] totals = readOnlyTransaction.execute(status ->
+                new long[]{bookmarkRepository.count(), bookmarkRepository.countUnfiled()});
+        List<Folder> allFolders = join(folders);
+        return new Dashboard(allFolders, join(recent), totals[0], totals[1], allFolders.size());
+    }
+
+    private <T> CompletableFuture<T> query(Supplier<T> query) {
+        // In the caller's session, so a client's own writes stay visible on the pool's threads
+        return CompletableFuture.supplyAsync(ReplicationRoutingDataSource.inCurrentSession(
+                () -> readOnlyTransaction.execute(status -> query.get())), executor);
+    }
+
+    private static boolean listsAll(List<Folder> folders, Set<Long> folderIds) {
+        Set<Long> listed = new HashSet<>();
+        for (Folder folder : folders) {
+            listed.add(folder.getId());
+        }
+        return listed.containsAll(folderIds);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.crud.bookmarks.service;
+
+/**
+ * Exception thrown when creating a bookmark for a URL that is already bookmarked
+ * and duplicate bookmarks are rejected ({@code bookmark.url.reject-duplicates=true}).
+ */
+public class DuplicateBookmarkException extends IllegalArgumentException {
+    /**
+     * Constructs a new DuplicateBookmarkException for the given URL.
+     *
+     * @param url the URL that is already bookmarked
+     * @param existingId the ID of the existing bookmark
+     */
+    public DuplicateBookmarkException(String url, Long existingId) {
+        super("URL '" + url + "' is already bookmarked (bookmark " + existingId + ")");
+    }
+}
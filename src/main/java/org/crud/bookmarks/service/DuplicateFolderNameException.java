@@ -0,0 +1,18 @@
+package org.crud.bookmarks.service;
+
+/**
+ * Exception thrown when a folder would end up with a name that is already used
+ * by another folder (names are compared case-insensitively).
+ * Raised from the unique index on {@code folders.name_key}, so it is reliable under concurrent requests.
+ */
+public class DuplicateFolderNameException extends IllegalArgumentException {
+    /**
+     * Constructs a new DuplicateFolderNameException for the given folder name.
+     *
+     * @param name the conflicting folder name
+     * @param cause the underlying constraint violation
+     */
+    public DuplicateFolderNameException(String name, Throwable cause) {
+        super("Folder with name '" + name + "' already exists", cause);
+    }
+}
@@ -0,0 +1,18 @@
+package org.crud.bookmarks.service;
+
+/**
+ * Exception thrown when a tag would end up with a name that is already used
+ * by another tag (names are compared case-insensitively).
+ * Raised from the unique index on {@code tags.name_key}.
+ */
+public class DuplicateTagNameException extends IllegalArgumentException {
+    /**
+     * Constructs a new DuplicateTagNameException for the given tag name.
+     *
+     * @param name the conflicting tag name
+     * @param cause the underlying constraint violation
+     */
+    public DuplicateTagNameException(String name, Throwable cause) {
+        super("Tag with name '" + name + "' already exists", cause);
+    }
+}
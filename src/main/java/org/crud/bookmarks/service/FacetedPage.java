@@ -0,0 +1,24 @@
+package org.crud.bookmarks.service;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of search results together with the facet counts of the whole match set.
+ * Serializes like a plain page with an additional {@code facets} property.
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final SearchFacets facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, SearchFacets facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public SearchFacets getFacets() {
+        return facets;
+    }
+}
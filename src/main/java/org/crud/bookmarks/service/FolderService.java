@@ -1,10 +1,18 @@
 package org.crud.bookmarks.service;
 
+import org.crud.bookmarks.Bookmark;
 import org.crud.bookmarks.Folder;
 import org.crud.bookmarks.repository.BookmarkRepository;
 import org.crud.bookmarks.repository.FolderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.relational.core.conversion.DbActionExecutionException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +21,8 @@ import java.util.Optional;
 @Transactional
 public class FolderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FolderService.class);
+
     private final FolderRepository folderRepository;
     private final BookmarkRepository bookmarkRepository;
 
@@ -21,10 +31,12 @@ public class FolderService {
         this.bookmarkRepository = bookmarkRepository;
     }
 
+    @Transactional(readOnly = true)
     public List<Folder> getAllFolders() {
         return folderRepository.findAllOrderByName();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Folder> getFolderById(Long id) {
         return folderRepository.findById(id)
                 .map(folder -> {
@@ -33,40 +45,165 @@ public class FolderService {
                 });
     }
 
+    /**
+     * Creates a new folder, at the top level or inside its {@code parentId}.
+     * Name uniqueness is enforced by the database, so concurrent requests cannot create duplicates.
+     *
+     * @throws DuplicateFolderNameException if a folder with the same name (ignoring case) exists
+     * @throws IllegalArgumentException if the parent folder doesn't exist
+     */
     public Folder createFolder(Folder folder) {
-        if (folderRepository.existsByName(folder.getName())) {
-            throw new IllegalArgumentException("Folder with name '" + folder.getName() + "' already exists");
+        // Locking the parent keeps a concurrent move of its subtree from missing the new folder
+        if (folder.getParentId() != null && folderRepository.lockById(folder.getParentId()).isEmpty()) {
+            throw new IllegalArgumentException("Parent folder " + folder.getParentId() + " does not exist");
+        }
+        Folder savedFolder;
+        try {
+            savedFolder = folderRepository.save(folder);
+        } catch (DuplicateKeyException | DbActionExecutionException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            throw new DuplicateFolderNameException(folder.getName(), e);
         }
-        return folderRepository.save(folder);
+        folderRepository.insertPaths(savedFolder.getId(), savedFolder.getParentId());
+        return savedFolder;
     }
 
+    /**
+     * Updates a folder's name and description.
+     *
+     * @throws DuplicateFolderNameException if another folder already uses the new name (ignoring case)
+     * @throws OptimisticLockingFailureException if a version is given and the folder was modified since
+     */
     public Optional<Folder> updateFolder(Long id, Folder folderDetails) {
         return folderRepository.findById(id)
                 .map(folder -> {
-                    if (!folder.getName().equals(folderDetails.getName()) &&
-                            folderRepository.existsByName(folderDetails.getName())) {
-                        throw new IllegalArgumentException("Folder with name '" + folderDetails.getName() + "' already exists");
+                    if (folderDetails.getVersion() != null && !folderDetails.getVersion().equals(folder.getVersion())) {
+                        throw new OptimisticLockingFailureException(
+                                "Folder " + id + " was modified concurrently; expected version " + folderDetails.getVersion());
                     }
                     folder.setName(folderDetails.getName());
                     folder.setDescription(folderDetails.getDescription());
-                    return folderRepository.save(folder);
+                    try {
+                        return folderRepository.save(folder);
+                    } catch (DuplicateKeyException | DbActionExecutionException e) {
+                        if (!isDuplicateKey(e)) {
+                            throw e;
+                        }
+                        throw new DuplicateFolderNameException(folderDetails.getName(), e);
+                    }
                 });
     }
 
+    /**
+     * Creates or updates the folder with the given name in one statement.
+     * Calling it repeatedly with the same arguments is safe and leaves the folder unchanged.
+     * Runs without an outer transaction so a lost insert race can be retried as an update.
+     *
+     * @param name the folder name, matched case-insensitively
+     * @param description the description to set
+     * @return the created or existing folder
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Folder upsertFolderByName(String name, String description) {
+        try {
+            folderRepository.upsertByName(name, description);
+        } catch (DuplicateKeyException e) {
+            // A concurrent upsert inserted the same name first; the retry takes the update branch
+            folderRepository.upsertByName(name, description);
+        }
+        Folder folder = folderRepository.findByNameIgnoreCase(name)
+                .orElseThrow(() -> new IllegalStateException("Folder '" + name + "' not found after upsert"));
+        // A newly inserted folder is a root; an existing one keeps its place in the tree
+        folderRepository.insertSelfPath(folder.getId());
+        return folder;
+    }
+
+    /**
+     * Moves a folder with everything nested below it under a new parent, or to the top level
+     * if {@code parentId} is null. The closure rows of the whole subtree are rewritten in the
+     * same transaction.
+     *
+     * @return the moved folder, or empty if it doesn't exist
+     * @throws IllegalArgumentException if the parent doesn't exist or lies inside the moved subtree
+     */
+    public Optional<Folder> moveFolder(Long id, Long parentId) {
+        if (!folderRepository.existsById(id)) {
+            return Optional.empty();
+        }
+        if (parentId != null && !folderRepository.existsById(parentId)) {
+            throw new IllegalArgumentException("Parent folder " + parentId + " does not exist");
+        }
+        folderRepository.lockForMove(id, parentId);
+        // Checked under the locks: a concurrent move could otherwise close a cycle
+        if (parentId != null && folderRepository.isInSubtree(id, parentId)) {
+            throw new IllegalArgumentException("Cannot move folder " + id + " into its own subtree");
+        }
+        folderRepository.detachSubtree(id);
+        if (parentId != null) {
+            folderRepository.attachSubtree(id, parentId);
+        }
+        folderRepository.updateParentId(id, parentId);
+        logger.debug("Moved folder {} under parent {}", id, parentId);
+        return folderRepository.findById(id);
+    }
+
+    /**
+     * Deletes a folder together with all folders nested below it.
+     *
+     * @throws IllegalStateException if any folder of the subtree contains bookmarks
+     */
     public void deleteFolder(Long id) {
         folderRepository.findById(id).ifPresent(folder -> {
-            if (bookmarkRepository.countByFolderId(id) > 0) {
+            if (bookmarkRepository.countInFolderTree(id) > 0) {
                 throw new IllegalStateException("Cannot delete folder that contains bookmarks");
             }
+            // Subfolders and closure rows are removed by ON DELETE CASCADE
             folderRepository.deleteById(id);
         });
     }
 
+    /**
+     * Returns the folder followed by all folders nested below it, level by level.
+     *
+     * @return the subtree, or empty if the folder doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<Folder>> getSubtree(Long id) {
+        List<Folder> subtree = folderRepository.findSubtree(id);
+        return subtree.isEmpty() ? Optional.empty() : Optional.of(subtree);
+    }
+
+    /**
+     * Returns the bookmarks in the folder and all folders nested below it, ordered by title,
+     * optionally only those whose title or description contains the search term.
+     */
+    @Transactional(readOnly = true)
+    public List<Bookmark> getBookmarksInSubtree(Long id, String searchTerm) {
+        if (!StringUtils.hasText(searchTerm)) {
+            return bookmarkRepository.findInFolderTree(id);
+        }
+        return bookmarkRepository.searchInFolderTree(id, searchTerm);
+    }
+
+    @Transactional(readOnly = true)
+    public int countBookmarksInSubtree(Long id) {
+        return bookmarkRepository.countInFolderTree(id);
+    }
+
+    @Transactional(readOnly = true)
     public List<Folder> searchFolders(String searchTerm) {
         return folderRepository.searchFolders(searchTerm);
     }
 
+    @Transactional(readOnly = true)
     public List<Folder> getAllFoldersWithBookmarkCount() {
         return folderRepository.findAllWithBookmarkCount();
     }
+
+    // Spring Data JDBC wraps the exceptions of the statements behind save() in DbActionExecutionException
+    private static boolean isDuplicateKey(RuntimeException e) {
+        return e instanceof DuplicateKeyException || e.getCause() instanceof DuplicateKeyException;
+    }
 }
@@ -0,0 +1,58 @@
+package org.crud.bookmarks.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Spaces out outgoing requests: globally to a fixed rate, and per host to a minimum interval
+ * between two requests to the same host. Callers ask for a slot and either get it or learn how
+ * long to wait, so requests to other hosts can go ahead in the meantime. Not thread-safe; meant
+ * for a single coordinating thread.
+ */
+final class HostRateLimiter {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long globalIntervalNanos;
+    private final long hostIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, Long> hostNext = new HashMap<>();
+    private long globalNext;
+
+    HostRateLimiter(double requestsPerSecond, Duration hostInterval, LongSupplier nanoClock) {
+        if (!(requestsPerSecond > 0)) {
+            throw new IllegalArgumentException("Request rate must be positive");
+        }
+        this.globalIntervalNanos = (long) Math.ceil(1_000_000_000d / requestsPerSecond);
+        this.hostIntervalNanos = hostInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.globalNext = nanoClock.getAsLong();
+    }
+
+    /**
+     * Reserves a request slot for the host if both limits allow one now.
+     *
+     * @param host the host to be requested, or null if unknown (only the global limit applies)
+     * @return 0 if the slot was reserved, otherwise the nanoseconds until one may be available
+     */
+    long tryAcquire(String host) {
+        long now = nanoClock.getAsLong();
+        long ready = globalNext;
+        if (host != null) {
+            ready = Math.max(ready, hostNext.getOrDefault(host, now));
+        }
+        if (ready - now > 0) {
+            return ready - now;
+        }
+        globalNext = Math.max(globalNext, now) + globalIntervalNanos;
+        if (host != null && hostIntervalNanos > 0) {
+            if (hostNext.size() >= PRUNE_THRESHOLD) {
+                hostNext.values().removeIf(next -> next - now <= 0);
+            }
+            hostNext.put(host, now + hostIntervalNanos);
+        }
+        return 0;
+    }
+}
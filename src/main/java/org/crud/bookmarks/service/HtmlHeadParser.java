@@ -0,0 +1,326 @@
+package org.crud.bookmarks.service;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental parser for the head of an HTML document.
+ * <p>
+ * The page is fed in chunks as they arrive and scanned tag by tag; {@link #feed} reports when
+ * the head is complete ({@code </head>} or {@code <body>} seen, or {@value #MAX_HEAD_CHARS}
+ * characters read), so the caller can stop reading the body. Only the tags needed for
+ * {@link PageMetadata} are interpreted: {@code title}, {@code meta} and {@code link}. Script,
+ * style and comment contents are skipped. Not thread-safe.
+ */
+final class HtmlHeadParser {
+
+    static final int MAX_HEAD_CHARS = 256 * 1024;
+
+    private static final Pattern ATTRIBUTE = Pattern.compile(
+            "([^\\s\"'>/=]+)(?:\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)'|([^\\s\"'>]+)))?");
+    private static final Pattern NUMERIC_ENTITY = Pattern.compile("&#(x[0-9a-fA-F]+|[0-9]+);");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final StringBuilder text = new StringBuilder();
+    private CharsetDecoder decoder = newDecoder(StandardCharsets.UTF_8);
+    private ByteBuffer pendingBytes = ByteBuffer.allocate(0);
+    private int position;
+    private boolean done;
+
+    private String title;
+    private String ogTitle;
+    private String description;
+    private String ogDescription;
+    private String canonical;
+    private String icon;
+
+    /**
+     * Sets the charset for the bytes fed afterwards, e.g. from the {@code Content-Type} header.
+     * Defaults to UTF-8.
+     */
+    void charset(Charset charset) {
+        if (charset != null) {
+            decoder = newDecoder(charset);
+        }
+    }
+
+    /**
+     * Feeds the next chunk of the raw document.
+     *
+     * @return true once the head is complete and no more input is needed
+     */
+    boolean feed(byte[] bytes) {
+        if (done) {
+            return true;
+        }
+        ByteBuffer input = ByteBuffer.allocate(pendingBytes.remaining() + bytes.length);
+        input.put(pendingBytes).put(bytes).flip();
+        CharBuffer chars = CharBuffer.allocate((int) (input.remaining() * (double) decoder.maxCharsPerByte()) + 1);
+        decoder.decode(input, chars, false);
+        // Bytes of a character split across chunks wait for the next chunk
+        pendingBytes = input.slice();
+        return feed(chars.flip());
+    }
+
+    /**
+     * Feeds the next chunk of the already decoded document.
+     *
+     * @return true once the head is complete and no more input is needed
+     */
+    boolean feed(CharSequence chunk) {
+        if (done) {
+            return true;
+        }
+        text.append(chunk);
+        scan();
+        if (!done && text.length() >= MAX_HEAD_CHARS) {
+            done = true;
+        }
+        return done;
+    }
+
+    /**
+     * Returns the metadata found so far, with relative URLs resolved against the page URL.
+     */
+    PageMetadata result(String pageUrl) {
+        URI base = toUri(pageUrl);
+        String favicon = icon != null ? resolve(base, icon) : null;
+        if (favicon == null && base != null && base.getScheme() != null && base.getRawAuthority() != null) {
+            favicon = base.getScheme() + "://" + base.getRawAuthority() + "/favicon.ico";
+        }
+        return new PageMetadata(clean(title != null ? title : ogTitle),
+                clean(description != null ? description : ogDescription),
+                canonical != null ? resolve(base, canonical) : null,
+                favicon);
+    }
+
+    /**
+     * Parses a complete document.
+     */
+    static PageMetadata parse(String html, String pageUrl) {
+        HtmlHeadParser parser = new HtmlHeadParser();
+        parser.feed(html);
+        return parser.result(pageUrl);
+    }
+
+    private void scan() {
+        while (!done) {
+            int open = text.indexOf("<", position);
+            if (open < 0) {
+                position = text.length();
+                return;
+            }
+            if (startsWith(open, "<!--")) {
+                int end = text.indexOf("-->", open + 4);
+                if (end < 0) {
+                    position = open;
+                    return;
+                }
+                position = end + 3;
+                continue;
+            }
+            int close = tagEnd(open + 1);
+            if (close < 0) {
+                position = open;
+                return;
+            }
+            String tag = text.substring(open + 1, close);
+            String name = tagName(tag);
+            switch (name) {
+                case "/head", "body" -> {
+                    done = true;
+                    return;
+                }
+                case "title", "script", "style", "noscript" -> {
+                    int end = indexOfIgnoreCase("</" + name, close + 1);
+                    if (end < 0) {
+                        position = open;
+                        return;
+                    }
+                    if (name.equals("title") && title == null) {
+                        title = text.substring(close + 1, end);
+                    }
+                    position = end;
+                }
+                case "meta" -> {
+                    readMeta(attributes(tag));
+                    position = close + 1;
+                }
+                case "link" -> {
+                    readLink(attributes(tag));
+                    position = close + 1;
+                }
+                default -> position = close + 1;
+            }
+        }
+    }
+
+    private void readMeta(Map<String, String> attributes) {
+        String content = attributes.get("content");
+        if (content == null) {
+            return;
+        }
+        String name = attributes.getOrDefault("name", attributes.get("property"));
+        if (name == null) {
+            return;
+        }
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "description" -> description = first(description, content);
+            case "og:description" -> ogDescription = first(ogDescription, content);
+            case "og:title" -> ogTitle = first(ogTitle, content);
+            default -> {
+            }
+        }
+    }
+
+    private void readLink(Map<String, String> attributes) {
+        String rel = attributes.get("rel");
+        String href = attributes.get("href");
+        if (rel == null || href == null || href.isBlank()) {
+            return;
+        }
+        // "shortcut icon" carries the "icon" token as well
+        for (String token : rel.toLowerCase(Locale.ROOT).trim().split("\\s+")) {
+            switch (token) {
+                case "canonical" -> canonical = first(canonical, decodeEntities(href));
+                case "icon" -> icon = first(icon, decodeEntities(href));
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the {@code >} closing a tag, skipping over quoted attribute values.
+     */
+    private int tagEnd(int from) {
+        char quote = 0;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Map<String, String> attributes(String tag) {
+        Map<String, String> attributes = new HashMap<>();
+        int nameEnd = 0;
+        while (nameEnd < tag.length() && !Character.isWhitespace(tag.charAt(nameEnd)) && tag.charAt(nameEnd) != '/') {
+            nameEnd++;
+        }
+        Matcher matcher = ATTRIBUTE.matcher(tag);
+        matcher.region(nameEnd, tag.length());
+        while (matcher.find()) {
+            String value = matcher.group(2) != null ? matcher.group(2)
+                    : matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+            attributes.putIfAbsent(matcher.group(1).toLowerCase(Locale.ROOT), value != null ? value : "");
+        }
+        return attributes;
+    }
+
+    private static String tagName(String tag) {
+        int end = 0;
+        while (end < tag.length() && !Character.isWhitespace(tag.charAt(end))
+                && (tag.charAt(end) != '/' || end == 0)) {
+            end++;
+        }
+        return tag.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    private boolean startsWith(int index, String prefix) {
+        return text.length() >= index + prefix.length()
+                && text.substring(index, index + prefix.length()).equals(prefix);
+    }
+
+    private int indexOfIgnoreCase(String needle, int from) {
+        outer:
+        for (int i = from; i <= text.length() - needle.length(); i++) {
+            for (int j = 0; j < needle.length(); j++) {
+                if (Character.toLowerCase(text.charAt(i + j)) != needle.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static String clean(String value) {
+        if (value == null) {
+            return null;
+        }
+        String cleaned = WHITESPACE.matcher(decodeEntities(value)).replaceAll(" ").trim();
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+
+    static String decodeEntities(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        String named = value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&nbsp;", " ");
+        Matcher matcher = NUMERIC_ENTITY.matcher(named);
+        StringBuilder decoded = new StringBuilder();
+        while (matcher.find()) {
+            String number = matcher.group(1);
+            int codePoint;
+            try {
+                codePoint = number.startsWith("x")
+                        ? Integer.parseInt(number.substring(1), 16) : Integer.parseInt(number);
+            } catch (NumberFormatException e) {
+                codePoint = -1;
+            }
+            String replacement = Character.isValidCodePoint(codePoint)
+                    ? new String(Character.toChars(codePoint)) : matcher.group();
+            matcher.appendReplacement(decoded, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(decoded);
+        // Last, so "&amp;lt;" stays "&lt;"
+        return decoded.toString().replace("&amp;", "&");
+    }
+
+    private static String resolve(URI base, String href) {
+        try {
+            URI uri = base != null ? base.resolve(href.trim()) : new URI(href.trim());
+            return uri.isAbsolute() ? uri.toString() : null;
+        } catch (IllegalArgumentException | java.net.URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static URI toUri(String url) {
+        try {
+            return url != null ? new URI(url) : null;
+        } catch (java.net.URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static String first(String current, String candidate) {
+        return current != null ? current : candidate;
+    }
+
+    private static CharsetDecoder newDecoder(Charset charset) {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+}
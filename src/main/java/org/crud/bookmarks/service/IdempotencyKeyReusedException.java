@@ -0,0 +1,16 @@
+package org.crud.bookmarks.service;
+
+/**
+ * Exception thrown when an idempotency key is reused for a request whose payload
+ * differs from the one originally sent with that key.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    /**
+     * Constructs a new IdempotencyKeyReusedException for the given key.
+     *
+     * @param key the reused idempotency key
+     */
+    public IdempotencyKeyReusedException(String key) {
+        super("Idempotency key '" + key + "' was already used with a different request");
+    }
+}
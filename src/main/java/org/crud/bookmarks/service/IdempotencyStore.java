@@ -0,0 +1,178 @@
+package org.crud.bookmarks.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory store of in-flight and completed results for requests carrying an idempotency key.
+ * <p>
+ * The first request with a key runs the action; concurrent duplicates wait for its result
+ * and later duplicates get the stored result until it expires. Failed executions are not
+ * stored, so a retry after an error runs the action again. A key reused with another payload is
+ * detected by comparing SHA-256 {@link #fingerprint fingerprints} of the payloads.
+ * <p>
+ * The number of stored results is bounded. Completed results are queued in the order they
+ * expire; every call drops the expired ones from the head of the queue and, when the store is
+ * full, the oldest completed results after them.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // With one TTL for all entries, completion order is expiry order
+    private final Queue<Entry> completed = new ConcurrentLinkedQueue<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    @Autowired
+    public IdempotencyStore(@Value("${bookmark.idempotency.ttl:PT1H}") Duration ttl,
+                            @Value("${bookmark.idempotency.max-entries:10000}") int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    IdempotencyStore(Duration ttl, int maxEntries, LongSupplier clock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the SHA-256 digest of the fields of a request payload. Each field is written with
+     * its length, so different field values never produce the same input.
+     *
+     * @param fields the fields identifying the payload, in a fixed order; may contain nulls
+     */
+    public static byte[] fingerprint(Object... fields) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        for (Object field : fields) {
+            if (field == null) {
+                digest.update((byte) 0);
+                continue;
+            }
+            byte[] bytes = field.toString().getBytes(StandardCharsets.UTF_8);
+            digest.update((byte) 1);
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            digest.update(bytes);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Runs the action once per key, or returns the result of the execution already
+     * in flight or completed for this key.
+     *
+     * @param key the idempotency key, scoped by the caller to the operation
+     * @param fingerprint the {@link #fingerprint} of the request payload, used to detect key reuse
+     * @param action the operation to run
+     * @return the result of the (single) execution for this key
+     * @throws IdempotencyKeyReusedException if the key was used with a different payload
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, byte[] fingerprint, Supplier<T> action) {
+        evict();
+        while (true) {
+            Entry created = new Entry(key, fingerprint);
+            Entry existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                return (T) run(key, created, action);
+            }
+            if (existing.isExpired(clock.getAsLong())) {
+                entries.remove(key, existing);
+                continue;
+            }
+            if (!MessageDigest.isEqual(existing.fingerprint, fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            logger.debug("Replaying result for idempotency key: {}", key);
+            return (T) await(existing.result);
+        }
+    }
+
+    /**
+     * Returns the number of stored entries, in flight and completed.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private Object run(String key, Entry entry, Supplier<?> action) {
+        try {
+            Object value = action.get();
+            entry.expiresAt = clock.getAsLong() + ttlNanos;
+            entry.result.complete(value);
+            completed.add(entry);
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the completed entries at the head of the queue while they are expired or the store
+     * is over capacity. In-flight entries are never evicted, their waiters depend on them.
+     */
+    private void evict() {
+        long now = clock.getAsLong();
+        Entry head;
+        while ((head = completed.peek()) != null && (head.isExpired(now) || entries.size() > maxEntries)) {
+            // A concurrent caller may have taken the head already
+            if (completed.remove(head)) {
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final String key;
+        final byte[] fingerprint;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        Entry(String key, byte[] fingerprint) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+        }
+
+        boolean isExpired(long now) {
+            return result.isDone() && now - expiresAt >= 0;
+        }
+    }
+}
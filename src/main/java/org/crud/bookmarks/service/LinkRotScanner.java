@@ -0,0 +1,285 @@
+package org.crud.bookmarks.service;
+
+import jakarta.annotation.PreDestroy;
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.LinkCheckRepository;
+import org.crud.bookmarks.repository.LinkCheckRepository.LinkCheck;
+import org.crud.bookmarks.repository.LinkCheckRepository.ScanState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background scanner that re-checks bookmark URLs for link rot.
+ * <p>
+ * Each sweep walks the bookmarks in ID order from a cursor persisted in {@code link_scan_state},
+ * so a restart resumes where it stopped. URLs are checked with {@link UrlValidator} on a small
+ * pool of low-priority threads, paced by a {@link HostRateLimiter}: the global rate is chosen at
+ * the start of a sweep so that all bookmarks are checked within the configured window (capped by
+ * {@code max-rate}), and requests to the same host are spaced out. Results of a batch go to
+ * {@code link_checks} together with the new cursor in one transaction. The scanner never writes
+ * to {@code bookmarks}, so it takes no locks that foreground requests could wait on.
+ */
+@Component
+public class LinkRotScanner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LinkRotScanner.class);
+    private static final int ERROR_MAX_LENGTH = 255;
+
+    private final BookmarkBulkRepository bulkRepository;
+    private final LinkCheckRepository linkCheckRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UrlValidator urlValidator;
+    private final boolean enabled;
+    private final Duration initialDelay;
+    private final Duration sweepWindow;
+    private final double maxRate;
+    private final Duration hostInterval;
+    private final int batchSize;
+    private final Duration checkTimeout;
+    private final ScheduledExecutorService coordinator;
+    private final ExecutorService checkers;
+
+    private HostRateLimiter rateLimiter;
+    private volatile double sweepRate;
+    private volatile long checkedInSweep;
+    private volatile long brokenInSweep;
+
+    public LinkRotScanner(BookmarkBulkRepository bulkRepository,
+                          LinkCheckRepository linkCheckRepository,
+                          PlatformTransactionManager transactionManager,
+                          UrlValidator urlValidator,
+                          @Value("${bookmark.link-check.enabled:true}") boolean enabled,
+                          @Value("${bookmark.link-check.initial-delay:PT5M}") Duration initialDelay,
+                          @Value("${bookmark.link-check.sweep-window:P7D}") Duration sweepWindow,
+                          @Value("${bookmark.link-check.max-rate:20}") double maxRate,
+                          @Value("${bookmark.link-check.per-host-interval:PT2S}") Duration hostInterval,
+                          @Value("${bookmark.link-check.batch-size:200}") int batchSize,
+                          @Value("${bookmark.link-check.concurrency:8}") int concurrency,
+                          @Value("${bookmark.url.timeout-seconds:10}") int timeoutSeconds) {
+        if (sweepWindow.isNegative() || sweepWindow.isZero() || !(maxRate > 0) || batchSize < 1 || concurrency < 1) {
+            throw new IllegalArgumentException(
+                    "bookmark.link-check sweep-window, max-rate, batch-size and concurrency must be positive");
+        }
+        this.bulkRepository = bulkRepository;
+        this.linkCheckRepository = linkCheckRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.urlValidator = urlValidator;
+        this.enabled = enabled;
+        this.initialDelay = initialDelay;
+        this.sweepWindow = sweepWindow;
+        this.maxRate = maxRate;
+        this.hostInterval = hostInterval;
+        this.batchSize = batchSize;
+        this.checkTimeout = Duration.ofSeconds(timeoutSeconds).multipliedBy(2);
+        this.coordinator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "link-check-coordinator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.checkers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "link-check-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Progress of the current sweep.
+     *
+     * @param cursor ID of the last bookmark checked in this sweep
+     * @param ratePerSecond the global request rate of this sweep
+     */
+    public record ScanStatus(boolean enabled, LocalDateTime sweepStartedAt, LocalDateTime lastSweepFinishedAt,
+                             long cursor, long checkedInSweep, long brokenInSweep, double ratePerSecond) {
+    }
+
+    /**
+     * A bookmark whose URL failed its last check.
+     */
+    public record BrokenLink(Long bookmarkId, String title, String url, String status, Integer httpStatus,
+                             String error, LocalDateTime lastCheckedAt, int consecutiveFailures) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            logger.info("Link checking is disabled");
+            return;
+        }
+        coordinator.scheduleWithFixedDelay(this::safeSweepStep, initialDelay.toMillis(), 1_000, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        coordinator.shutdownNow();
+        checkers.shutdownNow();
+        coordinator.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    public ScanStatus getStatus() {
+        ScanState state = linkCheckRepository.loadState();
+        return new ScanStatus(enabled, state.sweepStartedAt(), state.lastSweepFinishedAt(), state.cursor(),
+                checkedInSweep, brokenInSweep, sweepRate);
+    }
+
+    /**
+     * Returns the bookmarks whose last check failed, most consecutive failures first.
+     */
+    public List<BrokenLink> findBrokenLinks(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return linkCheckRepository.findBroken(limit);
+    }
+
+    private void safeSweepStep() {
+        try {
+            sweepStep();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Link check step failed", e);
+        }
+    }
+
+    /**
+     * Checks the next batch of bookmarks, starting a new sweep once the window of the previous
+     * one has passed. Runs on the coordinator thread, except in tests.
+     *
+     * @return the number of bookmarks checked
+     */
+    int sweepStep() throws InterruptedException {
+        ScanState state = linkCheckRepository.loadState();
+        LocalDateTime sweepStartedAt = state.sweepStartedAt();
+        long cursor = state.cursor();
+        if (sweepStartedAt == null) {
+            if (!startSweep(state.lastSweepFinishedAt())) {
+                return 0;
+            }
+            cursor = 0;
+        } else if (rateLimiter == null) {
+            // Resuming after a restart
+            startRate(bulkRepository.countAfter(cursor), sweepStartedAt.plus(sweepWindow));
+        }
+
+        List<Bookmark> bookmarks = bulkRepository.findAfter(cursor, batchSize);
+        if (bookmarks.isEmpty()) {
+            linkCheckRepository.finishSweep();
+            logger.info("Link check sweep finished: {} checked, {} broken", checkedInSweep, brokenInSweep);
+            rateLimiter = null;
+            return 0;
+        }
+
+        List<Future<LinkCheck>> results = submitChecks(bookmarks);
+        List<LinkCheck> batch = new ArrayList<>(results.size());
+        for (Future<LinkCheck> result : results) {
+            try {
+                batch.add(result.get(checkTimeout.toMillis(), TimeUnit.MILLISECONDS));
+            } catch (ExecutionException | TimeoutException e) {
+                result.cancel(true);
+                logger.debug("URL check did not complete: {}", e.toString());
+            }
+        }
+        long lastId = bookmarks.get(bookmarks.size() - 1).getId();
+        writeResults(batch, lastId);
+        checkedInSweep += batch.size();
+        brokenInSweep += batch.stream().filter(check -> !"OK".equals(check.status())).count();
+        return batch.size();
+    }
+
+    private boolean startSweep(LocalDateTime lastFinishedAt) {
+        LocalDateTime now = LocalDateTime.now();
+        if (lastFinishedAt != null && now.isBefore(lastFinishedAt.plus(sweepWindow))) {
+            return false;
+        }
+        linkCheckRepository.startSweep(now);
+        checkedInSweep = 0;
+        brokenInSweep = 0;
+        startRate(bulkRepository.countAfter(0), now.plus(sweepWindow));
+        logger.info("Link check sweep started at {} requests/s", String.format("%.2f", sweepRate));
+        return true;
+    }
+
+    /**
+     * Paces the rest of the sweep to finish at 90% of the window, leaving room for per-host
+     * delays and slow responses.
+     */
+    private void startRate(long remaining, LocalDateTime deadline) {
+        double seconds = Math.max(0.001, Duration.between(LocalDateTime.now(), deadline).toMillis() * 0.9 / 1000);
+        sweepRate = Math.min(maxRate, Math.max(remaining, 1) / seconds);
+        rateLimiter = new HostRateLimiter(sweepRate, hostInterval, System::nanoTime);
+    }
+
+    private List<Future<LinkCheck>> submitChecks(List<Bookmark> bookmarks) throws InterruptedException {
+        List<Future<LinkCheck>> results = new ArrayList<>(bookmarks.size());
+        Deque<Bookmark> pending = new ArrayDeque<>(bookmarks);
+        while (!pending.isEmpty()) {
+            long minWait = Long.MAX_VALUE;
+            for (int i = pending.size(); i > 0; i--) {
+                Bookmark bookmark = pending.poll();
+                long wait = rateLimiter.tryAcquire(bookmark.getHost());
+                if (wait == 0) {
+                    results.add(checkers.submit(() -> check(bookmark)));
+                } else {
+                    // Hosts that have to wait go to the back, so other hosts aren't held up
+                    pending.add(bookmark);
+                    minWait = Math.min(minWait, wait);
+                }
+            }
+            if (!pending.isEmpty()) {
+                TimeUnit.NANOSECONDS.sleep(minWait);
+            }
+        }
+        return results;
+    }
+
+    private LinkCheck check(Bookmark bookmark) {
+        UrlValidator.CheckResult result = urlValidator.check(bookmark.getUrl());
+        String status = result.accessible() ? "OK" : result.httpStatus() != null ? "BROKEN" : "UNREACHABLE";
+        String error = result.error();
+        if (error != null && error.length() > ERROR_MAX_LENGTH) {
+            error = error.substring(0, ERROR_MAX_LENGTH);
+        }
+        return new LinkCheck(bookmark.getId(), status, result.httpStatus(), error, LocalDateTime.now());
+    }
+
+    private void writeResults(List<LinkCheck> batch, long lastId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!batch.isEmpty()) {
+                    linkCheckRepository.saveAll(batch);
+                }
+                linkCheckRepository.moveCursor(lastId);
+            });
+        } catch (DataAccessException e) {
+            // Most likely a bookmark deleted while it was checked; the next sweep covers the rest
+            logger.warn("Failed to record {} link checks, skipping to {}: {}", batch.size(), lastId, e.getMessage());
+            linkCheckRepository.moveCursor(lastId);
+        }
+    }
+}
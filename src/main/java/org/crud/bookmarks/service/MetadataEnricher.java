@@ -0,0 +1,320 @@
+package org.crud.bookmarks.service;
+
+import jakarta.annotation.PreDestroy;
+import org.crud.bookmarks.repository.BookmarkMetadataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background pipeline that fetches page metadata for saved bookmarks.
+ * <p>
+ * Saved bookmarks are offered to a bounded queue without blocking the request thread; when the
+ * queue is full the bookmark is dropped and counted, and a catch-up pass later re-queues recent
+ * bookmarks that have no metadata for their current URL, blocking until there's room. Worker
+ * threads fetch the head of each page with {@link UrlValidator#fetchMetadata(String)} and hand
+ * the results to a single writer thread, which persists them to {@code bookmark_metadata} in
+ * batches. The user's own title and description are never touched.
+ */
+@Component
+public class MetadataEnricher implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetadataEnricher.class);
+    private static final Duration THROUGHPUT_WINDOW = Duration.ofMinutes(1);
+
+    private final BookmarkMetadataRepository metadataRepository;
+    private final UrlValidator urlValidator;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final Duration catchUpWindow;
+    private final BlockingQueue<Long> queue;
+    private final BlockingQueue<BookmarkMetadata> results;
+    // Bookmarks waiting in the queue, so saving one twice doesn't queue it twice
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final ExecutorService workers;
+    private final ScheduledExecutorService coordinator;
+    private final ConcurrentLinkedDeque<long[]> recentWrites = new ConcurrentLinkedDeque<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private long droppedAtLastCatchUp = -1;
+
+    public MetadataEnricher(BookmarkMetadataRepository metadataRepository,
+                            UrlValidator urlValidator,
+                            @Value("${bookmark.enrichment.enabled:true}") boolean enabled,
+                            @Value("${bookmark.enrichment.queue-capacity:1000}") int queueCapacity,
+                            @Value("${bookmark.enrichment.workers:4}") int workerCount,
+                            @Value("${bookmark.enrichment.batch-size:50}") int batchSize,
+                            @Value("${bookmark.enrichment.catch-up-window:P1D}") Duration catchUpWindow) {
+        if (queueCapacity < 1 || workerCount < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("bookmark.enrichment queue-capacity, workers and batch-size must be positive");
+        }
+        this.metadataRepository = metadataRepository;
+        this.urlValidator = urlValidator;
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.catchUpWindow = catchUpWindow;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        // Full when the writer falls behind, which in turn stalls the workers
+        this.results = new ArrayBlockingQueue<>(Math.max(batchSize, workerCount) * 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        // One extra thread for the writer
+        this.workers = Executors.newFixedThreadPool(workerCount + 1, runnable -> {
+            Thread thread = new Thread(runnable, "enrichment-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.coordinator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "enrichment-catch-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Counters of the pipeline since startup.
+     *
+     * @param queueDepth bookmarks waiting to be fetched
+     * @param pendingWrites fetched results waiting to be persisted
+     * @param itemsPerSecond results persisted per second over the last minute
+     */
+    public record EnrichmentStats(boolean enabled, int queueDepth, int queueCapacity, int pendingWrites,
+                                  long enqueued, long dropped, long succeeded, long failed, long persisted,
+                                  double itemsPerSecond) {
+    }
+
+    /**
+     * Metadata fetched for a bookmark.
+     *
+     * @param sourceUrl the bookmark URL the metadata was fetched from
+     * @param status {@code OK}, or {@code FAILED} if the last fetch failed
+     * @param error why the last fetch failed, or null
+     */
+    public record BookmarkMetadata(Long bookmarkId, String sourceUrl, String status, String title, String description,
+                                   String canonicalUrl, String faviconUrl, String error, LocalDateTime fetchedAt) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            logger.info("Metadata enrichment is disabled");
+            return;
+        }
+        for (int i = 0; i < workerCount; i++) {
+            workers.execute(this::workLoop);
+        }
+        workers.execute(this::writeLoop);
+        coordinator.scheduleWithFixedDelay(this::safeCatchUp, 0, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookmarkChange(BookmarkChangeEvent event) {
+        if (enabled && event.kind() == BookmarkChangeEvent.Kind.SAVED) {
+            event.ids().forEach(this::offer);
+        }
+    }
+
+    public EnrichmentStats getStats() {
+        long cutoff = System.currentTimeMillis() - THROUGHPUT_WINDOW.toMillis();
+        recentWrites.removeIf(write -> write[0] < cutoff);
+        long recent = recentWrites.stream().mapToLong(write -> write[1]).sum();
+        return new EnrichmentStats(enabled, queue.size(), queue.size() + queue.remainingCapacity(), results.size(),
+                enqueued.sum(), dropped.sum(), succeeded.sum(), failed.sum(), persisted.sum(),
+                recent / (double) THROUGHPUT_WINDOW.toSeconds());
+    }
+
+    public Optional<BookmarkMetadata> getMetadata(Long bookmarkId) {
+        return metadataRepository.findById(bookmarkId);
+    }
+
+    /**
+     * Queues a bookmark without blocking; counts it as dropped if the queue is full.
+     */
+    private void offer(Long bookmarkId) {
+        if (!queued.add(bookmarkId)) {
+            return;
+        }
+        if (queue.offer(bookmarkId)) {
+            enqueued.increment();
+        } else {
+            queued.remove(bookmarkId);
+            dropped.increment();
+        }
+    }
+
+    private void safeCatchUp() {
+        try {
+            long droppedNow = dropped.sum();
+            // At startup, and whenever bookmarks were dropped since the last pass
+            if (droppedNow != droppedAtLastCatchUp) {
+                droppedAtLastCatchUp = droppedNow;
+                int count = catchUp();
+                if (count > 0) {
+                    logger.info("Queued {} bookmarks without metadata", count);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Metadata catch-up failed", e);
+        }
+    }
+
+    /**
+     * Queues the bookmarks created within the catch-up window that have no metadata for their
+     * current URL, waiting for room in the queue as needed.
+     *
+     * @return the number of bookmarks queued
+     */
+    int catchUp() throws InterruptedException {
+        int capacity = queue.size() + queue.remainingCapacity();
+        List<Long> ids = metadataRepository.findIdsWithoutMetadata(LocalDateTime.now().minus(catchUpWindow), capacity);
+        int count = 0;
+        for (Long id : ids) {
+            if (queued.add(id)) {
+                queue.put(id);
+                enqueued.increment();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void workLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                BookmarkMetadata result = fetch(queue.take());
+                if (result != null) {
+                    results.put(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<BookmarkMetadata> batch = new ArrayList<>(batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                BookmarkMetadata first = results.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                results.drainTo(batch, batchSize - 1);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Fetches and persists everything queued, on the calling thread. Used by tests instead of
+     * the worker threads.
+     *
+     * @return the number of results persisted
+     */
+    int processQueued() {
+        List<BookmarkMetadata> batch = new ArrayList<>();
+        Long bookmarkId;
+        while ((bookmarkId = queue.poll()) != null) {
+            BookmarkMetadata result = fetch(bookmarkId);
+            if (result != null) {
+                batch.add(result);
+            }
+        }
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            write(batch.subList(from, Math.min(batch.size(), from + batchSize)));
+        }
+        return batch.size();
+    }
+
+    /**
+     * Fetches the metadata of a queued bookmark, or returns null if there's nothing to fetch:
+     * the bookmark was deleted, or its current URL was already fetched successfully.
+     */
+    private BookmarkMetadata fetch(Long bookmarkId) {
+        // Saving it again from now on queues it again
+        queued.remove(bookmarkId);
+        String url;
+        try {
+            url = metadataRepository.findUrlToFetch(bookmarkId).orElse(null);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to load bookmark {} for enrichment: {}", bookmarkId, e.getMessage());
+            return null;
+        }
+        if (url == null) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            PageMetadata metadata = urlValidator.fetchMetadata(url);
+            succeeded.increment();
+            return new BookmarkMetadata(bookmarkId, url, "OK", truncate(metadata.title(), 255),
+                    truncate(metadata.description(), 500), fitOrNull(metadata.canonicalUrl(), 2048),
+                    fitOrNull(metadata.faviconUrl(), 2048), null, now);
+        } catch (Exception e) {
+            failed.increment();
+            logger.debug("Failed to fetch metadata for {}: {}", url, e.getMessage());
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            return new BookmarkMetadata(bookmarkId, url, "FAILED", null, null, null, null, truncate(error, 255), now);
+        }
+    }
+
+    private void write(List<BookmarkMetadata> batch) {
+        try {
+            metadataRepository.saveAll(batch);
+            persisted.add(batch.size());
+            recentWrites.add(new long[]{System.currentTimeMillis(), batch.size()});
+        } catch (DataAccessException e) {
+            logger.warn("Failed to persist metadata of {} bookmarks: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    // A cut-off URL is useless
+    private static String fitOrNull(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? null : value;
+    }
+}
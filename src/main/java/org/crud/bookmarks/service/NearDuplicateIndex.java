@@ -0,0 +1,273 @@
+package org.crud.bookmarks.service;
+
+import jakarta.annotation.PreDestroy;
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of bookmark {@link SimHash} fingerprints for finding near-duplicates.
+ * <p>
+ * Fingerprints are split into {@code max-distance + 1} bands and every bookmark is filed under
+ * each of its band values. Two fingerprints within the maximum Hamming distance must agree
+ * exactly on at least one band, so candidates come from the shared buckets only and no pairwise
+ * comparison over all bookmarks is needed. The index is loaded in the background on startup and
+ * then kept current from {@link BookmarkChangeEvent}s on a single worker thread. After the
+ * bookmarks were replaced, e.g. by a restore, {@link #rebuild()} loads it again.
+ */
+@Component
+@Order(1)
+public class NearDuplicateIndex implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateIndex.class);
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private final BookmarkRepository bookmarkRepository;
+    private final BookmarkBulkRepository bulkRepository;
+    private final int maxDistance;
+    private final int bands;
+    private final int bandBits;
+    private final Map<Long, Long> fingerprints = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "near-duplicate-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NearDuplicateIndex(BookmarkRepository bookmarkRepository,
+                              BookmarkBulkRepository bulkRepository,
+                              @Value("${bookmark.duplicates.max-distance:3}") int maxDistance) {
+        if (maxDistance < 1 || maxDistance > 7) {
+            throw new IllegalArgumentException("bookmark.duplicates.max-distance must be between 1 and 7");
+        }
+        this.bookmarkRepository = bookmarkRepository;
+        this.bulkRepository = bulkRepository;
+        this.maxDistance = maxDistance;
+        this.bands = maxDistance + 1;
+        this.bandBits = Long.SIZE / bands;
+    }
+
+    /**
+     * A group of bookmarks whose fingerprints are transitively within the maximum distance.
+     */
+    public record DuplicateCluster(int size, List<Bookmark> bookmarks) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        worker.execute(this::load);
+    }
+
+    /**
+     * Reloads all fingerprints from the database, e.g. after the tables were replaced by a restore.
+     * Runs on the worker thread after the changes queued before it and returns once loaded; until
+     * then clusters are found among the fingerprints loaded so far.
+     */
+    public void rebuild() {
+        try {
+            worker.submit(() -> {
+                fingerprints.clear();
+                buckets.clear();
+                load();
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to rebuild near-duplicate index", e.getCause());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookmarkChange(BookmarkChangeEvent event) {
+        worker.execute(() -> apply(event));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        worker.shutdown();
+        worker.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Returns the largest clusters of near-duplicate bookmarks, biggest first.
+     *
+     * @param limit the maximum number of clusters to return
+     * @return the clusters, each with at least two bookmarks ordered by ID
+     */
+    public List<DuplicateCluster> findClusters(int limit) {
+        Map<Long, Long> snapshot = new HashMap<>(fingerprints);
+        Map<Long, Long> parents = new HashMap<>();
+        for (Map.Entry<Long, Long> entry : snapshot.entrySet()) {
+            long id = entry.getKey();
+            long fingerprint = entry.getValue();
+            for (int band = 0; band < bands; band++) {
+                Set<Long> bucket = buckets.get(bucketKey(band, fingerprint));
+                if (bucket == null) {
+                    continue;
+                }
+                for (Long candidate : bucket) {
+                    Long candidateFingerprint = snapshot.get(candidate);
+                    if (candidate > id && candidateFingerprint != null
+                            && SimHash.distance(fingerprint, candidateFingerprint) <= maxDistance) {
+                        union(parents, id, candidate);
+                    }
+                }
+            }
+        }
+
+        List<List<Long>> groups = new ArrayList<>(parents.keySet()).stream()
+                .collect(Collectors.groupingBy(id -> find(parents, id)))
+                .values().stream()
+                .sorted(Comparator.<List<Long>>comparingInt(List::size).reversed())
+                .limit(Math.max(limit, 0))
+                .toList();
+        if (groups.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = groups.stream().flatMap(List::stream).toList();
+        Map<Long, Bookmark> bookmarks = new HashMap<>();
+        bookmarkRepository.findAllById(ids).forEach(bookmark -> bookmarks.put(bookmark.getId(), bookmark));
+
+        List<DuplicateCluster> clusters = new ArrayList<>();
+        for (List<Long> group : groups) {
+            List<Bookmark> members = group.stream()
+                    .sorted()
+                    .map(bookmarks::get)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (members.size() > 1) {
+                clusters.add(new DuplicateCluster(members.size(), members));
+            }
+        }
+        return clusters;
+    }
+
+    /**
+     * Applies a committed change to the index. Runs on the worker thread, except in tests.
+     */
+    void apply(BookmarkChangeEvent event) {
+        switch (event.kind()) {
+            case SAVED -> event.bookmarks().forEach(bookmark ->
+                    put(bookmark.getId(), SimHash.fingerprint(bookmark.getUrl(), bookmark.getTitle())));
+            case DELETED -> event.ids().forEach(this::remove);
+            case MOVED -> {
+                // Folder membership doesn't affect fingerprints
+            }
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        long lastId = 0;
+        int loaded = 0;
+        try {
+            while (true) {
+                List<Bookmark> batch = bulkRepository.findAfter(lastId, LOAD_BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                for (Bookmark bookmark : batch) {
+                    put(bookmark.getId(), SimHash.fingerprint(bookmark.getUrl(), bookmark.getTitle()));
+                    lastId = bookmark.getId();
+                }
+                loaded += batch.size();
+            }
+            logger.info("Near-duplicate index ready: {} fingerprints loaded in {} ms",
+                    loaded, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Failed to load near-duplicate index after {} bookmarks", loaded, e);
+        }
+    }
+
+    private void put(Long id, long fingerprint) {
+        Long previous = fingerprints.put(id, fingerprint);
+        if (previous != null) {
+            if (previous == fingerprint) {
+                return;
+            }
+            removeFromBuckets(id, previous);
+        }
+        addToBuckets(id, fingerprint);
+    }
+
+    private void remove(Long id) {
+        Long previous = fingerprints.remove(id);
+        if (previous != null) {
+            removeFromBuckets(id, previous);
+        }
+    }
+
+    private void addToBuckets(Long id, long fingerprint) {
+        for (int band = 0; band < bands; band++) {
+            buckets.computeIfAbsent(bucketKey(band, fingerprint), key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private void removeFromBuckets(Long id, long fingerprint) {
+        for (int band = 0; band < bands; band++) {
+            buckets.computeIfPresent(bucketKey(band, fingerprint), (key, bucket) -> {
+                bucket.remove(id);
+                return bucket.isEmpty() ? null : bucket;
+            });
+        }
+    }
+
+    /**
+     * Combines the band number with the band's bits. The last band also takes the bits left
+     * over when 64 isn't divisible by the number of bands; with at least two bands no band
+     * is wider than 32 bits.
+     */
+    private long bucketKey(int band, long fingerprint) {
+        int shift = band * bandBits;
+        int width = band == bands - 1 ? Long.SIZE - shift : bandBits;
+        return ((long) band << 32) | ((fingerprint >>> shift) & ((1L << width) - 1));
+    }
+
+    private static void union(Map<Long, Long> parents, Long a, Long b) {
+        Long rootA = find(parents, a);
+        Long rootB = find(parents, b);
+        if (!rootA.equals(rootB)) {
+            parents.put(rootB, rootA);
+        }
+    }
+
+    private static Long find(Map<Long, Long> parents, Long id) {
+        Long root = id;
+        Long parent;
+        while ((parent = parents.putIfAbsent(root, root)) != null && !parent.equals(root)) {
+            root = parent;
+        }
+        // Path compression
+        Long current = id;
+        while (!current.equals(root)) {
+            Long next = parents.get(current);
+            parents.put(current, root);
+            current = next;
+        }
+        return root;
+    }
+}
@@ -0,0 +1,12 @@
+package org.crud.bookmarks.service;
+
+/**
+ * Metadata read from the head of an HTML page. Each field is null if the page doesn't declare it.
+ *
+ * @param title the page title, or the Open Graph title if there's no {@code <title>}
+ * @param description the meta description, or the Open Graph description
+ * @param canonicalUrl the absolute canonical URL
+ * @param faviconUrl the absolute icon URL, {@code /favicon.ico} of the page's origin if none is declared
+ */
+public record PageMetadata(String title, String description, String canonicalUrl, String faviconUrl) {
+}
@@ -0,0 +1,157 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-memory map from bookmark ID to URL for the {@code /go/{id}} redirects.
+ * <p>
+ * IDs come from an identity column and are mostly dense, so URLs are stored in an array indexed
+ * by ID: a lookup is one bounds check and one array read, without boxing, hashing or locking.
+ * IDs far beyond the number of bookmarks (e.g. from a restored snapshot) go to a small overflow
+ * map instead of stretching the array. Writers are serialized and kept in sync through
+ * {@link BookmarkChangeEvent}s; saved URLs are read back from the database under the write lock,
+ * so events arriving out of commit order can't leave an older URL behind. Readers never block.
+ * Until the initial load has finished, lookups fall back to the database.
+ */
+@Component
+public class RedirectIndex implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedirectIndex.class);
+    private static final int MIN_DENSE_CAPACITY = 1 << 16;
+    private static final int MAX_DENSE_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final BookmarkRepository bookmarkRepository;
+    private final BookmarkBulkRepository bulkRepository;
+    private final Object writeLock = new Object();
+    private volatile AtomicReferenceArray<String> dense = new AtomicReferenceArray<>(0);
+    private volatile Map<Long, String> sparse = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private int size;
+
+    public RedirectIndex(BookmarkRepository bookmarkRepository, BookmarkBulkRepository bulkRepository) {
+        this.bookmarkRepository = bookmarkRepository;
+        this.bulkRepository = bulkRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Reloads all URLs from the database, e.g. after the tables were replaced by a restore.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (writeLock) {
+            // Lookups go to the database while reloading
+            ready = false;
+            dense = new AtomicReferenceArray<>(0);
+            sparse = new ConcurrentHashMap<>();
+            size = 0;
+            bulkRepository.forEachUrl((url, id) -> put(id, url));
+            ready = true;
+            logger.info("Redirect index ready: {} URLs ({} sparse) loaded in {} ms",
+                    size, sparse.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Returns the URL of the bookmark, or null if there's no such bookmark.
+     */
+    public String findUrl(long id) {
+        if (!ready) {
+            return bookmarkRepository.findUrlById(id).orElse(null);
+        }
+        AtomicReferenceArray<String> table = dense;
+        if (id >= 0 && id < table.length()) {
+            String url = table.get((int) id);
+            if (url != null) {
+                return url;
+            }
+        }
+        Map<Long, String> overflow = sparse;
+        return overflow.isEmpty() ? null : overflow.get(id);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookmarkChange(BookmarkChangeEvent event) {
+        synchronized (writeLock) {
+            switch (event.kind()) {
+                case SAVED -> reload(event.ids());
+                case DELETED -> event.ids().forEach(this::remove);
+                case MOVED -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of URLs in the index.
+     */
+    public int size() {
+        synchronized (writeLock) {
+            return size;
+        }
+    }
+
+    // Callers hold writeLock; reading under it keeps the latest URL whichever event applies last
+    private void reload(Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        bulkRepository.forEachUrlById(ids, (url, id) -> {
+            put(id, url);
+            missing.remove(id);
+        });
+        missing.forEach(this::remove);
+    }
+
+    // Callers hold writeLock
+    private void put(long id, String url) {
+        AtomicReferenceArray<String> table = dense;
+        if (id >= 0 && id < table.length()) {
+            if (table.getAndSet((int) id, url) == null && sparse.remove(id) == null) {
+                size++;
+            }
+            return;
+        }
+        // Grow the array as long as it stays at most a few times the number of URLs
+        long limit = Math.min(MAX_DENSE_CAPACITY, Math.max(MIN_DENSE_CAPACITY, 4L * (size + 1)));
+        if (id >= 0 && id < limit) {
+            int capacity = (int) Math.min(limit, Math.max(id + 1, 2L * table.length()));
+            AtomicReferenceArray<String> grown = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < table.length(); i++) {
+                grown.set(i, table.get(i));
+            }
+            if (sparse.remove(id) == null) {
+                size++;
+            }
+            grown.set((int) id, url);
+            dense = grown;
+        } else if (sparse.put(id, url) == null) {
+            size++;
+        }
+    }
+
+    private void remove(long id) {
+        AtomicReferenceArray<String> table = dense;
+        if (id >= 0 && id < table.length() && table.getAndSet((int) id, null) != null) {
+            size--;
+        } else if (sparse.remove(id) != null) {
+            size--;
+        }
+    }
+}
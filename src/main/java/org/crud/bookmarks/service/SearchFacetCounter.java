@@ -0,0 +1,76 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.service.SearchFacets.FacetCount;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Computes search facets in a single pass over the match set.
+ * <p>
+ * One query streams the folder, host and creation time of every matching bookmark, and all three
+ * facets are counted from that stream, instead of running one {@code GROUP BY} per facet over the
+ * same {@code LIKE} scan. The predicate matches the one of the paged search.
+ */
+@Component
+public class SearchFacetCounter {
+
+    static final int FACET_LIMIT = 20;
+
+    private final BookmarkBulkRepository bulkRepository;
+
+    public SearchFacetCounter(BookmarkBulkRepository bulkRepository) {
+        this.bulkRepository = bulkRepository;
+    }
+
+    /**
+     * Counts the bookmarks whose title or description contains the search term, ignoring case,
+     * by folder, host and creation month. Each facet keeps its {@value #FACET_LIMIT} largest values;
+     * bookmarks without a creation time are left out of the month facet.
+     */
+    public SearchFacets count(String searchTerm) {
+        long start = System.nanoTime();
+        Map<Long, long[]> folders = new HashMap<>();
+        Map<String, long[]> hosts = new HashMap<>();
+        Map<Integer, long[]> months = new HashMap<>();
+
+        // Facets cover every match, so the scan isn't capped like the page; it keeps the query timeout
+        bulkRepository.forEachSearchMatch(searchTerm, match -> {
+            increment(folders, match.folderId());
+            increment(hosts, match.host());
+            LocalDateTime createdAt = match.createdAt();
+            if (createdAt != null) {
+                increment(months, createdAt.getYear() * 12 + createdAt.getMonthValue() - 1);
+            }
+        });
+
+        List<FacetCount> monthCounts = months.entrySet().stream()
+                .sorted(Map.Entry.<Integer, long[]>comparingByKey().reversed())
+                .limit(FACET_LIMIT)
+                .map(entry -> new FacetCount(
+                        String.format("%04d-%02d", entry.getKey() / 12, entry.getKey() % 12 + 1), entry.getValue()[0]))
+                .toList();
+        return new SearchFacets(top(folders, id -> id == null ? null : id.toString()), top(hosts, Function.identity()),
+                monthCounts, (System.nanoTime() - start) / 1_000);
+    }
+
+    private static <K> void increment(Map<K, long[]> counts, K key) {
+        counts.computeIfAbsent(key, k -> new long[1])[0]++;
+    }
+
+    private static <K> List<FacetCount> top(Map<K, long[]> counts, Function<K, String> label) {
+        return counts.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<K, long[]>>comparingLong(entry -> entry.getValue()[0]).reversed()
+                        .thenComparing(entry -> Objects.toString(entry.getKey(), "")))
+                .limit(FACET_LIMIT)
+                .map(entry -> new FacetCount(label.apply(entry.getKey()), entry.getValue()[0]))
+                .toList();
+    }
+}
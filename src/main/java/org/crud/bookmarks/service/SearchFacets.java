@@ -0,0 +1,18 @@
+package org.crud.bookmarks.service;
+
+import java.util.List;
+
+/**
+ * Facet counts over all matches of a search, not just the returned page.
+ *
+ * @param folders matches per folder ID, largest first; a null value counts bookmarks without a folder
+ * @param hosts matches per host, largest first; a null value counts bookmarks without a host
+ * @param months matches per creation month ({@code yyyy-MM}), newest first
+ * @param computeMicros time spent computing the facets, in microseconds
+ */
+public record SearchFacets(List<FacetCount> folders, List<FacetCount> hosts, List<FacetCount> months,
+                           long computeMicros) {
+
+    public record FacetCount(String value, long count) {
+    }
+}
@@ -0,0 +1,118 @@
+package org.crud.bookmarks.service;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Utility for computing 64-bit SimHash fingerprints of bookmarks.
+ * <p>
+ * Features are the tokens of the normalized URL (host, path segments and query parameter
+ * names) and the words of the title. Each feature is hashed to 64 bits and votes on every
+ * bit position; the fingerprint keeps the bits with a positive total. Bookmarks that share
+ * most of their tokens therefore end up a small Hamming distance apart, so differing query
+ * values or a site name appended to the title only flip a few bits.
+ */
+public final class SimHash {
+
+    private static final int HOST_WEIGHT = 2;
+    private static final int PATH_WEIGHT = 4;
+    private static final int QUERY_WEIGHT = 1;
+    private static final int TITLE_WEIGHT = 1;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SimHash() {
+    }
+
+    /**
+     * Computes the fingerprint of a bookmark from its URL and title.
+     *
+     * @param url the bookmark URL, normalized before tokenizing
+     * @param title the bookmark title, may be null
+     * @return the 64-bit fingerprint
+     */
+    public static long fingerprint(String url, String title) {
+        int[] votes = new int[Long.SIZE];
+        addUrlFeatures(votes, UrlNormalizer.normalize(url));
+        addWords(votes, title, TITLE_WEIGHT, "t:");
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of bits in which two fingerprints differ.
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static void addUrlFeatures(int[] votes, String normalizedUrl) {
+        if (normalizedUrl == null || normalizedUrl.isEmpty()) {
+            return;
+        }
+        URI uri;
+        try {
+            uri = new URI(normalizedUrl);
+        } catch (URISyntaxException e) {
+            addWords(votes, normalizedUrl, PATH_WEIGHT, "p:");
+            return;
+        }
+        String host = uri.getHost();
+        if (host != null) {
+            addFeature(votes, "h:" + (host.startsWith("www.") ? host.substring(4) : host), HOST_WEIGHT);
+        }
+        addWords(votes, uri.getPath(), PATH_WEIGHT, "p:");
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int eq = parameter.indexOf('=');
+                addFeature(votes, "q:" + (eq >= 0 ? parameter.substring(0, eq) : parameter), QUERY_WEIGHT);
+            }
+        }
+    }
+
+    private static void addWords(int[] votes, String text, int weight, String prefix) {
+        if (text == null) {
+            return;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                addFeature(votes, prefix + word, weight);
+            }
+        }
+    }
+
+    private static void addFeature(int[] votes, String feature, int weight) {
+        long hash = hash(feature);
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            votes[bit] += ((hash >>> bit) & 1L) != 0 ? weight : -weight;
+        }
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, followed by a 64-bit finalizer so that short tokens
+     * still spread over all bit positions.
+     */
+    static long hash(String feature) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
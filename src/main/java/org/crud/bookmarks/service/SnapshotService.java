@@ -0,0 +1,371 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.SnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes and restores compressed binary snapshots of the folder, bookmark and tag tables.
+ * <p>
+ * A snapshot is a GZIP stream containing, per table, the column names followed by
+ * type-tagged row values, and a trailing CRC32 of the uncompressed content.
+ * Snapshots are taken inside a single repeatable-read transaction, so they are
+ * consistent while writes continue. Restores read the file through a memory mapping
+ * and insert rows in JDBC batches inside one transaction.
+ */
+@Service
+public class SnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotService.class);
+
+    private static final int MAGIC = 0x424D534E; // "BMSN"
+    private static final int FORMAT_VERSION = 1;
+    private static final List<String> TABLES = List.of("folders", "bookmarks", "tags", "bookmark_tags");
+    private static final List<String> IDENTITY_TABLES = List.of("folders", "bookmarks", "tags");
+    /**
+     * Snapshot row order of tables without an {@code id} column, and of folders, which are written
+     * parents first (by number of ancestors) so restored rows satisfy the parent reference.
+     */
+    private static final Map<String, String> ORDER_BY = Map.of(
+            "bookmark_tags", "bookmark_id, tag_id",
+            "folders", "(SELECT COUNT(*) FROM folder_paths p WHERE p.descendant_id = folders.id), id");
+    private static final Pattern COLUMN_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_LONG = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_TIMESTAMP = 4;
+    private static final byte TYPE_BOOLEAN = 5;
+    private static final byte ROW_MARKER = 1;
+    private static final byte END_OF_TABLE = 0;
+
+    private final SnapshotRepository snapshotRepository;
+    private final Path snapshotDirectory;
+    private final int batchSize;
+
+    public SnapshotService(SnapshotRepository snapshotRepository,
+                           @Value("${bookmark.snapshot.directory:snapshots}") String snapshotDirectory,
+                           @Value("${bookmark.snapshot.batch-size:1000}") int batchSize) {
+        this.snapshotRepository = snapshotRepository;
+        this.snapshotDirectory = Paths.get(snapshotDirectory).toAbsolutePath().normalize();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Result of a snapshot or restore operation.
+     */
+    public record SnapshotResult(String name, long folders, long bookmarks, long bytes, long checksum, long durationMillis) {
+    }
+
+    /**
+     * Writes a consistent snapshot of all folders, bookmarks and tags to the snapshot directory.
+     *
+     * @return details of the written snapshot
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public SnapshotResult createSnapshot() {
+        long start = System.nanoTime();
+        String name = "bookmarks-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".snap.gz";
+        Path file = snapshotDirectory.resolve(name);
+        logger.info("Writing snapshot to {}", file);
+
+        CRC32 crc = new CRC32();
+        long[] rowCounts = new long[TABLES.size()];
+        long checksum;
+        try {
+            Files.createDirectories(snapshotDirectory);
+            try (OutputStream fileOut = Files.newOutputStream(file);
+                 GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(fileOut, 1 << 16), 1 << 16);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                         new CheckedOutputStream(new BufferedOutputStream(gzip, 1 << 16), crc), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(TABLES.size());
+                for (int i = 0; i < TABLES.size(); i++) {
+                    rowCounts[i] = writeTable(out, TABLES.get(i));
+                }
+                // Trailer: checksum of everything written before it
+                out.flush();
+                checksum = crc.getValue();
+                out.writeLong(checksum);
+            }
+            SnapshotResult result = new SnapshotResult(name, rowCounts[0], rowCounts[1], Files.size(file),
+                    checksum, (System.nanoTime() - start) / 1_000_000);
+            logger.info("Snapshot {} written: {} folders, {} bookmarks, {} bytes in {} ms",
+                    name, result.folders(), result.bookmarks(), result.bytes(), result.durationMillis());
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write snapshot " + name, e);
+        }
+    }
+
+    /**
+     * Replaces all folders, bookmarks and tags with the contents of the named snapshot.
+     * The whole restore runs in one transaction and is rolled back if the checksum doesn't match.
+     *
+     * @param name file name of a snapshot in the snapshot directory
+     * @return details of the restored snapshot
+     * @throws IllegalArgumentException if the snapshot doesn't exist or is not a valid snapshot
+     * @throws IllegalStateException if the snapshot checksum doesn't match its contents
+     */
+    @Transactional
+    public SnapshotResult restoreSnapshot(String name) {
+        long start = System.nanoTime();
+        Path file = resolveSnapshot(name);
+        logger.info("Restoring snapshot from {}", file);
+
+        CRC32 crc = new CRC32();
+        long[] rowCounts = new long[TABLES.size()];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot is too large to map: " + name);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            GZIPInputStream gzip = new GZIPInputStream(new ByteBufferInputStream(mapped), 1 << 16);
+            DataInputStream in = new DataInputStream(new CheckedInputStream(new BufferedInputStream(gzip, 1 << 16), crc));
+
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a bookmark snapshot: " + name);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported snapshot version " + version);
+            }
+            int tableCount = in.readInt();
+
+            List<String> deleteOrder = new ArrayList<>(TABLES);
+            Collections.reverse(deleteOrder);
+            deleteOrder.forEach(snapshotRepository::deleteAll);
+
+            for (int i = 0; i < tableCount; i++) {
+                long rows = readTable(in);
+                if (i < rowCounts.length) {
+                    rowCounts[i] = rows;
+                }
+            }
+
+            long expected = crc.getValue();
+            long actual = in.readLong();
+            if (expected != actual) {
+                throw new IllegalStateException("Snapshot checksum mismatch for " + name);
+            }
+            // The folder closure rows are derived data and not part of the snapshot
+            snapshotRepository.rebuildFolderPaths();
+            IDENTITY_TABLES.forEach(snapshotRepository::restartIdentity);
+
+            SnapshotResult result = new SnapshotResult(name, rowCounts[0], rowCounts[1], channel.size(),
+                    expected, (System.nanoTime() - start) / 1_000_000);
+            logger.info("Snapshot {} restored: {} folders, {} bookmarks in {} ms",
+                    name, result.folders(), result.bookmarks(), result.durationMillis());
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read snapshot " + name, e);
+        }
+    }
+
+    private long writeTable(DataOutputStream out, String table) throws IOException {
+        Long count = snapshotRepository.queryTable(table, ORDER_BY.getOrDefault(table, "id"), resultSet -> {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            int columns = metaData.getColumnCount();
+            long rows = 0;
+            try {
+                out.writeUTF(table);
+                out.writeInt(columns);
+                for (int c = 1; c <= columns; c++) {
+                    out.writeUTF(metaData.getColumnLabel(c).toLowerCase());
+                }
+                while (resultSet.next()) {
+                    out.writeByte(ROW_MARKER);
+                    for (int c = 1; c <= columns; c++) {
+                        writeValue(out, resultSet.getObject(c));
+                    }
+                    rows++;
+                }
+                out.writeByte(END_OF_TABLE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        });
+        return count != null ? count : 0;
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Long l) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(l);
+        } else if (value instanceof Integer i) {
+            out.writeByte(TYPE_INT);
+            out.writeInt(i);
+        } else if (value instanceof String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeByte(TYPE_STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Timestamp t) {
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(t.getTime());
+            out.writeInt(t.getNanos());
+        } else if (value instanceof LocalDateTime t) {
+            writeValue(out, Timestamp.valueOf(t));
+        } else if (value instanceof Boolean b) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(b);
+        } else {
+            throw new IllegalStateException("Unsupported column type in snapshot: " + value.getClass().getName());
+        }
+    }
+
+    private long readTable(DataInputStream in) throws IOException {
+        String table = in.readUTF();
+        if (!TABLES.contains(table)) {
+            throw new IllegalArgumentException("Unknown table in snapshot: " + table);
+        }
+        int columns = in.readInt();
+        List<String> columnNames = new ArrayList<>(columns);
+        for (int c = 0; c < columns; c++) {
+            String column = in.readUTF();
+            if (!COLUMN_NAME.matcher(column).matches()) {
+                throw new IllegalArgumentException("Corrupt snapshot: invalid column name " + column);
+            }
+            columnNames.add(column);
+        }
+        // Only restore columns the current schema can be written to: generated columns are
+        // recomputed by the database and columns dropped since the snapshot are skipped
+        Set<String> writable = snapshotRepository.findWritableColumns(table);
+        boolean[] restored = new boolean[columns];
+        List<String> insertColumns = new ArrayList<>();
+        for (int c = 0; c < columns; c++) {
+            restored[c] = writable.contains(columnNames.get(c));
+            if (restored[c]) {
+                insertColumns.add(columnNames.get(c));
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        while (in.readByte() == ROW_MARKER) {
+            Object[] row = new Object[insertColumns.size()];
+            for (int c = 0, i = 0; c < columns; c++) {
+                Object value = readValue(in);
+                if (restored[c]) {
+                    row[i++] = value;
+                }
+            }
+            batch.add(row);
+            count++;
+            if (batch.size() == batchSize) {
+                snapshotRepository.insertAll(table, insertColumns, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            snapshotRepository.insertAll(table, insertColumns, batch);
+        }
+        return count;
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_STRING:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            default:
+                throw new IllegalArgumentException("Corrupt snapshot: unknown value type " + type);
+        }
+    }
+
+    private Path resolveSnapshot(String name) {
+        Path file = snapshotDirectory.resolve(name).normalize();
+        if (!file.startsWith(snapshotDirectory) || !Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Snapshot not found: " + name);
+        }
+        return file;
+    }
+
+    /**
+     * Sequential input stream over a (memory-mapped) byte buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.crud.bookmarks.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter summary (Metwally et al.) over a stream of IDs, in fixed memory.
+ * <p>
+ * At most {@code capacity} IDs are monitored. When an unmonitored ID arrives and the summary
+ * is full, it takes over the counter with the smallest count, inheriting that count as its
+ * error. Each monitored count overestimates the true count by at most its error, and the error
+ * never exceeds {@code total / capacity}; every ID occurring more often than that is monitored.
+ * Counters are kept in an indexed binary min-heap, so updates take O(log capacity). Not
+ * thread-safe.
+ */
+final class SpaceSaving {
+
+    private final long[] ids;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<Long, Integer> positions;
+    private int size;
+    private long total;
+
+    SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.ids = new long[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    void add(long id) {
+        add(id, 1);
+    }
+
+    /**
+     * Adds {@code count} occurrences of the ID at once, with the same result as adding them one
+     * by one.
+     */
+    void add(long id, long count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Count must be positive");
+        }
+        total += count;
+        Integer position = positions.get(id);
+        if (position != null) {
+            counts[position] += count;
+            siftDown(position);
+        } else if (size < ids.length) {
+            ids[size] = id;
+            counts[size] = count;
+            errors[size] = 0;
+            positions.put(id, size);
+            siftUp(size++);
+        } else {
+            // Evict the minimum: the newcomer may have occurred up to that many times unseen
+            positions.remove(ids[0]);
+            ids[0] = id;
+            errors[0] = counts[0];
+            counts[0] += count;
+            positions.put(id, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Returns the estimated count of the ID, or -1 if it isn't monitored.
+     */
+    long count(long id) {
+        Integer position = positions.get(id);
+        return position != null ? counts[position] : -1;
+    }
+
+    /**
+     * Returns the maximum overestimate of a monitored ID's count.
+     */
+    long error(long id) {
+        Integer position = positions.get(id);
+        return position != null ? errors[position] : 0;
+    }
+
+    /**
+     * Returns the count an unmonitored ID may have at most: the smallest monitored count once
+     * the summary is full, 0 before.
+     */
+    long unmonitoredBound() {
+        return size < ids.length ? 0 : counts[0];
+    }
+
+    /**
+     * Calls the consumer with every monitored ID, its estimated count and its error.
+     */
+    void forEach(CounterConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(ids[i], counts[i], errors[i]);
+        }
+    }
+
+    long total() {
+        return total;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        positions.clear();
+        size = 0;
+        total = 0;
+    }
+
+    @FunctionalInterface
+    interface CounterConsumer {
+        void accept(long id, long count, long error);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        long count = counts[a];
+        long error = errors[a];
+        ids[a] = ids[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        ids[b] = id;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(ids[a], a);
+        positions.put(ids[b], b);
+    }
+}
@@ -0,0 +1,31 @@
+package org.crud.bookmarks.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Application event published by {@link TagService} when tag assignments change or a tag is deleted.
+ * Membership events only name the affected tags and bookmarks; listeners read the committed
+ * assignments back, so events applied out of order still converge on the database state.
+ *
+ * @param kind what happened
+ * @param tagIds the affected tags
+ * @param bookmarkIds the bookmarks whose assignments to those tags may have changed, empty for {@link Kind#DELETED}
+ */
+public record TagChangeEvent(Kind kind, Collection<Long> tagIds, Collection<Long> bookmarkIds) {
+
+    public enum Kind {
+        /** Tags were attached to or detached from bookmarks. */
+        MEMBERSHIP,
+        /** A tag was deleted together with all its assignments. */
+        DELETED
+    }
+
+    public static TagChangeEvent membership(Collection<Long> tagIds, Collection<Long> bookmarkIds) {
+        return new TagChangeEvent(Kind.MEMBERSHIP, tagIds, bookmarkIds);
+    }
+
+    public static TagChangeEvent deleted(Long tagId) {
+        return new TagChangeEvent(Kind.DELETED, List.of(tagId), List.of());
+    }
+}
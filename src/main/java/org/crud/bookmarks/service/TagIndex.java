@@ -0,0 +1,218 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.TagBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory tag membership, one {@link CompressedBitmap} of bookmark IDs per tag plus one of
+ * all bookmark IDs, so tag queries combine bitmaps instead of joining {@code bookmark_tags}.
+ * <p>
+ * The bitmaps are loaded on startup and then follow committed {@link BookmarkChangeEvent}s and
+ * {@link TagChangeEvent}s. For membership changes the affected assignments are read back from
+ * the database, so the bitmaps converge on the relational state even if events from concurrent
+ * transactions arrive out of order.
+ */
+@Component
+@Order(1)
+public class TagIndex implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagIndex.class);
+
+    private final BookmarkBulkRepository bookmarkBulkRepository;
+    private final TagBulkRepository tagBulkRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, CompressedBitmap> tagBitmaps = new HashMap<>();
+    private CompressedBitmap allBookmarks = new CompressedBitmap();
+    private volatile boolean ready;
+
+    public TagIndex(BookmarkBulkRepository bookmarkBulkRepository, TagBulkRepository tagBulkRepository) {
+        this.bookmarkBulkRepository = bookmarkBulkRepository;
+        this.tagBulkRepository = tagBulkRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    /**
+     * Reloads all bitmaps from the database, e.g. after the tables were replaced by a restore.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            tagBitmaps.clear();
+            CompressedBitmap bookmarks = new CompressedBitmap();
+            bookmarkBulkRepository.forEachId(bookmarks::add);
+            allBookmarks = bookmarks;
+            long[] assignments = {0};
+            tagBulkRepository.forEachAssignment((tagId, bookmarkId) -> {
+                tagBitmaps.computeIfAbsent(tagId, key -> new CompressedBitmap()).add(bookmarkId);
+                assignments[0]++;
+            });
+            ready = true;
+            logger.info("Tag index ready: {} bookmarks, {} tags, {} assignments loaded in {} ms",
+                    allBookmarks.cardinality(), tagBitmaps.size(), assignments[0], (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the bitmaps have been loaded. Until then queries would see incomplete results.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the number of bookmarks carrying the tag.
+     */
+    public long count(Long tagId) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap bitmap = tagBitmaps.get(tagId);
+            return bitmap != null ? bitmap.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Evaluates a tag query: bookmarks carrying all tags of {@code allOf}, at least one tag of
+     * {@code anyOf} and none of {@code noneOf}, optionally restricted to a set of bookmarks.
+     * Empty tag lists don't constrain the result.
+     *
+     * @param restrictTo bookmarks to intersect the result with, or null for no restriction
+     * @return a new bitmap of the matching bookmark IDs
+     */
+    public CompressedBitmap query(Collection<Long> allOf, Collection<Long> anyOf, Collection<Long> noneOf,
+                                  CompressedBitmap restrictTo) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap result = restrictTo;
+            // Intersect the smallest bitmaps first so intermediate results stay small
+            List<CompressedBitmap> required = new ArrayList<>();
+            for (Long tagId : allOf) {
+                required.add(bitmap(tagId));
+            }
+            required.sort(Comparator.comparingLong(CompressedBitmap::cardinality));
+            for (CompressedBitmap bitmap : required) {
+                result = result == null ? bitmap.copy() : CompressedBitmap.and(result, bitmap);
+            }
+            if (!anyOf.isEmpty()) {
+                CompressedBitmap union = union(anyOf);
+                result = result == null ? union : CompressedBitmap.and(result, union);
+            }
+            if (result == null) {
+                result = allBookmarks.copy();
+            }
+            if (!noneOf.isEmpty()) {
+                result = CompressedBitmap.andNot(result, union(noneOf));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the IDs of the bookmarks in a folder into a bitmap, through the folder index.
+     */
+    public CompressedBitmap folderBookmarks(Long folderId) {
+        CompressedBitmap bookmarks = new CompressedBitmap();
+        bookmarkBulkRepository.forEachIdInFolder(folderId, bookmarks::add);
+        return bookmarks;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookmarkChange(BookmarkChangeEvent event) {
+        if (event.kind() == BookmarkChangeEvent.Kind.MOVED) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.kind() == BookmarkChangeEvent.Kind.SAVED) {
+                event.ids().forEach(allBookmarks::add);
+            } else {
+                // Assignments of deleted bookmarks were removed by ON DELETE CASCADE
+                for (Long id : event.ids()) {
+                    allBookmarks.remove(id);
+                    tagBitmaps.values().forEach(bitmap -> bitmap.remove(id));
+                }
+                tagBitmaps.values().removeIf(CompressedBitmap::isEmpty);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChange(TagChangeEvent event) {
+        if (event.kind() == TagChangeEvent.Kind.DELETED) {
+            lock.writeLock().lock();
+            try {
+                tagBitmaps.keySet().removeAll(event.tagIds());
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        if (event.tagIds().isEmpty() || event.bookmarkIds().isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // Read under the lock: whichever listener applies last has also read last
+            Map<Long, Set<Long>> assigned = tagBulkRepository.findAssignments(event.tagIds(), event.bookmarkIds());
+            for (Long tagId : event.tagIds()) {
+                Set<Long> members = assigned.getOrDefault(tagId, Set.of());
+                CompressedBitmap bitmap = tagBitmaps.computeIfAbsent(tagId, key -> new CompressedBitmap());
+                for (Long bookmarkId : event.bookmarkIds()) {
+                    if (members.contains(bookmarkId)) {
+                        bitmap.add(bookmarkId);
+                    } else {
+                        bitmap.remove(bookmarkId);
+                    }
+                }
+                if (bitmap.isEmpty()) {
+                    tagBitmaps.remove(tagId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private CompressedBitmap bitmap(Long tagId) {
+        CompressedBitmap bitmap = tagBitmaps.get(tagId);
+        return bitmap != null ? bitmap : new CompressedBitmap();
+    }
+
+    private CompressedBitmap union(Collection<Long> tagIds) {
+        CompressedBitmap union = new CompressedBitmap();
+        for (Long tagId : tagIds) {
+            union = CompressedBitmap.or(union, bitmap(tagId));
+        }
+        return union;
+    }
+}
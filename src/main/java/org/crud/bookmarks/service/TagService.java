@@ -0,0 +1,249 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Tag;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.crud.bookmarks.repository.TagRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.relational.core.conversion.DbActionExecutionException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+@Service
+@Transactional
+public class TagService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagService.class);
+    static final int BULK_CHUNK_SIZE = 500;
+
+    private final TagRepository tagRepository;
+    private final BookmarkRepository bookmarkRepository;
+    private final TagIndex tagIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TagService(TagRepository tagRepository, BookmarkRepository bookmarkRepository, TagIndex tagIndex,
+                      ApplicationEventPublisher eventPublisher) {
+        this.tagRepository = tagRepository;
+        this.bookmarkRepository = bookmarkRepository;
+        this.tagIndex = tagIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Returns all tags ordered by name, with their bookmark counts taken from the tag index.
+     */
+    @Transactional(readOnly = true)
+    public List<Tag> getAllTags() {
+        List<Tag> tags = tagRepository.findAllOrderByName();
+        tags.forEach(tag -> tag.setBookmarkCount(tagIndex.count(tag.getId())));
+        return tags;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Tag> getTagById(Long id) {
+        return tagRepository.findById(id)
+                .map(tag -> {
+                    tag.setBookmarkCount(tagIndex.count(id));
+                    return tag;
+                });
+    }
+
+    /**
+     * Creates a new tag. Name uniqueness is enforced by the database.
+     *
+     * @throws DuplicateTagNameException if a tag with the same name (ignoring case) exists
+     */
+    public Tag createTag(Tag tag) {
+        try {
+            Tag savedTag = tagRepository.save(tag);
+            logger.debug("Created tag with id: {}", savedTag.getId());
+            return savedTag;
+        } catch (DuplicateKeyException | DbActionExecutionException e) {
+            if (!isDuplicateKey(e)) {
+                throw e;
+            }
+            throw new DuplicateTagNameException(tag.getName(), e);
+        }
+    }
+
+    /**
+     * Renames a tag.
+     *
+     * @throws DuplicateTagNameException if another tag already uses the new name (ignoring case)
+     */
+    public Optional<Tag> updateTag(Long id, Tag tagDetails) {
+        return tagRepository.findById(id)
+                .map(tag -> {
+                    tag.setName(tagDetails.getName());
+                    try {
+                        return tagRepository.save(tag);
+                    } catch (DuplicateKeyException | DbActionExecutionException e) {
+                        if (!isDuplicateKey(e)) {
+                            throw e;
+                        }
+                        throw new DuplicateTagNameException(tagDetails.getName(), e);
+                    }
+                });
+    }
+
+    /**
+     * Deletes a tag; its assignments are removed with it.
+     */
+    public void deleteTag(Long id) {
+        if (tagRepository.existsById(id)) {
+            tagRepository.deleteById(id);
+            eventPublisher.publishEvent(TagChangeEvent.deleted(id));
+            logger.debug("Deleted tag with id: {}", id);
+        }
+    }
+
+    /**
+     * Returns the tags of a bookmark.
+     *
+     * @return the tags ordered by name, or empty if the bookmark doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<List<Tag>> getTagsForBookmark(Long bookmarkId) {
+        if (!bookmarkRepository.existsById(bookmarkId)) {
+            return Optional.empty();
+        }
+        return Optional.of(tagRepository.findByBookmarkId(bookmarkId));
+    }
+
+    /**
+     * Replaces the tags of a bookmark.
+     *
+     * @param bookmarkId the bookmark to tag
+     * @param tagIds the complete new set of tags
+     * @return the bookmark's tags after the change, or empty if the bookmark doesn't exist
+     * @throws IllegalArgumentException if one of the tags doesn't exist
+     */
+    public Optional<List<Tag>> setBookmarkTags(Long bookmarkId, List<Long> tagIds) {
+        if (!bookmarkRepository.existsById(bookmarkId)) {
+            return Optional.empty();
+        }
+        Set<Long> requested = new HashSet<>(distinct(tagIds));
+        if (!requested.isEmpty() && countExisting(requested) != requested.size()) {
+            throw new IllegalArgumentException("Cannot tag bookmark: unknown tag id in " + requested);
+        }
+
+        Set<Long> affected = new HashSet<>(tagRepository.findTagIdsByBookmarkId(bookmarkId));
+        tagRepository.removeAllTags(bookmarkId);
+        if (!requested.isEmpty()) {
+            tagRepository.addTags(bookmarkId, requested);
+        }
+        affected.addAll(requested);
+        eventPublisher.publishEvent(TagChangeEvent.membership(affected, List.of(bookmarkId)));
+        logger.debug("Set {} tags on bookmark with id: {}", requested.size(), bookmarkId);
+        return Optional.of(tagRepository.findByBookmarkId(bookmarkId));
+    }
+
+    /**
+     * Attaches a tag to many bookmarks, in chunks of {@value #BULK_CHUNK_SIZE} ids.
+     * Unknown bookmark ids and bookmarks that already have the tag are skipped.
+     *
+     * @return the number of bookmarks newly tagged, or empty if the tag doesn't exist
+     */
+    public Optional<Integer> tagBookmarks(Long tagId, List<Long> bookmarkIds) {
+        if (!tagRepository.existsById(tagId)) {
+            return Optional.empty();
+        }
+        int tagged = 0;
+        for (List<Long> chunk : chunks(distinct(bookmarkIds))) {
+            tagged += tagRepository.addBookmarks(tagId, chunk);
+            eventPublisher.publishEvent(TagChangeEvent.membership(List.of(tagId), chunk));
+        }
+        logger.debug("Tagged {} bookmarks with tag: {}", tagged, tagId);
+        return Optional.of(tagged);
+    }
+
+    /**
+     * Detaches a tag from many bookmarks, in chunks of {@value #BULK_CHUNK_SIZE} ids.
+     *
+     * @return the number of bookmarks untagged, or empty if the tag doesn't exist
+     */
+    public Optional<Integer> untagBookmarks(Long tagId, List<Long> bookmarkIds) {
+        if (!tagRepository.existsById(tagId)) {
+            return Optional.empty();
+        }
+        int untagged = 0;
+        for (List<Long> chunk : chunks(distinct(bookmarkIds))) {
+            untagged += tagRepository.removeBookmarks(tagId, chunk);
+            eventPublisher.publishEvent(TagChangeEvent.membership(List.of(tagId), chunk));
+        }
+        logger.debug("Untagged {} bookmarks from tag: {}", untagged, tagId);
+        return Optional.of(untagged);
+    }
+
+    /**
+     * Finds bookmarks by tags with the in-memory tag bitmaps: bookmarks carrying every tag in
+     * {@code allOf}, at least one tag in {@code anyOf} (if given) and no tag in {@code noneOf},
+     * optionally only those in a folder. Results are ordered by bookmark ID.
+     *
+     * @throws IllegalStateException if the tag index is still loading
+     */
+    @Transactional(readOnly = true)
+    public Page<Bookmark> queryBookmarks(List<Long> allOf, List<Long> anyOf, List<Long> noneOf, Long folderId,
+                                         Pageable pageable) {
+        if (!tagIndex.isReady()) {
+            throw new IllegalStateException("Tag index is still loading");
+        }
+        long start = System.nanoTime();
+        CompressedBitmap folder = folderId != null ? tagIndex.folderBookmarks(folderId) : null;
+        CompressedBitmap matches = tagIndex.query(distinct(allOf), distinct(anyOf), distinct(noneOf), folder);
+        long total = matches.cardinality();
+        long[] ids = matches.toArray(pageable.getOffset(), pageable.getPageSize());
+        logger.debug("Tag query matched {} bookmarks in {} us", total, (System.nanoTime() - start) / 1_000);
+
+        List<Long> pageIds = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            pageIds.add(id);
+        }
+        List<Bookmark> bookmarks = new ArrayList<>();
+        bookmarkRepository.findAllById(pageIds).forEach(bookmarks::add);
+        bookmarks.sort(Comparator.comparing(Bookmark::getId));
+        return new PageImpl<>(bookmarks, pageable, total);
+    }
+
+    private long countExisting(Set<Long> tagIds) {
+        long count = 0;
+        for (Tag ignored : tagRepository.findAllById(tagIds)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        return ids.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static List<List<Long>> chunks(List<Long> distinctIds) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinctIds.size(); i += BULK_CHUNK_SIZE) {
+            chunks.add(distinctIds.subList(i, Math.min(i + BULK_CHUNK_SIZE, distinctIds.size())));
+        }
+        return chunks;
+    }
+
+    // Spring Data JDBC wraps the exceptions of the statements behind save() in DbActionExecutionException
+    private static boolean isDuplicateKey(RuntimeException e) {
+        return e instanceof DuplicateKeyException || e.getCause() instanceof DuplicateKeyException;
+    }
+}
@@ -0,0 +1,186 @@
+package org.crud.bookmarks.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the most visited bookmarks of the last hour and day in fixed memory.
+ * <p>
+ * Each window is a ring of time buckets (12 of 5 minutes for the hour, 24 of one hour for the
+ * day), and each bucket is a {@link SpaceSaving} summary with a fixed number of counters, so
+ * memory doesn't grow with the number of visits or bookmarks. A bucket is cleared when the
+ * ring wraps around to it. Queries merge the live buckets: a bookmark's visits are the sum of
+ * its counts, plus the unmonitored bound of each bucket that doesn't monitor it, so
+ * {@link Trend#visits()} is an upper bound and {@link Trend#minVisits()} a lower bound of the
+ * true count. The window ends at the current bucket, so it spans between one bucket less than
+ * the window and the full window.
+ * <p>
+ * Visits arrive with each {@link VisitsFlushedEvent}, one count per bookmark, rather than per
+ * click, so clicks never wait for the rings' locks. They are counted in the bucket of the flush,
+ * which is at most one flush interval after the visits, or later if writing them had to be
+ * retried.
+ * <p>
+ * Accuracy: per bucket, a count overestimates by at most {@code visits in bucket / counters};
+ * with the default 1000 counters that is 0.1% of the bucket's visits, and with skewed traffic,
+ * as clicks usually are, the top entries are typically exact.
+ */
+@Component
+public class TrendingTracker {
+
+    /**
+     * Query windows and their bucketing.
+     */
+    public enum Window {
+        HOUR("1h", Duration.ofMinutes(5), 12),
+        DAY("1d", Duration.ofHours(1), 24);
+
+        private final String label;
+        private final long bucketMillis;
+        private final int buckets;
+
+        Window(String label, Duration bucket, int buckets) {
+            this.label = label;
+            this.bucketMillis = bucket.toMillis();
+            this.buckets = buckets;
+        }
+
+        /**
+         * Parses {@code 1h} or {@code 1d} ({@code 24h} is accepted for the day).
+         *
+         * @throws IllegalArgumentException for any other value
+         */
+        public static Window parse(String value) {
+            String normalized = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+            if (normalized.equals("24h")) {
+                return DAY;
+            }
+            for (Window window : values()) {
+                if (window.label.equals(normalized)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Window must be 1h or 1d");
+        }
+    }
+
+    /**
+     * A trending bookmark. The true number of visits in the window lies between
+     * {@code minVisits} and {@code visits}.
+     */
+    public record Trend(long bookmarkId, long visits, long minVisits) {
+    }
+
+    private final int countersPerBucket;
+    private final LongSupplier clock;
+    private final Map<Window, Ring> rings = new HashMap<>();
+
+    @Autowired
+    public TrendingTracker(@Value("${bookmark.trending.counters-per-bucket:1000}") int countersPerBucket) {
+        this(countersPerBucket, System::currentTimeMillis);
+    }
+
+    TrendingTracker(int countersPerBucket, LongSupplier clock) {
+        if (countersPerBucket < 1) {
+            throw new IllegalArgumentException("bookmark.trending.counters-per-bucket must be positive");
+        }
+        this.countersPerBucket = countersPerBucket;
+        this.clock = clock;
+        for (Window window : Window.values()) {
+            rings.put(window, new Ring(window, countersPerBucket));
+        }
+    }
+
+    /**
+     * Counts the flushed visits in every window.
+     */
+    @EventListener
+    public void onVisitsFlushed(VisitsFlushedEvent event) {
+        long now = clock.getAsLong();
+        for (Ring ring : rings.values()) {
+            ring.addAll(event.visits(), now);
+        }
+    }
+
+    /**
+     * Returns the {@code k} most visited bookmarks of the window, most visited first.
+     *
+     * @throws IllegalArgumentException if {@code k} is not between 1 and the counters per bucket
+     */
+    public List<Trend> top(Window window, int k) {
+        if (k < 1 || k > countersPerBucket) {
+            throw new IllegalArgumentException("k must be between 1 and " + countersPerBucket);
+        }
+        return rings.get(window).top(k, clock.getAsLong());
+    }
+
+    private static final class Ring {
+
+        private final long bucketMillis;
+        private final SpaceSaving[] buckets;
+        private final long[] bucketIndexes;
+
+        Ring(Window window, int counters) {
+            this.bucketMillis = window.bucketMillis;
+            this.buckets = new SpaceSaving[window.buckets];
+            this.bucketIndexes = new long[window.buckets];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new SpaceSaving(counters);
+                bucketIndexes[i] = -1;
+            }
+        }
+
+        synchronized void addAll(List<VisitsFlushedEvent.BookmarkVisits> visits, long now) {
+            long index = now / bucketMillis;
+            int slot = (int) (index % buckets.length);
+            if (bucketIndexes[slot] != index) {
+                buckets[slot].clear();
+                bucketIndexes[slot] = index;
+            }
+            for (VisitsFlushedEvent.BookmarkVisits bookmarkVisits : visits) {
+                buckets[slot].add(bookmarkVisits.bookmarkId(), bookmarkVisits.count());
+            }
+        }
+
+        synchronized List<Trend> top(int k, long now) {
+            long current = now / bucketMillis;
+            // id -> {sum of counts, sum of errors, sum of unmonitored bounds of the buckets monitoring it}
+            Map<Long, long[]> merged = new HashMap<>();
+            long unmonitoredBound = 0;
+            for (int slot = 0; slot < buckets.length; slot++) {
+                long index = bucketIndexes[slot];
+                if (index < 0 || index > current || index <= current - buckets.length) {
+                    continue;
+                }
+                SpaceSaving bucket = buckets[slot];
+                long bound = bucket.unmonitoredBound();
+                unmonitoredBound += bound;
+                bucket.forEach((id, count, error) -> {
+                    long[] sums = merged.computeIfAbsent(id, key -> new long[3]);
+                    sums[0] += count;
+                    sums[1] += error;
+                    sums[2] += bound;
+                });
+            }
+            List<Trend> trends = new ArrayList<>(merged.size());
+            for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+                long[] sums = entry.getValue();
+                trends.add(new Trend(entry.getKey(), sums[0] + unmonitoredBound - sums[2], sums[0] - sums[1]));
+            }
+            trends.sort(Comparator.comparingLong(Trend::visits).reversed()
+                    .thenComparing(Comparator.comparingLong(Trend::minVisits).reversed())
+                    .thenComparingLong(Trend::bookmarkId));
+            return trends.size() > k ? new ArrayList<>(trends.subList(0, k)) : trends;
+        }
+    }
+}
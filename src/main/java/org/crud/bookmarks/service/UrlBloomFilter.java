@@ -0,0 +1,70 @@
+package org.crud.bookmarks.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over 64-bit URL hashes.
+ * Answers "definitely not present" without touching the database; a positive answer
+ * still has to be confirmed by a query. Elements can't be removed, so deleted URLs
+ * only cost a wasted lookup.
+ */
+public class UrlBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    /**
+     * Creates a filter sized for the expected number of elements and false positive rate.
+     *
+     * @param expectedInsertions the number of URLs the filter is sized for
+     * @param falsePositiveRate the target false positive rate at that size, e.g. 0.01
+     */
+    public UrlBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, (m + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void add(long hash) {
+        long combined = hash;
+        long increment = (hash >>> 32) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(combined, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+            combined += increment;
+        }
+    }
+
+    public boolean mightContain(long hash) {
+        long combined = hash;
+        long increment = (hash >>> 32) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(combined, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += increment;
+        }
+        return true;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+}
@@ -0,0 +1,194 @@
+package org.crud.bookmarks.service;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Utility for bringing bookmark URLs into a canonical form, so that trivially different
+ * spellings of the same address compare equal, and for hashing the canonical form into
+ * the fixed-width {@code url_hash} column.
+ * <p>
+ * Normalization lower-cases the scheme and host, drops default ports, fragments and
+ * tracking parameters, removes a trailing slash and sorts the remaining query parameters.
+ */
+public final class UrlNormalizer {
+
+    private static final Set<String> TRACKING_PARAMETERS = Set.of(
+            "fbclid", "gclid", "dclid", "msclkid", "yclid", "igshid", "mc_cid", "mc_eid", "_ga", "_hsenc", "_hsmi");
+
+    /** Second-level labels that country-code registries commonly sell domains under, as in co.uk or com.au. */
+    private static final Set<String> COUNTRY_SECOND_LEVEL_LABELS = Set.of(
+            "ac", "co", "com", "edu", "go", "gob", "gov", "mil", "ne", "net", "or", "org");
+
+    private static final int MAX_HOST_LENGTH = 255;
+
+    private UrlNormalizer() {
+    }
+
+    /**
+     * Returns the normalized form of the URL, or the trimmed input if it can't be parsed.
+     *
+     * @param url the URL to normalize
+     * @return the normalized URL, or null if the input is null
+     */
+    public static String normalize(String url) {
+        if (url == null) {
+            return null;
+        }
+        String trimmed = url.trim();
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+        if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+            return trimmed;
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(trimmed.length()).append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            normalized.append(uri.getRawUserInfo()).append('@');
+        }
+        String host = uri.getHost() != null ? uri.getHost() : uri.getRawAuthority();
+        normalized.append(host.toLowerCase(Locale.ROOT));
+        if (uri.getPort() != -1 && uri.getPort() != defaultPort(scheme)) {
+            normalized.append(':').append(uri.getPort());
+        }
+
+        String path = uri.getRawPath();
+        if (path != null && path.length() > 1 && path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        if (path != null && !path.equals("/")) {
+            normalized.append(path);
+        }
+
+        String query = normalizeQuery(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            normalized.append('?').append(query);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Hashes an already normalized URL into a 64-bit value (the leading bytes of its SHA-256 digest).
+     *
+     * @param normalizedUrl the normalized URL
+     * @return the hash, or null if the input is null
+     */
+    public static Long hash(String normalizedUrl) {
+        if (normalizedUrl == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalizedUrl.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < Long.BYTES; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Normalizes the URL and returns the hash of its normalized form.
+     */
+    public static Long normalizedHash(String url) {
+        return hash(normalize(url));
+    }
+
+    /**
+     * Returns the lower-cased host of the URL.
+     *
+     * @param url the URL
+     * @return the host, or null if the URL has none or can't be parsed
+     */
+    public static String host(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            String host = new URI(url.trim()).getHost();
+            if (host == null || host.isEmpty() || host.length() > MAX_HOST_LENGTH) {
+                return null;
+            }
+            host = host.toLowerCase(Locale.ROOT);
+            return host.endsWith(".") ? host.substring(0, host.length() - 1) : host;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the registrable domain of a host: the part a registrant controls, such as
+     * {@code example.com} for {@code blog.example.com} or {@code example.co.uk} for
+     * {@code www.example.co.uk}. This is an approximation of the public suffix list that
+     * only knows the common country-code second levels; IP addresses are returned unchanged.
+     *
+     * @param host a lower-case host as returned by {@link #host(String)}
+     * @return the registrable domain, or null if the host is null
+     */
+    public static String registrableDomain(String host) {
+        if (host == null) {
+            return null;
+        }
+        if (host.startsWith("[") || host.chars().allMatch(c -> c == '.' || Character.isDigit(c))) {
+            return host;
+        }
+        String[] labels = host.split("\\.");
+        if (labels.length <= 2) {
+            return host;
+        }
+        int keep = 2;
+        String topLevel = labels[labels.length - 1];
+        if (topLevel.length() == 2 && COUNTRY_SECOND_LEVEL_LABELS.contains(labels[labels.length - 2])) {
+            keep = 3;
+        }
+        return String.join(".", Arrays.copyOfRange(labels, labels.length - keep, labels.length));
+    }
+
+    private static String normalizeQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        List<String> parameters = new ArrayList<>();
+        for (String parameter : rawQuery.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int eq = parameter.indexOf('=');
+            String name = (eq >= 0 ? parameter.substring(0, eq) : parameter).toLowerCase(Locale.ROOT);
+            if (name.startsWith("utm_") || TRACKING_PARAMETERS.contains(name)) {
+                continue;
+            }
+            parameters.add(parameter);
+        }
+        parameters.sort(null);
+        return String.join("&", parameters);
+    }
+
+    private static int defaultPort(String scheme) {
+        switch (scheme) {
+            case "http":
+                return 80;
+            case "https":
+                return 443;
+            case "ftp":
+                return 21;
+            default:
+                return -1;
+        }
+    }
+}
@@ -3,10 +3,14 @@ package org.crud.bookmarks.service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -61,12 +65,7 @@ public class UrlValidator {
 
         // Validate URL accessibility
         try {
-            webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .toBodilessEntity()
-                    .timeout(timeout)
-                    .block();
+            fetch(url);
             logger.debug("URL validation successful for: {}", url);
         } catch (WebClientResponseException e) {
             logger.error("URL validation failed for {}: {} - {}", url, e.getStatusCode(), e.getMessage());
@@ -76,4 +75,82 @@ public class UrlValidator {
             throw new InvalidUrlException("Failed to access URL: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Checks whether a stored URL is still accessible, reporting the outcome instead of throwing.
+     * Meant for background re-checks, so failures are only logged at debug level.
+     *
+     * @param url The URL to check
+     * @return the outcome of the request
+     */
+    public CheckResult check(String url) {
+        try {
+            fetch(url);
+            return new CheckResult(true, null, null);
+        } catch (WebClientResponseException e) {
+            logger.debug("URL check failed for {}: {}", url, e.getStatusCode());
+            return new CheckResult(false, e.getStatusCode().value(), "HTTP " + e.getStatusCode());
+        } catch (Exception e) {
+            logger.debug("URL check failed for {}: {}", url, e.getMessage());
+            return new CheckResult(false, null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Reads the title, description, canonical URL and icon from the head of an HTML page.
+     * The body is parsed as it streams in and the connection is released once the head is
+     * complete, so large pages are never downloaded in full.
+     *
+     * @param url The URL of the page
+     * @return the metadata found, all null if the response isn't HTML
+     * @throws WebClientResponseException if the server answers with an error status
+     */
+    public PageMetadata fetchMetadata(String url) {
+        HtmlHeadParser parser = new HtmlHeadParser();
+        webClient.get()
+                .uri(url)
+                .accept(MediaType.TEXT_HTML, MediaType.APPLICATION_XHTML_XML)
+                .exchangeToFlux(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.<DataBuffer>createError().flux();
+                    }
+                    MediaType contentType = response.headers().contentType().orElse(MediaType.TEXT_HTML);
+                    if (!MediaType.TEXT_HTML.isCompatibleWith(contentType)
+                            && !MediaType.APPLICATION_XHTML_XML.isCompatibleWith(contentType)) {
+                        return Flux.empty();
+                    }
+                    parser.charset(contentType.getCharset());
+                    return response.bodyToFlux(DataBuffer.class);
+                })
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                // Cancelling the body at </head> closes the connection
+                .takeUntil(parser::feed)
+                .timeout(timeout)
+                .blockLast();
+        return parser.result(url);
+    }
+
+    private void fetch(String url) {
+        webClient.get()
+                .uri(url)
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(timeout)
+                .block();
+    }
+
+    /**
+     * Outcome of {@link #check(String)}.
+     *
+     * @param accessible whether the URL answered with a success status
+     * @param httpStatus the error status the server answered with, or null if there was no response
+     * @param error a short description of the failure, or null if accessible
+     */
+    public record CheckResult(boolean accessible, Integer httpStatus, String error) {
+    }
 }
@@ -0,0 +1,156 @@
+package org.crud.bookmarks.service;
+
+import jakarta.annotation.PreDestroy;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts bookmark visits in memory and adds them to {@code bookmarks.visit_count} in periodic
+ * batches, instead of updating the row on every click.
+ * <p>
+ * Each bookmark gets its own {@link LongAdder}, so concurrent visits don't contend on a shared
+ * counter. Every flush takes the counts with {@code sumThenReset} and writes them with one
+ * batched {@code UPDATE ... SET visit_count = visit_count + ?}, which neither bumps the version
+ * nor conflicts with edits. Visits since the last flush are lost on a crash, so the flush
+ * interval bounds the loss. Counters idle for a whole interval are removed from the map; they
+ * are summed once more on the next flush, so a visit racing with the removal still counts.
+ * Every written batch is published as a {@link VisitsFlushedEvent}, which also feeds the
+ * {@link TrendingTracker}, so a click costs no more than its counter increment.
+ */
+@Component
+public class VisitCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitCounter.class);
+
+    private final BookmarkBulkRepository bulkRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long idleMillis;
+    private final ScheduledExecutorService flusher;
+    private final Map<Long, Visits> counters = new ConcurrentHashMap<>();
+    // Counters removed by the previous flush, summed once more by the next
+    private List<Map.Entry<Long, Visits>> retired = new ArrayList<>();
+
+    public VisitCounter(BookmarkBulkRepository bulkRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        @Value("${bookmark.visits.flush-interval:PT10S}") Duration flushInterval) {
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("bookmark.visits.flush-interval must be positive");
+        }
+        this.bulkRepository = bulkRepository;
+        this.eventPublisher = eventPublisher;
+        this.idleMillis = flushInterval.toMillis();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "visit-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::safeFlush, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static final class Visits {
+        final LongAdder count = new LongAdder();
+        volatile long lastVisitedAt;
+    }
+
+    /**
+     * Counts a visit of the bookmark. Doesn't touch the database.
+     */
+    public void record(Long bookmarkId) {
+        Visits visits = counters.computeIfAbsent(bookmarkId, id -> new Visits());
+        visits.lastVisitedAt = System.currentTimeMillis();
+        visits.count.increment();
+    }
+
+    /**
+     * Returns the number of visits counted but not yet written.
+     */
+    public long pendingVisits() {
+        long pending = counters.values().stream().mapToLong(visits -> visits.count.sum()).sum();
+        synchronized (this) {
+            return pending + retired.stream().mapToLong(entry -> entry.getValue().count.sum()).sum();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    private void safeFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.error("Visit count flush failed", e);
+        }
+    }
+
+    /**
+     * Writes the visits counted since the last flush.
+     *
+     * @return the number of counters written
+     */
+    synchronized int flush() {
+        List<VisitsFlushedEvent.BookmarkVisits> batch = new ArrayList<>();
+        List<Map.Entry<Long, Visits>> flushed = new ArrayList<>();
+        for (Map.Entry<Long, Visits> entry : retired) {
+            take(entry, batch, flushed);
+        }
+        retired = new ArrayList<>();
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        for (Map.Entry<Long, Visits> entry : counters.entrySet()) {
+            if (!take(entry, batch, flushed) && entry.getValue().lastVisitedAt < idleSince
+                    && counters.remove(entry.getKey(), entry.getValue())) {
+                retired.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            bulkRepository.addVisits(batch);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to write visits of {} bookmarks, retrying with the next flush: {}",
+                    batch.size(), e.getMessage());
+            for (int i = 0; i < batch.size(); i++) {
+                Map.Entry<Long, Visits> entry = flushed.get(i);
+                Visits visits = counters.computeIfAbsent(entry.getKey(), id -> new Visits());
+                visits.count.add(batch.get(i).count());
+                visits.lastVisitedAt = Math.max(visits.lastVisitedAt, entry.getValue().lastVisitedAt);
+            }
+            return 0;
+        }
+        eventPublisher.publishEvent(new VisitsFlushedEvent(batch));
+        return batch.size();
+    }
+
+    private static boolean take(Map.Entry<Long, Visits> entry, List<VisitsFlushedEvent.BookmarkVisits> batch,
+                                List<Map.Entry<Long, Visits>> flushed) {
+        long count = entry.getValue().count.sumThenReset();
+        if (count == 0) {
+            return false;
+        }
+        batch.add(new VisitsFlushedEvent.BookmarkVisits(entry.getKey(), count,
+                new Timestamp(entry.getValue().lastVisitedAt).toLocalDateTime()));
+        flushed.add(entry);
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package org.crud.bookmarks.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Application event published by {@link VisitCounter} after it added visits to the database.
+ * Visits don't go through {@link BookmarkService} and publish no {@link BookmarkChangeEvent};
+ * in-memory copies of bookmarks follow visit counts with this event instead.
+ *
+ * @param visits the visits written, one entry per bookmark
+ */
+public record VisitsFlushedEvent(List<BookmarkVisits> visits) {
+
+    /**
+     * @param bookmarkId the visited bookmark
+     * @param count the number of visits added to its count
+     * @param lastVisitedAt the time of the latest of these visits
+     */
+    public record BookmarkVisits(long bookmarkId, long count, LocalDateTime lastVisitedAt) {
+    }
+}
@@ -22,3 +22,116 @@ CREATE TABLE IF NOT EXISTS bookmarks (
 -- Create indexes
 CREATE INDEX IF NOT EXISTS idx_bookmark_folder ON bookmarks(folder_id);
 CREATE INDEX IF NOT EXISTS idx_folder_name ON folders(name);
+
+-- Optimistic locking
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE bookmarks ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- Case-insensitive unique folder names
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS name_key VARCHAR(255) GENERATED ALWAYS AS (LOWER(name));
+CREATE UNIQUE INDEX IF NOT EXISTS uk_folder_name_key ON folders(name_key);
+
+-- Normalized URL hash for duplicate detection
+ALTER TABLE bookmarks ADD COLUMN IF NOT EXISTS url_hash BIGINT;
+-- With the ID, the backfill reads rows without a hash in ID order straight from the index
+DROP INDEX IF EXISTS idx_bookmark_url_hash;
+CREATE INDEX IF NOT EXISTS idx_bookmark_url_hash_id ON bookmarks(url_hash, id);
+
+-- Host and registrable domain, for filtering and grouping by site
+ALTER TABLE bookmarks ADD COLUMN IF NOT EXISTS host VARCHAR(255);
+ALTER TABLE bookmarks ADD COLUMN IF NOT EXISTS domain VARCHAR(255);
+-- With the ID, the backfill reads rows without a host in ID order straight from the index
+DROP INDEX IF EXISTS idx_bookmark_host;
+CREATE INDEX IF NOT EXISTS idx_bookmark_host_id ON bookmarks(host, id);
+CREATE INDEX IF NOT EXISTS idx_bookmark_domain ON bookmarks(domain);
+
+-- Bookmark counts per registrable domain, maintained with every bookmark write
+CREATE TABLE IF NOT EXISTS host_stats (
+    domain VARCHAR(255) PRIMARY KEY,
+    bookmark_count BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_host_stats_count ON host_stats(bookmark_count);
+
+-- Tags, attached to any number of bookmarks
+CREATE TABLE IF NOT EXISTS tags (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    name_key VARCHAR(100) GENERATED ALWAYS AS (LOWER(name)),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_tag_name_key ON tags(name_key);
+
+CREATE TABLE IF NOT EXISTS bookmark_tags (
+    bookmark_id BIGINT NOT NULL,
+    tag_id BIGINT NOT NULL,
+    PRIMARY KEY (bookmark_id, tag_id),
+    FOREIGN KEY (bookmark_id) REFERENCES bookmarks(id) ON DELETE CASCADE,
+    FOREIGN KEY (tag_id) REFERENCES tags(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_bookmark_tags_tag ON bookmark_tags(tag_id);
+
+-- Nested folders: parent reference plus a closure table with one row per ancestor/descendant
+-- pair (including each folder with itself at depth 0), so subtrees are single indexed lookups
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS parent_id BIGINT;
+ALTER TABLE folders ADD CONSTRAINT IF NOT EXISTS fk_folder_parent
+    FOREIGN KEY (parent_id) REFERENCES folders(id) ON DELETE CASCADE;
+CREATE INDEX IF NOT EXISTS idx_folder_parent ON folders(parent_id);
+
+CREATE TABLE IF NOT EXISTS folder_paths (
+    ancestor_id BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth INT NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id),
+    FOREIGN KEY (ancestor_id) REFERENCES folders(id) ON DELETE CASCADE,
+    FOREIGN KEY (descendant_id) REFERENCES folders(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_folder_paths_descendant ON folder_paths(descendant_id, ancestor_id);
+
+-- Folders created before nesting existed are roots
+INSERT INTO folder_paths (ancestor_id, descendant_id, depth)
+SELECT f.id, f.id, 0 FROM folders f
+WHERE NOT EXISTS (SELECT 1 FROM folder_paths p WHERE p.ancestor_id = f.id AND p.descendant_id = f.id);
+
+-- Link rot checks: outcome of the last background check per bookmark, kept apart from
+-- bookmarks so the scanner never locks rows that foreground requests update
+CREATE TABLE IF NOT EXISTS link_checks (
+    bookmark_id BIGINT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    http_status INT,
+    error VARCHAR(255),
+    last_checked_at TIMESTAMP NOT NULL,
+    consecutive_failures INT DEFAULT 0 NOT NULL,
+    FOREIGN KEY (bookmark_id) REFERENCES bookmarks(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_link_checks_status ON link_checks(status, consecutive_failures);
+
+-- Position of the link check sweep, so a restart resumes where it stopped
+CREATE TABLE IF NOT EXISTS link_scan_state (
+    id INT PRIMARY KEY,
+    cursor_id BIGINT NOT NULL,
+    sweep_started_at TIMESTAMP,
+    last_sweep_finished_at TIMESTAMP
+);
+MERGE INTO link_scan_state t USING (VALUES (1)) AS s(id) ON t.id = s.id
+WHEN NOT MATCHED THEN INSERT (id, cursor_id) VALUES (1, 0);
+
+-- Page metadata fetched in the background for each bookmark, kept apart from the user's own
+-- title and description so enrichment never conflicts with edits
+CREATE TABLE IF NOT EXISTS bookmark_metadata (
+    bookmark_id BIGINT PRIMARY KEY,
+    source_url VARCHAR(2048) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    title VARCHAR(255),
+    description VARCHAR(500),
+    canonical_url VARCHAR(2048),
+    favicon_url VARCHAR(2048),
+    error VARCHAR(255),
+    fetched_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (bookmark_id) REFERENCES bookmarks(id) ON DELETE CASCADE
+);
+CREATE INDEX IF NOT EXISTS idx_bookmark_created_at ON bookmarks(created_at);
+
+-- Visit counts, flushed in batches from in-memory counters
+ALTER TABLE bookmarks ADD COLUMN IF NOT EXISTS visit_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE bookmarks ADD COLUMN IF NOT EXISTS last_visited_at TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_bookmark_visit_count ON bookmarks(visit_count);
@@ -6,19 +6,46 @@ export interface Bookmark {
     description?: string;
     url: string;
     folderId?: number;
+    host?: string;
+    domain?: string;
+    visitCount?: number;
+    lastVisitedAt?: string | null;
+    version?: number;
     createdAt?: string;
     updatedAt?: string;
 }
 
+export interface BookmarkSummary {
+    id: number;
+    title: string;
+    url: string;
+    folderId: number | null;
+}
+
 export interface Folder {
     id?: number;
     name: string;
     description?: string;
+    parentId?: number | null;
     bookmarks?: Bookmark[];
+    bookmarkCount?: number;
+    version?: number;
     createdAt?: string;
     updatedAt?: string;
 }
 
+export interface Tag {
+    id?: number;
+    name: string;
+    bookmarkCount?: number;
+    createdAt?: string;
+}
+
+export interface HostCount {
+    domain: string;
+    bookmarkCount: number;
+}
+
 export interface PaginatedResponse<T> {
     content: T[];
     totalElements: number;
@@ -27,10 +54,44 @@ export interface PaginatedResponse<T> {
     number: number;
 }
 
+export interface FacetCount {
+    value: string | null;
+    count: number;
+}
+
+export interface SearchFacets {
+    folders: FacetCount[];
+    hosts: FacetCount[];
+    months: FacetCount[];
+    computeMicros: number;
+}
+
+export interface FacetedResponse<T> extends PaginatedResponse<T> {
+    facets: SearchFacets;
+}
+
+export interface BookmarkMetadata {
+    bookmarkId: number;
+    sourceUrl: string;
+    status: 'OK' | 'FAILED';
+    title: string | null;
+    description: string | null;
+    canonicalUrl: string | null;
+    faviconUrl: string | null;
+    error: string | null;
+    fetchedAt: string;
+}
+
+export interface TrendingBookmark {
+    bookmark: Bookmark;
+    visits: number;
+    minVisits: number;
+}
+
 export interface BookmarkFilter {
     folderId?: number;
     search?: string;
-    sortBy?: 'title' | 'createdAt' | 'url';
+    sortBy?: 'title' | 'createdAt' | 'url' | 'visitCount';
     sortDirection?: 'asc' | 'desc';
     page?: number;
     size?: number;
@@ -1,11 +1,16 @@
 package org.crud.bookmarks;
 
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.Appender;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 @SpringBootTest
 @ActiveProfiles("dev")
 public class LoggingConfigurationTest {
@@ -26,4 +31,17 @@ public class LoggingConfigurationTest {
             logger.error("Test exception logging", e);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFileAppenderIsAsynchronous() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Appender<?> appender = context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("ASYNC_FILE");
+
+        assertNotNull(appender, "Dev profile should route file logging through ASYNC_FILE");
+        assertInstanceOf(AsyncAppender.class, appender);
+        AsyncAppender asyncAppender = (AsyncAppender) appender;
+        assertTrue(asyncAppender.isNeverBlock());
+        assertEquals(8192, asyncAppender.getQueueSize());
+        assertNotNull(asyncAppender.getAppender("FILE"));
+    }
+}
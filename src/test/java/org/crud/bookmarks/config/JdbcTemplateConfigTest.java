@@ -0,0 +1,44 @@
+package org.crud.bookmarks.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTemplateConfigTest {
+
+    private SingleConnectionDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new SingleConnectionDataSource("jdbc:h2:mem:templateconfig;DB_CLOSE_DELAY=-1", "sa", "", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    void bulkTemplate_AfterSharedTemplateOnSameConnection_ShouldHaveNoQueryTimeout() {
+        JdbcProperties properties = new JdbcProperties();
+        properties.getTemplate().setQueryTimeout(Duration.ofSeconds(10));
+        JdbcTemplateConfig config = new JdbcTemplateConfig();
+        JdbcTemplate shared = config.jdbcTemplate(dataSource, properties);
+        JdbcTemplate bulk = config.bulkJdbcTemplate(dataSource);
+
+        shared.queryForObject("SELECT 1", Integer.class);
+        int sharedTimeout = shared.execute(Statement::getQueryTimeout);
+        int bulkTimeout = bulk.execute(Statement::getQueryTimeout);
+
+        assertEquals(10, sharedTimeout);
+        assertEquals(0, bulkTimeout);
+    }
+}
@@ -0,0 +1,222 @@
+package org.crud.bookmarks.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicationRoutingDataSource routingDataSource;
+    private ReplicationRoutingDataSource.Session session;
+
+    @BeforeEach
+    void setUp() {
+        primary = database();
+        replica = database();
+        routingDataSource = new ReplicationRoutingDataSource(Duration.ofMinutes(1));
+        routingDataSource.setTargetDataSources(Map.<Object, Object>of(
+                ReplicationRoutingDataSource.Route.PRIMARY, primary,
+                ReplicationRoutingDataSource.Route.REPLICA, replica));
+        routingDataSource.afterPropertiesSet();
+        session = new ReplicationRoutingDataSource.Session(0, writtenAt -> {
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicationRoutingDataSource.clearSession();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    private static EmbeddedDatabase database() {
+        return new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+    }
+
+    private void completeTransaction(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private ReplicationRoutingDataSource.Route readRoute() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        return (ReplicationRoutingDataSource.Route) routingDataSource.determineCurrentLookupKey();
+    }
+
+    @Test
+    void readOnlyTransaction_ShouldRouteToReplica() {
+        ReplicationRoutingDataSource.bindSession(session);
+
+        assertEquals(ReplicationRoutingDataSource.Route.REPLICA, readRoute());
+    }
+
+    @Test
+    void readWriteTransaction_ShouldRouteToPrimary() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(ReplicationRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void readAfterOwnCommittedWrite_ShouldStayOnPrimaryWithinStalenessWindow() throws Exception {
+        ReplicationRoutingDataSource.bindSession(session);
+        TransactionSynchronizationManager.initSynchronization();
+        try (Connection connection = routingDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO folders (name) VALUES ('Inbox')");
+        }
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertTrue(session.getLastWriteMillis() > 0);
+        assertEquals(ReplicationRoutingDataSource.Route.PRIMARY, readRoute());
+    }
+
+    @Test
+    void readAfterWriteOfOtherClient_ShouldGoToReplica() throws Exception {
+        ReplicationRoutingDataSource.bindSession(session);
+        TransactionSynchronizationManager.initSynchronization();
+        try (Connection connection = routingDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO folders (name) VALUES ('Inbox')");
+        }
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        ReplicationRoutingDataSource.bindSession(new ReplicationRoutingDataSource.Session(0, writtenAt -> {
+        }));
+
+        assertEquals(ReplicationRoutingDataSource.Route.REPLICA, readRoute());
+    }
+
+    @Test
+    void readAfterRolledBackWrite_ShouldGoToReplica() throws Exception {
+        ReplicationRoutingDataSource.bindSession(session);
+        TransactionSynchronizationManager.initSynchronization();
+        try (Connection connection = routingDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO folders (name) VALUES ('Inbox')");
+        }
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(0, session.getLastWriteMillis());
+        assertEquals(ReplicationRoutingDataSource.Route.REPLICA, readRoute());
+    }
+
+    @Test
+    void readWriteTransactionWithoutChangedRows_ShouldNotRecordWrite() throws Exception {
+        ReplicationRoutingDataSource.bindSession(session);
+        TransactionSynchronizationManager.initSynchronization();
+        try (Connection connection = routingDataSource.getConnection();
+             PreparedStatement query = connection.prepareStatement("SELECT COUNT(*) FROM folders");
+             PreparedStatement update = connection.prepareStatement("UPDATE folders SET name = 'X' WHERE id = ?")) {
+            try (ResultSet resultSet = query.executeQuery()) {
+                assertTrue(resultSet.next());
+            }
+            update.setLong(1, 42);
+            assertEquals(0, update.executeUpdate());
+        }
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(0, session.getLastWriteMillis());
+    }
+
+    @Test
+    void committedBatch_ShouldRecordWriteAndNotifySession() throws Exception {
+        long[] notified = {0};
+        ReplicationRoutingDataSource.Session notifying = new ReplicationRoutingDataSource.Session(0,
+                writtenAt -> notified[0] = writtenAt);
+        ReplicationRoutingDataSource.bindSession(notifying);
+        TransactionSynchronizationManager.initSynchronization();
+        try (Connection connection = routingDataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO folders (name) VALUES (?)")) {
+            insert.setString(1, "A");
+            insert.addBatch();
+            insert.setString(1, "B");
+            insert.addBatch();
+            insert.executeBatch();
+        }
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertTrue(notified[0] > 0);
+        assertEquals(notified[0], notifying.getLastWriteMillis());
+    }
+
+    @Test
+    void autoCommitWriteOutsideTransaction_ShouldRecordWrite() throws Exception {
+        ReplicationRoutingDataSource.bindSession(session);
+        try (Connection connection = routingDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO folders (name) VALUES ('Inbox')");
+        }
+
+        assertTrue(session.getLastWriteMillis() > 0);
+    }
+
+    @Test
+    void writeWithoutSession_ShouldNotPinAnyClient() throws Exception {
+        TransactionSynchronizationManager.initSynchronization();
+        try (Connection connection = routingDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO folders (name) VALUES ('Background')");
+        }
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(ReplicationRoutingDataSource.Route.REPLICA, readRoute());
+        ReplicationRoutingDataSource.bindSession(session);
+        assertEquals(ReplicationRoutingDataSource.Route.REPLICA, readRoute());
+    }
+
+    @Test
+    void readAfterStalenessWindow_ShouldGoToReplica() {
+        ReplicationRoutingDataSource.bindSession(new ReplicationRoutingDataSource.Session(
+                System.currentTimeMillis() - Duration.ofMinutes(2).toMillis(), writtenAt -> {
+                }));
+
+        assertEquals(ReplicationRoutingDataSource.Route.REPLICA, readRoute());
+    }
+
+    @Test
+    void inCurrentSession_ShouldCarrySessionToOtherThread() throws Exception {
+        session.recordWrite();
+        ReplicationRoutingDataSource.bindSession(session);
+        Supplier<Object> task = ReplicationRoutingDataSource.inCurrentSession(() -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            try {
+                return routingDataSource.determineCurrentLookupKey();
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+            }
+        });
+
+        Object[] route = new Object[1];
+        Thread thread = new Thread(() -> route[0] = task.get());
+        thread.start();
+        thread.join();
+
+        assertEquals(ReplicationRoutingDataSource.Route.PRIMARY, route[0]);
+    }
+}
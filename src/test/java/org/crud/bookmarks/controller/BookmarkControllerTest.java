@@ -1,29 +1,54 @@
 package org.crud.bookmarks.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkFilter;
+import org.crud.bookmarks.BookmarkPatch;
+import org.crud.bookmarks.BookmarkSummary;
+import org.crud.bookmarks.config.WireFormatConfig;
+import org.crud.bookmarks.service.BookmarkBatch;
 import org.crud.bookmarks.service.BookmarkService;
+import org.crud.bookmarks.service.FacetedPage;
+import org.crud.bookmarks.service.IdempotencyStore;
+import org.crud.bookmarks.service.MetadataEnricher;
+import org.crud.bookmarks.service.NearDuplicateIndex;
+import org.crud.bookmarks.service.SearchFacets;
+import org.crud.bookmarks.service.TagService;
+import org.crud.bookmarks.service.TrendingTracker;
+import org.crud.bookmarks.service.VisitCounter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(BookmarkController.class)
+@Import({IdempotencyStore.class, WireFormatConfig.class})
 class BookmarkControllerTest {
 
     @Autowired
@@ -32,6 +57,21 @@ class BookmarkControllerTest {
     @MockBean
     private BookmarkService bookmarkService;
 
+    @MockBean
+    private NearDuplicateIndex nearDuplicateIndex;
+
+    @MockBean
+    private TagService tagService;
+
+    @MockBean
+    private MetadataEnricher metadataEnricher;
+
+    @MockBean
+    private VisitCounter visitCounter;
+
+    @MockBean
+    private TrendingTracker trendingTracker;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -64,6 +104,56 @@ class BookmarkControllerTest {
                 .andExpect(jsonPath("$.url").value(testBookmark.getUrl()));
     }
 
+    @Test
+    void getBookmarkById_WithCborAccepted_ShouldReturnCbor() throws Exception {
+        when(bookmarkService.getBookmarkById(1L)).thenReturn(Optional.of(testBookmark));
+
+        byte[] body = mockMvc.perform(get("/api/bookmarks/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(testBookmark.getTitle(), new CBORMapper().readTree(body).get("title").asText());
+    }
+
+    @Test
+    void createBookmark_WithSmileBody_ShouldCreateBookmarkAndAnswerInJson() throws Exception {
+        when(bookmarkService.createBookmark(any(Bookmark.class))).thenReturn(testBookmark);
+
+        mockMvc.perform(post("/api/bookmarks")
+                .contentType("application/x-jackson-smile")
+                .content(new SmileMapper().writeValueAsBytes(Map.of("title", "Test Bookmark", "url", "https://test.com"))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.title").value(testBookmark.getTitle()));
+    }
+
+    @Test
+    void getBookmarkBatch_ShouldReturnFoundAndMissing() throws Exception {
+        when(bookmarkService.getBookmarkBatch(List.of(3L, 1L)))
+                .thenReturn(new BookmarkBatch(List.of(testBookmark), List.of(3L)));
+
+        mockMvc.perform(get("/api/bookmarks/batch").param("ids", "3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookmarks[0].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(3));
+        mockMvc.perform(post("/api/bookmarks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[3,1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing[0]").value(3));
+    }
+
+    @Test
+    void postBookmarkBatch_WithTooManyIds_ShouldReturnBadRequest() throws Exception {
+        when(bookmarkService.getBookmarkBatch(any())).thenThrow(new IllegalArgumentException("Too many ids"));
+
+        mockMvc.perform(post("/api/bookmarks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1,2]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getBookmarkById_WhenNotExists_ShouldReturn404() throws Exception {
         when(bookmarkService.getBookmarkById(1L)).thenReturn(Optional.empty());
@@ -72,6 +162,69 @@ class BookmarkControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void getBookmarkMetadata_WhenFetched_ShouldReturnMetadata() throws Exception {
+        when(metadataEnricher.getMetadata(1L)).thenReturn(Optional.of(new MetadataEnricher.BookmarkMetadata(
+                1L, "https://test.com", "OK", "Test page", "A page", "https://test.com/",
+                "https://test.com/favicon.ico", null, LocalDateTime.of(2024, 5, 1, 12, 0))));
+
+        mockMvc.perform(get("/api/bookmarks/1/metadata"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Test page"))
+                .andExpect(jsonPath("$.faviconUrl").value("https://test.com/favicon.ico"));
+    }
+
+    @Test
+    void getBookmarkMetadata_WhenNotFetched_ShouldReturn404() throws Exception {
+        when(metadataEnricher.getMetadata(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/bookmarks/1/metadata"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void recordVisit_WhenExists_ShouldCountVisit() throws Exception {
+        when(bookmarkService.bookmarkExists(1L)).thenReturn(true);
+
+        mockMvc.perform(post("/api/bookmarks/1/visit"))
+                .andExpect(status().isNoContent());
+
+        verify(visitCounter).record(1L);
+    }
+
+    @Test
+    void recordVisit_WhenNotExists_ShouldReturn404() throws Exception {
+        when(bookmarkService.bookmarkExists(1L)).thenReturn(false);
+
+        mockMvc.perform(post("/api/bookmarks/1/visit"))
+                .andExpect(status().isNotFound());
+
+        verify(visitCounter, times(0)).record(any());
+    }
+
+    @Test
+    void getTrendingBookmarks_ShouldReturnExistingBookmarksInRankOrder() throws Exception {
+        Bookmark other = new Bookmark("Other", "https://other.com");
+        other.setId(2L);
+        when(trendingTracker.top(TrendingTracker.Window.DAY, 3)).thenReturn(List.of(
+                new TrendingTracker.Trend(2, 9, 7), new TrendingTracker.Trend(3, 5, 5), new TrendingTracker.Trend(1, 4, 4)));
+        when(bookmarkService.getBookmarksByIds(List.of(2L, 3L, 1L))).thenReturn(List.of(testBookmark, other));
+
+        mockMvc.perform(get("/api/bookmarks/trending").param("window", "1d").param("k", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].bookmark.id").value(2))
+                .andExpect(jsonPath("$[0].visits").value(9))
+                .andExpect(jsonPath("$[0].minVisits").value(7))
+                .andExpect(jsonPath("$[1].bookmark.id").value(1));
+    }
+
+    @Test
+    void getTrendingBookmarks_WithUnsupportedWindow_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/bookmarks/trending").param("window", "7d"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createBookmark_WithValidData_ShouldCreateBookmark() throws Exception {
         when(bookmarkService.createBookmark(any(Bookmark.class))).thenReturn(testBookmark);
@@ -123,4 +276,147 @@ class BookmarkControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content[0].title").value(testBookmark.getTitle()));
     }
+
+    @Test
+    void searchBookmarks_WithFacets_ShouldIncludeFacets() throws Exception {
+        SearchFacets facets = new SearchFacets(List.of(new SearchFacets.FacetCount("1", 1)),
+                List.of(new SearchFacets.FacetCount("test.com", 1)), List.of(new SearchFacets.FacetCount("2024-01", 1)), 42);
+        when(bookmarkService.searchBookmarksWithFacets(eq("test"), any(Pageable.class)))
+                .thenReturn(new FacetedPage<>(Arrays.asList(testBookmark), PageRequest.of(0, 20), 1, facets));
+
+        mockMvc.perform(get("/api/bookmarks/search").param("query", "test").param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value(testBookmark.getTitle()))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.facets.hosts[0].value").value("test.com"))
+                .andExpect(jsonPath("$.facets.months[0].count").value(1))
+                .andExpect(jsonPath("$.facets.computeMicros").value(42));
+    }
+
+    @Test
+    void getAllBookmarks_WithHost_ShouldFilterByHost() throws Exception {
+        testBookmark.setHost("test.com");
+        when(bookmarkService.getBookmarksByHost(eq("test.com"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(testBookmark)));
+
+        mockMvc.perform(get("/api/bookmarks").param("host", "test.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].host").value("test.com"));
+    }
+
+    @Test
+    void getAllBookmarks_WithSummaryView_ShouldReturnProjections() throws Exception {
+        when(bookmarkService.getBookmarkSummaries(eq(BookmarkFilter.domain("test.com")), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(new BookmarkSummary(1L, "Test Bookmark", "https://test.com", null))));
+
+        mockMvc.perform(get("/api/bookmarks").param("domain", "test.com").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Bookmark"))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist());
+    }
+
+    @Test
+    void getBookmarksByFolderId_WithFields_ShouldReturnOnlyThoseFields() throws Exception {
+        when(bookmarkService.getBookmarkFields(eq(BookmarkFilter.folder(1L)), eq(List.of("id", "title")), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(Map.of("id", 1L, "title", "Test Bookmark"))));
+        when(bookmarkService.getBookmarkFields(eq(BookmarkFilter.folder(1L)), eq(List.of("urlHash")), any(Pageable.class)))
+                .thenThrow(new IllegalArgumentException("Unknown bookmark field urlHash"));
+
+        mockMvc.perform(get("/api/bookmarks/folder/1").param("fields", "id,title"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Test Bookmark"))
+                .andExpect(jsonPath("$.content[0].url").doesNotExist());
+        mockMvc.perform(get("/api/bookmarks/folder/1").param("fields", "urlHash"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchBookmarks_WithUnknownViewOrSort_ShouldReturnBadRequest() throws Exception {
+        when(bookmarkService.searchBookmarks(eq("test"), any(Pageable.class)))
+                .thenThrow(new IllegalArgumentException("Cannot sort bookmarks by password"));
+
+        mockMvc.perform(get("/api/bookmarks/search").param("query", "test").param("view", "everything"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/bookmarks/search").param("query", "test").param("sortBy", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void moveBookmarks_ShouldReturnAffectedCount() throws Exception {
+        when(bookmarkService.moveBookmarks(Arrays.asList(1L, 2L), 5L)).thenReturn(2);
+
+        mockMvc.perform(put("/api/bookmarks/bulk/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1,2],\"folderId\":5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(2))
+                .andExpect(jsonPath("$.affected").value(2));
+    }
+
+    @Test
+    void moveBookmarks_WithInvalidFolder_ShouldReturn400() throws Exception {
+        when(bookmarkService.moveBookmarks(Arrays.asList(1L), 999L))
+                .thenThrow(new IllegalArgumentException("Folder not found"));
+
+        mockMvc.perform(put("/api/bookmarks/bulk/move")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"ids\":[1],\"folderId\":999}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patchBookmark_WithStaleVersion_ShouldReturn409() throws Exception {
+        when(bookmarkService.patchBookmark(eq(1L), any(BookmarkPatch.class)))
+                .thenThrow(new OptimisticLockingFailureException("conflict"));
+
+        mockMvc.perform(patch("/api/bookmarks/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"New title\",\"version\":1}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patchBookmark_WhenExists_ShouldReturnBookmark() throws Exception {
+        when(bookmarkService.patchBookmark(eq(1L), any(BookmarkPatch.class)))
+                .thenReturn(Optional.of(testBookmark));
+
+        mockMvc.perform(patch("/api/bookmarks/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"Test Bookmark\",\"version\":0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(testBookmark.getTitle()));
+    }
+
+    @Test
+    void createBookmark_WithRepeatedIdempotencyKey_ShouldCreateOnce() throws Exception {
+        when(bookmarkService.createBookmark(any(Bookmark.class))).thenReturn(testBookmark);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/bookmarks")
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(testBookmark)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(testBookmark.getId()));
+        }
+
+        verify(bookmarkService, times(1)).createBookmark(any(Bookmark.class));
+    }
+
+    @Test
+    void createBookmark_WithReusedIdempotencyKey_ShouldReturn422() throws Exception {
+        when(bookmarkService.createBookmark(any(Bookmark.class))).thenReturn(testBookmark);
+        Bookmark other = new Bookmark("Other Bookmark", "https://other.com");
+
+        mockMvc.perform(post("/api/bookmarks")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testBookmark)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/bookmarks")
+                .header("Idempotency-Key", "retry-2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(other)))
+                .andExpect(status().isUnprocessableEntity());
+    }
 }
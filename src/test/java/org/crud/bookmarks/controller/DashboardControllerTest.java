@@ -0,0 +1,63 @@
+package org.crud.bookmarks.controller;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.service.Dashboard;
+import org.crud.bookmarks.service.DashboardService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(DashboardController.class)
+class DashboardControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DashboardService dashboardService;
+
+    @Test
+    void getDashboard_ShouldReturnFoldersRecentBookmarksAndTotals() throws Exception {
+        Folder folder = new Folder("Work");
+        folder.setId(1L);
+        folder.setBookmarkCount(2L);
+        Bookmark bookmark = new Bookmark("Newest", "https://newest.example.com");
+        bookmark.setId(9L);
+        when(dashboardService.getDashboard(5)).thenReturn(new Dashboard(List.of(folder), List.of(bookmark), 3, 1, 1));
+
+        mockMvc.perform(get("/api/dashboard").param("recent", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.folders[0].name").value("Work"))
+                .andExpect(jsonPath("$.folders[0].bookmarkCount").value(2))
+                .andExpect(jsonPath("$.recentBookmarks[0].id").value(9))
+                .andExpect(jsonPath("$.totalBookmarks").value(3))
+                .andExpect(jsonPath("$.unfiledBookmarks").value(1))
+                .andExpect(jsonPath("$.totalFolders").value(1));
+    }
+
+    @Test
+    void getDashboard_WithInvalidLimit_ShouldReturn400() throws Exception {
+        when(dashboardService.getDashboard(0)).thenThrow(new IllegalArgumentException("Recent limit must be between 1 and 100"));
+
+        mockMvc.perform(get("/api/dashboard").param("recent", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getDashboard_WhenPoolIsFull_ShouldReturn503() throws Exception {
+        when(dashboardService.getDashboard(20)).thenThrow(new RejectedExecutionException());
+
+        mockMvc.perform(get("/api/dashboard"))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -1,19 +1,27 @@
 package org.crud.bookmarks.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.crud.bookmarks.Bookmark;
 import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.config.WireFormatConfig;
+import org.crud.bookmarks.service.DuplicateFolderNameException;
 import org.crud.bookmarks.service.FolderService;
+import org.crud.bookmarks.service.IdempotencyStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
@@ -22,6 +30,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(FolderController.class)
+@Import({IdempotencyStore.class, WireFormatConfig.class})
 class FolderControllerTest {
 
     @Autowired
@@ -52,6 +61,18 @@ class FolderControllerTest {
                 .andExpect(jsonPath("$[0].description").value(testFolder.getDescription()));
     }
 
+    @Test
+    void getAllFolders_WithSmileAccepted_ShouldReturnSmile() throws Exception {
+        when(folderService.getAllFolders()).thenReturn(Arrays.asList(testFolder));
+
+        byte[] body = mockMvc.perform(get("/api/folders").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(testFolder.getName(), new SmileMapper().readTree(body).get(0).get("name").asText());
+    }
+
     @Test
     void getFolderById_WhenExists_ShouldReturnFolder() throws Exception {
         when(folderService.getFolderById(1L)).thenReturn(Optional.of(testFolder));
@@ -92,6 +113,22 @@ class FolderControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createFolder_WithReusedIdempotencyKeyForOtherParent_ShouldReturn422() throws Exception {
+        when(folderService.createFolder(any(Folder.class))).thenReturn(testFolder);
+
+        mockMvc.perform(post("/api/folders")
+                .header("Idempotency-Key", "folder-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Test Folder\",\"parentId\":1}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/folders")
+                .header("Idempotency-Key", "folder-retry")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Test Folder\",\"parentId\":2}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void updateFolder_WhenExists_ShouldUpdateFolder() throws Exception {
         when(folderService.updateFolder(eq(1L), any(Folder.class)))
@@ -139,4 +176,66 @@ class FolderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value(testFolder.getName()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createFolder_WithConflictingName_ShouldReturn409() throws Exception {
+        when(folderService.createFolder(any(Folder.class)))
+                .thenThrow(new DuplicateFolderNameException("Test Folder", null));
+
+        mockMvc.perform(post("/api/folders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testFolder)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void upsertFolderByName_ShouldReturnFolder() throws Exception {
+        when(folderService.upsertFolderByName("Test Folder", "Test Description")).thenReturn(testFolder);
+
+        mockMvc.perform(put("/api/folders/by-name/{name}", "Test Folder")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"Test Description\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(testFolder.getName()));
+    }
+
+    @Test
+    void moveFolder_ShouldReturnMovedFolder() throws Exception {
+        testFolder.setParentId(2L);
+        when(folderService.moveFolder(1L, 2L)).thenReturn(Optional.of(testFolder));
+
+        mockMvc.perform(put("/api/folders/1/parent")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"parentId\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parentId").value(2));
+    }
+
+    @Test
+    void moveFolder_IntoOwnSubtree_ShouldReturn400() throws Exception {
+        when(folderService.moveFolder(1L, 2L)).thenThrow(new IllegalArgumentException("cycle"));
+
+        mockMvc.perform(put("/api/folders/1/parent")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"parentId\":2}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getSubtree_WhenNotExists_ShouldReturn404() throws Exception {
+        when(folderService.getSubtree(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/folders/99/subtree"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getBookmarksInSubtree_ShouldSearchRecursively() throws Exception {
+        Bookmark bookmark = new Bookmark("Nested", "https://nested.com");
+        when(folderService.getBookmarksInSubtree(1L, "nest")).thenReturn(List.of(bookmark));
+
+        mockMvc.perform(get("/api/folders/1/subtree/bookmarks").param("query", "nest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value("Nested"));
+    }
+}
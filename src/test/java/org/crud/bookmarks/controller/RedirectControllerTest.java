@@ -0,0 +1,52 @@
+package org.crud.bookmarks.controller;
+
+import org.crud.bookmarks.service.RedirectIndex;
+import org.crud.bookmarks.service.VisitCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RedirectController.class)
+class RedirectControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RedirectIndex redirectIndex;
+
+    @MockBean
+    private VisitCounter visitCounter;
+
+    @Test
+    void redirect_WhenBookmarkExists_ShouldRedirectAndCountVisit() throws Exception {
+        when(redirectIndex.findUrl(7L)).thenReturn("https://example.com/page");
+
+        mockMvc.perform(get("/go/7"))
+                .andExpect(status().isFound())
+                .andExpect(header().string("Location", "https://example.com/page"))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(content().string(""));
+
+        verify(visitCounter).record(7L);
+    }
+
+    @Test
+    void redirect_WhenBookmarkDoesNotExist_ShouldReturn404() throws Exception {
+        when(redirectIndex.findUrl(7L)).thenReturn(null);
+
+        mockMvc.perform(get("/go/7"))
+                .andExpect(status().isNotFound());
+
+        verify(visitCounter, never()).record(anyLong());
+    }
+}
@@ -0,0 +1,126 @@
+package org.crud.bookmarks.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkSummary;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bytes on the wire and serialization time of a 100-bookmark page, full against
+ * {@code view=summary} and {@code fields=id,title,url}. Bookmarks carry 500-character
+ * descriptions, the worst case the full view has to ship. The mapper is configured like Spring
+ * Boot's; sizes are given raw and gzipped.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class SparseFieldsBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int ROUNDS = 20_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void payloadPerPage() throws IOException {
+        List<Bookmark> bookmarks = new ArrayList<>();
+        List<BookmarkSummary> summaries = new ArrayList<>();
+        List<Map<String, Object>> sparse = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Random random = new Random(42);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            Bookmark bookmark = new Bookmark("Bookmark title number " + id,
+                    "https://host" + id + ".example.com/articles/2024/some-article-slug-" + id);
+            bookmark.setId(id);
+            bookmark.setDescription(words(random, 500));
+            bookmark.setFolderId(id % 10);
+            bookmark.setHost("host" + id + ".example.com");
+            bookmark.setDomain("example.com");
+            bookmark.setVisitCount(id);
+            bookmark.setLastVisitedAt(now);
+            bookmark.setVersion(1L);
+            bookmark.setCreatedAt(now);
+            bookmark.setUpdatedAt(now);
+            bookmarks.add(bookmark);
+            summaries.add(new BookmarkSummary(id, bookmark.getTitle(), bookmark.getUrl(), bookmark.getFolderId()));
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("id", id);
+            fields.put("title", bookmark.getTitle());
+            fields.put("url", bookmark.getUrl());
+            sparse.add(fields);
+        }
+
+        long[] full = measure(page(bookmarks));
+        report("full", full, full);
+        report("view=summary", measure(page(summaries)), full);
+        report("fields=id,title,url", measure(page(sparse)), full);
+    }
+
+    // Random words, so that descriptions don't compress better than real text
+    private static String words(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            int wordLength = 2 + random.nextInt(8);
+            for (int i = 0; i < wordLength && text.length() < length; i++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            if (text.length() < length) {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    private static <T> Page<T> page(List<T> content) {
+        return new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 10_000);
+    }
+
+    /**
+     * Returns the raw and gzipped size of the page and the mean serialization time in nanoseconds.
+     */
+    private long[] measure(Page<?> page) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(page);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(json);
+        }
+        long blackhole = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            blackhole += objectMapper.writeValueAsBytes(page).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            blackhole += objectMapper.writeValueAsBytes(page).length;
+        }
+        long nanos = (System.nanoTime() - start) / ROUNDS;
+        if (blackhole == 0) {
+            throw new AssertionError();
+        }
+        return new long[]{json.length, gzipped.size(), nanos};
+    }
+
+    private static void report(String name, long[] result, long[] full) {
+        System.out.printf("%-20s %,7d bytes (%3d%%), %,6d gzipped (%3d%%), %,6.1f us to serialize (%3d%%)%n",
+                name, result[0], 100 * result[0] / full[0], result[1], 100 * result[1] / full[1],
+                result[2] / 1000.0, 100 * result[2] / full[2]);
+    }
+}
@@ -0,0 +1,79 @@
+package org.crud.bookmarks.controller;
+
+import org.crud.bookmarks.HostCount;
+import org.crud.bookmarks.service.BookmarkService;
+import org.crud.bookmarks.service.LinkRotScanner;
+import org.crud.bookmarks.service.MetadataEnricher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StatsController.class)
+class StatsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookmarkService bookmarkService;
+
+    @MockBean
+    private LinkRotScanner linkRotScanner;
+
+    @MockBean
+    private MetadataEnricher metadataEnricher;
+
+    @Test
+    void getTopHosts_ShouldReturnDomainCounts() throws Exception {
+        when(bookmarkService.getTopDomains(2)).thenReturn(List.of(
+                new HostCount("example.com", 12), new HostCount("test.org", 3)));
+
+        mockMvc.perform(get("/api/stats/hosts").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].domain").value("example.com"))
+                .andExpect(jsonPath("$[0].bookmarkCount").value(12))
+                .andExpect(jsonPath("$[1].domain").value("test.org"));
+    }
+
+    @Test
+    void getTopHosts_WithInvalidLimit_ShouldReturn400() throws Exception {
+        when(bookmarkService.getTopDomains(0)).thenThrow(new IllegalArgumentException("Limit must be positive"));
+
+        mockMvc.perform(get("/api/stats/hosts").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBrokenLinks_ShouldReturnFailedChecks() throws Exception {
+        when(linkRotScanner.findBrokenLinks(50)).thenReturn(List.of(new LinkRotScanner.BrokenLink(
+                7L, "Gone", "https://gone.example.com", "BROKEN", 404, "HTTP 404 NOT_FOUND",
+                LocalDateTime.of(2024, 5, 1, 12, 0), 3)));
+
+        mockMvc.perform(get("/api/stats/broken-links"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookmarkId").value(7))
+                .andExpect(jsonPath("$[0].httpStatus").value(404))
+                .andExpect(jsonPath("$[0].consecutiveFailures").value(3));
+    }
+
+    @Test
+    void getEnrichmentStats_ShouldReturnCounters() throws Exception {
+        when(metadataEnricher.getStats()).thenReturn(new MetadataEnricher.EnrichmentStats(
+                true, 12, 1000, 3, 140, 5, 120, 8, 125, 2.5));
+
+        mockMvc.perform(get("/api/stats/enrichment"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.queueDepth").value(12))
+                .andExpect(jsonPath("$.dropped").value(5))
+                .andExpect(jsonPath("$.itemsPerSecond").value(2.5));
+    }
+}
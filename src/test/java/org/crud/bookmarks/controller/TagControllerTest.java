@@ -0,0 +1,86 @@
+package org.crud.bookmarks.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Tag;
+import org.crud.bookmarks.service.DuplicateTagNameException;
+import org.crud.bookmarks.service.TagService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TagController.class)
+class TagControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private TagService tagService;
+
+    @Test
+    void createTag_WithDuplicateName_ShouldReturn409() throws Exception {
+        when(tagService.createTag(any(Tag.class))).thenThrow(new DuplicateTagNameException("java", null));
+
+        mockMvc.perform(post("/api/tags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new Tag("java"))))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void tagBookmarks_ShouldReturnAffectedCount() throws Exception {
+        when(tagService.tagBookmarks(10L, List.of(1L, 2L, 3L))).thenReturn(Optional.of(2));
+
+        mockMvc.perform(put("/api/tags/10/bookmarks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1,2,3]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.affected").value(2));
+    }
+
+    @Test
+    void tagBookmarks_WhenTagMissing_ShouldReturn404() throws Exception {
+        when(tagService.tagBookmarks(10L, List.of(1L))).thenReturn(Optional.empty());
+
+        mockMvc.perform(put("/api/tags/10/bookmarks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void queryBookmarks_ShouldPassTagListsAndFolder() throws Exception {
+        Bookmark bookmark = new Bookmark("Tagged", "https://tagged.com");
+        bookmark.setId(4L);
+        when(tagService.queryBookmarks(eq(List.of(10L, 11L)), isNull(), eq(List.of(12L)), eq(1L), any()))
+                .thenReturn(new PageImpl<>(List.of(bookmark), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(get("/api/tags/query")
+                .param("all", "10,11")
+                .param("none", "12")
+                .param("folderId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(4))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+}
@@ -0,0 +1,132 @@
+package org.crud.bookmarks.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.crud.bookmarks.Bookmark;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode time and payload size of bookmark pages in JSON, CBOR and Smile, with the
+ * same Jackson settings as the HTTP converters (see {@code WireFormatConfig}). Bookmarks have
+ * every field set and descriptions of up to 500 characters; sizes are given raw and gzipped.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class WireFormatBenchmark {
+
+    private static final TypeReference<List<Bookmark>> BOOKMARK_LIST = new TypeReference<>() {
+    };
+    // Enough rounds to encode about a million bookmarks per measurement, whatever the page size
+    private static final int BOOKMARKS_PER_MEASUREMENT = 1_000_000;
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    private static List<Bookmark> bookmarks(int count) {
+        Random random = new Random(42);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Bookmark> bookmarks = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            String host = "host" + random.nextInt(1000) + ".example.com";
+            Bookmark bookmark = new Bookmark("Bookmark " + words(random, 10 + random.nextInt(60)),
+                    "https://" + host + "/" + words(random, 10 + random.nextInt(60)).replace(' ', '/'));
+            bookmark.setId(id);
+            bookmark.setDescription(random.nextBoolean() ? words(random, random.nextInt(500)) : null);
+            bookmark.setFolderId((long) random.nextInt(200));
+            bookmark.setHost(host);
+            bookmark.setDomain("example.com");
+            bookmark.setVisitCount(random.nextInt(1000));
+            bookmark.setLastVisitedAt(created.plusMinutes(random.nextInt(100_000)));
+            bookmark.setVersion((long) random.nextInt(3));
+            bookmark.setCreatedAt(created.minusMinutes(random.nextInt(1_000_000)));
+            bookmark.setUpdatedAt(created);
+            bookmarks.add(bookmark);
+        }
+        return bookmarks;
+    }
+
+    // Random words, so that text doesn't compress better than real titles and descriptions
+    private static String words(Random random, int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            int wordLength = 2 + random.nextInt(8);
+            for (int i = 0; i < wordLength && text.length() < length; i++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            if (text.length() < length) {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {20, 500, 5000})
+    void encodeAndDecode(int pageSize) throws IOException {
+        List<Bookmark> page = bookmarks(pageSize);
+        int rounds = Math.max(20, BOOKMARKS_PER_MEASUREMENT / pageSize);
+        long[] json = measure(mapper(new JsonFactory()), page, rounds);
+        report(pageSize, "JSON", json, json);
+        report(pageSize, "CBOR", measure(mapper(new CBORFactory()), page, rounds), json);
+        report(pageSize, "Smile", measure(mapper(new SmileFactory()), page, rounds), json);
+    }
+
+    /**
+     * Returns the raw and gzipped size of the page and the mean encode and decode times in nanoseconds.
+     */
+    private static long[] measure(ObjectMapper mapper, List<Bookmark> page, int rounds) throws IOException {
+        byte[] encoded = mapper.writeValueAsBytes(page);
+        if (!mapper.readValue(encoded, BOOKMARK_LIST).get(page.size() - 1).getUrl().equals(page.get(page.size() - 1).getUrl())) {
+            throw new AssertionError("Round trip changed the page");
+        }
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(encoded);
+        }
+        long blackhole = 0;
+        for (int i = 0; i < rounds; i++) {
+            blackhole += mapper.writeValueAsBytes(page).length + mapper.readValue(encoded, BOOKMARK_LIST).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            blackhole += mapper.writeValueAsBytes(page).length;
+        }
+        long encodeNanos = (System.nanoTime() - start) / rounds;
+        start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            blackhole += mapper.readValue(encoded, BOOKMARK_LIST).size();
+        }
+        long decodeNanos = (System.nanoTime() - start) / rounds;
+        if (blackhole == 0) {
+            throw new AssertionError();
+        }
+        return new long[]{encoded.length, gzipped.size(), encodeNanos, decodeNanos};
+    }
+
+    private static void report(int pageSize, String format, long[] result, long[] json) {
+        System.out.printf("%,5d bookmarks %-5s %,10d bytes (%3d%%), %,9d gzipped (%3d%%), "
+                        + "encode %,9.1f us (%3d%%), decode %,9.1f us (%3d%%)%n",
+                pageSize, format, result[0], 100 * result[0] / json[0], result[1], 100 * result[1] / json[1],
+                result[2] / 1000.0, 100 * result[2] / json[2], result[3] / 1000.0, 100 * result[3] / json[3]);
+    }
+}
@@ -0,0 +1,69 @@
+package org.crud.bookmarks.integration;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.crud.bookmarks.repository.FolderRepository;
+import org.crud.bookmarks.service.FolderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that every kind of bookmark write advances the version, so that clients holding an
+ * older copy get a conflict instead of overwriting the change.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class BookmarkVersionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private BookmarkRepository bookmarkRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @AfterEach
+    void cleanup() {
+        bookmarkRepository.deleteAll();
+        folderRepository.deleteAll();
+    }
+
+    @Test
+    void patchBookmark_AfterBulkMoveWithOldVersion_ShouldReturn409() throws Exception {
+        Folder folder = folderService.createFolder(new Folder("Archive"));
+        Bookmark bookmark = bookmarkRepository.save(new Bookmark("Moved", "https://moved.example.com/"));
+        long oldVersion = bookmark.getVersion();
+
+        mockMvc.perform(put("/api/bookmarks/bulk/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + bookmark.getId() + "], \"folderId\": " + folder.getId() + "}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/api/bookmarks/" + bookmark.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Renamed\", \"version\": " + oldVersion + "}"))
+                .andExpect(status().isConflict());
+
+        Bookmark stored = bookmarkRepository.findById(bookmark.getId()).orElseThrow();
+        assertEquals(folder.getId(), stored.getFolderId());
+        assertEquals("Moved", stored.getTitle());
+        assertEquals(oldVersion + 1, stored.getVersion());
+    }
+}
@@ -0,0 +1,150 @@
+package org.crud.bookmarks.integration;
+
+import org.crud.bookmarks.service.BookmarkCatalogIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Time until the first screen has its data, over HTTP against 100,000 bookmarks in 200 folders:
+ * the folders with counts and the newest bookmarks as the two requests the frontend makes, one
+ * after the other, against one {@code GET /api/dashboard}. Both are measured from a single client
+ * and from 16 concurrent ones, with the catalog loaded and with it reported unloaded, so that the
+ * dashboard falls back to the database.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Tag("benchmark")
+class DashboardBenchmark {
+
+    private static final int FOLDERS = 200;
+    private static final int BOOKMARKS = 100_000;
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 1000;
+    private static final int CLIENTS = 16;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @SpyBean
+    private BookmarkCatalogIndex catalogIndex;
+
+    @AfterEach
+    void cleanup() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM bookmarks");
+        jdbcTemplate.update("DELETE FROM folders");
+        catalogIndex.rebuild();
+    }
+
+    @Test
+    void timeToFirstScreen() throws Exception {
+        insertBookmarks(new JdbcTemplate(dataSource));
+        String base = "http://localhost:" + port + "/api";
+        Supplier<Boolean> separate = () -> ok(base + "/folders/with-count")
+                & ok(base + "/bookmarks?sortBy=createdAt&sortDir=desc&size=20");
+        Supplier<Boolean> dashboard = () -> ok(base + "/dashboard?recent=20");
+
+        catalogIndex.rebuild();
+        report("catalog loaded", "separate requests", separate);
+        report("catalog loaded", "dashboard", dashboard);
+        doReturn(false).when(catalogIndex).isReady();
+        report("catalog unloaded", "separate requests", separate);
+        report("catalog unloaded", "dashboard", dashboard);
+    }
+
+    private boolean ok(String url) {
+        return restTemplate.getForEntity(url, String.class).getStatusCode() == HttpStatus.OK;
+    }
+
+    private static void insertBookmarks(JdbcTemplate jdbcTemplate) {
+        List<Object[]> folders = new ArrayList<>(FOLDERS);
+        for (long id = 1; id <= FOLDERS; id++) {
+            folders.add(new Object[]{id, "Folder " + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO folders (id, name) VALUES (?, ?)", folders);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Object[]> rows = new ArrayList<>(BOOKMARKS);
+        for (int i = 0; i < BOOKMARKS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(created.plusMinutes(i));
+            rows.add(new Object[]{"Bookmark title number " + i, "A description of bookmark " + i,
+                    "https://host" + (i % 1000) + ".example.com/path/" + i,
+                    i % 10 == 0 ? null : (long) (1 + i % FOLDERS),
+                    "host" + (i % 1000) + ".example.com", "example.com", createdAt, createdAt});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookmarks (title, description, url, folder_id, host, domain, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private static void report(String state, String variant, Supplier<Boolean> firstScreen) throws Exception {
+        long[] single = measure(firstScreen, 1);
+        long[] concurrent = measure(firstScreen, CLIENTS);
+        System.out.printf("%-15s %-17s 1 client: median %,7.2f ms, p95 %,7.2f ms   %d clients: median %,7.2f ms, p95 %,7.2f ms%n",
+                state, variant, single[0] / 1e6, single[1] / 1e6, CLIENTS, concurrent[0] / 1e6, concurrent[1] / 1e6);
+    }
+
+    /**
+     * Returns the median and 95th percentile of the time to fetch the first screen, in nanoseconds.
+     */
+    private static long[] measure(Supplier<Boolean> firstScreen, int clients) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                        firstScreen.get();
+                    }
+                    long[] times = new long[ROUNDS / clients];
+                    for (int i = 0; i < times.length; i++) {
+                        long start = System.nanoTime();
+                        if (!firstScreen.get()) {
+                            throw new AssertionError("Request failed");
+                        }
+                        times[i] = System.nanoTime() - start;
+                    }
+                    return times;
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] times = result.get();
+                all = Arrays.copyOf(all, all.length + times.length);
+                System.arraycopy(times, 0, all, all.length - times.length, times.length);
+            }
+            Arrays.sort(all);
+            return new long[]{all[all.length / 2], all[all.length * 95 / 100]};
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
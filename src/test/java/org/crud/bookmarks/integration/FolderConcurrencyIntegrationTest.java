@@ -0,0 +1,118 @@
+package org.crud.bookmarks.integration;
+
+import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.crud.bookmarks.repository.FolderRepository;
+import org.crud.bookmarks.service.DuplicateFolderNameException;
+import org.crud.bookmarks.service.FolderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that folder name uniqueness holds when many requests race to create the same folder.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+public class FolderConcurrencyIntegrationTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private BookmarkRepository bookmarkRepository;
+
+    @AfterEach
+    void cleanup() {
+        bookmarkRepository.deleteAll();
+        folderRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCreateWithSameName_ShouldCreateExactlyOneFolder() throws Exception {
+        List<Future<Folder>> results = runConcurrently(i -> {
+            // Alternate the case to exercise the case-insensitive index
+            Folder folder = new Folder(i % 2 == 0 ? "Reading List" : "reading list");
+            return folderService.createFolder(folder);
+        });
+
+        int created = 0;
+        for (Future<Folder> result : results) {
+            try {
+                assertNotNull(result.get().getId());
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(DuplicateFolderNameException.class, e.getCause());
+            }
+        }
+
+        assertEquals(1, created);
+        assertEquals(1, folderRepository.count());
+    }
+
+    @Test
+    void concurrentUpsertWithSameName_ShouldAllSucceedWithOneFolder() throws Exception {
+        List<Future<Folder>> results = runConcurrently(i ->
+                folderService.upsertFolderByName("Inbox", "Unsorted bookmarks"));
+
+        Long folderId = null;
+        for (Future<Folder> result : results) {
+            Folder folder = result.get();
+            if (folderId == null) {
+                folderId = folder.getId();
+            }
+            assertEquals(folderId, folder.getId());
+        }
+
+        assertEquals(1, folderRepository.count());
+    }
+
+    private interface IndexedTask {
+        Folder run(int index) throws Exception;
+    }
+
+    private List<Future<Folder>> runConcurrently(IndexedTask task) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Folder>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                Callable<Folder> callable = () -> {
+                    start.await();
+                    return task.run(index);
+                };
+                results.add(executor.submit(callable));
+            }
+            start.countDown();
+            for (Future<Folder> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException ignored) {
+                    // inspected by the caller
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,125 @@
+package org.crud.bookmarks.integration;
+
+import org.crud.bookmarks.BookmarksApplication;
+import org.crud.bookmarks.service.UrlNormalizer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Restart to first request of the {@code persistent} profile against a file-backed store of
+ * 1,000,000 bookmarks: the store is created and filled by a first run, then the application is
+ * started {@value #RESTARTS} times against it, each time until it has answered one
+ * {@code GET /api/bookmarks} page of the newest bookmarks. Startup includes opening the store,
+ * the schema checksum check and loading the in-memory indexes.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class PersistentRestartBenchmark {
+
+    private static final Path DIRECTORY = Path.of("build/benchmark-store");
+    private static final int FOLDERS = 1000;
+    private static final int BOOKMARKS = 1_000_000;
+    private static final int BATCH = 10_000;
+    private static final int RESTARTS = 3;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    void cleanup() throws IOException {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+    }
+
+    @Test
+    void restartToFirstRequest() throws Exception {
+        FileSystemUtils.deleteRecursively(DIRECTORY);
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = start()) {
+            System.out.printf("First start, schema applied to an empty store: %,d ms%n", (System.nanoTime() - start) / 1_000_000);
+            start = System.nanoTime();
+            insertBookmarks(new JdbcTemplate(context.getBean(DataSource.class)));
+            System.out.printf("Inserted %,d bookmarks in %,d ms%n", BOOKMARKS, (System.nanoTime() - start) / 1_000_000);
+        }
+        System.out.printf("Store size: %,d bytes%n", storeBytes());
+
+        for (int restart = 1; restart <= RESTARTS; restart++) {
+            start = System.nanoTime();
+            try (ConfigurableApplicationContext context = start()) {
+                long started = System.nanoTime();
+                int status = firstPage(context);
+                long answered = System.nanoTime();
+                if (status != 200) {
+                    throw new AssertionError("First request answered " + status);
+                }
+                System.out.printf("Restart %d: started in %,d ms, first request %,d ms, restart to first request %,d ms%n",
+                        restart, (started - start) / 1_000_000, (answered - started) / 1_000_000, (answered - start) / 1_000_000);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        // As command line arguments, which take precedence over the profiles' property files
+        return new SpringApplicationBuilder(BookmarksApplication.class).run(
+                "--spring.profiles.active=test,persistent",
+                "--spring.datasource.url=jdbc:h2:file:./" + DIRECTORY + "/bookmarksdb;CACHE_SIZE=262144;"
+                        + "WRITE_DELAY=500;MAX_COMPACT_TIME=2000;DB_CLOSE_ON_EXIT=FALSE",
+                "--server.port=0",
+                "--bookmark.link-check.enabled=false",
+                "--bookmark.enrichment.enabled=false");
+    }
+
+    private int firstPage(ConfigurableApplicationContext context) throws Exception {
+        String port = context.getEnvironment().getRequiredProperty("local.server.port");
+        // Newest first, which is indexed: the default title order sorts all bookmarks and runs into the query timeout
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                + "/api/bookmarks?size=20&sortBy=createdAt&sortDir=desc")).build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static long storeBytes() throws IOException {
+        try (var files = Files.list(DIRECTORY)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static void insertBookmarks(JdbcTemplate jdbcTemplate) {
+        List<Object[]> folders = new ArrayList<>(FOLDERS);
+        for (long id = 1; id <= FOLDERS; id++) {
+            folders.add(new Object[]{id, "Folder " + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO folders (id, name) VALUES (?, ?)", folders);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < BOOKMARKS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(created.plusMinutes(i));
+            String url = "https://host" + (i % 1000) + ".example.com/path/" + i;
+            // With their URL hashes, so that the first restart doesn't backfill them
+            rows.add(new Object[]{"Bookmark title number " + i, "A description of bookmark " + i, url,
+                    UrlNormalizer.normalizedHash(url), i % 10 == 0 ? null : (long) (1 + i % FOLDERS),
+                    "host" + (i % 1000) + ".example.com", "example.com", createdAt, createdAt});
+            if (rows.size() == BATCH) {
+                jdbcTemplate.batchUpdate("INSERT INTO bookmarks (title, description, url, url_hash, folder_id, host, domain, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+}
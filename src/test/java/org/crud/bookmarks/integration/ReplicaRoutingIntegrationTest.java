@@ -0,0 +1,116 @@
+package org.crud.bookmarks.integration;
+
+import jakarta.servlet.http.Cookie;
+import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.repository.FolderRepository;
+import org.crud.bookmarks.service.FolderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies read/write splitting against a second database standing in for the replica. It is
+ * never replicated to, so a read that finds nothing was served by the replica.
+ */
+@SpringBootTest(properties = {
+        "bookmark.datasource.replica.url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+        "bookmark.datasource.replica.username=sa",
+        "bookmark.datasource.replica.password=password",
+        "bookmark.datasource.replica.max-staleness=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ReplicaRoutingIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:bookmarksreplicatest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    private static final Pattern LAST_WRITE_COOKIE = Pattern.compile("bookmarks-last-write=(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @BeforeAll
+    static void initReplicaSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql"))
+                .execute(new SimpleDriverDataSource(new org.h2.Driver(), REPLICA_URL, "sa", "password"));
+    }
+
+    @AfterEach
+    void cleanup() {
+        folderRepository.deleteAll();
+    }
+
+    @Test
+    void getFolders_AfterOwnWrite_ShouldReadPrimaryWhileOtherClientsReadReplica() throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/folders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Written\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+        Matcher cookie = LAST_WRITE_COOKIE.matcher(String.valueOf(created.getResponse().getHeader(HttpHeaders.SET_COOKIE)));
+        assertTrue(cookie.find(), "Write should set the last-write cookie");
+
+        mockMvc.perform(get("/api/folders").cookie(new Cookie("bookmarks-last-write", cookie.group(1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Written"));
+        mockMvc.perform(get("/api/folders"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void getFolders_AfterBackgroundWrite_ShouldStillReadReplica() throws Exception {
+        folderService.createFolder(new Folder("Background"));
+
+        mockMvc.perform(get("/api/folders"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+        // Repository reads are read-only transactions too, so look at the primary directly
+        assertEquals(1, new JdbcTemplate(primaryDataSource).queryForObject("SELECT COUNT(*) FROM folders", Integer.class));
+    }
+
+    @Test
+    void updateFolder_ChangingNoRows_ShouldNotSetCookie() throws Exception {
+        MvcResult result = mockMvc.perform(put("/api/folders/999999")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Missing\"}"))
+                .andExpect(status().isNotFound())
+                .andReturn();
+
+        assertNull(result.getResponse().getHeader(HttpHeaders.SET_COOKIE));
+    }
+}
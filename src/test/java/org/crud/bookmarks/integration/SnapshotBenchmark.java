@@ -0,0 +1,138 @@
+package org.crud.bookmarks.integration;
+
+import org.crud.bookmarks.controller.AdminController;
+import org.crud.bookmarks.service.BookmarkCatalogIndex;
+import org.crud.bookmarks.service.BookmarkUrlIndex;
+import org.crud.bookmarks.service.SnapshotService;
+import org.crud.bookmarks.service.SnapshotService.SnapshotResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot and restore of 1,000,000 bookmarks in 1,000 folders: time and size of
+ * {@code POST /api/admin/snapshot}, time of the table restore alone, and of
+ * {@code POST /api/admin/restore}, which also rebuilds the in-memory indexes. Each is run
+ * {@value #ROUNDS} times after one warm-up run.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@SpringBootTest(properties = {
+        "bookmark.snapshot.directory=" + SnapshotBenchmark.DIRECTORY,
+        "bookmark.link-check.enabled=false",
+        "bookmark.enrichment.enabled=false"
+})
+@ActiveProfiles("test")
+@Tag("benchmark")
+class SnapshotBenchmark {
+
+    static final String DIRECTORY = "build/benchmark-snapshots";
+
+    private static final int FOLDERS = 1000;
+    private static final int BOOKMARKS = 1_000_000;
+    private static final int BATCH = 10_000;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private AdminController adminController;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private BookmarkUrlIndex urlIndex;
+
+    @Autowired
+    private BookmarkCatalogIndex catalogIndex;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void cleanup() throws IOException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM bookmarks");
+        jdbcTemplate.update("DELETE FROM folders");
+        catalogIndex.rebuild();
+        FileSystemUtils.deleteRecursively(Path.of(DIRECTORY));
+    }
+
+    @Test
+    void snapshotAndRestore() {
+        insertBookmarks(new JdbcTemplate(dataSource));
+        // Fills in the URL hashes, so the restores below don't spend their time on the backfill
+        urlIndex.rebuild();
+
+        SnapshotResult snapshot = adminController.createSnapshot().getBody();
+        long[] snapshotMillis = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            snapshot = adminController.createSnapshot().getBody();
+            snapshotMillis[round] = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        snapshotService.restoreSnapshot(snapshot.name());
+        long[] restoreMillis = new long[ROUNDS];
+        long[] restoreWithIndexesMillis = new long[ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            snapshotService.restoreSnapshot(snapshot.name());
+            restoreMillis[round] = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            adminController.restoreSnapshot(snapshot.name());
+            restoreWithIndexesMillis[round] = (System.nanoTime() - start) / 1_000_000;
+        }
+
+        System.out.printf("Snapshot of %,d folders and %,d bookmarks: %,d bytes (%.1f bytes per bookmark)%n",
+                snapshot.folders(), snapshot.bookmarks(), snapshot.bytes(), (double) snapshot.bytes() / snapshot.bookmarks());
+        report("snapshot", snapshotMillis);
+        report("restore, tables only", restoreMillis);
+        report("restore with index rebuilds", restoreWithIndexesMillis);
+    }
+
+    private static void insertBookmarks(JdbcTemplate jdbcTemplate) {
+        List<Object[]> folders = new ArrayList<>(FOLDERS);
+        for (long id = 1; id <= FOLDERS; id++) {
+            folders.add(new Object[]{id, "Folder " + id});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO folders (id, name) VALUES (?, ?)", folders);
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Object[]> rows = new ArrayList<>(BATCH);
+        for (int i = 0; i < BOOKMARKS; i++) {
+            Timestamp createdAt = Timestamp.valueOf(created.plusMinutes(i));
+            rows.add(new Object[]{"Bookmark title number " + i, "A description of bookmark " + i,
+                    "https://host" + (i % 1000) + ".example.com/path/" + i,
+                    i % 10 == 0 ? null : (long) (1 + i % FOLDERS),
+                    "host" + (i % 1000) + ".example.com", "example.com", createdAt, createdAt});
+            if (rows.size() == BATCH) {
+                jdbcTemplate.batchUpdate("INSERT INTO bookmarks (title, description, url, folder_id, host, domain, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+    }
+
+    private static void report(String operation, long[] millis) {
+        long best = Long.MAX_VALUE;
+        long sum = 0;
+        for (long time : millis) {
+            best = Math.min(best, time);
+            sum += time;
+        }
+        System.out.printf("%-28s best %,7d ms, mean %,7d ms, %,9.0f bookmarks/s at best%n",
+                operation, best, sum / millis.length, BOOKMARKS * 1000.0 / best);
+    }
+}
@@ -0,0 +1,137 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkFilter;
+import org.crud.bookmarks.BookmarkSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the hand-written queries of {@link BookmarkRepositoryImpl} against an embedded H2 database.
+ */
+class BookmarkRepositoryImplTest {
+
+    private EmbeddedDatabase database;
+    private BookmarkRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        repository = new BookmarkRepositoryImpl(new NamedParameterJdbcTemplate(database));
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.update("INSERT INTO folders (id, name) VALUES (10, 'Folder')");
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, description, url, folder_id, url_hash, host, domain, "
+                + "visit_count, last_visited_at, created_at) VALUES (1, 'Alpha', '100% useful', 'https://a.example.com/', "
+                + "10, 42, 'a.example.com', 'example.com', 7, TIMESTAMP '2024-03-04 05:06:07', TIMESTAMP '2024-01-01 00:00:00')");
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url, host, domain) "
+                + "VALUES (2, 'Beta', 'https://b.org/', 'b.org', 'b.org')");
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, description, url) VALUES (3, 'alpha_2', 'Second', 'https://c.net/')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private static List<Long> ids(Page<?> page) {
+        return page.getContent().stream()
+                .map(item -> item instanceof Bookmark bookmark ? bookmark.getId() : ((BookmarkSummary) item).id())
+                .toList();
+    }
+
+    @Test
+    void findPage_ShouldMapAllColumns() {
+        Bookmark bookmark = repository.findPage(BookmarkFilter.folder(10L), PageRequest.of(0, 10)).getContent().get(0);
+
+        assertEquals(1L, bookmark.getId());
+        assertEquals("Alpha", bookmark.getTitle());
+        assertEquals("100% useful", bookmark.getDescription());
+        assertEquals("https://a.example.com/", bookmark.getUrl());
+        assertEquals(Long.valueOf(10), bookmark.getFolderId());
+        assertEquals(Long.valueOf(42), bookmark.getUrlHash());
+        assertEquals("a.example.com", bookmark.getHost());
+        assertEquals("example.com", bookmark.getDomain());
+        assertEquals(7, bookmark.getVisitCount());
+        assertEquals(LocalDateTime.of(2024, 3, 4, 5, 6, 7), bookmark.getLastVisitedAt());
+        assertEquals(Long.valueOf(0), bookmark.getVersion());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), bookmark.getCreatedAt());
+        assertNotNull(bookmark.getUpdatedAt());
+    }
+
+    @Test
+    void findPage_ShouldFilterSortAndPage() {
+        Page<Bookmark> page = repository.findPage(BookmarkFilter.all(), PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "title")));
+
+        assertEquals(List.of(3L, 2L), ids(page));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(2L), ids(repository.findPage(BookmarkFilter.host(" B.ORG "), PageRequest.of(0, 10))));
+        assertEquals(List.of(1L), ids(repository.findPage(BookmarkFilter.domain("example.com"), PageRequest.of(0, 10))));
+        assertEquals(List.of(1L, 3L), ids(repository.findPage(BookmarkFilter.search("ALPHA"), PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void findPage_WithWildcardsInSearchTerm_ShouldMatchThemLiterally() {
+        assertEquals(List.of(1L), ids(repository.findPage(BookmarkFilter.search("100%"), PageRequest.of(0, 10))));
+        assertEquals(List.of(3L), ids(repository.findPage(BookmarkFilter.search("a_2"), PageRequest.of(0, 10))));
+        assertEquals(List.of(), ids(repository.findPage(BookmarkFilter.search("l_h"), PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void findPage_WithUnknownSortProperty_ShouldThrow() {
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("title; DROP TABLE bookmarks"));
+
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(BookmarkFilter.all(), pageRequest));
+    }
+
+    @Test
+    void findSummaryPage_ShouldSelectProjection() {
+        Page<BookmarkSummary> page = repository.findSummaryPage(BookmarkFilter.all(), PageRequest.of(1, 2, Sort.by("id")));
+
+        assertEquals(List.of(new BookmarkSummary(3L, "alpha_2", "https://c.net/", null)), page.getContent());
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void findFieldsPage_ShouldSelectRequestedFieldsInOrder() {
+        Page<Map<String, Object>> page = repository.findFieldsPage(BookmarkFilter.folder(10L),
+                List.of("url", " id", "lastVisitedAt", "url"), PageRequest.of(0, 10));
+
+        Map<String, Object> bookmark = page.getContent().get(0);
+        assertEquals(List.of("url", "id", "lastVisitedAt"), List.copyOf(bookmark.keySet()));
+        assertEquals("https://a.example.com/", bookmark.get("url"));
+        assertEquals(1L, bookmark.get("id"));
+        assertEquals(LocalDateTime.of(2024, 3, 4, 5, 6, 7), bookmark.get("lastVisitedAt"));
+    }
+
+    @Test
+    void findFieldsPage_WithUnknownOrNoFields_ShouldThrow() {
+        PageRequest pageRequest = PageRequest.of(0, 10);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.findFieldsPage(BookmarkFilter.all(), List.of("id", "urlHash"), pageRequest));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.findFieldsPage(BookmarkFilter.all(), List.of("id FROM folders --"), pageRequest));
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.findFieldsPage(BookmarkFilter.all(), List.of(), pageRequest));
+    }
+}
@@ -0,0 +1,116 @@
+package org.crud.bookmarks.repository;
+
+import org.crud.bookmarks.Bookmark;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.data.jdbc.core.convert.EntityRowMapper;
+import org.springframework.data.jdbc.core.convert.JdbcConverter;
+import org.springframework.data.jdbc.core.mapping.JdbcMappingContext;
+import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cost per row of mapping bookmarks: Spring Data's reflective {@link EntityRowMapper} against
+ * {@link BookmarkRowMapper} and the {@link BookmarkSummaryRowMapper} projection, over 100,000
+ * rows of H2. Each mapper is timed over the same query as a loop that only steps through the
+ * rows, and that baseline is subtracted, so the numbers are the mapping alone. Allocation is
+ * read from the thread's allocation counter.
+ * <p>
+ * Run with {@code ./gradlew benchmark}.
+ */
+@DataJdbcTest
+@Tag("benchmark")
+class RowMappingBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcConverter converter;
+
+    @Autowired
+    private JdbcMappingContext mappingContext;
+
+    private long blackhole;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mappingCostPerRow() {
+        // Dedicated template: the benchmark reads every row, beyond spring.jdbc.template.max-rows
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(1000);
+        insertBookmarks(jdbcTemplate);
+
+        RelationalPersistentEntity<Bookmark> entity =
+                (RelationalPersistentEntity<Bookmark>) mappingContext.getRequiredPersistentEntity(Bookmark.class);
+        String fullQuery = "SELECT " + BookmarkRowMapper.COLUMNS + " FROM bookmarks";
+        String summaryQuery = "SELECT " + BookmarkSummaryRowMapper.COLUMNS + " FROM bookmarks";
+
+        long[] fullBaseline = measure(jdbcTemplate, fullQuery, null);
+        long[] summaryBaseline = measure(jdbcTemplate, summaryQuery, null);
+        report("EntityRowMapper (reflective)", measure(jdbcTemplate, fullQuery, new EntityRowMapper<>(entity, converter)), fullBaseline);
+        report("BookmarkRowMapper", measure(jdbcTemplate, fullQuery, new BookmarkRowMapper()), fullBaseline);
+        report("BookmarkSummaryRowMapper", measure(jdbcTemplate, summaryQuery, new BookmarkSummaryRowMapper()), summaryBaseline);
+        System.out.printf("Reading the 4 summary columns instead of all 13 saves %d ns per row before mapping%n",
+                fullBaseline[0] - summaryBaseline[0]);
+    }
+
+    private static void insertBookmarks(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO folders (id, name) VALUES (1, 'Folder')");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 12, 0));
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Object[]{"Bookmark title number " + i, "A description of bookmark " + i + " that is a bit longer",
+                    "https://host" + (i % 1000) + ".example.com/path/" + i, i % 2 == 0 ? 1L : null,
+                    "host" + (i % 1000) + ".example.com", "example.com", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookmarks (title, description, url, folder_id, host, domain, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Returns the best time per row in nanoseconds and the allocated bytes per row of that round.
+     */
+    private long[] measure(JdbcTemplate jdbcTemplate, String sql, RowMapper<?> mapper) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] best = {Long.MAX_VALUE, 0};
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            jdbcTemplate.query(sql, resultSet -> {
+                int rowNum = 0;
+                while (resultSet.next()) {
+                    blackhole += mapper == null ? resultSet.getRow() : mapper.mapRow(resultSet, rowNum++).hashCode();
+                }
+                return null;
+            });
+            long nanosPerRow = (System.nanoTime() - start) / ROWS;
+            long bytesPerRow = (threads.getThreadAllocatedBytes(threadId) - allocatedBefore) / ROWS;
+            if (round >= WARMUP_ROUNDS && nanosPerRow < best[0]) {
+                best[0] = nanosPerRow;
+                best[1] = bytesPerRow;
+            }
+        }
+        return best;
+    }
+
+    private void report(String name, long[] result, long[] baseline) {
+        System.out.printf("%-30s %5d ns/row, %5d bytes/row (query and stepping excluded: %d ns, %d bytes)%n",
+                name, result[0] - baseline[0], result[1] - baseline[1], baseline[0], baseline[1]);
+    }
+}
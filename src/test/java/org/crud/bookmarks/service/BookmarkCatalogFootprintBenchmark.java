@@ -0,0 +1,91 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Heap footprint of {@link BookmarkCatalog} against a plain {@code List<Bookmark>} holding the
+ * same synthetic bookmarks: titles of 20-80 characters, descriptions of up to 300 characters on
+ * half of them, URLs on 20,000 hosts with paths of 10-90 characters, 200 folders. Each bookmark
+ * gets its own strings, as rows mapped by JDBC do.
+ * <p>
+ * Run with {@code ./gradlew benchmark}; the heap defaults to 8 GB and can be changed with
+ * {@code -PbenchmarkHeap=...}. The entity list at 10M needs more than 6 GB; if it doesn't fit,
+ * only the catalog is reported.
+ */
+@Tag("benchmark")
+class BookmarkCatalogFootprintBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz     ";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    private static Bookmark bookmark(Random random, long id) {
+        String host = "host" + random.nextInt(20_000) + ".example.com";
+        Bookmark bookmark = new Bookmark(text(random, 20, 80), "https://" + host + "/" + text(random, 10, 90).replace(' ', '/'));
+        bookmark.setId(id);
+        bookmark.setDescription(random.nextBoolean() ? text(random, 0, 300) : null);
+        bookmark.setFolderId(random.nextInt(10) == 0 ? null : (long) random.nextInt(200));
+        bookmark.setHost(new String(host));
+        bookmark.setDomain(new String("example.com"));
+        bookmark.setVersion((long) random.nextInt(3));
+        bookmark.setCreatedAt(EPOCH.plusSeconds(random.nextInt(100_000_000)));
+        bookmark.setUpdatedAt(bookmark.getCreatedAt().plusSeconds(random.nextInt(1000)));
+        return bookmark;
+    }
+
+    private static String text(Random random, int minLength, int maxLength) {
+        char[] chars = new char[minLength + random.nextInt(maxLength - minLength + 1)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(chars);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000_000, 10_000_000})
+    void footprint(int count) {
+        long baseline = usedHeap();
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        BookmarkCatalog catalog = new BookmarkCatalog(count);
+        for (long id = 1; id <= count; id++) {
+            catalog.put(bookmark(random, id));
+        }
+        catalog.trim();
+        long catalogBytes = usedHeap() - baseline;
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("%,d bookmarks: catalog %,d MB (%d bytes/bookmark, estimate %d), loaded in %,d ms%n",
+                count, catalogBytes >> 20, catalogBytes / count, catalog.footprintBytes() / count, loadMillis);
+        catalog = null;
+
+        baseline = usedHeap();
+        random = new Random(42);
+        try {
+            List<Bookmark> bookmarks = new ArrayList<>(count);
+            for (long id = 1; id <= count; id++) {
+                bookmarks.add(bookmark(random, id));
+            }
+            long listBytes = usedHeap() - baseline;
+            System.out.printf("%,d bookmarks: List<Bookmark> %,d MB (%d bytes/bookmark), %.1fx the catalog%n",
+                    bookmarks.size(), listBytes >> 20, listBytes / count, (double) listBytes / catalogBytes);
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%,d bookmarks: List<Bookmark> doesn't fit in a %,d MB heap%n",
+                    count, Runtime.getRuntime().maxMemory() >> 20);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link BookmarkCatalogIndex} against an embedded H2 database.
+ */
+class BookmarkCatalogIndexTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private BookmarkCatalogIndex index;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        index = new BookmarkCatalogIndex(new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()), true);
+
+        jdbcTemplate.update("INSERT INTO folders (id, name) VALUES (10, 'Folder')");
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, description, url, folder_id, host, domain, created_at) "
+                + "VALUES (1, 'One', 'First', 'https://one.com/a', 10, 'one.com', 'one.com', TIMESTAMP '2024-05-06 07:08:09')");
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (2, 'Two', 'https://two.com/')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void find_AfterLoad_ShouldServeFromMemory() {
+        assertFalse(index.isReady());
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+        Bookmark one = index.find(1);
+        assertEquals("One", one.getTitle());
+        assertEquals("First", one.getDescription());
+        assertEquals("https://one.com/a", one.getUrl());
+        assertEquals(Long.valueOf(10), one.getFolderId());
+        assertEquals("one.com", one.getDomain());
+        assertEquals(LocalDateTime.of(2024, 5, 6, 7, 8, 9), one.getCreatedAt());
+        assertNull(index.find(2).getFolderId());
+        assertNull(index.find(3));
+    }
+
+    @Test
+    void findAll_ShouldKeepRequestedOrderAndSkipMissing() {
+        index.rebuild();
+
+        Map<Long, Bookmark> found = index.findAll(List.of(2L, 3L, 1L));
+
+        assertEquals(List.of(2L, 1L), List.copyOf(found.keySet()));
+    }
+
+    @Test
+    void onBookmarkChange_ShouldFollowSavesDeletesAndMoves() {
+        index.rebuild();
+        Bookmark three = new Bookmark("Three", "https://three.com/");
+        three.setId(3L);
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (3, 'Three', 'https://three.com/')");
+
+        index.onBookmarkChange(BookmarkChangeEvent.saved(three));
+        index.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(1L)));
+        jdbcTemplate.update("UPDATE bookmarks SET folder_id = 10 WHERE id = 2");
+        index.onBookmarkChange(BookmarkChangeEvent.moved(List.of(2L), 10L));
+
+        assertEquals("Three", index.find(3).getTitle());
+        assertNull(index.find(1));
+        assertEquals(Long.valueOf(10), index.find(2).getFolderId());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void onBookmarkChange_WithStaleSave_ShouldKeepCommittedState() {
+        index.rebuild();
+        // The event of an earlier transaction arrives after the next update committed
+        Bookmark stale = new Bookmark("Old title", "https://two.com/");
+        stale.setId(2L);
+        jdbcTemplate.update("UPDATE bookmarks SET title = 'New title', version = version + 1 WHERE id = 2");
+
+        index.onBookmarkChange(BookmarkChangeEvent.saved(stale));
+
+        assertEquals("New title", index.find(2).getTitle());
+    }
+
+    @Test
+    void onBookmarkChange_WithSaveOfDeletedBookmark_ShouldRemoveIt() {
+        index.rebuild();
+        Bookmark saved = new Bookmark("Two", "https://two.com/");
+        saved.setId(2L);
+        jdbcTemplate.update("DELETE FROM bookmarks WHERE id = 2");
+
+        // The delete's event was handled before the save's
+        index.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(2L)));
+        index.onBookmarkChange(BookmarkChangeEvent.saved(saved));
+
+        assertNull(index.find(2));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void onVisitsFlushed_ShouldAddToLoadedCounts() {
+        jdbcTemplate.update("UPDATE bookmarks SET visit_count = 4 WHERE id = 1");
+        index.rebuild();
+
+        index.onVisitsFlushed(new VisitsFlushedEvent(List.of(
+                new VisitsFlushedEvent.BookmarkVisits(1, 2, LocalDateTime.of(2024, 6, 1, 0, 0)))));
+
+        assertEquals(6, index.find(1).getVisitCount());
+        assertEquals(LocalDateTime.of(2024, 6, 1, 0, 0), index.find(1).getLastVisitedAt());
+        assertEquals(0, index.find(2).getVisitCount());
+    }
+
+    @Test
+    void summarize_ShouldCountByFolderAndListNewestFirst() {
+        index.rebuild();
+
+        BookmarkCatalogIndex.Summary summary = index.summarize(1);
+
+        assertEquals(2, summary.total());
+        assertEquals(1, summary.unfiled());
+        assertEquals(Map.of(10L, 1), summary.countsByFolder());
+        assertEquals(List.of(2L), summary.recent().stream().map(Bookmark::getId).toList());
+    }
+
+    @Test
+    void rebuild_WhenDisabled_ShouldStayEmpty() {
+        BookmarkCatalogIndex disabled = new BookmarkCatalogIndex(
+                new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()), false);
+
+        disabled.rebuild();
+        disabled.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(1L)));
+
+        assertFalse(disabled.isReady());
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,227 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookmarkCatalogTest {
+
+    private final BookmarkCatalog catalog = new BookmarkCatalog(4);
+
+    private static Bookmark bookmark(long id, String title, String url) {
+        Bookmark bookmark = new Bookmark(title, url);
+        bookmark.setId(id);
+        bookmark.setHost(UrlNormalizer.host(url));
+        bookmark.setDomain(UrlNormalizer.registrableDomain(bookmark.getHost()));
+        return bookmark;
+    }
+
+    private static void assertSameBookmark(Bookmark expected, Bookmark actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getUrl(), actual.getUrl());
+        assertEquals(expected.getFolderId(), actual.getFolderId());
+        assertEquals(expected.getHost(), actual.getHost());
+        assertEquals(expected.getDomain(), actual.getDomain());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+    }
+
+    @Test
+    void get_ShouldRoundTripAllFields() {
+        Bookmark bookmark = bookmark(7, "Café ☕ notes", "https://www.example.com:8443/a/b?q=1#top");
+        bookmark.setDescription("Ein schönes Café");
+        bookmark.setFolderId(3L);
+        bookmark.setVersion(2L);
+        bookmark.setCreatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_000_000));
+        bookmark.setUpdatedAt(LocalDateTime.of(2024, 2, 3, 4, 5, 6));
+        catalog.put(bookmark);
+
+        assertSameBookmark(bookmark, catalog.get(7));
+        assertEquals("https://www.example.com:8443/a/b?q=1#top", catalog.url(7));
+        assertTrue(catalog.contains(7));
+        assertNull(catalog.get(8));
+        assertNull(catalog.url(8));
+    }
+
+    @Test
+    void get_WithNullFields_ShouldKeepThemNull() {
+        Bookmark bookmark = bookmark(1, "", "https://example.com");
+        catalog.put(bookmark);
+
+        Bookmark stored = catalog.get(1);
+
+        assertSameBookmark(bookmark, stored);
+        assertEquals("", stored.getTitle());
+        assertNull(stored.getDescription());
+        assertNull(stored.getFolderId());
+        assertNull(stored.getCreatedAt());
+    }
+
+    @Test
+    void put_ExistingId_ShouldReplaceBookmark() {
+        catalog.put(bookmark(1, "Old", "https://old.com/page"));
+        Bookmark updated = bookmark(1, "New", "https://new.com/other");
+        updated.setFolderId(5L);
+        catalog.put(updated);
+
+        assertEquals(1, catalog.size());
+        assertSameBookmark(updated, catalog.get(1));
+    }
+
+    @Test
+    void remove_ShouldMoveLastRowIntoGap() {
+        for (long id = 1; id <= 3; id++) {
+            catalog.put(bookmark(id, "Bookmark " + id, "https://example.com/" + id));
+        }
+
+        assertTrue(catalog.remove(1));
+        assertFalse(catalog.remove(1));
+
+        assertEquals(2, catalog.size());
+        assertNull(catalog.get(1));
+        assertEquals("Bookmark 2", catalog.get(2).getTitle());
+        assertEquals("https://example.com/3", catalog.url(3));
+    }
+
+    @Test
+    void setFolder_ShouldOnlyChangeFolder() {
+        Bookmark bookmark = bookmark(1, "One", "https://one.com/");
+        bookmark.setFolderId(1L);
+        catalog.put(bookmark);
+
+        catalog.setFolder(1, 2L);
+        assertEquals(Long.valueOf(2), catalog.get(1).getFolderId());
+        catalog.setFolder(1, null);
+        assertNull(catalog.get(1).getFolderId());
+        assertEquals(Map.of(BookmarkCatalog.NONE, 1), catalog.countByFolder());
+    }
+
+    @Test
+    void addVisits_ShouldSurviveLaterPuts() {
+        Bookmark bookmark = bookmark(1, "One", "https://one.com/");
+        bookmark.setVisitCount(3);
+        bookmark.setLastVisitedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        catalog.put(bookmark);
+
+        catalog.addVisits(1, 2, LocalDateTime.of(2024, 3, 1, 0, 0));
+        catalog.addVisits(1, 1, LocalDateTime.of(2024, 2, 1, 0, 0));
+        catalog.put(bookmark(1, "Renamed", "https://one.com/"));
+        catalog.addVisits(2, 1, LocalDateTime.of(2024, 3, 1, 0, 0));
+
+        Bookmark stored = catalog.get(1);
+        assertEquals("Renamed", stored.getTitle());
+        assertEquals(6, stored.getVisitCount());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 0, 0), stored.getLastVisitedAt());
+        assertNull(catalog.get(2));
+    }
+
+    @Test
+    void countByFolder_ShouldFollowPutsMovesAndRemoves() {
+        Random random = new Random(7);
+        Map<Long, Long> folders = new HashMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            long id = random.nextInt(500);
+            Long folderId = random.nextInt(4) == 0 ? null : (long) random.nextInt(5);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    catalog.remove(id);
+                    folders.remove(id);
+                }
+                case 1 -> {
+                    catalog.setFolder(id, folderId);
+                    folders.computeIfPresent(id, (key, folder) -> folderId != null ? folderId : BookmarkCatalog.NONE);
+                }
+                default -> {
+                    Bookmark bookmark = bookmark(id, "Title " + i, "https://host.com/" + i);
+                    bookmark.setFolderId(folderId);
+                    catalog.put(bookmark);
+                    folders.put(id, folderId != null ? folderId : BookmarkCatalog.NONE);
+                }
+            }
+        }
+
+        Map<Long, Integer> expected = new HashMap<>();
+        folders.values().forEach(folder -> expected.merge(folder, 1, Integer::sum));
+        assertEquals(expected, catalog.countByFolder());
+    }
+
+    @Test
+    void mostRecent_ShouldOrderByCreationThenId() {
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (long id = 1; id <= 6; id++) {
+            Bookmark bookmark = bookmark(id, "Bookmark " + id, "https://example.com/" + id);
+            bookmark.setCreatedAt(id == 3 ? null : created.plusDays(id % 4));
+            catalog.put(bookmark);
+        }
+
+        assertEquals(List.of(6L, 2L, 5L), catalog.mostRecent(3).stream().map(Bookmark::getId).toList());
+        assertEquals(List.of(6L, 2L, 5L, 1L, 4L, 3L), catalog.mostRecent(10).stream().map(Bookmark::getId).toList());
+        assertEquals(List.of(), catalog.mostRecent(0));
+    }
+
+    @Test
+    void pathStart_ShouldSplitAfterAuthority() {
+        assertEquals(19, BookmarkCatalog.pathStart("https://example.com/path"));
+        assertEquals(19, BookmarkCatalog.pathStart("https://example.com?q"));
+        assertEquals(19, BookmarkCatalog.pathStart("https://example.com"));
+        assertEquals(0, BookmarkCatalog.pathStart("mailto:someone@example.com"));
+    }
+
+    @Test
+    void footprintBytes_ShouldStoreHostsOnce() {
+        BookmarkCatalog sameHost = new BookmarkCatalog(1000);
+        BookmarkCatalog distinctHosts = new BookmarkCatalog(1000);
+        for (long id = 0; id < 1000; id++) {
+            sameHost.put(bookmark(id, "T", "https://a-rather-long-host-name.example.com/" + id));
+            distinctHosts.put(bookmark(id, "T", "https://a-rather-long-host-name-" + id + ".example.com/"));
+        }
+
+        assertTrue(sameHost.footprintBytes() < distinctHosts.footprintBytes());
+    }
+
+    /**
+     * Random puts, updates and removes against a map, enough to grow the table, run backward
+     * shift deletion across wrapped probe runs and compact the arena.
+     */
+    @Test
+    void randomOperations_ShouldMatchMap() {
+        Random random = new Random(42);
+        Map<Long, Bookmark> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long id = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id) != null, catalog.remove(id));
+            } else {
+                Bookmark bookmark = bookmark(id, "Title " + i + "x".repeat(random.nextInt(40)),
+                        "https://host" + random.nextInt(50) + ".com/" + i);
+                bookmark.setDescription(random.nextBoolean() ? null : "Description " + i);
+                bookmark.setFolderId(random.nextBoolean() ? null : (long) random.nextInt(10));
+                expected.put(id, bookmark);
+                catalog.put(bookmark);
+            }
+        }
+
+        catalog.trim();
+
+        assertEquals(expected.size(), catalog.size());
+        for (long id = 0; id < 5000; id++) {
+            Bookmark bookmark = expected.get(id);
+            if (bookmark == null) {
+                assertNull(catalog.get(id));
+            } else {
+                assertSameBookmark(bookmark, catalog.get(id));
+            }
+        }
+    }
+}
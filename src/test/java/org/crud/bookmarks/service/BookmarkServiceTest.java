@@ -1,8 +1,11 @@
 package org.crud.bookmarks.service;
 
 import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.BookmarkFilter;
+import org.crud.bookmarks.BookmarkPatch;
 import org.crud.bookmarks.repository.BookmarkRepository;
 import org.crud.bookmarks.repository.FolderRepository;
+import org.crud.bookmarks.repository.HostStatsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,15 +13,26 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import static org.mockito.Mockito.doThrow;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -34,9 +48,24 @@ class BookmarkServiceTest {
     @Mock
     private FolderRepository folderRepository;
 
+    @Mock
+    private HostStatsRepository hostStatsRepository;
+
     @Mock
     private UrlValidator urlValidator;
 
+    @Mock
+    private BookmarkUrlIndex urlIndex;
+
+    @Mock
+    private SearchFacetCounter facetCounter;
+
+    @Mock
+    private BookmarkCatalogIndex catalogIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private BookmarkService bookmarkService;
 
     private Bookmark testBookmark;
@@ -58,7 +87,8 @@ class BookmarkServiceTest {
         testBookmark.setId(1L);
         testBookmark.setDescription("Test Description");
 
-        bookmarkService = new BookmarkService(bookmarkRepository, folderRepository, urlValidator);
+        bookmarkService = new BookmarkService(bookmarkRepository, folderRepository, hostStatsRepository, urlValidator, urlIndex,
+                facetCounter, catalogIndex, eventPublisher);
     }
 
     @Test
@@ -72,6 +102,22 @@ class BookmarkServiceTest {
         assertEquals(bookmarks.get(0).getTitle(), result.get(0).getTitle());
     }
 
+    @Test
+    void searchBookmarksWithFacets_ShouldAddFacetsToPage() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(bookmarkRepository.findPage(BookmarkFilter.search("Test"), pageable))
+                .thenReturn(new PageImpl<>(List.of(testBookmark), pageable, 1));
+        SearchFacets facets = new SearchFacets(List.of(new SearchFacets.FacetCount(null, 1)),
+                List.of(new SearchFacets.FacetCount("test.com", 1)), List.of(), 42);
+        when(facetCounter.count("Test")).thenReturn(facets);
+
+        FacetedPage<Bookmark> result = bookmarkService.searchBookmarksWithFacets("Test", pageable);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(testBookmark.getTitle(), result.getContent().get(0).getTitle());
+        assertEquals(facets, result.getFacets());
+    }
+
     @Test
     void getBookmarkById_WhenExists_ShouldReturnBookmark() {
         when(bookmarkRepository.findById(1L)).thenReturn(Optional.of(testBookmark));
@@ -116,6 +162,7 @@ class BookmarkServiceTest {
     @Test
     void updateBookmark_WhenExists_ShouldUpdateBookmark() {
         Bookmark updatedBookmark = new Bookmark("Updated Title", "https://updated.com");
+        updatedBookmark.setId(1L);
         mockUrlValidatorSuccess();
         when(bookmarkRepository.findById(1L)).thenReturn(Optional.of(testBookmark));
         when(bookmarkRepository.save(any(Bookmark.class))).thenReturn(updatedBookmark);
@@ -222,4 +269,238 @@ class BookmarkServiceTest {
         assertEquals(bookmarks.size(), result.size());
         assertEquals(bookmarks.get(0).getTitle(), result.get(0).getTitle());
     }
+
+    @Test
+    void deleteBookmarks_ShouldDeleteDistinctIdsInChunks() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= BookmarkService.BULK_CHUNK_SIZE + 10; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        when(bookmarkRepository.deleteByIdIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).size());
+
+        int deleted = bookmarkService.deleteBookmarks(ids);
+
+        assertEquals(BookmarkService.BULK_CHUNK_SIZE + 10, deleted);
+        verify(bookmarkRepository, times(2)).deleteByIdIn(anyCollection());
+        verify(bookmarkRepository, never()).deleteAllById(any());
+    }
+
+    @Test
+    void moveBookmarks_WithExistingFolder_ShouldUpdateFolderOnce() {
+        when(folderRepository.existsById(2L)).thenReturn(true);
+        when(bookmarkRepository.updateFolderIdByIdIn(anyCollection(), eq(2L))).thenReturn(3);
+
+        int moved = bookmarkService.moveBookmarks(Arrays.asList(1L, 2L, 3L), 2L);
+
+        assertEquals(3, moved);
+        verify(folderRepository, times(1)).existsById(2L);
+        verify(urlValidator, never()).validateUrl(anyString());
+    }
+
+    @Test
+    void moveBookmarks_WithInvalidFolderId_ShouldThrowException() {
+        when(folderRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () ->
+            bookmarkService.moveBookmarks(Arrays.asList(1L, 2L), 999L)
+        );
+        verify(bookmarkRepository, never()).updateFolderIdByIdIn(anyCollection(), any());
+    }
+
+    @Test
+    void patchBookmark_WithUnchangedUrl_ShouldSkipValidation() {
+        BookmarkPatch patch = new BookmarkPatch();
+        patch.setUrl("https://test.com");
+        patch.setTitle("Patched Title");
+        patch.setVersion(0L);
+        when(bookmarkRepository.findUrlById(1L)).thenReturn(Optional.of("https://test.com"));
+        when(bookmarkRepository.patch(1L, patch)).thenReturn(1);
+        when(bookmarkRepository.findById(1L)).thenReturn(Optional.of(testBookmark));
+
+        Optional<Bookmark> result = bookmarkService.patchBookmark(1L, patch);
+
+        assertTrue(result.isPresent());
+        assertFalse(patch.hasUrl());
+        verify(urlValidator, never()).validateUrl(anyString());
+        verify(bookmarkRepository, never()).save(any(Bookmark.class));
+    }
+
+    @Test
+    void patchBookmark_WithInvalidFolderId_ShouldThrowWithoutUpdating() {
+        BookmarkPatch patch = new BookmarkPatch();
+        patch.setFolderId(999L);
+        patch.setVersion(0L);
+        when(folderRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () ->
+            bookmarkService.patchBookmark(1L, patch)
+        );
+        verify(bookmarkRepository, never()).patch(anyLong(), any(BookmarkPatch.class));
+    }
+
+    @Test
+    void patchBookmark_WithOtherIntegrityViolation_ShouldNotReportMissingFolder() {
+        BookmarkPatch patch = new BookmarkPatch();
+        patch.setTitle("Patched Title");
+        patch.setVersion(0L);
+        when(bookmarkRepository.patch(1L, patch)).thenThrow(new DataIntegrityViolationException("value too long"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+            bookmarkService.patchBookmark(1L, patch)
+        );
+        verify(folderRepository, never()).existsById(any());
+    }
+
+    @Test
+    void patchBookmark_WithStaleVersion_ShouldThrowConflict() {
+        BookmarkPatch patch = new BookmarkPatch();
+        patch.setTitle("Patched Title");
+        patch.setVersion(3L);
+        when(bookmarkRepository.patch(1L, patch)).thenReturn(0);
+        when(bookmarkRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+            bookmarkService.patchBookmark(1L, patch)
+        );
+    }
+
+    @Test
+    void patchBookmark_WhenNotExists_ShouldReturnEmpty() {
+        BookmarkPatch patch = new BookmarkPatch();
+        patch.setTitle("Patched Title");
+        patch.setVersion(0L);
+        when(bookmarkRepository.patch(1L, patch)).thenReturn(0);
+        when(bookmarkRepository.existsById(1L)).thenReturn(false);
+
+        assertTrue(bookmarkService.patchBookmark(1L, patch).isEmpty());
+    }
+
+    @Test
+    void updateBookmark_WithStaleVersion_ShouldThrowConflict() {
+        testBookmark.setVersion(2L);
+        Bookmark updatedBookmark = new Bookmark("Updated Title", "https://updated.com");
+        updatedBookmark.setVersion(1L);
+        when(bookmarkRepository.findById(1L)).thenReturn(Optional.of(testBookmark));
+
+        assertThrows(OptimisticLockingFailureException.class, () ->
+            bookmarkService.updateBookmark(1L, updatedBookmark)
+        );
+        verify(bookmarkRepository, never()).save(any(Bookmark.class));
+    }
+
+    @Test
+    void createBookmark_WithDuplicateUrlWhenRejectingDuplicates_ShouldThrowException() {
+        Bookmark existing = new Bookmark("Existing", "https://TEST.com/");
+        existing.setId(7L);
+        when(urlIndex.rejectsDuplicates()).thenReturn(true);
+        when(urlIndex.findByUrl(testBookmark.getUrl())).thenReturn(List.of(existing));
+
+        assertThrows(DuplicateBookmarkException.class, () ->
+            bookmarkService.createBookmark(testBookmark)
+        );
+        verify(urlValidator, never()).validateUrl(anyString());
+        verify(bookmarkRepository, never()).save(any(Bookmark.class));
+    }
+
+    @Test
+    void createBookmark_ShouldStoreNormalizedUrlHash() {
+        mockUrlValidatorSuccess();
+        when(bookmarkRepository.save(any(Bookmark.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Bookmark result = bookmarkService.createBookmark(testBookmark);
+
+        assertEquals(UrlNormalizer.normalizedHash("https://test.com/"), result.getUrlHash());
+        verify(urlIndex).add(result.getUrlHash());
+    }
+
+    @Test
+    void createBookmark_ShouldStoreHostAndCountDomain() {
+        Bookmark bookmark = new Bookmark("Blog", "https://Blog.Example.co.uk/post");
+        mockUrlValidatorSuccess();
+        when(bookmarkRepository.save(any(Bookmark.class))).thenAnswer(invocation -> {
+            Bookmark saved = invocation.getArgument(0);
+            saved.setId(2L);
+            return saved;
+        });
+
+        Bookmark result = bookmarkService.createBookmark(bookmark);
+
+        assertEquals("blog.example.co.uk", result.getHost());
+        assertEquals("example.co.uk", result.getDomain());
+        verify(hostStatsRepository).adjust("example.co.uk", 1);
+    }
+
+    @Test
+    void updateBookmark_WithNewDomain_ShouldMoveDomainCount() {
+        testBookmark.setHost("test.com");
+        testBookmark.setDomain("test.com");
+        mockUrlValidatorSuccess();
+        when(bookmarkRepository.findById(1L)).thenReturn(Optional.of(testBookmark));
+        when(bookmarkRepository.save(any(Bookmark.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bookmarkService.updateBookmark(1L, new Bookmark("Moved", "https://www.other.org/page"));
+
+        verify(hostStatsRepository).adjust("test.com", -1);
+        verify(hostStatsRepository).adjust("other.org", 1);
+    }
+
+    @Test
+    void getBookmarkBatch_ShouldKeepOrderAndReportMissingIds() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = BookmarkService.BULK_CHUNK_SIZE + 10; id >= 1; id--) {
+            ids.add(id);
+        }
+        ids.add(3L);
+        when(bookmarkRepository.findByIdIn(anyCollection())).thenAnswer(invocation ->
+                ((Collection<Long>) invocation.getArgument(0)).stream()
+                        .filter(id -> id % 2 == 1)
+                        .map(id -> {
+                            Bookmark bookmark = new Bookmark("Bookmark " + id, "https://test.com/" + id);
+                            bookmark.setId(id);
+                            return bookmark;
+                        })
+                        .toList());
+
+        BookmarkBatch batch = bookmarkService.getBookmarkBatch(ids);
+
+        assertEquals(ids.stream().distinct().filter(id -> id % 2 == 1).toList(),
+                batch.bookmarks().stream().map(Bookmark::getId).toList());
+        assertEquals(ids.stream().distinct().filter(id -> id % 2 == 0).toList(), batch.missing());
+        verify(bookmarkRepository, times(2)).findByIdIn(anyCollection());
+    }
+
+    @Test
+    void getBookmarkBatch_WhenCatalogReady_ShouldNotQueryDatabase() {
+        when(catalogIndex.isReady()).thenReturn(true);
+        when(catalogIndex.findAll(List.of(2L, 1L))).thenReturn(Map.of(1L, testBookmark));
+
+        BookmarkBatch batch = bookmarkService.getBookmarkBatch(List.of(2L, 1L));
+
+        assertEquals(List.of(testBookmark), batch.bookmarks());
+        assertEquals(List.of(2L), batch.missing());
+        verify(bookmarkRepository, never()).findByIdIn(anyCollection());
+    }
+
+    @Test
+    void getBookmarkBatch_WithTooManyIds_ShouldThrow() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= BookmarkService.MAX_BATCH_IDS; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> bookmarkService.getBookmarkBatch(ids));
+    }
+
+    @Test
+    void deleteBookmarks_ShouldDecrementDomainCounts() {
+        when(bookmarkRepository.lockAndCountByDomain(List.of(1L, 2L, 3L))).thenReturn(Map.of("example.com", 2, "test.com", 1));
+        when(bookmarkRepository.deleteByIdIn(List.of(1L, 2L, 3L))).thenReturn(3);
+
+        bookmarkService.deleteBookmarks(List.of(1L, 2L, 3L));
+
+        verify(hostStatsRepository).adjust("example.com", -2);
+        verify(hostStatsRepository).adjust("test.com", -1);
+    }
 }
@@ -0,0 +1,151 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link BookmarkUrlIndex} against an embedded H2 database.
+ */
+@ExtendWith(MockitoExtension.class)
+class BookmarkUrlIndexTest {
+
+    @Mock
+    private BookmarkRepository bookmarkRepository;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private BookmarkUrlIndex index;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        index = new BookmarkUrlIndex(bookmarkRepository, new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()),
+                false, 10_000, 0.01);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private static Bookmark bookmark(long id, String url) {
+        Bookmark bookmark = new Bookmark("Bookmark " + id, url);
+        bookmark.setId(id);
+        return bookmark;
+    }
+
+    private Long storedHash(long id) {
+        return jdbcTemplate.queryForObject("SELECT url_hash FROM bookmarks WHERE id = ?", Long.class, id);
+    }
+
+    @Test
+    void run_ShouldBackfillMissingUrlHashes() {
+        // More rows than one backfill batch
+        for (int i = 1; i <= 1200; i++) {
+            jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (?, ?, ?)",
+                    i, "Bookmark " + i, "https://Example.com/" + i + "/");
+        }
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (1201, 'Broken', 'not a url')");
+
+        index.run(null);
+
+        assertEquals(UrlNormalizer.normalizedHash("https://example.com/1"), storedHash(1));
+        assertEquals(UrlNormalizer.normalizedHash("https://example.com/1200"), storedHash(1200));
+        assertEquals(UrlNormalizer.normalizedHash("not a url"), storedHash(1201));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks WHERE url_hash IS NULL", Long.class));
+    }
+
+    @Test
+    void run_ShouldKeepExistingUrlHashes() {
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url, url_hash) VALUES (1, 'One', 'https://one.com/', 42)");
+
+        index.run(null);
+
+        assertEquals(42L, storedHash(1));
+    }
+
+    @Test
+    void findByUrl_WithUrlNotBookmarked_ShouldNotQuery() {
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (1, 'One', 'https://one.com/')");
+        index.run(null);
+
+        assertTrue(index.findByUrl("https://two.com/").isEmpty());
+        verify(bookmarkRepository, never()).findByUrlHash(anyLong());
+    }
+
+    @Test
+    void findByUrl_WithOtherSpelling_ShouldReturnBookmark() {
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (1, 'One', 'https://one.com/a')");
+        index.run(null);
+        Long hash = UrlNormalizer.normalizedHash("https://one.com/a");
+        when(bookmarkRepository.findByUrlHash(hash)).thenReturn(List.of(bookmark(1, "https://one.com/a")));
+
+        List<Bookmark> found = index.findByUrl("HTTPS://One.com:443/a/?utm_source=feed");
+
+        assertEquals(1, found.size());
+        assertEquals(1L, found.get(0).getId());
+    }
+
+    @Test
+    void findByUrl_BeforeRun_ShouldQuery() {
+        Long hash = UrlNormalizer.normalizedHash("https://one.com/");
+        when(bookmarkRepository.findByUrlHash(hash)).thenReturn(List.of());
+
+        assertTrue(index.findByUrl("https://one.com/").isEmpty());
+        verify(bookmarkRepository).findByUrlHash(hash);
+    }
+
+    @Test
+    void add_ShouldMakeNewUrlVisible() {
+        index.run(null);
+        Long hash = UrlNormalizer.normalizedHash("https://new.com/");
+        when(bookmarkRepository.findByUrlHash(hash)).thenReturn(List.of(bookmark(7, "https://new.com/")));
+
+        index.add(hash);
+
+        assertEquals(1, index.findByUrl("https://new.com").size());
+    }
+
+    @Test
+    void rebuild_AfterBookmarksReplaced_ShouldReflectNewRows() {
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (1, 'Old', 'https://old.com/')");
+        index.run(null);
+
+        // A restore replaces the rows, without url_hash for snapshots taken before the column existed
+        jdbcTemplate.update("DELETE FROM bookmarks");
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (2, 'Restored', 'https://restored.com/')");
+        index.rebuild();
+
+        Long restoredHash = UrlNormalizer.normalizedHash("https://restored.com/");
+        assertEquals(restoredHash, storedHash(2));
+        when(bookmarkRepository.findByUrlHash(restoredHash)).thenReturn(List.of(bookmark(2, "https://restored.com/")));
+        assertEquals(1, index.findByUrl("https://restored.com/").size());
+        assertTrue(index.findByUrl("https://old.com/").isEmpty());
+        verify(bookmarkRepository, never()).findByUrlHash(UrlNormalizer.normalizedHash("https://old.com/"));
+    }
+}
@@ -0,0 +1,96 @@
+package org.crud.bookmarks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CompressedBitmap}, comparing the set operations against a {@link TreeSet}.
+ */
+class CompressedBitmapTest {
+
+    @Test
+    void addAndRemove_ShouldTrackMembership() {
+        CompressedBitmap bitmap = CompressedBitmap.of(1, 5, 70_000, 1L << 40);
+
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(1L << 40));
+        assertFalse(bitmap.contains(6));
+        assertEquals(4, bitmap.cardinality());
+
+        bitmap.remove(5);
+        bitmap.remove(1L << 40);
+
+        assertArrayEquals(new long[]{1, 70_000}, bitmap.toArray());
+    }
+
+    @Test
+    void add_BeyondArrayLimit_ShouldKeepAllValues() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (long value = 0; value < 3 * CompressedBitmap.ARRAY_MAX; value += 2) {
+            bitmap.add(value);
+        }
+        for (long value = 0; value < 3 * CompressedBitmap.ARRAY_MAX; value += 4) {
+            bitmap.remove(value);
+        }
+
+        assertEquals(3 * CompressedBitmap.ARRAY_MAX / 4, bitmap.cardinality());
+        assertTrue(bitmap.contains(2));
+        assertFalse(bitmap.contains(4));
+    }
+
+    @Test
+    void setOperations_ShouldMatchTreeSet() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            TreeSet<Long> expectedA = new TreeSet<>();
+            TreeSet<Long> expectedB = new TreeSet<>();
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            int range = round % 2 == 0 ? 70_000 : 300_000;
+            for (int i = 0; i < 10_000; i++) {
+                long x = random.nextInt(range);
+                long y = random.nextInt(range);
+                expectedA.add(x);
+                a.add(x);
+                expectedB.add(y);
+                b.add(y);
+            }
+
+            TreeSet<Long> and = new TreeSet<>(expectedA);
+            and.retainAll(expectedB);
+            TreeSet<Long> or = new TreeSet<>(expectedA);
+            or.addAll(expectedB);
+            TreeSet<Long> andNot = new TreeSet<>(expectedA);
+            andNot.removeAll(expectedB);
+
+            assertArrayEquals(toArray(and), CompressedBitmap.and(a, b).toArray());
+            assertArrayEquals(toArray(or), CompressedBitmap.or(a, b).toArray());
+            assertArrayEquals(toArray(andNot), CompressedBitmap.andNot(a, b).toArray());
+        }
+    }
+
+    @Test
+    void toArray_WithOffset_ShouldReturnPage() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        List<Long> expected = new ArrayList<>();
+        for (long value = 0; value < 200_000; value += 3) {
+            bitmap.add(value);
+            expected.add(value);
+        }
+
+        long[] page = bitmap.toArray(30_000, 5);
+
+        assertArrayEquals(expected.subList(30_000, 30_005).stream().mapToLong(Long::longValue).toArray(), page);
+        assertEquals(0, bitmap.toArray(expected.size(), 5).length);
+    }
+
+    private static long[] toArray(TreeSet<Long> values) {
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+}
@@ -0,0 +1,137 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Folder;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.crud.bookmarks.repository.FolderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardServiceTest {
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    @Mock
+    private BookmarkRepository bookmarkRepository;
+
+    @Mock
+    private BookmarkCatalogIndex catalogIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        dashboardService = new DashboardService(folderRepository, bookmarkRepository, catalogIndex,
+                transactionManager, 2, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.shutdown();
+    }
+
+    private static Folder folder(long id, String name) {
+        Folder folder = new Folder(name);
+        folder.setId(id);
+        return folder;
+    }
+
+    private static Bookmark bookmark(long id) {
+        Bookmark bookmark = new Bookmark("Bookmark " + id, "https://example.com/" + id);
+        bookmark.setId(id);
+        return bookmark;
+    }
+
+    @Test
+    void getDashboard_WithCatalogReady_ShouldCountFromCatalog() {
+        when(catalogIndex.isReady()).thenReturn(true);
+        when(folderRepository.findAllOrderByName()).thenReturn(List.of(folder(1, "Empty"), folder(2, "Work")));
+        when(catalogIndex.summarize(2)).thenReturn(new BookmarkCatalogIndex.Summary(
+                5, 1, Map.of(2L, 4), List.of(bookmark(5), bookmark(4))));
+
+        Dashboard dashboard = dashboardService.getDashboard(2);
+
+        assertEquals(List.of(0L, 4L), dashboard.folders().stream().map(Folder::getBookmarkCount).toList());
+        assertEquals(List.of(5L, 4L), dashboard.recentBookmarks().stream().map(Bookmark::getId).toList());
+        assertEquals(5, dashboard.totalBookmarks());
+        assertEquals(1, dashboard.unfiledBookmarks());
+        assertEquals(2, dashboard.totalFolders());
+        verify(folderRepository, never()).findAllWithBookmarkCount();
+        verifyNoInteractions(bookmarkRepository);
+    }
+
+    @Test
+    void getDashboard_WithCatalogReady_ShouldSummarizeOnPool() {
+        String[] summarizingThread = new String[1];
+        when(catalogIndex.isReady()).thenReturn(true);
+        when(folderRepository.findAllOrderByName()).thenReturn(List.of());
+        when(catalogIndex.summarize(1)).thenAnswer(invocation -> {
+            summarizingThread[0] = Thread.currentThread().getName();
+            return new BookmarkCatalogIndex.Summary(0, 0, Map.of(), List.of());
+        });
+
+        dashboardService.getDashboard(1);
+
+        assertTrue(summarizingThread[0].startsWith("dashboard-"), summarizingThread[0]);
+    }
+
+    @Test
+    void getDashboard_WithFolderCreatedBeforeSummary_ShouldReadFoldersAgain() {
+        when(catalogIndex.isReady()).thenReturn(true);
+        when(folderRepository.findAllOrderByName())
+                .thenReturn(List.of(folder(1, "Work")))
+                .thenReturn(List.of(folder(2, "New"), folder(1, "Work")));
+        when(catalogIndex.summarize(1)).thenReturn(new BookmarkCatalogIndex.Summary(
+                3, 0, Map.of(1L, 1, 2L, 2), List.of(bookmark(3))));
+
+        Dashboard dashboard = dashboardService.getDashboard(1);
+
+        assertEquals(List.of(2L, 1L), dashboard.folders().stream().map(Folder::getId).toList());
+        assertEquals(List.of(2L, 1L), dashboard.folders().stream().map(Folder::getBookmarkCount).toList());
+        assertEquals(2, dashboard.totalFolders());
+        verify(folderRepository, times(2)).findAllOrderByName();
+    }
+
+    @Test
+    void getDashboard_WithCatalogNotReady_ShouldQueryDatabase() {
+        Folder work = folder(2, "Work");
+        work.setBookmarkCount(4L);
+        when(catalogIndex.isReady()).thenReturn(false);
+        when(folderRepository.findAllWithBookmarkCount()).thenReturn(List.of(work));
+        when(bookmarkRepository.findMostRecent(2)).thenReturn(List.of(bookmark(5), bookmark(4)));
+        when(bookmarkRepository.count()).thenReturn(5L);
+        when(bookmarkRepository.countUnfiled()).thenReturn(1L);
+
+        Dashboard dashboard = dashboardService.getDashboard(2);
+
+        assertEquals(List.of(work), dashboard.folders());
+        assertEquals(List.of(5L, 4L), dashboard.recentBookmarks().stream().map(Bookmark::getId).toList());
+        assertEquals(5, dashboard.totalBookmarks());
+        assertEquals(1, dashboard.unfiledBookmarks());
+        assertEquals(1, dashboard.totalFolders());
+        verify(catalogIndex, never()).summarize(anyInt());
+    }
+
+    @Test
+    void getDashboard_WithInvalidLimit_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getDashboard(0));
+        assertThrows(IllegalArgumentException.class, () -> dashboardService.getDashboard(DashboardService.MAX_RECENT + 1));
+        verifyNoInteractions(catalogIndex, folderRepository, bookmarkRepository);
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.util.Arrays;
 import java.util.List;
@@ -70,7 +71,6 @@ class FolderServiceTest {
 
     @Test
     void createFolder_WithValidData_ShouldCreateFolder() {
-        when(folderRepository.existsByName(testFolder.getName())).thenReturn(false);
         when(folderRepository.save(any(Folder.class))).thenReturn(testFolder);
 
         Folder result = folderService.createFolder(testFolder);
@@ -80,20 +80,87 @@ class FolderServiceTest {
         verify(folderRepository).save(any(Folder.class));
     }
 
+    @Test
+    void createFolder_WithParent_ShouldAddClosureRows() {
+        testFolder.setParentId(2L);
+        when(folderRepository.lockById(2L)).thenReturn(Optional.of(2L));
+        when(folderRepository.save(any(Folder.class))).thenReturn(testFolder);
+
+        folderService.createFolder(testFolder);
+
+        verify(folderRepository).insertPaths(1L, 2L);
+    }
+
+    @Test
+    void createFolder_WithUnknownParent_ShouldThrowException() {
+        testFolder.setParentId(2L);
+        when(folderRepository.lockById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> folderService.createFolder(testFolder));
+        verify(folderRepository, never()).save(any(Folder.class));
+    }
+
+    @Test
+    void moveFolder_ShouldRewriteSubtreePaths() {
+        when(folderRepository.existsById(1L)).thenReturn(true);
+        when(folderRepository.existsById(2L)).thenReturn(true);
+        when(folderRepository.isInSubtree(1L, 2L)).thenReturn(false);
+        when(folderRepository.findById(1L)).thenReturn(Optional.of(testFolder));
+
+        Optional<Folder> result = folderService.moveFolder(1L, 2L);
+
+        assertTrue(result.isPresent());
+        var inOrder = inOrder(folderRepository);
+        inOrder.verify(folderRepository).lockForMove(1L, 2L);
+        inOrder.verify(folderRepository).detachSubtree(1L);
+        inOrder.verify(folderRepository).attachSubtree(1L, 2L);
+        inOrder.verify(folderRepository).updateParentId(1L, 2L);
+    }
+
+    @Test
+    void moveFolder_ToTopLevel_ShouldOnlyDetach() {
+        when(folderRepository.existsById(1L)).thenReturn(true);
+        when(folderRepository.findById(1L)).thenReturn(Optional.of(testFolder));
+
+        folderService.moveFolder(1L, null);
+
+        verify(folderRepository).detachSubtree(1L);
+        verify(folderRepository, never()).attachSubtree(any(), any());
+        verify(folderRepository).updateParentId(1L, null);
+    }
+
+    @Test
+    void moveFolder_IntoOwnSubtree_ShouldThrowException() {
+        when(folderRepository.existsById(1L)).thenReturn(true);
+        when(folderRepository.existsById(2L)).thenReturn(true);
+        when(folderRepository.isInSubtree(1L, 2L)).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> folderService.moveFolder(1L, 2L));
+        verify(folderRepository, never()).detachSubtree(any());
+    }
+
+    @Test
+    void moveFolder_WhenNotExists_ShouldReturnEmpty() {
+        when(folderRepository.existsById(1L)).thenReturn(false);
+
+        assertTrue(folderService.moveFolder(1L, 2L).isEmpty());
+        verify(folderRepository, never()).updateParentId(any(), any());
+    }
+
     @Test
     void createFolder_WithDuplicateName_ShouldThrowException() {
-        when(folderRepository.existsByName(testFolder.getName())).thenReturn(true);
+        when(folderRepository.save(any(Folder.class))).thenThrow(new DuplicateKeyException("uk_folder_name_key"));
 
-        assertThrows(IllegalArgumentException.class, () ->
+        assertThrows(DuplicateFolderNameException.class, () ->
             folderService.createFolder(testFolder)
         );
+        verify(folderRepository, never()).existsByName(any());
     }
 
     @Test
     void updateFolder_WhenExists_ShouldUpdateFolder() {
         Folder updatedFolder = new Folder("Updated Folder");
         when(folderRepository.findById(1L)).thenReturn(Optional.of(testFolder));
-        when(folderRepository.existsByName(updatedFolder.getName())).thenReturn(false);
         when(folderRepository.save(any(Folder.class))).thenReturn(updatedFolder);
 
         Optional<Folder> result = folderService.updateFolder(1L, updatedFolder);
@@ -105,7 +172,7 @@ class FolderServiceTest {
     @Test
     void deleteFolder_WithNoBookmarks_ShouldDeleteFolder() {
         when(folderRepository.findById(1L)).thenReturn(Optional.of(testFolder));
-        when(bookmarkRepository.countByFolderId(1L)).thenReturn(0);
+        when(bookmarkRepository.countInFolderTree(1L)).thenReturn(0);
 
         folderService.deleteFolder(1L);
 
@@ -115,7 +182,7 @@ class FolderServiceTest {
     @Test
     void deleteFolder_WithBookmarks_ShouldThrowException() {
         when(folderRepository.findById(1L)).thenReturn(Optional.of(testFolder));
-        when(bookmarkRepository.countByFolderId(1L)).thenReturn(1);
+        when(bookmarkRepository.countInFolderTree(1L)).thenReturn(1);
 
         assertThrows(IllegalStateException.class, () ->
             folderService.deleteFolder(1L)
@@ -132,4 +199,28 @@ class FolderServiceTest {
         assertEquals(folders.size(), result.size());
         assertEquals(folders.get(0).getName(), result.get(0).getName());
     }
+
+    @Test
+    void updateFolder_WithDuplicateName_ShouldThrowException() {
+        Folder updatedFolder = new Folder("Existing Folder");
+        when(folderRepository.findById(1L)).thenReturn(Optional.of(testFolder));
+        when(folderRepository.save(any(Folder.class))).thenThrow(new DuplicateKeyException("uk_folder_name_key"));
+
+        assertThrows(DuplicateFolderNameException.class, () ->
+            folderService.updateFolder(1L, updatedFolder)
+        );
+    }
+
+    @Test
+    void upsertFolderByName_WhenInsertRaceLost_ShouldRetryAndReturnFolder() {
+        when(folderRepository.upsertByName("Test Folder", "Test Description"))
+                .thenThrow(new DuplicateKeyException("uk_folder_name_key"))
+                .thenReturn(0);
+        when(folderRepository.findByNameIgnoreCase("Test Folder")).thenReturn(Optional.of(testFolder));
+
+        Folder result = folderService.upsertFolderByName("Test Folder", "Test Description");
+
+        assertEquals(testFolder.getId(), result.getId());
+        verify(folderRepository, times(2)).upsertByName("Test Folder", "Test Description");
+    }
 }
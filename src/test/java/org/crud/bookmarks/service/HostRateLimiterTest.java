@@ -0,0 +1,50 @@
+package org.crud.bookmarks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostRateLimiterTest {
+
+    private long now = 1_000_000_000L;
+
+    @Test
+    void tryAcquire_ShouldSpaceRequestsToGlobalRate() {
+        HostRateLimiter limiter = new HostRateLimiter(10, Duration.ZERO, () -> now);
+
+        assertEquals(0, limiter.tryAcquire("a.com"));
+        assertEquals(100_000_000L, limiter.tryAcquire("b.com"));
+
+        now += 100_000_000L;
+        assertEquals(0, limiter.tryAcquire("b.com"));
+    }
+
+    @Test
+    void tryAcquire_ShouldSpaceRequestsToSameHost() {
+        HostRateLimiter limiter = new HostRateLimiter(1000, Duration.ofSeconds(2), () -> now);
+
+        assertEquals(0, limiter.tryAcquire("a.com"));
+        now += 1_000_000L;
+        assertEquals(0, limiter.tryAcquire("b.com"));
+        assertEquals(1_999_000_000L, limiter.tryAcquire("a.com"));
+
+        now += 2_000_000_000L;
+        assertEquals(0, limiter.tryAcquire("a.com"));
+    }
+
+    @Test
+    void tryAcquire_WithoutHost_ShouldOnlyApplyGlobalRate() {
+        HostRateLimiter limiter = new HostRateLimiter(1000, Duration.ofSeconds(2), () -> now);
+
+        assertEquals(0, limiter.tryAcquire(null));
+        now += 1_000_000L;
+        assertEquals(0, limiter.tryAcquire(null));
+    }
+
+    @Test
+    void constructor_WithNonPositiveRate_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> new HostRateLimiter(0, Duration.ZERO, () -> now));
+    }
+}
@@ -0,0 +1,92 @@
+package org.crud.bookmarks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HtmlHeadParserTest {
+
+    private static final String PAGE = """
+            <!DOCTYPE html>
+            <html lang="en">
+            <head>
+              <meta charset="utf-8">
+              <!-- <title>Not this</title> -->
+              <title>
+                Spring &amp; Boot &#8211; Guide
+              </title>
+              <script>if (a < b) { document.write("<title>nope</title>"); }</script>
+              <meta name="Description" content="Learn &quot;Spring&quot; > fast">
+              <meta property="og:title" content="OG title">
+              <link rel="canonical" href="/guides/spring?ref=a&amp;b=c">
+              <link rel="shortcut icon" href="/static/icon.png">
+            </head>
+            <body><title>Body title</title></body>
+            </html>
+            """;
+
+    @Test
+    void parse_ShouldExtractHeadMetadata() {
+        PageMetadata metadata = HtmlHeadParser.parse(PAGE, "https://example.com/docs/page");
+
+        assertEquals("Spring & Boot – Guide", metadata.title());
+        assertEquals("Learn \"Spring\" > fast", metadata.description());
+        assertEquals("https://example.com/guides/spring?ref=a&b=c", metadata.canonicalUrl());
+        assertEquals("https://example.com/static/icon.png", metadata.faviconUrl());
+    }
+
+    @Test
+    void parse_WithoutDeclarations_ShouldFallBack() {
+        PageMetadata metadata = HtmlHeadParser.parse(
+                "<html><head><meta property=og:title content='Shared title'>"
+                        + "<meta property=\"og:description\" content=\"Shared\"></head></html>",
+                "https://example.com:8443/a/b");
+
+        assertEquals("Shared title", metadata.title());
+        assertEquals("Shared", metadata.description());
+        assertNull(metadata.canonicalUrl());
+        assertEquals("https://example.com:8443/favicon.ico", metadata.faviconUrl());
+    }
+
+    @Test
+    void feed_ShouldStopAtEndOfHead() {
+        HtmlHeadParser parser = new HtmlHeadParser();
+
+        assertFalse(parser.feed("<html><head><title>Chunked"));
+        assertFalse(parser.feed(" title</title><meta name=description"));
+        assertFalse(parser.feed(" content=\"Split tag\">"));
+        assertTrue(parser.feed("</head><body>"));
+        assertTrue(parser.feed("<title>ignored</title>"));
+
+        PageMetadata metadata = parser.result("https://example.com/");
+        assertEquals("Chunked title", metadata.title());
+        assertEquals("Split tag", metadata.description());
+    }
+
+    @Test
+    void feed_WithMultiByteCharacterSplitAcrossChunks_ShouldDecode() {
+        byte[] bytes = "<head><title>Café über</title></head>".getBytes(StandardCharsets.UTF_8);
+        int split = "<head><title>Caf".length() + 1; // inside the two-byte é
+        HtmlHeadParser parser = new HtmlHeadParser();
+
+        assertFalse(parser.feed(Arrays.copyOfRange(bytes, 0, split)));
+        assertTrue(parser.feed(Arrays.copyOfRange(bytes, split, bytes.length)));
+
+        assertEquals("Café über", parser.result("https://example.com/").title());
+    }
+
+    @Test
+    void feed_WithoutHeadEnd_ShouldStopAtLimit() {
+        HtmlHeadParser parser = new HtmlHeadParser();
+        String filler = "<meta name=x content=y>".repeat(1000);
+        boolean done = false;
+        for (int i = 0; i < 20 && !done; i++) {
+            done = parser.feed(filler);
+        }
+
+        assertTrue(done);
+    }
+}
@@ -0,0 +1,152 @@
+package org.crud.bookmarks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link IdempotencyStore}.
+ */
+class IdempotencyStoreTest {
+
+    private static final byte[] PAYLOAD = IdempotencyStore.fingerprint("title", "https://example.com", null);
+
+    private final AtomicLong now = new AtomicLong();
+    private final IdempotencyStore store = new IdempotencyStore(Duration.ofSeconds(10), 3, now::get);
+
+    @Test
+    void execute_WithSameKey_ShouldRunActionOnce() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = store.execute("key", PAYLOAD, () -> "result-" + calls.incrementAndGet());
+        String second = store.execute("key", PAYLOAD, () -> "result-" + calls.incrementAndGet());
+
+        assertEquals("result-1", first);
+        assertEquals("result-1", second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_WithDifferentFingerprint_ShouldThrowException() {
+        store.execute("key", PAYLOAD, () -> "result");
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.execute("key", IdempotencyStore.fingerprint("other"), () -> "other"));
+    }
+
+    @Test
+    void execute_AfterTtl_ShouldRunActionAgain() {
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("key", PAYLOAD, calls::incrementAndGet);
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertEquals(2, store.execute("key", PAYLOAD, calls::incrementAndGet));
+    }
+
+    @Test
+    void execute_WhenActionFails_ShouldNotStoreFailure() {
+        assertThrows(IllegalArgumentException.class, () -> store.execute("key", PAYLOAD, () -> {
+            throw new IllegalArgumentException("invalid");
+        }));
+
+        assertEquals("retried", store.execute("key", PAYLOAD, () -> "retried"));
+    }
+
+    @Test
+    void execute_WhenFull_ShouldEvictOldestCompletedEntries() {
+        for (int i = 0; i < 10; i++) {
+            now.incrementAndGet();
+            store.execute("key-" + i, PAYLOAD, () -> "result");
+        }
+
+        assertTrue(store.size() <= 4, "Store should stay bounded but had " + store.size());
+    }
+
+    @Test
+    void execute_WithPayloadOfSameHashCode_ShouldThrowException() {
+        // "Aa" and "BB" have the same String hash code
+        assertEquals(Objects.hash("Aa"), Objects.hash("BB"));
+        store.execute("key", IdempotencyStore.fingerprint("Aa"), () -> "result");
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("key", IdempotencyStore.fingerprint("BB"), () -> "other"));
+    }
+
+    @Test
+    void fingerprint_ShouldDependOnFieldBoundariesAndNulls() {
+        assertArrayEquals(IdempotencyStore.fingerprint("a", 1L), IdempotencyStore.fingerprint("a", 1L));
+        assertFalse(Arrays.equals(IdempotencyStore.fingerprint("ab", "c"), IdempotencyStore.fingerprint("a", "bc")));
+        assertFalse(Arrays.equals(IdempotencyStore.fingerprint("a", null), IdempotencyStore.fingerprint("a", "")));
+    }
+
+    @Test
+    void execute_AfterTtl_ShouldDropExpiredEntries() {
+        IdempotencyStore large = new IdempotencyStore(Duration.ofSeconds(10), 100, now::get);
+        for (int i = 0; i < 50; i++) {
+            large.execute("key-" + i, PAYLOAD, () -> "result");
+        }
+
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        large.execute("fresh", PAYLOAD, () -> "result");
+
+        assertEquals(1, large.size());
+    }
+
+    @Test
+    void execute_WhenFull_ShouldKeepNewestEntries() {
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            now.incrementAndGet();
+            store.execute("key-" + i, PAYLOAD, calls::incrementAndGet);
+        }
+
+        assertEquals(10, store.execute("key-9", PAYLOAD, calls::incrementAndGet));
+        assertEquals(11, store.execute("key-0", PAYLOAD, calls::incrementAndGet));
+    }
+
+    @Test
+    void execute_WithConcurrentDuplicates_ShouldWaitForFirstExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> first = executor.submit(() -> store.execute("key", PAYLOAD, () -> {
+                running.countDown();
+                awaitQuietly(release);
+                return calls.incrementAndGet();
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            Future<Integer> duplicate1 = executor.submit(() -> store.execute("key", PAYLOAD, calls::incrementAndGet));
+            Future<Integer> duplicate2 = executor.submit(() -> store.execute("key", PAYLOAD, calls::incrementAndGet));
+            release.countDown();
+
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, duplicate1.get(5, TimeUnit.SECONDS));
+            assertEquals(1, duplicate2.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.LinkCheckRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link LinkRotScanner} against an embedded H2 database.
+ */
+@ExtendWith(MockitoExtension.class)
+class LinkRotScannerTest {
+
+    @Mock
+    private UrlValidator urlValidator;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private LinkRotScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        scanner = new LinkRotScanner(new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()),
+                new LinkCheckRepository(jdbcTemplate), new DataSourceTransactionManager(database), urlValidator,
+                false, Duration.ZERO, Duration.ofMillis(1), 1000, Duration.ZERO, 2, 2, 10);
+
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO bookmarks (id, title, url, host) VALUES (?, ?, ?, ?)",
+                    id, "Bookmark " + id, "https://host" + id + ".com/", "host" + id + ".com");
+        }
+    }
+
+    private void stubHost2Broken() {
+        when(urlValidator.check(anyString())).thenAnswer(invocation ->
+                invocation.getArgument(0).equals("https://host2.com/")
+                        ? new UrlValidator.CheckResult(false, 404, "HTTP 404 NOT_FOUND")
+                        : new UrlValidator.CheckResult(true, null, null));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        scanner.shutdown();
+        database.shutdown();
+    }
+
+    @Test
+    void sweepStep_ShouldCheckBatchesAndAdvanceCursor() throws InterruptedException {
+        stubHost2Broken();
+
+        assertEquals(2, scanner.sweepStep());
+        assertEquals(2, scanner.getStatus().cursor());
+        assertEquals(1, scanner.sweepStep());
+        assertEquals(0, scanner.sweepStep());
+
+        LinkRotScanner.ScanStatus status = scanner.getStatus();
+        assertNull(status.sweepStartedAt());
+        assertNotNull(status.lastSweepFinishedAt());
+        assertEquals(3, status.checkedInSweep());
+        assertEquals(1, status.brokenInSweep());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM link_checks", Integer.class));
+
+        List<LinkRotScanner.BrokenLink> broken = scanner.findBrokenLinks(10);
+        assertEquals(1, broken.size());
+        assertEquals(2L, broken.get(0).bookmarkId());
+        assertEquals("BROKEN", broken.get(0).status());
+        assertEquals(404, broken.get(0).httpStatus());
+    }
+
+    @Test
+    void sweepStep_InNextSweep_ShouldCountConsecutiveFailures() throws InterruptedException {
+        stubHost2Broken();
+        while (scanner.sweepStep() > 0) {
+            // first sweep
+        }
+        Thread.sleep(5);
+        assertEquals(2, scanner.sweepStep());
+
+        assertEquals(2, scanner.findBrokenLinks(10).get(0).consecutiveFailures());
+    }
+
+    @Test
+    void sweepStep_WhenBookmarkDeletedDuringCheck_ShouldSkipIt() throws InterruptedException {
+        when(urlValidator.check(anyString())).thenAnswer(invocation -> {
+            if (invocation.getArgument(0).equals("https://host1.com/")) {
+                jdbcTemplate.update("DELETE FROM bookmarks WHERE id = 1");
+            }
+            return new UrlValidator.CheckResult(true, null, null);
+        });
+
+        assertEquals(2, scanner.sweepStep());
+
+        assertEquals(List.of(2L), jdbcTemplate.queryForList("SELECT bookmark_id FROM link_checks", Long.class));
+        assertEquals(2, scanner.getStatus().cursor());
+    }
+
+    @Test
+    void findBrokenLinks_WithInvalidLimit_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> scanner.findBrokenLinks(0));
+    }
+}
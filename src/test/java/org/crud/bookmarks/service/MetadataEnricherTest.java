@@ -0,0 +1,186 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkMetadataRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link MetadataEnricher} against an embedded H2 database. The pipeline threads
+ * aren't started; queued bookmarks are processed on the test thread.
+ */
+@ExtendWith(MockitoExtension.class)
+class MetadataEnricherTest {
+
+    @Mock
+    private UrlValidator urlValidator;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private MetadataEnricher enricher;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        enricher = new MetadataEnricher(new BookmarkMetadataRepository(jdbcTemplate), urlValidator, true, 2, 2, 10, Duration.ofDays(1));
+
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO bookmarks (id, title, url, created_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)",
+                    id, "Bookmark " + id, url(id));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        enricher.shutdown();
+        database.shutdown();
+    }
+
+    private static String url(long id) {
+        return "https://host" + id + ".com/";
+    }
+
+    private void save(long id) {
+        Bookmark bookmark = new Bookmark("Bookmark " + id, url(id));
+        bookmark.setId(id);
+        enricher.onBookmarkChange(BookmarkChangeEvent.saved(bookmark));
+    }
+
+    private static PageMetadata metadata(String title) {
+        return new PageMetadata(title, "About " + title, null, "https://example.com/favicon.ico");
+    }
+
+    @Test
+    void processQueued_ShouldPersistFetchedMetadata() {
+        when(urlValidator.fetchMetadata(url(1))).thenReturn(metadata("Page one"));
+
+        save(1);
+        assertEquals(1, enricher.processQueued());
+
+        MetadataEnricher.BookmarkMetadata stored = enricher.getMetadata(1L).orElseThrow();
+        assertEquals("OK", stored.status());
+        assertEquals("Page one", stored.title());
+        assertEquals(url(1), stored.sourceUrl());
+        assertEquals("Bookmark 1", jdbcTemplate.queryForObject("SELECT title FROM bookmarks WHERE id = 1", String.class));
+        assertEquals(1, enricher.getStats().persisted());
+        assertTrue(enricher.getStats().itemsPerSecond() > 0);
+    }
+
+    @Test
+    void onBookmarkChange_WhenQueueFull_ShouldDropAndCatchUpLater() throws InterruptedException {
+        when(urlValidator.fetchMetadata(url(1))).thenReturn(metadata("Page one"));
+        when(urlValidator.fetchMetadata(url(2))).thenReturn(metadata("Page two"));
+        when(urlValidator.fetchMetadata(url(3))).thenReturn(metadata("Page three"));
+
+        save(1);
+        save(2);
+        save(3);
+
+        MetadataEnricher.EnrichmentStats stats = enricher.getStats();
+        assertEquals(2, stats.queueDepth());
+        assertEquals(2, stats.enqueued());
+        assertEquals(1, stats.dropped());
+
+        assertEquals(2, enricher.processQueued());
+        assertEquals(1, enricher.catchUp());
+        assertEquals(1, enricher.processQueued());
+        assertEquals("Page three", enricher.getMetadata(3L).orElseThrow().title());
+        assertEquals(0, enricher.catchUp());
+    }
+
+    @Test
+    void onBookmarkChange_WhenAlreadyQueued_ShouldQueueOnce() {
+        save(1);
+        save(1);
+
+        assertEquals(1, enricher.getStats().queueDepth());
+        assertEquals(0, enricher.getStats().dropped());
+    }
+
+    @Test
+    void processQueued_WhenUrlAlreadyFetched_ShouldSkipFetch() {
+        when(urlValidator.fetchMetadata(url(1))).thenReturn(metadata("Page one"));
+
+        save(1);
+        enricher.processQueued();
+        save(1);
+
+        assertEquals(0, enricher.processQueued());
+        verify(urlValidator, times(1)).fetchMetadata(url(1));
+    }
+
+    @Test
+    void processQueued_WhenRefetchFails_ShouldKeepPreviousMetadata() {
+        when(urlValidator.fetchMetadata(url(1)))
+                .thenReturn(metadata("Page one"))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        save(1);
+        enricher.processQueued();
+        // Force a re-fetch of the same URL
+        jdbcTemplate.update("UPDATE bookmark_metadata SET status = 'FAILED' WHERE bookmark_id = 1");
+        save(1);
+        enricher.processQueued();
+
+        MetadataEnricher.BookmarkMetadata stored = enricher.getMetadata(1L).orElseThrow();
+        assertEquals("FAILED", stored.status());
+        assertEquals("Connection refused", stored.error());
+        assertEquals("Page one", stored.title());
+        assertEquals(1, enricher.getStats().failed());
+    }
+
+    @Test
+    void processQueued_WhenUrlChangedAndFetchFails_ShouldClearStaleMetadata() {
+        when(urlValidator.fetchMetadata(url(1))).thenReturn(metadata("Page one"));
+        when(urlValidator.fetchMetadata("https://moved.com/")).thenThrow(new RuntimeException("Timeout"));
+
+        save(1);
+        enricher.processQueued();
+        jdbcTemplate.update("UPDATE bookmarks SET url = 'https://moved.com/' WHERE id = 1");
+        save(1);
+        enricher.processQueued();
+
+        MetadataEnricher.BookmarkMetadata stored = enricher.getMetadata(1L).orElseThrow();
+        assertEquals("https://moved.com/", stored.sourceUrl());
+        assertNull(stored.title());
+    }
+
+    @Test
+    void processQueued_WhenBookmarkDeleted_ShouldSkipIt() {
+        save(2);
+        jdbcTemplate.update("DELETE FROM bookmarks WHERE id = 2");
+
+        assertEquals(0, enricher.processQueued());
+        verify(urlValidator, never()).fetchMetadata(url(2));
+        assertTrue(enricher.getMetadata(2L).isEmpty());
+    }
+
+    @Test
+    void onBookmarkChange_WithDeleteEvent_ShouldIgnoreIt() {
+        enricher.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(1L)));
+
+        assertEquals(0, enricher.getStats().queueDepth());
+    }
+}
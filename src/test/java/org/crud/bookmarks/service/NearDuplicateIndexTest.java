@@ -0,0 +1,132 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link SimHash} and {@link NearDuplicateIndex}.
+ */
+@ExtendWith(MockitoExtension.class)
+class NearDuplicateIndexTest {
+
+    @Mock
+    private BookmarkRepository bookmarkRepository;
+
+    @Mock
+    private BookmarkBulkRepository bulkRepository;
+
+    private NearDuplicateIndex index;
+
+    private final List<Bookmark> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        index = new NearDuplicateIndex(bookmarkRepository, bulkRepository, 3);
+    }
+
+    private Bookmark save(long id, String title, String url) {
+        Bookmark bookmark = new Bookmark(title, url);
+        bookmark.setId(id);
+        stored.add(bookmark);
+        index.apply(BookmarkChangeEvent.saved(bookmark));
+        return bookmark;
+    }
+
+    private void stubFindAllById() {
+        when(bookmarkRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<?> ids = (Collection<?>) invocation.getArgument(0);
+            return stored.stream().filter(bookmark -> ids.contains(bookmark.getId())).toList();
+        });
+    }
+
+    @Test
+    void fingerprint_ShouldBeCloseForNearDuplicates() {
+        long original = SimHash.fingerprint("https://example.com/articles/java-streams-guide?ref=twitter",
+                "Java Streams Guide - Example Blog");
+        long variant = SimHash.fingerprint("https://www.example.com/articles/java-streams-guide/", "Java Streams Guide");
+        long unrelated = SimHash.fingerprint("https://other.org/recipes/banana-bread", "Banana bread recipe");
+
+        assertTrue(SimHash.distance(original, variant) <= 3);
+        assertTrue(SimHash.distance(original, unrelated) > 3);
+    }
+
+    @Test
+    void fingerprint_ShouldIgnoreTrackingParameters() {
+        assertEquals(SimHash.fingerprint("https://example.com/a?id=1", "Title"),
+                SimHash.fingerprint("https://example.com/a?id=1&utm_source=mail", "Title"));
+    }
+
+    @Test
+    void findClusters_ShouldGroupNearDuplicates() {
+        save(1L, "Java Streams Guide - Example Blog", "https://example.com/articles/java-streams-guide?ref=twitter");
+        save(2L, "Java Streams Guide", "https://www.example.com/articles/java-streams-guide/");
+        save(3L, "Java Streams Guide | Example", "https://example.com/articles/java-streams-guide?page=2");
+        save(4L, "Banana bread recipe", "https://other.org/recipes/banana-bread");
+        stubFindAllById();
+
+        List<NearDuplicateIndex.DuplicateCluster> clusters = index.findClusters(10);
+
+        assertEquals(1, clusters.size());
+        assertEquals(3, clusters.get(0).size());
+        assertEquals(List.of(1L, 2L, 3L), clusters.get(0).bookmarks().stream().map(Bookmark::getId).toList());
+    }
+
+    @Test
+    void findClusters_AfterDelete_ShouldDropBookmark() {
+        save(1L, "Java Streams Guide - Example Blog", "https://example.com/articles/java-streams-guide?ref=twitter");
+        save(2L, "Java Streams Guide", "https://www.example.com/articles/java-streams-guide/");
+
+        index.apply(BookmarkChangeEvent.deleted(List.of(2L)));
+
+        assertTrue(index.findClusters(10).isEmpty());
+        verify(bookmarkRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void findClusters_AfterUpdate_ShouldUseNewFingerprint() {
+        save(1L, "Java Streams Guide", "https://example.com/articles/java-streams-guide");
+        Bookmark other = save(2L, "Java Streams Guide", "https://www.example.com/articles/java-streams-guide/");
+        other.setTitle("Banana bread recipe");
+        other.setUrl("https://other.org/recipes/banana-bread");
+
+        index.apply(BookmarkChangeEvent.saved(other));
+
+        assertTrue(index.findClusters(10).isEmpty());
+    }
+
+    @Test
+    void rebuild_ShouldReplaceFingerprintsWithStoredBookmarks() {
+        save(1L, "Java Streams Guide", "https://example.com/articles/java-streams-guide");
+        save(2L, "Java Streams Guide", "https://www.example.com/articles/java-streams-guide/");
+        // A restore replaced them with two other near-duplicates
+        stored.clear();
+        Bookmark three = new Bookmark("Banana bread recipe", "https://other.org/recipes/banana-bread");
+        three.setId(3L);
+        Bookmark four = new Bookmark("Banana bread recipe", "https://www.other.org/recipes/banana-bread/");
+        four.setId(4L);
+        stored.addAll(List.of(three, four));
+        when(bulkRepository.findAfter(0L, 500)).thenReturn(List.of(three, four));
+        when(bulkRepository.findAfter(4L, 500)).thenReturn(List.of());
+        stubFindAllById();
+
+        index.rebuild();
+
+        List<NearDuplicateIndex.DuplicateCluster> clusters = index.findClusters(10);
+        assertEquals(1, clusters.size());
+        assertEquals(List.of(3L, 4L), clusters.get(0).bookmarks().stream().map(Bookmark::getId).toList());
+    }
+}
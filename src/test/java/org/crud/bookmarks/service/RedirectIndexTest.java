@@ -0,0 +1,153 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link RedirectIndex} against an embedded H2 database.
+ */
+@ExtendWith(MockitoExtension.class)
+class RedirectIndexTest {
+
+    @Mock
+    private BookmarkRepository bookmarkRepository;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private RedirectIndex index;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        index = new RedirectIndex(bookmarkRepository, new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()));
+
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (1, 'One', 'https://one.com/')");
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (2, 'Two', 'https://two.com/')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private static Bookmark bookmark(long id, String url) {
+        Bookmark bookmark = new Bookmark("Bookmark " + id, url);
+        bookmark.setId(id);
+        return bookmark;
+    }
+
+    @Test
+    void findUrl_BeforeLoad_ShouldQueryDatabase() {
+        when(bookmarkRepository.findUrlById(1L)).thenReturn(Optional.of("https://one.com/"));
+
+        assertEquals("https://one.com/", index.findUrl(1));
+    }
+
+    @Test
+    void findUrl_AfterLoad_ShouldServeFromMemory() {
+        index.rebuild();
+
+        assertEquals("https://one.com/", index.findUrl(1));
+        assertEquals("https://two.com/", index.findUrl(2));
+        assertNull(index.findUrl(3));
+        assertNull(index.findUrl(-1));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void onBookmarkChange_ShouldFollowSavesAndDeletes() {
+        index.rebuild();
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (3, 'Three', 'https://three.com/')");
+        jdbcTemplate.update("UPDATE bookmarks SET url = 'https://one.org/' WHERE id = 1");
+
+        index.onBookmarkChange(BookmarkChangeEvent.saved(bookmark(3, "https://three.com/")));
+        index.onBookmarkChange(BookmarkChangeEvent.saved(bookmark(1, "https://one.org/")));
+        index.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(2L, 99L)));
+
+        assertEquals("https://one.org/", index.findUrl(1));
+        assertNull(index.findUrl(2));
+        assertEquals("https://three.com/", index.findUrl(3));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void onBookmarkChange_WithFarOffIds_ShouldUseOverflowMap() {
+        index.rebuild();
+        long farId = 5_000_000_000L;
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (?, 'Far', 'https://far.com/')", farId);
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (1000, 'Grown', 'https://grown.com/')");
+
+        index.onBookmarkChange(BookmarkChangeEvent.saved(bookmark(farId, "https://far.com/")));
+        index.onBookmarkChange(BookmarkChangeEvent.saved(bookmark(1000, "https://grown.com/")));
+
+        assertEquals("https://far.com/", index.findUrl(farId));
+        assertEquals("https://grown.com/", index.findUrl(1000));
+        assertEquals("https://one.com/", index.findUrl(1));
+        assertEquals(4, index.size());
+
+        index.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(farId)));
+        assertNull(index.findUrl(farId));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void onBookmarkChange_WithStaleSave_ShouldKeepCommittedUrl() {
+        index.rebuild();
+        // The event of an earlier transaction arrives after the next update committed
+        jdbcTemplate.update("UPDATE bookmarks SET url = 'https://one.net/' WHERE id = 1");
+
+        index.onBookmarkChange(BookmarkChangeEvent.saved(bookmark(1, "https://one.org/")));
+
+        assertEquals("https://one.net/", index.findUrl(1));
+    }
+
+    @Test
+    void onBookmarkChange_WithSaveOfDeletedBookmark_ShouldRemoveIt() {
+        index.rebuild();
+        jdbcTemplate.update("DELETE FROM bookmarks WHERE id = 2");
+
+        // The delete's event was handled before the save's
+        index.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(2L)));
+        index.onBookmarkChange(BookmarkChangeEvent.saved(bookmark(2, "https://two.org/")));
+
+        assertNull(index.findUrl(2));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void rebuild_ShouldReplaceContents() {
+        index.rebuild();
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (50, 'Stale', 'https://stale.com/')");
+        index.onBookmarkChange(BookmarkChangeEvent.saved(bookmark(50, "https://stale.com/")));
+        jdbcTemplate.update("DELETE FROM bookmarks WHERE id IN (1, 50)");
+
+        index.rebuild();
+
+        assertNull(index.findUrl(1));
+        assertNull(index.findUrl(50));
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,78 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.service.SearchFacets.FacetCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SearchFacetCounter} against an embedded H2 database.
+ */
+class SearchFacetCounterTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SearchFacetCounter facetCounter;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        facetCounter = new SearchFacetCounter(new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()));
+
+        jdbcTemplate.update("INSERT INTO folders (id, name) VALUES (1, 'Work')");
+        insert(1, "Spring guide", null, "docs.spring.io", 1L, LocalDateTime.of(2024, 1, 5, 10, 0));
+        insert(2, "Other", "All about spring", "docs.spring.io", 1L, LocalDateTime.of(2024, 1, 20, 10, 0));
+        insert(3, "Spring blog", null, "spring.io", null, LocalDateTime.of(2024, 3, 1, 10, 0));
+        insert(4, "Java news", null, "java.com", 1L, LocalDateTime.of(2024, 3, 1, 10, 0));
+        insert(5, "100% spring", null, "example.com", null, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private void insert(long id, String title, String description, String host, Long folderId, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO bookmarks (id, title, description, url, host, folder_id, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?)",
+                id, title, description, "https://" + host + "/" + id, host, folderId,
+                createdAt != null ? Timestamp.valueOf(createdAt) : null);
+    }
+
+    @Test
+    void count_ShouldCountMatchesByFolderHostAndMonth() {
+        SearchFacets facets = facetCounter.count("SPRING");
+
+        assertEquals(List.of(new FacetCount(null, 2), new FacetCount("1", 2)), facets.folders());
+        assertEquals(List.of(new FacetCount("docs.spring.io", 2), new FacetCount("example.com", 1),
+                new FacetCount("spring.io", 1)), facets.hosts());
+        assertEquals(List.of(new FacetCount("2024-03", 1), new FacetCount("2024-01", 2)), facets.months());
+        assertTrue(facets.computeMicros() >= 0);
+    }
+
+    @Test
+    void count_ShouldMatchWildcardCharactersLiterally() {
+        SearchFacets facets = facetCounter.count("0% s");
+
+        assertEquals(List.of(new FacetCount("example.com", 1)), facets.hosts());
+        assertTrue(facets.months().isEmpty());
+        assertTrue(facetCounter.count("_").hosts().isEmpty());
+    }
+}
@@ -0,0 +1,131 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.SnapshotRepository;
+import org.crud.bookmarks.service.SnapshotService.SnapshotResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link SnapshotService} against an embedded H2 database.
+ */
+class SnapshotServiceTest {
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private SnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        snapshotService = new SnapshotService(new SnapshotRepository(jdbcTemplate), snapshotDirectory.toString(), 2);
+
+        jdbcTemplate.update("INSERT INTO folders (name, description) VALUES ('Work', 'Work links')");
+        Long folderId = jdbcTemplate.queryForObject("SELECT id FROM folders", Long.class);
+        for (int i = 0; i < 5; i++) {
+            jdbcTemplate.update("INSERT INTO bookmarks (title, url, folder_id) VALUES (?, ?, ?)",
+                    "Bookmark " + i, "https://example.com/" + i, i % 2 == 0 ? folderId : null);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void snapshotAndRestore_ShouldRoundTripAllRows() {
+        SnapshotResult snapshot = snapshotService.createSnapshot();
+        assertEquals(1, snapshot.folders());
+        assertEquals(5, snapshot.bookmarks());
+        assertTrue(Files.exists(snapshotDirectory.resolve(snapshot.name())));
+
+        jdbcTemplate.update("DELETE FROM bookmarks WHERE title = 'Bookmark 0'");
+        jdbcTemplate.update("INSERT INTO bookmarks (title, url) VALUES ('Later', 'https://later.com')");
+
+        SnapshotResult restored = snapshotService.restoreSnapshot(snapshot.name());
+
+        assertEquals(snapshot.checksum(), restored.checksum());
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks WHERE folder_id IS NOT NULL", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks WHERE title = 'Later'", Integer.class));
+    }
+
+    @Test
+    void snapshotAndRestore_ShouldRoundTripTagAssignments() {
+        jdbcTemplate.update("INSERT INTO tags (name) VALUES ('java')");
+        jdbcTemplate.update("INSERT INTO bookmark_tags (bookmark_id, tag_id) " +
+                "SELECT b.id, t.id FROM bookmarks b CROSS JOIN tags t WHERE b.folder_id IS NOT NULL");
+        SnapshotResult snapshot = snapshotService.createSnapshot();
+
+        jdbcTemplate.update("DELETE FROM tags");
+        snapshotService.restoreSnapshot(snapshot.name());
+
+        assertEquals("java", jdbcTemplate.queryForObject("SELECT name FROM tags", String.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmark_tags", Integer.class));
+    }
+
+    @Test
+    void snapshotAndRestore_ShouldRestoreNestedFoldersAndPaths() {
+        // The existing folder ends up below a newer one, so parents don't precede children by ID
+        jdbcTemplate.update("INSERT INTO folders (id, name) VALUES (10, 'Projects'), (11, 'Archive')");
+        jdbcTemplate.update("INSERT INTO folder_paths (ancestor_id, descendant_id, depth) VALUES "
+                + "(10, 10, 0), (11, 11, 0), (11, 10, 1)");
+        jdbcTemplate.update("UPDATE folders SET parent_id = 11 WHERE id = 10");
+        Long workId = jdbcTemplate.queryForObject("SELECT id FROM folders WHERE name = 'Work'", Long.class);
+        jdbcTemplate.update("INSERT INTO folder_paths (ancestor_id, descendant_id, depth) VALUES (?, ?, 0), (10, ?, 1), (11, ?, 2)",
+                workId, workId, workId, workId);
+        jdbcTemplate.update("UPDATE folders SET parent_id = 10 WHERE id = ?", workId);
+        SnapshotResult snapshot = snapshotService.createSnapshot();
+
+        snapshotService.restoreSnapshot(snapshot.name());
+
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM folder_paths", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT depth FROM folder_paths WHERE ancestor_id = 11 AND descendant_id = ?", Integer.class, workId));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookmarks b "
+                + "JOIN folder_paths p ON p.descendant_id = b.folder_id WHERE p.ancestor_id = 11", Integer.class));
+    }
+
+    @Test
+    void restoreSnapshot_ShouldContinueIdentityAfterRestoredIds() {
+        SnapshotResult snapshot = snapshotService.createSnapshot();
+        snapshotService.restoreSnapshot(snapshot.name());
+
+        jdbcTemplate.update("INSERT INTO bookmarks (title, url) VALUES ('New', 'https://new.com')");
+
+        assertEquals(6, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM bookmarks", Integer.class));
+    }
+
+    @Test
+    void restoreSnapshot_WithUnknownName_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> snapshotService.restoreSnapshot("missing.snap.gz"));
+        assertThrows(IllegalArgumentException.class, () -> snapshotService.restoreSnapshot("../schema.sql"));
+    }
+
+    @Test
+    void restoreSnapshot_WithCorruptFile_ShouldThrowException() throws IOException {
+        Files.write(snapshotDirectory.resolve("corrupt.snap.gz"), new byte[]{1, 2, 3, 4});
+
+        assertThrows(RuntimeException.class, () -> snapshotService.restoreSnapshot("corrupt.snap.gz"));
+    }
+}
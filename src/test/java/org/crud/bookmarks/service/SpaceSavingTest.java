@@ -0,0 +1,115 @@
+package org.crud.bookmarks.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void add_BelowCapacity_ShouldCountExactly() {
+        SpaceSaving summary = new SpaceSaving(4);
+        summary.add(1);
+        summary.add(2);
+        summary.add(1);
+
+        assertEquals(2, summary.count(1));
+        assertEquals(1, summary.count(2));
+        assertEquals(0, summary.error(1));
+        assertEquals(-1, summary.count(3));
+        assertEquals(0, summary.unmonitoredBound());
+    }
+
+    @Test
+    void add_WhenFull_ShouldReplaceMinimumAndInheritItsCount() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add(1);
+        summary.add(1);
+        summary.add(2);
+        summary.add(3);
+
+        assertEquals(-1, summary.count(2));
+        assertEquals(2, summary.count(3));
+        assertEquals(1, summary.error(3));
+        assertEquals(2, summary.count(1));
+        assertEquals(2, summary.unmonitoredBound());
+    }
+
+    @Test
+    void addCount_ShouldMatchAddingOneByOne() {
+        SpaceSaving bulk = new SpaceSaving(2);
+        SpaceSaving single = new SpaceSaving(2);
+        long[][] stream = {{1, 3}, {2, 1}, {3, 2}, {1, 1}, {4, 5}};
+        for (long[] visits : stream) {
+            bulk.add(visits[0], visits[1]);
+            for (int i = 0; i < visits[1]; i++) {
+                single.add(visits[0]);
+            }
+        }
+
+        for (long id = 1; id <= 4; id++) {
+            assertEquals(single.count(id), bulk.count(id));
+            assertEquals(single.error(id), bulk.error(id));
+        }
+        assertEquals(single.total(), bulk.total());
+        assertThrows(IllegalArgumentException.class, () -> bulk.add(1, 0));
+    }
+
+    /**
+     * Error bound check on a skewed stream: one million visits over 100,000 bookmarks with Zipf
+     * (s = 1.1) popularity, summarized with 1000 counters. Every count must lie within its
+     * error of the truth, errors must stay below total / capacity (1000 visits), and the true
+     * top 20 must be reported with exact counts.
+     */
+    @Test
+    void add_WithZipfStream_ShouldStayWithinErrorBound() {
+        int capacity = 1000;
+        int items = 100_000;
+        int visits = 1_000_000;
+        double[] cumulative = new double[items];
+        double sum = 0;
+        for (int i = 0; i < items; i++) {
+            sum += 1 / Math.pow(i + 1, 1.1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(42);
+        Map<Long, Long> truth = new HashMap<>();
+        SpaceSaving summary = new SpaceSaving(capacity);
+        for (int n = 0; n < visits; n++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            long id = index >= 0 ? index : -index - 1;
+            truth.merge(id, 1L, Long::sum);
+            summary.add(id);
+        }
+
+        long bound = visits / capacity;
+        long[] maxError = new long[1];
+        summary.forEach((id, count, error) -> {
+            long actual = truth.get(id);
+            assertTrue(count >= actual && count - error <= actual, "count of " + id + " out of bounds");
+            maxError[0] = Math.max(maxError[0], error);
+        });
+        assertTrue(maxError[0] <= bound, "max error " + maxError[0] + " exceeds " + bound);
+        for (long id = 0; id < 20; id++) {
+            assertEquals(truth.get(id).longValue(), summary.count(id));
+            assertEquals(0, summary.error(id));
+        }
+        assertEquals(visits, summary.total());
+    }
+
+    @Test
+    void clear_ShouldForgetAllCounters() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add(1);
+        summary.clear();
+
+        assertEquals(0, summary.size());
+        assertEquals(-1, summary.count(1));
+        assertEquals(0, summary.total());
+    }
+}
@@ -0,0 +1,112 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.crud.bookmarks.repository.TagBulkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link TagIndex} against an embedded H2 database.
+ */
+class TagIndexTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private TagIndex tagIndex;
+    private long folderId;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        tagIndex = new TagIndex(new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()),
+                new TagBulkRepository(jdbcTemplate));
+
+        jdbcTemplate.update("INSERT INTO folders (id, name) VALUES (1, 'Work')");
+        folderId = 1;
+        for (long id = 1; id <= 6; id++) {
+            jdbcTemplate.update("INSERT INTO bookmarks (id, title, url, folder_id) VALUES (?, ?, ?, ?)",
+                    id, "Bookmark " + id, "https://example.com/" + id, id <= 3 ? folderId : null);
+        }
+        jdbcTemplate.update("INSERT INTO tags (id, name) VALUES (10, 'java'), (11, 'spring'), (12, 'old')");
+        assign(10, 1, 2, 3, 4);
+        assign(11, 2, 4, 5);
+        assign(12, 4);
+        tagIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    private void assign(long tagId, long... bookmarkIds) {
+        for (long bookmarkId : bookmarkIds) {
+            jdbcTemplate.update("INSERT INTO bookmark_tags (bookmark_id, tag_id) VALUES (?, ?)", bookmarkId, tagId);
+        }
+    }
+
+    @Test
+    void query_ShouldCombineAllAnyAndNone() {
+        assertArrayEquals(new long[]{2, 4}, tagIndex.query(List.of(10L, 11L), List.of(), List.of(), null).toArray());
+        assertArrayEquals(new long[]{1, 2, 3, 4, 5}, tagIndex.query(List.of(), List.of(10L, 11L), List.of(), null).toArray());
+        assertArrayEquals(new long[]{2}, tagIndex.query(List.of(10L, 11L), List.of(), List.of(12L), null).toArray());
+        assertArrayEquals(new long[]{1, 3, 6}, tagIndex.query(List.of(), List.of(), List.of(11L), null).toArray());
+    }
+
+    @Test
+    void query_WithFolder_ShouldRestrictToFolder() {
+        CompressedBitmap folder = tagIndex.folderBookmarks(folderId);
+
+        assertArrayEquals(new long[]{2}, tagIndex.query(List.of(), List.of(11L), List.of(), folder).toArray());
+    }
+
+    @Test
+    void query_WithUnknownRequiredTag_ShouldMatchNothing() {
+        assertTrue(tagIndex.query(List.of(10L, 99L), List.of(), List.of(), null).isEmpty());
+    }
+
+    @Test
+    void onTagChange_ShouldFollowCommittedAssignments() {
+        assign(12, 5);
+        jdbcTemplate.update("DELETE FROM bookmark_tags WHERE tag_id = 12 AND bookmark_id = 4");
+
+        tagIndex.onTagChange(TagChangeEvent.membership(List.of(12L), List.of(4L, 5L)));
+
+        assertEquals(1, tagIndex.count(12L));
+        assertArrayEquals(new long[]{5}, tagIndex.query(List.of(12L), List.of(), List.of(), null).toArray());
+    }
+
+    @Test
+    void onBookmarkChange_WhenDeleted_ShouldRemoveFromAllTags() {
+        jdbcTemplate.update("DELETE FROM bookmarks WHERE id = 4");
+
+        tagIndex.onBookmarkChange(BookmarkChangeEvent.deleted(List.of(4L)));
+
+        assertEquals(3, tagIndex.count(10L));
+        assertEquals(0, tagIndex.count(12L));
+        assertArrayEquals(new long[]{1, 2, 3, 5, 6}, tagIndex.query(List.of(), List.of(), List.of(), null).toArray());
+    }
+
+    @Test
+    void onTagChange_WhenTagDeleted_ShouldDropBitmap() {
+        tagIndex.onTagChange(TagChangeEvent.deleted(10L));
+
+        assertEquals(0, tagIndex.count(10L));
+        assertEquals(3, tagIndex.count(11L));
+    }
+}
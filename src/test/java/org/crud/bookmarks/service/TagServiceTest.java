@@ -0,0 +1,141 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.Bookmark;
+import org.crud.bookmarks.Tag;
+import org.crud.bookmarks.repository.BookmarkRepository;
+import org.crud.bookmarks.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TagServiceTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private BookmarkRepository bookmarkRepository;
+
+    @Mock
+    private TagIndex tagIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private TagService tagService;
+
+    private Tag testTag;
+
+    @BeforeEach
+    void setUp() {
+        testTag = new Tag("java");
+        testTag.setId(10L);
+    }
+
+    @Test
+    void createTag_WithDuplicateName_ShouldThrowException() {
+        when(tagRepository.save(any(Tag.class))).thenThrow(new DuplicateKeyException("uk_tag_name_key"));
+
+        assertThrows(DuplicateTagNameException.class, () -> tagService.createTag(new Tag("Java")));
+    }
+
+    @Test
+    void getAllTags_ShouldIncludeCountsFromIndex() {
+        when(tagRepository.findAllOrderByName()).thenReturn(List.of(testTag));
+        when(tagIndex.count(10L)).thenReturn(42L);
+
+        List<Tag> tags = tagService.getAllTags();
+
+        assertEquals(42L, tags.get(0).getBookmarkCount());
+    }
+
+    @Test
+    void setBookmarkTags_WithUnknownTag_ShouldThrowException() {
+        when(bookmarkRepository.existsById(1L)).thenReturn(true);
+        when(tagRepository.findAllById(any())).thenReturn(List.of(testTag));
+
+        assertThrows(IllegalArgumentException.class, () -> tagService.setBookmarkTags(1L, List.of(10L, 99L)));
+        verify(tagRepository, never()).removeAllTags(any());
+    }
+
+    @Test
+    void setBookmarkTags_ShouldReplaceTagsAndPublishAffectedTags() {
+        when(bookmarkRepository.existsById(1L)).thenReturn(true);
+        when(tagRepository.findAllById(any())).thenReturn(List.of(testTag));
+        when(tagRepository.findTagIdsByBookmarkId(1L)).thenReturn(List.of(11L));
+        when(tagRepository.findByBookmarkId(1L)).thenReturn(List.of(testTag));
+
+        Optional<List<Tag>> tags = tagService.setBookmarkTags(1L, List.of(10L));
+
+        assertEquals(List.of(testTag), tags.orElseThrow());
+        verify(tagRepository).removeAllTags(1L);
+        verify(tagRepository).addTags(1L, Set.of(10L));
+        verify(eventPublisher).publishEvent(TagChangeEvent.membership(Set.of(10L, 11L), List.of(1L)));
+    }
+
+    @Test
+    void setBookmarkTags_WhenBookmarkMissing_ShouldReturnEmpty() {
+        when(bookmarkRepository.existsById(1L)).thenReturn(false);
+
+        assertTrue(tagService.setBookmarkTags(1L, List.of(10L)).isEmpty());
+    }
+
+    @Test
+    void tagBookmarks_ShouldInsertInChunks() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= TagService.BULK_CHUNK_SIZE + 1; id++) {
+            ids.add(id);
+        }
+        when(tagRepository.existsById(10L)).thenReturn(true);
+        when(tagRepository.addBookmarks(eq(10L), anyCollection())).thenReturn(TagService.BULK_CHUNK_SIZE, 1);
+
+        Optional<Integer> tagged = tagService.tagBookmarks(10L, ids);
+
+        assertEquals(TagService.BULK_CHUNK_SIZE + 1, tagged.orElseThrow());
+        verify(eventPublisher, times(2)).publishEvent(any(TagChangeEvent.class));
+    }
+
+    @Test
+    void queryBookmarks_ShouldPageThroughMatchingIds() {
+        Bookmark first = new Bookmark("First", "https://first.com");
+        first.setId(7L);
+        Bookmark second = new Bookmark("Second", "https://second.com");
+        second.setId(9L);
+        when(tagIndex.isReady()).thenReturn(true);
+        when(tagIndex.query(List.of(10L), List.of(), List.of(), null)).thenReturn(CompressedBitmap.of(1, 3, 7, 9));
+        when(bookmarkRepository.findAllById(List.of(7L, 9L))).thenReturn(List.of(second, first));
+
+        Page<Bookmark> page = tagService.queryBookmarks(List.of(10L), null, null, null, PageRequest.of(1, 2));
+
+        assertEquals(4, page.getTotalElements());
+        assertEquals(List.of(first, second), page.getContent());
+    }
+
+    @Test
+    void queryBookmarks_WhenIndexLoading_ShouldThrowException() {
+        when(tagIndex.isReady()).thenReturn(false);
+
+        assertThrows(IllegalStateException.class,
+                () -> tagService.queryBookmarks(List.of(10L), null, null, null, PageRequest.of(0, 20)));
+    }
+}
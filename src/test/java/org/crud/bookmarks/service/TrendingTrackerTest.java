@@ -0,0 +1,89 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.service.TrendingTracker.Trend;
+import org.crud.bookmarks.service.TrendingTracker.Window;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendingTrackerTest {
+
+    private long now = Duration.ofDays(1000).toMillis();
+    private final TrendingTracker tracker = new TrendingTracker(3, () -> now);
+
+    private void visit(long id, int times) {
+        tracker.onVisitsFlushed(new VisitsFlushedEvent(List.of(
+                new VisitsFlushedEvent.BookmarkVisits(id, times, LocalDateTime.now()))));
+    }
+
+    @Test
+    void top_ShouldRankByVisitsInWindow() {
+        visit(1, 2);
+        visit(2, 5);
+        visit(3, 1);
+
+        assertEquals(List.of(new Trend(2, 5, 5), new Trend(1, 2, 2)), tracker.top(Window.HOUR, 2));
+    }
+
+    @Test
+    void top_ShouldMergeBucketsAndDropExpiredOnes() {
+        visit(1, 3);
+        now += Duration.ofMinutes(30).toMillis();
+        visit(2, 2);
+        visit(1, 1);
+
+        assertEquals(List.of(new Trend(1, 4, 4), new Trend(2, 2, 2)), tracker.top(Window.HOUR, 3));
+
+        now += Duration.ofMinutes(45).toMillis();
+        assertEquals(List.of(new Trend(2, 2, 2), new Trend(1, 1, 1)), tracker.top(Window.HOUR, 3));
+        assertEquals(List.of(new Trend(1, 4, 4), new Trend(2, 2, 2)), tracker.top(Window.DAY, 3));
+
+        now += Duration.ofDays(1).toMillis();
+        assertEquals(List.of(), tracker.top(Window.DAY, 3));
+    }
+
+    @Test
+    void top_WhenBucketOverflows_ShouldReportBounds() {
+        visit(1, 5);
+        visit(2, 4);
+        visit(3, 3);
+        // Evicts 3, the minimum; 4 inherits its count as error
+        visit(4, 1);
+
+        List<Trend> top = tracker.top(Window.HOUR, 3);
+
+        assertEquals(new Trend(1, 5, 5), top.get(0));
+        assertEquals(new Trend(2, 4, 4), top.get(1));
+        assertEquals(new Trend(4, 4, 1), top.get(2));
+    }
+
+    @Test
+    void onVisitsFlushed_ShouldCountEveryBookmarkOfTheBatch() {
+        tracker.onVisitsFlushed(new VisitsFlushedEvent(List.of(
+                new VisitsFlushedEvent.BookmarkVisits(1, 2, LocalDateTime.now()),
+                new VisitsFlushedEvent.BookmarkVisits(2, 4, LocalDateTime.now()))));
+        visit(1, 3);
+
+        assertEquals(List.of(new Trend(1, 5, 5), new Trend(2, 4, 4)), tracker.top(Window.HOUR, 3));
+        assertEquals(List.of(new Trend(1, 5, 5), new Trend(2, 4, 4)), tracker.top(Window.DAY, 3));
+    }
+
+    @Test
+    void top_WithInvalidK_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> tracker.top(Window.HOUR, 0));
+        assertThrows(IllegalArgumentException.class, () -> tracker.top(Window.HOUR, 4));
+    }
+
+    @Test
+    void parse_ShouldAcceptSupportedWindows() {
+        assertEquals(Window.HOUR, Window.parse("1h"));
+        assertEquals(Window.DAY, Window.parse("1D"));
+        assertEquals(Window.DAY, Window.parse("24h"));
+        assertThrows(IllegalArgumentException.class, () -> Window.parse("7d"));
+        assertThrows(IllegalArgumentException.class, () -> Window.parse(null));
+    }
+}
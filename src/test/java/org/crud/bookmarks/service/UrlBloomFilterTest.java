@@ -0,0 +1,79 @@
+package org.crud.bookmarks.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link UrlBloomFilter}.
+ */
+class UrlBloomFilterTest {
+
+    @Test
+    void constructor_ShouldSizeForExpectedInsertionsAndRate() {
+        UrlBloomFilter filter = new UrlBloomFilter(1_000_000, 0.01);
+
+        // m = -n ln p / (ln 2)^2 = 9,585,059 bits, rounded up to whole words; k = m / n ln 2 = 7
+        assertEquals(9_585_088, filter.getBitCount());
+        assertEquals(7, filter.getHashFunctions());
+    }
+
+    @Test
+    void constructor_WithLowerRate_ShouldUseMoreBitsAndHashFunctions() {
+        UrlBloomFilter onePercent = new UrlBloomFilter(10_000, 0.01);
+        UrlBloomFilter oneInThousand = new UrlBloomFilter(10_000, 0.001);
+
+        assertEquals(0, onePercent.getBitCount() % 64);
+        assertTrue(oneInThousand.getBitCount() > onePercent.getBitCount());
+        assertEquals(10, oneInThousand.getHashFunctions());
+    }
+
+    @Test
+    void constructor_WithNoExpectedInsertions_ShouldStillWork() {
+        UrlBloomFilter filter = new UrlBloomFilter(0, 0.01);
+        filter.add(42);
+
+        assertTrue(filter.getBitCount() >= 64);
+        assertTrue(filter.getHashFunctions() >= 1);
+        assertTrue(filter.mightContain(42));
+    }
+
+    @Test
+    void mightContain_ShouldHaveNoFalseNegatives() {
+        UrlBloomFilter filter = new UrlBloomFilter(50_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add(UrlNormalizer.normalizedHash("https://example.com/page/" + i));
+        }
+
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(filter.mightContain(UrlNormalizer.normalizedHash("https://example.com/page/" + i)));
+        }
+    }
+
+    @Test
+    void mightContain_AtExpectedInsertions_ShouldStayNearTargetFalsePositiveRate() {
+        UrlBloomFilter filter = new UrlBloomFilter(50_000, 0.01);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add(UrlNormalizer.normalizedHash("https://example.com/page/" + i));
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(UrlNormalizer.normalizedHash("https://other.example.org/" + i))) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 0.015, "False positive rate too high: " + rate);
+    }
+
+    @Test
+    void mightContain_WhenEmpty_ShouldReturnFalse() {
+        UrlBloomFilter filter = new UrlBloomFilter(1_000, 0.01);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(filter.mightContain(UrlNormalizer.normalizedHash("https://example.com/" + i)));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.crud.bookmarks.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link UrlNormalizer} and {@link UrlBloomFilter}.
+ */
+class UrlNormalizerTest {
+
+    @Test
+    void normalize_ShouldLowerCaseSchemeAndHost() {
+        assertEquals("https://example.com/Path", UrlNormalizer.normalize("HTTPS://Example.COM/Path"));
+    }
+
+    @Test
+    void normalize_ShouldDropDefaultPortAndTrailingSlash() {
+        assertEquals("https://example.com/docs", UrlNormalizer.normalize("https://example.com:443/docs/"));
+        assertEquals("http://example.com:8080/docs", UrlNormalizer.normalize("http://example.com:8080/docs/"));
+        assertEquals("https://example.com", UrlNormalizer.normalize("https://example.com/"));
+    }
+
+    @Test
+    void normalize_ShouldStripTrackingParametersAndFragment() {
+        assertEquals("https://example.com/article?id=5&page=2",
+                UrlNormalizer.normalize("https://example.com/article?utm_source=news&page=2&fbclid=abc&id=5#comments"));
+    }
+
+    @Test
+    void normalize_WithUnparseableUrl_ShouldReturnTrimmedInput() {
+        assertEquals("not a url", UrlNormalizer.normalize("  not a url "));
+    }
+
+    @Test
+    void normalizedHash_ShouldMatchForEquivalentUrls() {
+        assertEquals(UrlNormalizer.normalizedHash("https://Example.com:443/a/?utm_campaign=x"),
+                UrlNormalizer.normalizedHash("https://example.com/a"));
+        assertNotEquals(UrlNormalizer.normalizedHash("https://example.com/a"),
+                UrlNormalizer.normalizedHash("https://example.com/b"));
+    }
+
+    @Test
+    void host_ShouldReturnLowerCaseHost() {
+        assertEquals("blog.example.com", UrlNormalizer.host("https://Blog.Example.COM:8443/a?b=c"));
+        assertNull(UrlNormalizer.host("not a url"));
+        assertNull(UrlNormalizer.host("mailto:someone@example.com"));
+    }
+
+    @Test
+    void registrableDomain_ShouldStripSubdomains() {
+        assertEquals("example.com", UrlNormalizer.registrableDomain("a.b.example.com"));
+        assertEquals("example.com", UrlNormalizer.registrableDomain("example.com"));
+        assertEquals("example.co.uk", UrlNormalizer.registrableDomain("www.example.co.uk"));
+        assertEquals("example.io", UrlNormalizer.registrableDomain("docs.example.io"));
+        assertEquals("192.168.1.10", UrlNormalizer.registrableDomain("192.168.1.10"));
+        assertEquals("localhost", UrlNormalizer.registrableDomain("localhost"));
+    }
+
+    @Test
+    void bloomFilter_ShouldContainAddedHashes() {
+        UrlBloomFilter filter = new UrlBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UrlNormalizer.normalizedHash("https://example.com/" + i));
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(UrlNormalizer.normalizedHash("https://example.com/" + i)));
+        }
+        int falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (filter.mightContain(UrlNormalizer.normalizedHash("https://example.com/" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "False positive rate too high: " + falsePositives);
+    }
+}
@@ -0,0 +1,159 @@
+package org.crud.bookmarks.service;
+
+import org.crud.bookmarks.repository.BookmarkBulkRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.JdbcProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link VisitCounter} against an embedded H2 database. The flush interval is long
+ * enough that only explicit flushes run.
+ */
+class VisitCounterTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private List<Object> events;
+    private VisitCounter visitCounter;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("schema.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        events = new ArrayList<>();
+        visitCounter = new VisitCounter(new BookmarkBulkRepository(jdbcTemplate, new JdbcProperties()),
+                events::add, Duration.ofHours(1));
+
+        for (long id = 1; id <= 2; id++) {
+            jdbcTemplate.update("INSERT INTO bookmarks (id, title, url) VALUES (?, ?, ?)",
+                    id, "Bookmark " + id, "https://host" + id + ".com/");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        visitCounter.shutdown();
+        database.shutdown();
+    }
+
+    private long visitCount(long id) {
+        return jdbcTemplate.queryForObject("SELECT visit_count FROM bookmarks WHERE id = ?", Long.class, id);
+    }
+
+    @Test
+    void flush_ShouldAddCountedVisits() {
+        visitCounter.record(1L);
+        visitCounter.record(1L);
+        visitCounter.record(2L);
+
+        assertEquals(3, visitCounter.pendingVisits());
+        assertEquals(0, visitCount(1));
+        assertEquals(2, visitCounter.flush());
+        assertEquals(2, visitCount(1));
+        assertEquals(1, visitCount(2));
+        assertNotNull(jdbcTemplate.queryForObject("SELECT last_visited_at FROM bookmarks WHERE id = 1", Object.class));
+        assertEquals(0, visitCounter.pendingVisits());
+
+        visitCounter.record(1L);
+        visitCounter.flush();
+        assertEquals(3, visitCount(1));
+    }
+
+    @Test
+    void flush_ShouldPublishWrittenVisits() {
+        visitCounter.record(1L);
+        visitCounter.record(1L);
+        visitCounter.flush();
+        visitCounter.flush();
+
+        assertEquals(1, events.size());
+        VisitsFlushedEvent.BookmarkVisits visits = ((VisitsFlushedEvent) events.get(0)).visits().get(0);
+        assertEquals(1L, visits.bookmarkId());
+        assertEquals(2L, visits.count());
+        assertEquals(jdbcTemplate.queryForObject("SELECT last_visited_at FROM bookmarks WHERE id = 1", LocalDateTime.class),
+                visits.lastVisitedAt());
+    }
+
+    @Test
+    void flushedVisits_ShouldFeedTrendingTracker() {
+        TrendingTracker trendingTracker = new TrendingTracker(100);
+        visitCounter.record(2L);
+        visitCounter.record(2L);
+        visitCounter.record(1L);
+        visitCounter.flush();
+
+        events.forEach(event -> trendingTracker.onVisitsFlushed((VisitsFlushedEvent) event));
+
+        List<TrendingTracker.Trend> top = trendingTracker.top(TrendingTracker.Window.HOUR, 1);
+        assertEquals(List.of(new TrendingTracker.Trend(2, 2, 2)), top);
+    }
+
+    @Test
+    void flush_WithoutNewVisits_ShouldWriteNothing() {
+        visitCounter.record(1L);
+        visitCounter.flush();
+
+        assertEquals(0, visitCounter.flush());
+        assertEquals(0, visitCounter.flush());
+        assertEquals(1, visitCount(1));
+    }
+
+    @Test
+    void flush_ShouldNotBumpVersion() {
+        visitCounter.record(1L);
+        visitCounter.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT version FROM bookmarks WHERE id = 1", Long.class));
+    }
+
+    @Test
+    void flush_WithDeletedBookmark_ShouldSkipIt() {
+        visitCounter.record(1L);
+        visitCounter.record(3L);
+
+        visitCounter.flush();
+
+        assertEquals(1, visitCount(1));
+        assertEquals(0, visitCounter.pendingVisits());
+    }
+
+    @Test
+    void record_FromConcurrentThreads_ShouldCountEveryVisit() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    visitCounter.record(1L);
+                    if (j % 100 == 0) {
+                        visitCounter.flush();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        visitCounter.flush();
+        visitCounter.flush();
+
+        assertEquals(8000, visitCount(1));
+    }
+}